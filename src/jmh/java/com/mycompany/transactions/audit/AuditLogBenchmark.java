@@ -0,0 +1,118 @@
+package com.mycompany.transactions.audit;
+
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of recording every transaction of the synchronized engine, by {@code audit}:
+ * <ul>
+ * <li> {@code off}: no record.
+ * <li> {@code lossy} and {@code lossless}: the {@link TransactionsAuditLog}, by policy, into a temporary directory.
+ * <li> {@code text}: formatting a line and writing it to a shared buffered file under a lock, as a synchronous
+ *      logging appender does, and as the engine's trace logging did.
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditLogBenchmark {
+
+    private static final BigDecimal amount = new BigDecimal("12.50");
+
+    @Param({"off", "lossy", "lossless", "text"})
+    private String audit;
+
+    private Path                    directory;
+    private TransactionsManagerImpl manager;
+    private TransactionsAuditLog    auditLog;
+    private BufferedWriter          text;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit");
+        manager = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, SlidingWindow.DEFAULT);
+        if ("lossy".equals(audit) || "lossless".equals(audit)) {
+            auditLog = new TransactionsAuditLog(directory, TransactionsAuditLog.Policy.valueOf(audit.toUpperCase()),
+                                                65_536, 64 * 1024 * 1024, 2, 10);
+            manager.setAuditLog(auditLog);
+        }
+        else if ("text".equals(audit)) {
+            text = Files.newBufferedWriter(directory.resolve("audit.txt"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (auditLog != null) {
+            auditLog.close();
+        }
+        if (text != null) {
+            text.close();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ProcessingError ingest() {
+        return ingest(new Transaction(amount, Instant.now()));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ProcessingError ingest8() {
+        return ingest(new Transaction(amount, Instant.now()));
+    }
+
+    private ProcessingError ingest(Transaction transaction) {
+        ProcessingError processingError = manager.tryCreateTransaction(transaction);
+        if (text != null) {
+            String line = String.format("Transaction persisted at %s with details: %s", Instant.now(), transaction);
+            synchronized (text) {
+                try {
+                    text.write(line);
+                    text.newLine();
+                }
+                catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+        return processingError;
+    }
+}
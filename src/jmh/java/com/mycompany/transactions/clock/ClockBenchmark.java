@@ -0,0 +1,45 @@
+package com.mycompany.transactions.clock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the time, once per transaction, from the system clock or from a {@link CoarseClock}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+
+    private final Clock       system = Clock.systemUTC();
+    private final CoarseClock coarse = new CoarseClock(1);
+
+    @TearDown
+    public void tearDown() {
+        coarse.close();
+    }
+
+    @Benchmark
+    public long system() {
+        return system.millis();
+    }
+
+    @Benchmark
+    public long coarse() {
+        return coarse.millis();
+    }
+}
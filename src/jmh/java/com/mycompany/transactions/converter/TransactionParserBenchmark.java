@@ -0,0 +1,54 @@
+package com.mycompany.transactions.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.model.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body to {@link Transaction}: the former Jackson {@link TransactionDto} binding plus
+ * {@code BigDecimal(String)}/{@code Instant.parse}, against {@link TransactionParser}; and the DTO-to-model transform
+ * alone, as {@code TransactionsResource} does for every transaction of a batch.
+ * Run with {@code -prof gc} to compare allocations per operation as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionParserBenchmark {
+
+    private final ObjectMapper   objectMapper = new ObjectMapper();
+    private final byte[]         body         = "{\"amount\":\"12.3343\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private final TransactionDto dto          = new TransactionDto("12.3343", "2018-07-17T09:59:51.312Z");
+
+    @Benchmark
+    public Transaction jacksonDtoPath() throws IOException {
+        return TransactionParser.transform(objectMapper.readValue(body, TransactionDto.class));
+    }
+
+    @Benchmark
+    public Transaction dtoToModel() {
+        return TransactionParser.transform(dto);
+    }
+
+    @Benchmark
+    public Transaction streamingParserPath() {
+        return TransactionParser.parse(body, body.length);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mycompany.transactions.converter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a batch of {@link #BATCH} transactions, as {@code POST /transactions/batch} does, from a JSON array bound to
+ * {@link TransactionDto}s then transformed, against {@link TransactionBatchCodec} records; and encoding the statistics
+ * as JSON or binary. Times are per transaction; the bytes per transaction of each form are printed on setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[]                      json;
+    private byte[]                      binary;
+    private BigDecimalSummaryStatistics statistics;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Transaction> transactions = new ArrayList<>(BATCH);
+        List<TransactionDto> transactionDtos = new ArrayList<>(BATCH);
+        statistics = new BigDecimalSummaryStatistics(2, RoundingMode.HALF_UP);
+        long now = Instant.parse("2018-07-17T09:59:51.312Z").toEpochMilli();
+        for (int i = 0; i < BATCH; i++) {
+            BigDecimal amount = BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(1, 1_000_000), 2);
+            Instant timestamp = Instant.ofEpochMilli(now - ThreadLocalRandom.current().nextInt(60_000));
+            transactions.add(new Transaction(amount, timestamp));
+            transactionDtos.add(new TransactionDto(amount.toString(), timestamp.toString()));
+            statistics.accept(amount);
+        }
+        json = objectMapper.writeValueAsBytes(transactionDtos);
+        binary = TransactionBatchCodec.encode(transactions, BATCH);
+
+        System.out.printf("%nBytes per transaction: json %.1f, binary %.1f; statistics: json %d, binary %d%n",
+                          (double) json.length / BATCH, (double) binary.length / BATCH,
+                          objectMapper.writeValueAsBytes(StatisticsDto.from(statistics)).length,
+                          TransactionBatchCodec.encodeStatistics(statistics).length);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void jsonBatch(Blackhole blackhole) throws IOException {
+        List<TransactionDto> transactionDtos = objectMapper.readValue(json, new TypeReference<List<TransactionDto>>() {
+        });
+        for (TransactionDto transactionDto : transactionDtos) {
+            blackhole.consume(TransactionParser.transform(transactionDto));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void binaryBatch(Blackhole blackhole) throws IOException {
+        ByteBuffer batch = ByteBuffer.wrap(binary);
+        int count = TransactionBatchCodec.count(batch);
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(TransactionBatchCodec.decode(batch, i));
+        }
+    }
+
+    @Benchmark
+    public byte[] jsonStatistics() throws IOException {
+        return objectMapper.writeValueAsBytes(StatisticsDto.from(statistics));
+    }
+
+    @Benchmark
+    public byte[] binaryStatistics() {
+        return TransactionBatchCodec.encodeStatistics(statistics);
+    }
+}
@@ -0,0 +1,109 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Rejection-heavy ingestion, {@code rejected} percent of the transactions being late retries, through:
+ * <ul>
+ * <li> {@code newException}: the former path, a new {@link TransactionProcessingException} with its stack trace per
+ *      rejection, thrown {@code depth} frames down as if from under the servlet and Spring MVC stack.
+ * <li> {@code sharedException}: {@link TransactionsManager#createTransaction(Transaction)}, throwing the shared
+ *      stackless exception.
+ * <li> {@code outcome}: {@link TransactionsManager#tryCreateTransaction(Transaction)}, which
+ *      {@code TransactionsResource} maps to a status without throwing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionBenchmark {
+
+    @Param({"50", "90"})
+    private int rejected;
+
+    @Param({"0", "100"})
+    private int depth;
+
+    private static final BigDecimal amount = new BigDecimal("12.50");
+
+    private final TransactionsManager manager = new TransactionsManagerImpl();
+    private final boolean[]           late    = new boolean[100];
+    private final Transaction         retry   = new Transaction(amount, Instant.now().minusSeconds(3_600));
+    private       int                 next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < late.length; i++) {
+            late[i] = i % 100 < rejected;
+        }
+    }
+
+    @Benchmark
+    public int newException() {
+        try {
+            return nested(depth, () -> {
+                ProcessingError processingError = manager.tryCreateTransaction(nextTransaction());
+                if (processingError != null) {
+                    throw new TransactionProcessingException(processingError);
+                }
+                return 201;
+            });
+        }
+        catch (TransactionProcessingException ex) {
+            return ex.getHttpStatus();
+        }
+    }
+
+    @Benchmark
+    public int sharedException() {
+        try {
+            return nested(depth, () -> {
+                manager.createTransaction(nextTransaction());
+                return 201;
+            });
+        }
+        catch (TransactionProcessingException ex) {
+            return ex.getHttpStatus();
+        }
+    }
+
+    @Benchmark
+    public int outcome() {
+        return nested(depth, () -> {
+            ProcessingError processingError = manager.tryCreateTransaction(nextTransaction());
+            return processingError != null ? processingError.getHttpStatus() : 201;
+        });
+    }
+
+    private Transaction nextTransaction() {
+        return late[next++ % late.length] ? retry : new Transaction(amount, Instant.now());
+    }
+
+    /**
+     * Ingests {@code depth} frames down, the status being answered from the top.
+     */
+    private int nested(int depth, IntSupplier ingestion) {
+        return depth > 0 ? nested(depth - 1, ingestion) : ingestion.getAsInt();
+    }
+}
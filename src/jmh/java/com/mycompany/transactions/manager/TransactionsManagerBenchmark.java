@@ -0,0 +1,135 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TransactionsManager#createTransaction(Transaction)} at 1, 8 and 64 threads, and of
+ * {@link TransactionsManager#getTransactionStatistics()} under concurrent writes, for every engine and statistics type
+ * (only the synchronized and lock-free engines have a statistics type, the others' variants measure the same thing).
+ * <ul>
+ * <li> {@code same-second}: every transaction is stamped now, so all threads contend on the current bucket.
+ * <li> {@code spread}: transactions are stamped anywhere within the last 59 seconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionsManagerBenchmark {
+
+    private static final BigDecimal[] amounts = {
+            new BigDecimal("12.50"), new BigDecimal("0.99"), new BigDecimal("1024.10"), new BigDecimal("7")
+    };
+
+    @Param({"synchronized", "lock-free", "running-aggregate", "single-writer-apply", "single-writer-enqueue"})
+    private String engine;
+
+    @Param({"BIG_DECIMAL", "SCALED_LONG"})
+    private StatisticsType statisticsType;
+
+    @Param({"same-second", "spread"})
+    private String timestamps;
+
+    private TransactionsManager manager;
+
+    @Setup
+    public void setUp() {
+        switch (engine) {
+            case "lock-free":
+                manager = new LockFreeTransactionsManager(statisticsType, SlidingWindow.DEFAULT,
+                                                          Runtime.getRuntime().availableProcessors(),
+                                                          Clock.systemUTC());
+                break;
+            case "running-aggregate":
+                manager = new RunningAggregateTransactionsManager();
+                break;
+            case "single-writer-apply":
+                manager = new SingleWriterTransactionsManager(SlidingWindow.DEFAULT,
+                                                              SingleWriterTransactionsManager.AckMode.APPLY, 65_536);
+                break;
+            case "single-writer-enqueue":
+                manager = new SingleWriterTransactionsManager(SlidingWindow.DEFAULT,
+                                                              SingleWriterTransactionsManager.AckMode.ENQUEUE, 65_536);
+                break;
+            default:
+                manager = new TransactionsManagerImpl(statisticsType, SlidingWindow.DEFAULT);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            manager.createTransaction(nextTransaction());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (manager instanceof SingleWriterTransactionsManager) {
+            ((SingleWriterTransactionsManager) manager).shutdown();
+        }
+        if (manager instanceof RunningAggregateTransactionsManager) {
+            ((RunningAggregateTransactionsManager) manager).shutdown();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void createTransaction1Thread() {
+        manager.createTransaction(nextTransaction());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void createTransaction8Threads() {
+        manager.createTransaction(nextTransaction());
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void createTransaction64Threads() {
+        manager.createTransaction(nextTransaction());
+    }
+
+    @Benchmark
+    @Group("readUnderWrites")
+    @GroupThreads(1)
+    public SummaryStatistics getTransactionStatistics() {
+        return manager.getTransactionStatistics();
+    }
+
+    @Benchmark
+    @Group("readUnderWrites")
+    @GroupThreads(7)
+    public void createTransactionWhileReading() {
+        manager.createTransaction(nextTransaction());
+    }
+
+    private Transaction nextTransaction() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        long timestamp = "spread".equals(timestamps) ? now - random.nextInt(59_000) : now;
+        return new Transaction(amounts[random.nextInt(amounts.length)], Instant.ofEpochMilli(timestamp));
+    }
+}
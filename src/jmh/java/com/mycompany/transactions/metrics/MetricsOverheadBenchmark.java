@@ -0,0 +1,99 @@
+package com.mycompany.transactions.metrics;
+
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Overhead of {@link TransactionsMetrics} on the synchronized engine, with {@code metrics} {@code off} (no meters, as
+ * with {@code transactions.metrics.enabled=false}) or {@code on} (a Prometheus registry):
+ * <ul>
+ * <li> {@code ingest}: {@code tryCreateTransaction} and counting its outcome, as {@code POST /transactions} does,
+ *      a tenth of the transactions being late retries.
+ * <li> {@code read}: {@code getTransactionStatistics} over a full window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final BigDecimal amount = new BigDecimal("12.50");
+
+    @Param({"off", "on"})
+    private String metrics;
+
+    private TransactionsManagerImpl manager;
+    private TransactionsMetrics     transactionsMetrics;
+
+    private final Transaction retry = new Transaction(amount, Instant.now().minusSeconds(3_600));
+
+    @Setup
+    public void setUp() {
+        manager = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, SlidingWindow.DEFAULT);
+        if ("on".equals(metrics)) {
+            transactionsMetrics = new TransactionsMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+            manager.setMetrics(transactionsMetrics);
+        }
+        for (int i = 0; i < 60; i++) {
+            manager.createTransaction(new Transaction(amount, Instant.now().minusSeconds(i)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sequence {
+        private int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ProcessingError ingest(Sequence sequence) {
+        return ingest(sequence.next++);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ProcessingError ingest8(Sequence sequence) {
+        return ingest(sequence.next++);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public SummaryStatistics read() {
+        return manager.getTransactionStatistics();
+    }
+
+    private ProcessingError ingest(int next) {
+        ProcessingError processingError = manager.tryCreateTransaction(
+                next % 10 == 0 ? retry : new Transaction(amount, Instant.now()));
+        if (transactionsMetrics != null) {
+            transactionsMetrics.ingested(processingError);
+        }
+        return processingError;
+    }
+}
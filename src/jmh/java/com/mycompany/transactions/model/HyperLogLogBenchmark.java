@@ -0,0 +1,76 @@
+package com.mycompany.transactions.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest overhead of the distinct counts: hashing a card identifier alone, against also offering the hash to a
+ * bucket's {@link HyperLogLog}; and merging the 60 sketches of a default window to estimate, as
+ * {@code GET /statistics?distinct=card} does, per precision.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HyperLogLogBenchmark {
+
+    @Param({"12", "14"})
+    private int precision;
+
+    private final String[] cards = new String[1024];
+
+    private HyperLogLog   sketch;
+    private HyperLogLog[] buckets;
+    private int           next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < cards.length; i++) {
+            //16 digits, as a card number
+            cards[i] = String.format("%016d", Math.abs(random.nextLong()) % 10_000_000_000_000_000L);
+        }
+        sketch = new HyperLogLog(precision);
+        buckets = new HyperLogLog[60];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new HyperLogLog(precision);
+            for (int j = 0; j < 1_000; j++) {
+                buckets[i].accept(Long.toString(random.nextLong()));
+            }
+        }
+    }
+
+    @Benchmark
+    public long hash() {
+        return HyperLogLog.hash(cards[next++ & 1023]);
+    }
+
+    @Benchmark
+    public Object hashAndOffer() {
+        sketch.offer(HyperLogLog.hash(cards[next++ & 1023]));
+        return sketch;
+    }
+
+    @Benchmark
+    public long combineWindowEstimate() {
+        HyperLogLog result = new HyperLogLog(precision);
+        for (HyperLogLog bucket : buckets) {
+            result.combine(bucket);
+        }
+        return result.getEstimate();
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycompany.transactions.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest overhead of the percentiles: accepting an amount into a bucket's {@link BigDecimalSummaryStatistics} alone,
+ * against also accepting it into the bucket's {@link QuantileSketch}; and merging the 60 sketches of a default window
+ * to read p50/p95/p99, as {@code GET /statistics?percentiles=50,95,99} does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantileSketchBenchmark {
+
+    private final BigDecimal[] amounts = new BigDecimal[1024];
+
+    private BigDecimalSummaryStatistics statistics;
+    private QuantileSketch              sketch;
+    private QuantileSketch[]            buckets;
+    private int                         next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = BigDecimal.valueOf(Math.exp(3 + 2 * random.nextGaussian())).setScale(2, RoundingMode.HALF_UP);
+        }
+        statistics = new BigDecimalSummaryStatistics(2, RoundingMode.HALF_UP);
+        sketch = new QuantileSketch(2, RoundingMode.HALF_UP);
+        buckets = new QuantileSketch[60];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new QuantileSketch(2, RoundingMode.HALF_UP);
+            for (int j = 0; j < 1_000; j++) {
+                buckets[i].accept(amounts[random.nextInt(amounts.length)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object acceptStatistics() {
+        statistics.accept(amounts[next++ & 1023]);
+        return statistics;
+    }
+
+    @Benchmark
+    public Object acceptStatisticsAndSketch() {
+        BigDecimal amount = amounts[next++ & 1023];
+        statistics.accept(amount);
+        sketch.accept(amount);
+        return sketch;
+    }
+
+    @Benchmark
+    public BigDecimal combineWindowPercentiles() {
+        QuantileSketch result = new QuantileSketch(2, RoundingMode.HALF_UP);
+        for (QuantileSketch bucket : buckets) {
+            result.combine(bucket);
+        }
+        return result.getQuantile(0.5).add(result.getQuantile(0.95)).add(result.getQuantile(0.99));
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycompany.transactions.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SummaryStatistics#accept(BigDecimal)}, of {@link SummaryStatistics#accept(Transaction)} for a
+ * transaction carrying its unscaled amount as parsed by {@code TransactionParser}, and of combining the 60 buckets of a default window, as
+ * {@code getTransactionStatistics} does, for every {@link StatisticsType}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummaryStatisticsBenchmark {
+
+    private static final BigDecimal[] amounts = {
+            new BigDecimal("12.50"), new BigDecimal("0.99"), new BigDecimal("1024.10"), new BigDecimal("7")
+    };
+
+    private static final Transaction[] transactions = new Transaction[amounts.length];
+
+    static {
+        for (int i = 0; i < amounts.length; i++) {
+            transactions[i] = new Transaction(amounts[i], amounts[i].unscaledValue().longValue(), amounts[i].scale(),
+                                              Instant.now(), null, null);
+        }
+    }
+
+    @Param({"BIG_DECIMAL", "SCALED_LONG"})
+    private StatisticsType statisticsType;
+
+    private SummaryStatistics   statistics;
+    private SummaryStatistics[] buckets;
+    private int                 next;
+
+    @Setup
+    public void setUp() {
+        statistics = statisticsType.create(2, RoundingMode.HALF_UP);
+        buckets = new SummaryStatistics[60];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = statisticsType.create(2, RoundingMode.HALF_UP);
+            for (int j = 0; j < 100; j++) {
+                buckets[i].accept(amounts[j % amounts.length]);
+            }
+        }
+    }
+
+    @Benchmark
+    public SummaryStatistics accept() {
+        statistics.accept(amounts[next++ & 3]);
+        return statistics;
+    }
+
+    @Benchmark
+    public SummaryStatistics acceptTransaction() {
+        statistics.accept(transactions[next++ & 3]);
+        return statistics;
+    }
+
+    @Benchmark
+    public BigDecimal combineWindow() {
+        SummaryStatistics result = statisticsType.create(2, RoundingMode.HALF_UP);
+        for (SummaryStatistics bucket : buckets) {
+            result.combine(bucket);
+        }
+        return result.getAvg();
+    }
+}
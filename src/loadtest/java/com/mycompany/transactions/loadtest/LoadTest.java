@@ -0,0 +1,589 @@
+package com.mycompany.transactions.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.Application;
+import com.mycompany.transactions.exception.ProcessingError;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * End-to-end load test of {@code POST /transactions} and {@code GET /statistics} over HTTP, through Tomcat, Spring MVC
+ * and Jackson, against a running instance or one booted in-process on a random port:
+ * <ul>
+ * <li> Writers post a {@code mix} of valid, old, future and malformed transactions, each kind expecting its own status;
+ *      any other status fails the run, but a 503 of the admission control, counted as shed. Readers get the statistics
+ *      in a loop meanwhile.
+ * <li> In the {@link Model#CLOSED closed} model, every connection sends its next request once the previous one was
+ *      answered. Latencies are also reported corrected for coordinated omission, as if requests were due every median
+ *      latency of the warm-up.
+ * <li> In the {@link Model#OPEN open} model, requests are due at a constant {@code rate}, whatever the latency, and
+ *      their latency is measured from when they were due: a server falling behind delays the following requests,
+ *      which is counted instead of omitted.
+ * <li> Once the load stopped, the statistics must match the valid transactions the server accepted and still within
+ *      the window; transactions stamped too close to the window boundary when the statistics were read, or whose
+ *      request failed, are allowed either way.
+ * <li> A running instance given by {@code --url} is only cleared with {@code DELETE /transactions} when asked to by
+ *      {@code --reset}; without it, its statistics also hold transactions posted by others, so they're not checked.
+ * </ul>
+ * Usage: {@code LoadTest [--url=http://localhost:8080] [--reset] [--model=closed] [--connections=16] [--rate=2000]
+ * [--warmup=5s] [--duration=30s] [--readers=2] [--mix=valid:90,old:4,future:4,malformed:2] [--window=60s]
+ * [--max-p99=<duration>] [--min-throughput=<requests/s>] [-- application args...]}, exiting with 1 if the run failed
+ * its checks, so it can gate a release. It lives out of the application jar, run with
+ * {@code mvn -P loadtest test-compile exec:exec -Dloadtest.args="..."}.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public enum Model {
+        OPEN, CLOSED
+    }
+
+    /**
+     * Kinds of transactions posted, by the status they're expected to be answered with.
+     */
+    public enum Kind {
+        VALID(201),
+        OLD(ProcessingError.OLD_TRANSACTION.getHttpStatus()),
+        FUTURE(ProcessingError.FUTURE_TRANSACTION.getHttpStatus()),
+        MALFORMED(ProcessingError.UNPARSEABLE_TRANSACTION.getHttpStatus());
+
+        private final int status;
+
+        Kind(int status) {
+            this.status = status;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Options {
+        //null to boot the application in-process
+        private String             url;
+        //clears the instance at url before the run, and checks its statistics after
+        private boolean            reset;
+        private Model              model          = Model.CLOSED;
+        private int                connections    = 16;
+        //open model only, requests per second
+        private int                rate           = 2_000;
+        private long               warmupMillis   = 5_000;
+        private long               durationMillis = 30_000;
+        private int                readers        = 2;
+        private Map<Kind, Integer> mix            = parseMix("valid:90,old:4,future:4,malformed:2");
+        private long               windowMillis   = 60_000;
+        //0 for no gate
+        private long               maxP99Micros;
+        private double             minThroughput;
+        private List<String>       applicationArgs = new ArrayList<>();
+    }
+
+    @Getter
+    public static class Report {
+        private final Options         options;
+        private final Histogram       writes          = new Histogram(3);
+        private final Histogram       uncorrected     = new Histogram(3);
+        private final Histogram       reads           = new Histogram(3);
+        private final Map<Kind, Long> sent            = new EnumMap<>(Kind.class);
+        private       long            failures;
+        private       long            unexpected;
+        private       long            shed;
+        private       long            measuredNanos;
+        private       long            count;
+        private       long            minCount;
+        private       long            maxCount;
+        private       BigDecimal      sum;
+        private       BigDecimal      minSum;
+        private       BigDecimal      maxSum;
+        private       boolean         verified;
+        private final List<String>    failedChecks    = new ArrayList<>();
+
+        private Report(Options options) {
+            this.options = options;
+        }
+
+        /**
+         * @return write requests answered per second, during the measured phase.
+         */
+        public double getThroughput() {
+            return measuredNanos == 0 ? 0 : writes.getTotalCount() * 1e9 / measuredNanos;
+        }
+
+        public boolean isPassed() {
+            return failedChecks.isEmpty();
+        }
+
+        public void print(PrintStream out) {
+            out.printf("model:        %s, %d connections%s, %d s after %d s of warm-up%n",
+                       options.getModel().name().toLowerCase(), options.getConnections(),
+                       options.getModel() == Model.OPEN ? " at " + options.getRate() + " requests/s" : "",
+                       TimeUnit.MILLISECONDS.toSeconds(options.getDurationMillis()),
+                       TimeUnit.MILLISECONDS.toSeconds(options.getWarmupMillis()));
+            out.printf("writes:       %d requests %s, %.0f requests/s, %d failed, %d unexpected, %d shed%n",
+                       writes.getTotalCount(), sent, getThroughput(), failures, unexpected, shed);
+            print(out, "  latency    ", writes);
+            if (options.getModel() == Model.CLOSED) {
+                print(out, "  uncorrected", uncorrected);
+            }
+            out.printf("reads:        %d requests%n", reads.getTotalCount());
+            print(out, "  latency    ", reads);
+            if (verified) {
+                out.printf("statistics:   count %d (expected %d..%d), sum %s (expected %s..%s)%n", count, minCount,
+                           maxCount, sum, minSum, maxSum);
+            }
+            else {
+                out.println("statistics:   not checked, the target wasn't reset");
+            }
+            out.println(isPassed() ? "PASSED" : "FAILED: " + String.join(", ", failedChecks));
+        }
+
+        private static void print(PrintStream out, String name, Histogram histogram) {
+            out.printf("%s p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n", name,
+                       histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                       histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String... args) throws Exception {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++) {
+            if ("--".equals(args[i])) {
+                options.getApplicationArgs().addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            }
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "url":
+                    options.setUrl(value);
+                    break;
+                case "reset":
+                    options.setReset(true);
+                    break;
+                case "model":
+                    options.setModel(Model.valueOf(value.toUpperCase()));
+                    break;
+                case "connections":
+                    options.setConnections(Integer.parseInt(value));
+                    break;
+                case "rate":
+                    options.setRate(Integer.parseInt(value));
+                    break;
+                case "warmup":
+                    options.setWarmupMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                case "duration":
+                    options.setDurationMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                case "readers":
+                    options.setReaders(Integer.parseInt(value));
+                    break;
+                case "mix":
+                    options.setMix(parseMix(value));
+                    break;
+                case "window":
+                    options.setWindowMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                case "max-p99":
+                    options.setMaxP99Micros(DurationStyle.detectAndParse(value).toNanos() / 1_000);
+                    break;
+                case "min-throughput":
+                    options.setMinThroughput(Double.parseDouble(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Report report = run(options);
+        report.print(System.out);
+        System.exit(report.isPassed() ? 0 : 1);
+    }
+
+    /**
+     * @param mix eg: {@code valid:90,old:4,future:4,malformed:2}, weights of each kind of transaction.
+     */
+    public static Map<Kind, Integer> parseMix(String mix) {
+        Map<Kind, Integer> weights = new EnumMap<>(Kind.class);
+        for (String weight : mix.split(",")) {
+            String[] kindAndWeight = weight.trim().split(":");
+            weights.put(Kind.valueOf(kindAndWeight[0].toUpperCase()), Integer.parseInt(kindAndWeight[1]));
+        }
+        return weights;
+    }
+
+    public static Report run(Options options) throws Exception {
+        ConfigurableApplicationContext context = null;
+        String url = options.getUrl();
+        if (url == null) {
+            List<String> args = new ArrayList<>(options.getApplicationArgs());
+            args.add(0, "--server.port=0");
+            context = Application.run(args.toArray(new String[0]));
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        //keep-alive connections of every worker are reused instead of being closed past the default of 5
+        System.setProperty("http.maxConnections", String.valueOf(options.getConnections() + options.getReaders()));
+
+        try {
+            return new Run(options, url).call();
+        }
+        finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * State of one run, shared by its writer and reader threads.
+     */
+    private static final class Run {
+        private final Options  options;
+        private final URL      transactions;
+        private final URL      statistics;
+        private final Kind[]   kinds;
+        private final Recorder warmup      = new Recorder(3);
+        private final Recorder writes      = new Recorder(3);
+        private final Recorder uncorrected = new Recorder(3);
+        private final Recorder reads       = new Recorder(3);
+        private final Report   report;
+
+        private final    AtomicLong sequence     = new AtomicLong();
+        private final    AtomicLong readFailures = new AtomicLong();
+        private final    long       startNanos;
+        private final    long       measureNanos;
+        private final    long       endNanos;
+        //closed model, once warmed up
+        private volatile long       expectedIntervalNanos;
+
+        private Run(Options options, String url) throws IOException {
+            this.options = options;
+            this.transactions = new URL(url + "/transactions");
+            this.statistics = new URL(url + "/statistics");
+            this.report = new Report(options);
+
+            List<Kind> weighted = new ArrayList<>();
+            options.getMix().forEach((kind, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    weighted.add(kind);
+                }
+            });
+            this.kinds = weighted.toArray(new Kind[0]);
+
+            this.startNanos = System.nanoTime();
+            this.measureNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(options.getWarmupMillis());
+            this.endNanos = measureNanos + TimeUnit.MILLISECONDS.toNanos(options.getDurationMillis());
+        }
+
+        private Report call() throws Exception {
+            //an in-process application starts empty
+            report.verified = options.getUrl() == null || options.isReset();
+            if (options.isReset()) {
+                send("DELETE", transactions, null);
+            }
+
+            List<Writer> writers = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < options.getConnections(); i++) {
+                Writer writer = new Writer();
+                writers.add(writer);
+                threads.add(new Thread(writer, "load-test-writer-" + i));
+            }
+            for (int i = 0; i < options.getReaders(); i++) {
+                threads.add(new Thread(this::read, "load-test-reader-" + i));
+            }
+            threads.forEach(Thread::start);
+
+            //requests are measured once due past the warm-up
+            sleepUntil(measureNanos);
+            Histogram warmedUp = warmup.getIntervalHistogram();
+            expectedIntervalNanos = warmedUp.getTotalCount() == 0 ? 0 : warmedUp.getValueAtPercentile(50);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            report.measuredNanos = System.nanoTime() - measureNanos;
+            report.writes.add(writes.getIntervalHistogram());
+            report.uncorrected.add(uncorrected.getIntervalHistogram());
+            report.reads.add(reads.getIntervalHistogram());
+            report.failures = readFailures.get();
+            for (Writer writer : writers) {
+                writer.sent.forEach((kind, count) -> report.sent.merge(kind, count, Long::sum));
+                report.failures += writer.failures;
+                report.unexpected += writer.unexpected;
+                report.shed += writer.shed;
+            }
+
+            verify(writers);
+            return report;
+        }
+
+        private void verify(List<Writer> writers) throws IOException {
+            if (report.verified) {
+                verifyStatistics(writers);
+            }
+            if (report.unexpected > 0) {
+                report.failedChecks.add(report.unexpected + " unexpected statuses");
+            }
+            if (report.failures > 0) {
+                report.failedChecks.add(report.failures + " failed requests");
+            }
+            if (options.getMaxP99Micros() > 0
+                && report.writes.getValueAtPercentile(99) > options.getMaxP99Micros() * 1_000) {
+                report.failedChecks.add("p99 over " + options.getMaxP99Micros() + " us");
+            }
+            if (report.getThroughput() < options.getMinThroughput()) {
+                report.failedChecks.add("throughput under " + options.getMinThroughput() + " requests/s");
+            }
+        }
+
+        /**
+         * Compares the statistics to the accepted transactions, those stamped within the read's uncertainty of the
+         * window boundary, or of unknown outcome, being allowed either way.
+         */
+        private void verifyStatistics(List<Writer> writers) throws IOException {
+            long before = System.currentTimeMillis();
+            JsonNode json = objectMapper.readTree(send("GET", statistics, null).body);
+            long after = System.currentTimeMillis();
+
+            long minCount = 0;
+            long maxCount = 0;
+            long minCents = 0;
+            long maxCents = 0;
+            for (Writer writer : writers) {
+                for (int i = 0; i < writer.accepted.size; i++) {
+                    long timestamp = writer.accepted.timestamps[i];
+                    long cents = writer.accepted.cents[i];
+                    if (after - timestamp < options.getWindowMillis()) {
+                        minCount++;
+                        minCents += cents;
+                    }
+                    if (before - timestamp < options.getWindowMillis()) {
+                        maxCount++;
+                        maxCents += cents;
+                    }
+                }
+                for (int i = 0; i < writer.unknown.size; i++) {
+                    if (before - writer.unknown.timestamps[i] < options.getWindowMillis()) {
+                        maxCount++;
+                        maxCents += writer.unknown.cents[i];
+                    }
+                }
+            }
+            report.count = json.get("count").asLong();
+            report.sum = new BigDecimal(json.get("sum").asText());
+            report.minCount = minCount;
+            report.maxCount = maxCount;
+            report.minSum = BigDecimal.valueOf(minCents, 2);
+            report.maxSum = BigDecimal.valueOf(maxCents, 2);
+
+            if (report.count < minCount || report.count > maxCount
+                || report.sum.compareTo(report.minSum) < 0 || report.sum.compareTo(report.maxSum) > 0) {
+                report.failedChecks.add("statistics don't match the accepted transactions");
+            }
+        }
+
+        private void read() {
+            while (System.nanoTime() - endNanos < 0) {
+                long start = System.nanoTime();
+                boolean measured = start - measureNanos >= 0;
+                try {
+                    send("GET", statistics, null);
+                    if (measured) {
+                        reads.recordValue(System.nanoTime() - start);
+                    }
+                }
+                catch (IOException ex) {
+                    if (measured) {
+                        readFailures.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        /**
+         * One connection posting transactions, remembering the valid ones accepted.
+         */
+        private final class Writer implements Runnable {
+            private final Map<Kind, Long> sent     = new EnumMap<>(Kind.class);
+            private final Transactions    accepted = new Transactions();
+            private final Transactions    unknown  = new Transactions();
+            private       long            failures;
+            private       long            unexpected;
+            private       long            shed;
+
+            @Override
+            public void run() {
+                long intervalNanos = options.getModel() == Model.OPEN ? TimeUnit.SECONDS.toNanos(1) / options.getRate()
+                                                                      : 0;
+                while (true) {
+                    long dueNanos;
+                    if (options.getModel() == Model.OPEN) {
+                        dueNanos = startNanos + sequence.getAndIncrement() * intervalNanos;
+                        if (dueNanos - endNanos >= 0) {
+                            return;
+                        }
+                        sleepUntil(dueNanos);
+                    }
+                    else {
+                        dueNanos = System.nanoTime();
+                        if (dueNanos - endNanos >= 0) {
+                            return;
+                        }
+                    }
+                    post(dueNanos);
+                }
+            }
+
+            private void post(long dueNanos) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Kind kind = kinds[random.nextInt(kinds.length)];
+                long now = System.currentTimeMillis();
+                long timestamp = now;
+                if (kind == Kind.OLD) {
+                    timestamp -= options.getWindowMillis() + 1_000 + random.nextInt(60_000);
+                }
+                else if (kind == Kind.FUTURE) {
+                    timestamp += 1_000 + random.nextInt(60_000);
+                }
+                long cents = 1 + random.nextInt(1_000_000);
+                String body = kind == Kind.MALFORMED
+                              ? "{\"amount\":\"12.3.4\",\"timestamp\":"
+                              : String.format("{\"amount\":\"%d.%02d\",\"timestamp\":\"%s\"}", cents / 100, cents % 100,
+                                              Instant.ofEpochMilli(timestamp));
+                boolean measured = dueNanos - measureNanos >= 0;
+                if (measured) {
+                    sent.merge(kind, 1L, Long::sum);
+                }
+
+                int status;
+                try {
+                    status = send("POST", transactions, body).status;
+                }
+                catch (IOException ex) {
+                    if (kind == Kind.VALID) {
+                        unknown.add(timestamp, cents);
+                    }
+                    if (measured) {
+                        failures++;
+                    }
+                    return;
+                }
+                long answeredNanos = System.nanoTime();
+                if (kind == Kind.VALID && status == Kind.VALID.status) {
+                    accepted.add(timestamp, cents);
+                }
+                if (!measured) {
+                    warmup.recordValue(answeredNanos - dueNanos);
+                    return;
+                }
+                if (status == 503) {
+                    shed++;
+                }
+                else if (status != kind.status) {
+                    unexpected++;
+                }
+                uncorrected.recordValue(answeredNanos - dueNanos);
+                if (options.getModel() == Model.CLOSED) {
+                    writes.recordValueWithExpectedInterval(answeredNanos - dueNanos, expectedIntervalNanos);
+                }
+                else {
+                    writes.recordValue(answeredNanos - dueNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Growable columns of (timestamp, amount in cents).
+     */
+    private static final class Transactions {
+        private long[] timestamps = new long[1_024];
+        private long[] cents      = new long[1_024];
+        private int    size;
+
+        private void add(long timestamp, long amountCents) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                cents = Arrays.copyOf(cents, size * 2);
+            }
+            timestamps[size] = timestamp;
+            cents[size++] = amountCents;
+        }
+    }
+
+    private static final class Response {
+        private final int    status;
+        private final byte[] body;
+
+        private Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Sends a request over a kept-alive connection, reading the whole response so the connection can be reused.
+     */
+    private static Response send(String method, URL url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(30_000);
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[4_096];
+                for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                    response.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, response.toByteArray());
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        for (long remaining = deadlineNanos - System.nanoTime(); remaining > 0;
+             remaining = deadlineNanos - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
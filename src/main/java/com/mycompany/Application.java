@@ -1,13 +1,33 @@
 package com.mycompany;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 @SpringBootApplication
 public class Application {
 
     public static void main(String... args) {
-        SpringApplication.run(Application.class, args);
+        run(args);
+    }
+
+    /**
+     * Starts the application, eg: in-process for the {@code LoadTest}.
+     */
+    public static ConfigurableApplicationContext run(String... args) {
+        SpringApplication application = new SpringApplication(Application.class);
+
+        //with Spring MVC on the classpath, the environment is created as a servlet one before the reactive profile's
+        //spring.main.web-application-type is read, which still matches the servlet conditions of the actuator
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        if (environment.acceptsProfiles("reactive")) {
+            application.setWebApplicationType(WebApplicationType.REACTIVE);
+        }
+        return application.run(args);
     }
 
 }
@@ -1,5 +1,16 @@
 package com.mycompany.core;
 
 public abstract class AbstractBusinessException extends RuntimeException {
+
+    protected AbstractBusinessException() {
+    }
+
+    /**
+     * For preallocated exceptions, thrown over and over: no stack trace captured nor suppressed exceptions recorded.
+     */
+    protected AbstractBusinessException(boolean writableStackTrace) {
+        super(null, null, false, writableStackTrace);
+    }
+
     public abstract int getHttpStatus();
 }
@@ -1,5 +1,9 @@
 package com.mycompany.core;
 
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,16 +14,26 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @ControllerAdvice
+@Profile("!reactive")
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
+    @Autowired(required = false)
+    private TransactionsMetrics transactionsMetrics;
+
     @ExceptionHandler(AbstractBusinessException.class)
     public ResponseEntity handleBusinessException(AbstractBusinessException businessException) {
+        if (transactionsMetrics != null) {
+            transactionsMetrics.httpError(businessException.getHttpStatus(), businessException);
+        }
         return ResponseEntity.status(businessException.getHttpStatus()).build();
     }
 
     @Override
     protected ResponseEntity<Object> handleExceptionInternal(
             Exception ex, @Nullable Object body, HttpHeaders headers, HttpStatus status, WebRequest request) {
+        if (transactionsMetrics != null) {
+            transactionsMetrics.httpError(status.value(), ex);
+        }
         if (status.is5xxServerError()) {
             logger.error("Unhandled error happened during processing", ex);
         }
@@ -0,0 +1,138 @@
+package com.mycompany.transactions.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit adapting to the latency of what it admits, in the manner of a gradient limiter:
+ * <ul>
+ * <li> Latencies are averaged over windows of {@code windowNanos}; at the end of every window, the limit is
+ *      multiplied by the gradient between the long-term average latency and the window's, clamped to
+ *      {@code [0.5, 1]} and allowing {@code tolerance} times the long-term latency before backing off, then grown by
+ *      its square root, the queue allowed to build ahead of the engine.
+ * <li> The limit only grows while the admitted requests actually used half of it during the window, so an idle
+ *      service doesn't accumulate a limit it never measured.
+ * <li> The long-term latency is an exponential average over about {@link #LONG_WINDOWS} windows, brought down faster
+ *      once the window's latency recovered to half of it, so an overload doesn't become the new normal.
+ * </ul>
+ * Admission is a compare-and-set of the in-flight count against the limit; recording a latency adds to striped
+ * adders, and only the thread closing a window updates the limit.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    static final int    LONG_WINDOWS = 600;
+    static final double SMOOTHING    = 0.2;
+
+    private final int    minLimit;
+    private final int    maxLimit;
+    private final double tolerance;
+    private final long   windowNanos;
+
+    private final AtomicInteger   inFlight     = new AtomicInteger();
+    private final LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0);
+    private final LongAdder       latencySum   = new LongAdder();
+    private final LongAdder       latencyCount = new LongAdder();
+    private final AtomicLong      windowEnd;
+
+    private volatile int    limit;
+    //guarded by this
+    private          double estimatedLimit;
+    private          double longLatencyNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos,
+                                    long nowNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1) {
+            throw new IllegalArgumentException(String.format("Invalid limits %d..%d with tolerance %s", minLimit,
+                                                             maxLimit, tolerance));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.windowEnd = new AtomicLong(nowNanos + windowNanos);
+    }
+
+    /**
+     * @return whether the request is admitted, in which case it must be {@link #release released} once done.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulate(current + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos how long the admitted request took.
+     * @param nowNanos     {@link System#nanoTime()}, closing the current window once past its end.
+     */
+    public void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        latencySum.add(latencyNanos);
+        latencyCount.increment();
+
+        long end = windowEnd.get();
+        if (nowNanos - end >= 0 && windowEnd.compareAndSet(end, nowNanos + windowNanos)) {
+            update();
+        }
+    }
+
+    /**
+     * Releases an admitted request that did no work, without recording its latency.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update() {
+        long count = latencyCount.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        long peak = peakInFlight.getThenReset();
+        if (count == 0) {
+            return;
+        }
+        double latencyNanos = (double) sum / count;
+
+        if (longLatencyNanos == 0) {
+            longLatencyNanos = latencyNanos;
+        }
+        else {
+            longLatencyNanos += (latencyNanos - longLatencyNanos) / LONG_WINDOWS;
+            if (longLatencyNanos > 2 * latencyNanos) {
+                longLatencyNanos *= 0.95;
+            }
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatencyNanos / latencyNanos));
+        if (gradient == 1.0 && peak < estimatedLimit / 2) {
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "limit " + limit + ", " + inFlight.get() + " in flight";
+    }
+}
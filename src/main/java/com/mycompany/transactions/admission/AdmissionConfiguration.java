@@ -0,0 +1,73 @@
+package com.mycompany.transactions.admission;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+import com.mycompany.transactions.resource.TransactionsResource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in admission control of the ingestion, enabled by {@code transactions.admission.enabled=true}: concurrent
+ * {@code POST} requests to {@link TransactionsResource} are held within an {@link AdaptiveConcurrencyLimit}, the excess
+ * being shed with 503 before any work, and transactions already out of the window are dropped by
+ * {@link StaleTransactionsAdvice} once read. The limit never exceeds {@code server.tomcat.max-threads} minus
+ * {@code transactions.admission.reserved-threads}, the threads left being a lane statistics reads always find free.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "transactions.admission.enabled", havingValue = "true")
+public class AdmissionConfiguration implements WebMvcConfigurer {
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    //Tomcat's own default, when server.tomcat.max-threads isn't set
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Autowired
+    private TransactionsProperties properties;
+
+    @Autowired
+    private ServerProperties serverProperties;
+
+    @Autowired(required = false)
+    private TransactionsMetrics transactionsMetrics;
+
+    @Bean
+    public AdaptiveConcurrencyLimit admissionLimit() {
+        TransactionsProperties.Admission admission = properties.getAdmission();
+        int maxThreads = serverProperties.getTomcat().getMaxThreads();
+        int maxLimit = Math.min(admission.getMaxLimit(),
+                                (maxThreads > 0 ? maxThreads : TOMCAT_MAX_THREADS) - admission.getReservedThreads());
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                admission.getInitialLimit(), Math.min(admission.getMinLimit(), maxLimit), maxLimit,
+                admission.getTolerance(), TimeUnit.MILLISECONDS.toNanos(admission.getWindow().toMillis()),
+                System.nanoTime());
+        if (transactionsMetrics != null) {
+            transactionsMetrics.admission(limit);
+        }
+        logger.info("Admission control of the ingestion up to " + maxLimit + " concurrent requests, " + limit);
+        return limit;
+    }
+
+    @Bean
+    public AdmissionInterceptor admissionInterceptor() {
+        return new AdmissionInterceptor(TransactionsResource.class, admissionLimit(),
+                                        properties.getAdmission().getRetryAfter().getSeconds(), transactionsMetrics);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor());
+    }
+}
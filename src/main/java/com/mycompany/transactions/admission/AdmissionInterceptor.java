@@ -0,0 +1,77 @@
+package com.mycompany.transactions.admission;
+
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Admits {@code POST} requests mapped to a handler of {@code handlerType} within an {@link AdaptiveConcurrencyLimit},
+ * before their body is read, answering the others with 503 and a {@code Retry-After}; admitted requests report their
+ * latency once completed. Matching the handler rather than the path, no other mapping of the same path is limited, and
+ * no path reaching the handler escapes it.
+ */
+public class AdmissionInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String ADMITTED_AT = AdmissionInterceptor.class.getName() + ".admittedAt";
+
+    private final Class<?>                 handlerType;
+    private final AdaptiveConcurrencyLimit limit;
+    private final String                   retryAfterSeconds;
+    private final TransactionsMetrics      metrics;
+
+    /**
+     * @param metrics {@code null} when metrics are disabled.
+     */
+    public AdmissionInterceptor(Class<?> handlerType, AdaptiveConcurrencyLimit limit, long retryAfterSeconds,
+                                TransactionsMetrics metrics) {
+        this.handlerType = handlerType;
+        this.limit = limit;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || !(handler instanceof HandlerMethod)
+            || !handlerType.isAssignableFrom(((HandlerMethod) handler).getBeanType())) {
+            return true;
+        }
+        if (!limit.tryAcquire()) {
+            if (metrics != null) {
+                metrics.shed();
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return false;
+        }
+        request.setAttribute(ADMITTED_AT, System.nanoTime());
+        return true;
+    }
+
+    /**
+     * Gives the admission of a request back before it did any work, so its latency isn't recorded.
+     */
+    public void cancel(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED_AT) != null) {
+            request.removeAttribute(ADMITTED_AT);
+            limit.cancel();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object admittedAt = request.getAttribute(ADMITTED_AT);
+        if (admittedAt != null) {
+            long nowNanos = System.nanoTime();
+            limit.release(nowNanos - (Long) admittedAt, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.transactions.admission;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+import com.mycompany.transactions.model.Transaction;
+import com.mycompany.transactions.resource.TransactionsResource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.time.Clock;
+
+import static com.mycompany.transactions.exception.ProcessingError.OLD_TRANSACTION;
+
+/**
+ * Part of the admission control: a transaction posted to {@link TransactionsResource} that already fell out of the
+ * window, typically after queueing in Tomcat during an overload, is dropped once its body is read, before the resource
+ * or any manager works on it. It's answered 204 like the engines' own check, so clients don't retry it as they would a
+ * 503, and its admission is given back without recording its latency, which isn't the ingestion's.
+ */
+@ControllerAdvice(assignableTypes = TransactionsResource.class)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "transactions.admission.enabled", havingValue = "true")
+public class StaleTransactionsAdvice extends RequestBodyAdviceAdapter {
+
+    private final SlidingWindow        window;
+    private final Clock                clock;
+    private final AdmissionInterceptor admissionInterceptor;
+
+    @Autowired(required = false)
+    private TransactionsMetrics transactionsMetrics;
+
+    @Autowired
+    public StaleTransactionsAdvice(TransactionsProperties properties, Clock clock,
+                                   AdmissionInterceptor admissionInterceptor) {
+        this.window = properties.getWindow().toSlidingWindow();
+        this.clock = clock;
+        this.admissionInterceptor = admissionInterceptor;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == Transaction.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        Transaction transaction = (Transaction) body;
+        if (transaction.getTimestamp() != null
+            && window.isExpired(clock.millis(), transaction.getTimestamp().toEpochMilli())) {
+            admissionInterceptor.cancel(
+                    ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest());
+            if (transactionsMetrics != null) {
+                transactionsMetrics.ingested(OLD_TRANSACTION);
+            }
+            throw TransactionProcessingException.of(OLD_TRANSACTION);
+        }
+        return body;
+    }
+}
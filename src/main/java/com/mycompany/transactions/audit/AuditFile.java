@@ -0,0 +1,105 @@
+package com.mycompany.transactions.audit;
+
+import com.mycompany.transactions.exception.ProcessingError;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * One file of the audit log, starting with the {@code int} {@link #MAGIC}, followed by fixed-size records of:
+ * <pre>
+ * long received at (epoch millis) | long timestamp (epoch millis) | long unscaled amount | byte scale | byte outcome
+ * </pre>
+ * where the outcome is {@code 0} for an accepted transaction, or {@code 1 +} the ordinal of its
+ * {@link ProcessingError}; an amount not fitting is recorded with the {@link #UNKNOWN_SCALE}. A {@link #DROPPED}
+ * outcome marks records dropped by a full buffer, their count being in place of the unscaled amount. A truncated last
+ * record is ignored.
+ */
+final class AuditFile {
+
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".log";
+
+    static final int  MAGIC         = 0x41554431;
+    static final int  HEADER        = Integer.BYTES;
+    static final int  RECORD        = 3 * Long.BYTES + 2;
+    static final byte UNKNOWN_SCALE = -1;
+    static final byte DROPPED       = -1;
+
+    private static final int READ_BUFFER = 4_096 * RECORD;
+
+    private AuditFile() {
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    /**
+     * @return the audit files of a directory, by sequence.
+     */
+    static TreeMap<Long, Path> list(Path directory) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    static void put(ByteBuffer buffer, long receivedAt, long timestamp, long unscaled, byte scale, byte outcome) {
+        buffer.putLong(receivedAt).putLong(timestamp).putLong(unscaled).put(scale).put(outcome);
+    }
+
+    /**
+     * @throws IOException if the file isn't an audit log.
+     */
+    static void read(Path path, Consumer<AuditRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+            boolean header = true;
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                if (header && buffer.remaining() >= HEADER) {
+                    if (buffer.getInt() != MAGIC) {
+                        throw new IOException("Not an audit log: " + path);
+                    }
+                    header = false;
+                }
+                while (!header && buffer.remaining() >= RECORD) {
+                    consumer.accept(decode(buffer));
+                }
+                buffer.compact();
+            }
+            if (header) {
+                throw new IOException("Not an audit log: " + path);
+            }
+        }
+    }
+
+    private static AuditRecord decode(ByteBuffer buffer) {
+        long receivedAt = buffer.getLong();
+        long timestamp = buffer.getLong();
+        long unscaled = buffer.getLong();
+        byte scale = buffer.get();
+        byte outcome = buffer.get();
+        if (outcome == DROPPED) {
+            return new AuditRecord(receivedAt, timestamp, null, null, unscaled);
+        }
+        return new AuditRecord(receivedAt, timestamp,
+                               scale == UNKNOWN_SCALE ? null : BigDecimal.valueOf(unscaled, scale),
+                               outcome == 0 ? null : ProcessingError.values()[outcome - 1], 0);
+    }
+}
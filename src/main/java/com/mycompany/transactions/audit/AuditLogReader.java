@@ -0,0 +1,66 @@
+package com.mycompany.transactions.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes audit log files back to one line of text per record, see {@link AuditRecord#format()}.
+ * <p>
+ * Usage: {@code AuditLogReader <file|directory>... [--from=2018-07-17T09:00:00Z] [--to=2018-07-17T10:00:00Z]}, the
+ * files of a directory being read in the order they were written, and records filtered by when they were received.
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String... args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        for (String arg : args) {
+            if (arg.startsWith("--from=")) {
+                from = Instant.parse(arg.substring("--from=".length())).toEpochMilli();
+            }
+            else if (arg.startsWith("--to=")) {
+                to = Instant.parse(arg.substring("--to=".length())).toEpochMilli();
+            }
+            else {
+                paths.add(Paths.get(arg));
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: AuditLogReader <file|directory>... [--from=<instant>] [--to=<instant>]");
+            System.exit(2);
+        }
+        for (Path path : paths) {
+            read(path, from, to, System.out);
+        }
+    }
+
+    /**
+     * Prints the records of a file, or of every audit file of a directory, received within {@code [from, to)}.
+     */
+    public static void read(Path path, long from, long to, PrintStream out) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            files.addAll(AuditFile.list(path).values());
+        }
+        else {
+            files.add(path);
+        }
+        for (Path file : files) {
+            AuditFile.read(file, record -> {
+                if (record.getReceivedAt() >= from && record.getReceivedAt() < to) {
+                    out.println(record.format());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.transactions.audit;
+
+import com.mycompany.transactions.exception.ProcessingError;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One decoded record of the audit log: a transaction and its outcome, or a count of records the log dropped.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class AuditRecord {
+    /**
+     * When the engine received the transaction, or when the dropped records were noticed.
+     */
+    private long            receivedAt;
+    private long            timestamp;
+    /**
+     * {@code null} if the amount didn't fit an audit record.
+     */
+    private BigDecimal      amount;
+    /**
+     * {@code null} for an accepted transaction.
+     */
+    private ProcessingError processingError;
+    /**
+     * Records dropped since the previous one, {@code 0} for a transaction.
+     */
+    private long            dropped;
+
+    /**
+     * @return a line of text, eg: {@code 2018-07-17T09:00:00.015Z 2018-07-17T09:00:00.010Z 12.34 ACCEPTED}.
+     */
+    public String format() {
+        if (dropped > 0) {
+            return Instant.ofEpochMilli(receivedAt) + " DROPPED " + dropped + " records";
+        }
+        return Instant.ofEpochMilli(receivedAt) + " " + Instant.ofEpochMilli(timestamp) + " "
+               + (amount == null ? "?" : amount.toPlainString()) + " "
+               + (processingError == null ? "ACCEPTED" : processingError.name());
+    }
+}
@@ -0,0 +1,264 @@
+package com.mycompany.transactions.audit;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.exception.ProcessingError;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Audit trail of every transaction the engine decided on, enabled unless {@code transactions.audit.enabled=false},
+ * cheap enough to stay on where trace logging isn't:
+ * <ul>
+ * <li> Request threads copy a transaction's times, unscaled amount, scale and outcome into the preallocated primitive
+ *      slots of a bounded multi-producer ring, after the bucket monitor is released: no formatting, no I/O.
+ * <li> With {@link Policy#LOSSY} (the default), a full ring drops the record, the count of dropped records being
+ *      written in their place; with {@link Policy#LOSSLESS}, a full ring makes the request thread wait for the writer.
+ * <li> One background thread drains the ring every {@code transactions.audit.flush-interval}, encoding records in
+ *      batches into a direct buffer written to the current {@link AuditFile}; files roll past
+ *      {@code transactions.audit.max-file-size}, only the last {@code transactions.audit.max-files} being kept.
+ * <li> Files are written to the page cache and never forced, surviving the process but not the host crashing.
+ *      {@link AuditLogReader} decodes them back to text.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionsAuditLog {
+
+    /**
+     * What a full ring does with a record.
+     */
+    public enum Policy {
+        LOSSY, LOSSLESS
+    }
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private static final int  MAX_BATCH       = 4_096;
+    private static final int  SPINS           = 100;
+    private static final long WAIT_PARK_NANOS = 10_000;
+
+    private final Path   directory;
+    private final Policy policy;
+    private final long   maxFileSize;
+    private final int    maxFiles;
+    private final long   flushIntervalNanos;
+    //records of a batch, so one batch and its count of dropped records fit in a file
+    private final int    maxBatch;
+
+    //ring of preallocated slots, a slot being free for the producers of sequence s once sequences[s & mask] == s
+    private final long[]          receivedAts;
+    private final long[]          timestamps;
+    private final long[]          unscaleds;
+    private final byte[]          scales;
+    private final byte[]          outcomes;
+    private final AtomicLongArray sequences;
+    private final int             mask;
+    private final AtomicLong      tail    = new AtomicLong();
+    private final LongAdder       dropped = new LongAdder();
+
+    //owned by the writer thread
+    private final ByteBuffer  batch;
+    private       long        head;
+    private       long        sequence;
+    private       FileChannel channel;
+    private       long        fileSize;
+
+    private final    Thread  writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public TransactionsAuditLog(TransactionsProperties properties) throws IOException {
+        this(Paths.get(properties.getAudit().getDirectory()), properties.getAudit().getPolicy(),
+             properties.getAudit().getBufferSize(), properties.getAudit().getMaxFileSize(),
+             properties.getAudit().getMaxFiles(), properties.getAudit().getFlushInterval().toMillis());
+    }
+
+    public TransactionsAuditLog(Path directory, Policy policy, int bufferSize, long maxFileSize, int maxFiles,
+                                long flushIntervalMillis) throws IOException {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Audit buffer size must be a power of two: " + bufferSize);
+        }
+        this.directory = directory;
+        this.policy = policy;
+        this.maxFileSize = Math.max(maxFileSize, AuditFile.HEADER + AuditFile.RECORD);
+        this.maxFiles = maxFiles;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxBatch = (int) Math.max(1, Math.min(MAX_BATCH,
+                                                   (this.maxFileSize - AuditFile.HEADER) / AuditFile.RECORD - 1));
+        this.receivedAts = new long[bufferSize];
+        this.timestamps = new long[bufferSize];
+        this.unscaleds = new long[bufferSize];
+        this.scales = new byte[bufferSize];
+        this.outcomes = new byte[bufferSize];
+        this.sequences = new AtomicLongArray(bufferSize);
+        this.mask = bufferSize - 1;
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.set(i, i);
+        }
+        this.batch = ByteBuffer.allocateDirect((maxBatch + 1) * AuditFile.RECORD);
+
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> files = AuditFile.list(directory);
+        this.sequence = files.isEmpty() ? 0 : files.lastKey() + 1;
+        open();
+
+        this.writer = new Thread(this::drain, "transactions-audit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records the outcome of a transaction, without blocking unless the ring is full under {@link Policy#LOSSLESS}.
+     * @param processingError {@code null} for an accepted transaction.
+     */
+    public void append(long receivedAt, long timestamp, BigDecimal amount, ProcessingError processingError) {
+        long unscaled = 0;
+        byte scale = AuditFile.UNKNOWN_SCALE;
+        if (amount.scale() >= 0 && amount.scale() <= Byte.MAX_VALUE && amount.precision() <= 18) {
+            unscaled = amount.unscaledValue().longValue();
+            scale = (byte) amount.scale();
+        }
+        byte outcome = processingError == null ? 0 : (byte) (processingError.ordinal() + 1);
+
+        for (int spins = 0; ; ) {
+            long next = tail.get();
+            int index = (int) next & mask;
+            long slotSequence = sequences.get(index);
+            if (slotSequence == next) {
+                if (tail.compareAndSet(next, next + 1)) {
+                    receivedAts[index] = receivedAt;
+                    timestamps[index] = timestamp;
+                    unscaleds[index] = unscaled;
+                    scales[index] = scale;
+                    outcomes[index] = outcome;
+                    sequences.lazySet(index, next + 1);
+                    return;
+                }
+            }
+            else if (slotSequence < next) {
+                if (policy == Policy.LOSSY || !running) {
+                    dropped.increment();
+                    return;
+                }
+                //full, wait for the writer to free the slot
+                if (spins++ < SPINS) {
+                    Thread.yield();
+                }
+                else {
+                    LockSupport.parkNanos(WAIT_PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the writer once it wrote every record already appended.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    private void drain() {
+        while (true) {
+            boolean stopping = !running;
+            try {
+                while (flush() == maxBatch) {
+                    //a full batch, more may be waiting
+                }
+            }
+            catch (IOException | RuntimeException ex) {
+                logger.error("Audit log write failed, retrying on the next flush", ex);
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(flushIntervalNanos);
+        }
+        try {
+            channel.close();
+        }
+        catch (IOException ex) {
+            logger.warn("Failed closing the audit log", ex);
+        }
+    }
+
+    /**
+     * Encodes up to {@code maxBatch} published records, and the count of the records dropped, then writes them at
+     * once.
+     * @return the number of records written.
+     */
+    private int flush() throws IOException {
+        batch.clear();
+        int count = 0;
+        //producers refill the slots freed meanwhile, so a batch is bounded by the file, not by the ring
+        for (; count < maxBatch; count++, head++) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            AuditFile.put(batch, receivedAts[index], timestamps[index], unscaleds[index], scales[index],
+                          outcomes[index]);
+            sequences.lazySet(index, head + receivedAts.length);
+        }
+        long droppedCount = dropped.sumThenReset();
+        if (droppedCount > 0) {
+            long now = System.currentTimeMillis();
+            AuditFile.put(batch, now, now, droppedCount, AuditFile.UNKNOWN_SCALE, AuditFile.DROPPED);
+        }
+        batch.flip();
+        if (!batch.hasRemaining()) {
+            return 0;
+        }
+
+        if (fileSize + batch.remaining() > maxFileSize) {
+            roll();
+        }
+        while (batch.hasRemaining()) {
+            fileSize += channel.write(batch);
+        }
+        return count;
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        sequence++;
+        open();
+        TreeMap<Long, Path> files = AuditFile.list(directory);
+        while (files.size() > maxFiles) {
+            Files.delete(files.pollFirstEntry().getValue());
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(directory.resolve(AuditFile.fileName(sequence)), StandardOpenOption.CREATE_NEW,
+                                   StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(AuditFile.HEADER).putInt(0, AuditFile.MAGIC);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        fileSize = AuditFile.HEADER;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mycompany.transactions.clock;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfiguration {
+
+    /**
+     * The {@link Clock} of the engines; a {@link CoarseClock} is closed along with the context.
+     */
+    @Bean
+    public Clock transactionsClock(TransactionsProperties properties) {
+        return properties.getClock().getType().create(properties.getClock().getResolution().toMillis());
+    }
+}
@@ -0,0 +1,30 @@
+package com.mycompany.transactions.clock;
+
+import java.time.Clock;
+
+/**
+ * Time source of the {@link com.mycompany.transactions.manager.TransactionsManager} engines, chosen at startup through
+ * {@code transactions.clock.type}.
+ */
+public enum ClockType {
+    /**
+     * {@link Clock#systemUTC()}, reading the system time on every call.
+     */
+    SYSTEM {
+        @Override
+        public Clock create(long resolutionMillis) {
+            return Clock.systemUTC();
+        }
+    },
+    /**
+     * {@link CoarseClock}, reading a cached time refreshed every {@code resolution}.
+     */
+    COARSE {
+        @Override
+        public Clock create(long resolutionMillis) {
+            return new CoarseClock(resolutionMillis);
+        }
+    };
+
+    public abstract Clock create(long resolutionMillis);
+}
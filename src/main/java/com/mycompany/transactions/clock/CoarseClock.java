@@ -0,0 +1,83 @@
+package com.mycompany.transactions.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link Clock} answering from a {@code volatile} field, refreshed by a daemon thread every {@code resolution}
+ * milliseconds, so reading the time costs a memory load instead of a {@code clock_gettime} per transaction:
+ * <ul>
+ * <li> The cached time is the system time rounded up to the next {@code resolution} tick, so it isn't behind the
+ *      system clock while the refresher keeps up: a transaction stamped with the current system time isn't rejected as
+ *      future. The window is then evaluated up to {@code resolution} early, ie: transactions expire that much sooner.
+ * <li> A refresher starved of CPU lets the cached time fall behind, by as long as it isn't scheduled.
+ * <li> The refresher thread is stopped by {@link #close()}.
+ */
+public final class CoarseClock extends Clock implements AutoCloseable {
+
+    private final long   resolutionMillis;
+    private final Thread refresher;
+
+    private volatile long    millis;
+    private volatile boolean closed;
+
+    public CoarseClock(long resolutionMillis) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Invalid clock resolution of " + resolutionMillis + " ms");
+        }
+        this.resolutionMillis = resolutionMillis;
+        refresh();
+        this.refresher = new Thread(this::run, "transactions-clock");
+        this.refresher.setDaemon(true);
+        this.refresher.start();
+    }
+
+    public long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /**
+     * @return this clock for UTC, else a view of it in {@code zone}, reading the same {@code millis}.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return ZonedClock.withZone(this, zone);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(refresher);
+    }
+
+    private void run() {
+        while (!closed) {
+            refresh();
+            //sleep until the system clock reaches the cached tick
+            LockSupport.parkNanos((millis - System.currentTimeMillis()) * 1_000_000L);
+        }
+    }
+
+    private void refresh() {
+        long now = System.currentTimeMillis();
+        millis = (Math.floorDiv(now, resolutionMillis) + 1) * resolutionMillis;
+    }
+}
@@ -0,0 +1,54 @@
+package com.mycompany.transactions.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A {@link Clock} standing still until moved, for deterministic tests, and for replaying recorded traffic on virtual
+ * time as fast as the engine goes. Read from any thread, but moved by a single one.
+ */
+public final class VirtualClock extends Clock {
+
+    private volatile long millis;
+
+    public VirtualClock(long millis) {
+        this.millis = millis;
+    }
+
+    public VirtualClock(Instant instant) {
+        this(instant.toEpochMilli());
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    public void advance(long millis) {
+        this.millis += millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /**
+     * @return this clock for UTC, else a view of it in {@code zone}, reading the same {@code millis}.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return ZonedClock.withZone(this, zone);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mycompany.transactions.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * A view of a UTC {@link CoarseClock} or {@link VirtualClock} in another zone, reading the same time as its source, so
+ * moving or refreshing the source moves every view of it.
+ */
+final class ZonedClock extends Clock {
+
+    private final Clock  source;
+    private final ZoneId zone;
+
+    private ZonedClock(Clock source, ZoneId zone) {
+        this.source = source;
+        this.zone = zone;
+    }
+
+    /**
+     * @return {@code source} itself for UTC, else a view of it in {@code zone}.
+     */
+    static Clock withZone(Clock source, ZoneId zone) {
+        Objects.requireNonNull(zone, "zone");
+        return zone.normalized().equals(ZoneOffset.UTC) ? source : new ZonedClock(source, zone);
+    }
+
+    @Override
+    public long millis() {
+        return source.millis();
+    }
+
+    @Override
+    public Instant instant() {
+        return source.instant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return withZone(source, zone);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ZonedClock && source == ((ZonedClock) obj).source && zone.equals(((ZonedClock) obj).zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(source) ^ zone.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ZonedClock[" + source + "," + zone + "]";
+    }
+}
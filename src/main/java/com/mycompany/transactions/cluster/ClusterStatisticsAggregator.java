@@ -0,0 +1,173 @@
+package com.mycompany.transactions.cluster;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.converter.WindowStateCodec;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.ClusterStatistics;
+import com.mycompany.transactions.model.WindowState;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Aggregation mode, enabled by listing the other nodes in {@code transactions.cluster.peers}, answering
+ * {@code GET /statistics/cluster} with the window of the whole cluster behind a load balancer:
+ * <ul>
+ * <li> Every peer's {@link WindowState} is fetched in parallel from its {@code GET /statistics/buckets}, and waited for
+ *      until {@code transactions.cluster.timeout} elapsed since the request; peers answering later, failing, or
+ *      bucketing with another width are reported in {@link ClusterStatistics#getFailedPeers()}.
+ * <li> The buckets of this node and of every peer that answered are aligned by bucket epoch and combined, which is
+ *      exact since {@link BigDecimalSummaryStatistics#combine} is associative; merged buckets are then expired against
+ *      this node's engine {@link Clock}, exactly like a single node's.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.cluster.peers")
+public class ClusterStatisticsAggregator {
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private final TransactionsManager transactionsManager;
+    private final SlidingWindow       window;
+    private final Clock               clock;
+    private final List<String>        peers;
+    private final long                timeoutNanos;
+    private final RestTemplate        restTemplate;
+    private final ExecutorService     executor;
+
+    @Autowired
+    public ClusterStatisticsAggregator(TransactionsManager transactionsManager, TransactionsProperties properties,
+                                       Clock clock) {
+        this(transactionsManager, properties.getWindow().toSlidingWindow(), properties.getCluster().getPeers(),
+             properties.getCluster().getTimeout().toMillis(), clock);
+    }
+
+    public ClusterStatisticsAggregator(TransactionsManager transactionsManager, SlidingWindow window,
+                                       List<String> peers, long timeoutMillis) {
+        this(transactionsManager, window, peers, timeoutMillis, Clock.systemUTC());
+    }
+
+    public ClusterStatisticsAggregator(TransactionsManager transactionsManager, SlidingWindow window,
+                                       List<String> peers, long timeoutMillis, Clock clock) {
+        this.transactionsManager = transactionsManager;
+        this.window = window;
+        this.clock = clock;
+        this.peers = new ArrayList<>();
+        for (String peer : peers) {
+            this.peers.add(peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer);
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) timeoutMillis);
+        requestFactory.setReadTimeout((int) timeoutMillis);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "transactions-cluster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ClusterStatistics getClusterStatistics() {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        Map<String, Future<WindowState>> fetches = new LinkedHashMap<>();
+        for (String peer : peers) {
+            fetches.put(peer, executor.submit(() -> fetch(peer)));
+        }
+
+        List<WindowState> windowStates = new ArrayList<>(peers.size() + 1);
+        windowStates.add(new WindowState(window.getBucketWidthMillis(), transactionsManager.exportBuckets()));
+        List<String> failedPeers = new ArrayList<>();
+
+        for (Map.Entry<String, Future<WindowState>> fetch : fetches.entrySet()) {
+            try {
+                WindowState windowState = fetch.getValue().get(Math.max(0, deadline - System.nanoTime()),
+                                                               TimeUnit.NANOSECONDS);
+                if (windowState.getBucketWidthMillis() == window.getBucketWidthMillis()) {
+                    windowStates.add(windowState);
+                    continue;
+                }
+                logger.warn(String.format("Peer %s buckets by %d ms instead of %d ms", fetch.getKey(),
+                                          windowState.getBucketWidthMillis(), window.getBucketWidthMillis()));
+            }
+            catch (TimeoutException ex) {
+                fetch.getValue().cancel(true);
+            }
+            catch (ExecutionException ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Failed fetching the window of peer " + fetch.getKey(), ex.getCause());
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            failedPeers.add(fetch.getKey());
+        }
+
+        return new ClusterStatistics(merge(windowStates, clock.millis()), windowStates.size(),
+                                     failedPeers);
+    }
+
+    private WindowState fetch(String peer) throws IOException {
+        return WindowStateCodec.decode(restTemplate.getForObject(peer + "/statistics/buckets", byte[].class));
+    }
+
+    /**
+     * Combines the buckets of every window by bucket epoch, then the merged buckets still within the window.
+     */
+    private BigDecimalSummaryStatistics merge(List<WindowState> windowStates, long nowEpoch) {
+        Map<Long, BigDecimalSummaryStatistics> merged = new HashMap<>();
+        Map<Long, Long> mergedLastModified = new HashMap<>();
+
+        for (WindowState windowState : windowStates) {
+            for (BucketStatistics bucket : windowState.getBuckets()) {
+                merged.computeIfAbsent(bucket.getBucketEpoch(),
+                                       epoch -> new BigDecimalSummaryStatistics(scale, roundingMode))
+                      .combine(bucket.getCount(), bucket.getSum(), bucket.getMin(), bucket.getMax());
+                mergedLastModified.merge(bucket.getBucketEpoch(), bucket.getLastModified(), Math::max);
+            }
+        }
+
+        BigDecimalSummaryStatistics result = new BigDecimalSummaryStatistics(scale, roundingMode);
+        for (Map.Entry<Long, BigDecimalSummaryStatistics> bucket : merged.entrySet()) {
+            if (!window.isExpired(nowEpoch, mergedLastModified.get(bucket.getKey()))) {
+                result.combine(bucket.getValue());
+            }
+        }
+        return result;
+    }
+}
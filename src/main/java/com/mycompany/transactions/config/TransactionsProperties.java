@@ -0,0 +1,295 @@
+package com.mycompany.transactions.config;
+
+import com.mycompany.transactions.audit.TransactionsAuditLog;
+import com.mycompany.transactions.clock.ClockType;
+import com.mycompany.transactions.manager.BucketRotationTicker;
+import com.mycompany.transactions.manager.SingleWriterTransactionsManager;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.model.HyperLogLog;
+import com.mycompany.transactions.model.QuantileSketch;
+import com.mycompany.transactions.model.StatisticsType;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Startup settings of the transactions statistics, bound from the {@code transactions.*} keys of
+ * {@code application.properties}.
+ */
+@Component
+@ConfigurationProperties(prefix = "transactions")
+@Getter
+public class TransactionsProperties {
+
+    private final Statistics   statistics   = new Statistics();
+    private final Window       window       = new Window();
+    private final Keys         keys         = new Keys();
+    private final Batch        batch        = new Batch();
+    private final SingleWriter singleWriter = new SingleWriter();
+    private final Journal      journal      = new Journal();
+    private final Cluster      cluster      = new Cluster();
+    private final Metrics      metrics      = new Metrics();
+    private final Clock        clock        = new Clock();
+    private final Admission    admission    = new Admission();
+    private final Audit        audit        = new Audit();
+
+    @Getter
+    @Setter
+    public static class Statistics {
+        /**
+         * {@link com.mycompany.transactions.model.SummaryStatistics} implementation used by the buckets.
+         */
+        private       StatisticsType type        = StatisticsType.BIG_DECIMAL;
+        private final Cache          cache       = new Cache();
+        private final Percentiles    percentiles = new Percentiles();
+        private final Distinct       distinct    = new Distinct();
+        private final Rollups        rollups     = new Rollups();
+        private final Stream         stream      = new Stream();
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * Whether {@code GET /statistics} answers from a pre-serialized snapshot.
+         */
+        private boolean  enabled;
+        /**
+         * How old a snapshot may get before the next read refreshes it.
+         */
+        private Duration maxStaleness = Duration.ofMillis(20);
+    }
+
+    @Getter
+    @Setter
+    public static class Percentiles {
+        /**
+         * Whether every bucket also keeps a {@link QuantileSketch}, answering
+         * {@code GET /statistics?percentiles=50,95,99}.
+         */
+        private boolean enabled;
+        /**
+         * Relative error bound of the estimated percentiles, 0.01 for 1%.
+         */
+        private double  relativeAccuracy = QuantileSketch.DEFAULT_RELATIVE_ACCURACY;
+    }
+
+    @Getter
+    @Setter
+    public static class Distinct {
+        /**
+         * Whether every bucket also keeps a {@link HyperLogLog} per identifier, answering
+         * {@code GET /statistics?distinct=card,key}.
+         */
+        private boolean enabled;
+        /**
+         * Base-2 logarithm of the registers of a sketch, within [4, 16]; the standard error of the counts is
+         * {@code 1.04 / sqrt(2^precision)}.
+         */
+        private int     precision = HyperLogLog.DEFAULT_PRECISION;
+    }
+
+    @Getter
+    @Setter
+    public static class Rollups {
+        /**
+         * Whether minute and hour buckets also roll up the synchronized engine's recycled buckets over the last 24
+         * hours, answering {@code GET /statistics?window=15m}.
+         */
+        private boolean enabled;
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+        /**
+         * Whether {@code GET /statistics/stream} pushes the statistics as Server-Sent Events.
+         */
+        private boolean  enabled;
+        /**
+         * How often the statistics are aggregated, and pushed if changed.
+         */
+        private Duration interval = Duration.ofMillis(100);
+    }
+
+    @Getter
+    @Setter
+    public static class Window {
+        /**
+         * How far back statistics look, transactions older than that are rejected.
+         */
+        private Duration                      length      = Duration.ofSeconds(60);
+        /**
+         * Resolution transactions are bucketed with, the window slides by one bucket at a time.
+         */
+        private Duration                      bucketWidth = Duration.ofSeconds(1);
+        /**
+         * Who recycles buckets for a newer bucket epoch: their first writer, or a background ticker ahead of time.
+         */
+        private BucketRotationTicker.Rotation rotation    = BucketRotationTicker.Rotation.LAZY;
+
+        public SlidingWindow toSlidingWindow() {
+            return new SlidingWindow(length.toMillis(), bucketWidth.toMillis());
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Keys {
+        /**
+         * Hard cap on the keys tracked by the keyed statistics, the least recently used ones being evicted past it.
+         */
+        private int maxKeys = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Bytes of the largest batch body, binary, JSON or NDJSON, larger ones being answered with 413.
+         */
+        private int maxSize = 8 * 1024 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class SingleWriter {
+        /**
+         * When the {@code single-writer} engine acknowledges a transaction: once applied, or once enqueued.
+         */
+        private SingleWriterTransactionsManager.AckMode ack        = SingleWriterTransactionsManager.AckMode.ENQUEUE;
+        /**
+         * Slots of the ring buffer between request threads and the writer thread, a power of two.
+         */
+        private int                                     bufferSize = 65_536;
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+        /**
+         * Whether accepted transactions are journaled to disk, and the window restored from the journal on startup.
+         */
+        private boolean  enabled;
+        private String   directory        = "journal";
+        /**
+         * Bytes mapped per write-ahead log segment.
+         */
+        private int      segmentSize      = 16 * 1024 * 1024;
+        /**
+         * Transactions buffered between request threads and the journal's writer, a power of two.
+         */
+        private int      bufferSize       = 65_536;
+        /**
+         * How often appended transactions are forced to disk, at most that much is lost on a power failure.
+         */
+        private Duration syncInterval     = Duration.ofMillis(10);
+        /**
+         * How often segments are folded into a bucket snapshot, which bounds the records replayed on startup.
+         */
+        private Duration snapshotInterval = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Cluster {
+        /**
+         * Base URLs of the other nodes, eg: {@code http://10.0.0.2:8080}, whose windows {@code GET /statistics/cluster}
+         * merges with this node's.
+         */
+        private List<String> peers   = new ArrayList<>();
+        /**
+         * How long the slowest peer is waited for, peers answering later are left out of a partial result.
+         */
+        private Duration     timeout = Duration.ofMillis(200);
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        /**
+         * Whether ingestion and statistics reads are recorded to
+         * {@link com.mycompany.transactions.metrics.TransactionsMetrics}, {@code false} removing every meter from the
+         * hot paths.
+         */
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Clock {
+        /**
+         * Time source of the engines: the system clock, or a cached one cheaper to read.
+         */
+        private ClockType type       = ClockType.SYSTEM;
+        /**
+         * How often the {@code coarse} clock is refreshed, ie: how early the window may be evaluated.
+         */
+        private Duration  resolution = Duration.ofMillis(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        /**
+         * Whether concurrent ingestion requests are limited, the excess being answered with 503.
+         */
+        private boolean  enabled;
+        /**
+         * Bounds of the adaptive limit of concurrent ingestion requests, which starts at {@code initialLimit}.
+         */
+        private int      initialLimit    = 20;
+        private int      minLimit        = 4;
+        private int      maxLimit        = 180;
+        /**
+         * Tomcat threads ingestion never takes, so statistics reads always find one.
+         */
+        private int      reservedThreads = 20;
+        /**
+         * Ratio of the long-term ingestion latency tolerated before the limit shrinks.
+         */
+        private double   tolerance       = 2.0;
+        /**
+         * Period latencies are averaged over before adapting the limit.
+         */
+        private Duration window          = Duration.ofMillis(100);
+        /**
+         * {@code Retry-After} of shed requests, in whole seconds.
+         */
+        private Duration retryAfter      = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Audit {
+        /**
+         * Whether the outcome of every transaction is appended to the binary audit log.
+         */
+        private boolean                     enabled       = true;
+        private String                      directory     = "audit";
+        /**
+         * What a full buffer does with a record: drop it, counting it, or wait for the writer.
+         */
+        private TransactionsAuditLog.Policy policy        = TransactionsAuditLog.Policy.LOSSY;
+        /**
+         * Records buffered between flushes, a power of two.
+         */
+        private int                         bufferSize    = 65_536;
+        /**
+         * Size past which the audit file is rolled, and how many files are kept.
+         */
+        private long                        maxFileSize   = 64 * 1024 * 1024;
+        private int                         maxFiles      = 16;
+        /**
+         * Period the buffered records are written to the audit file at.
+         */
+        private Duration                    flushInterval = Duration.ofMillis(10);
+    }
+}
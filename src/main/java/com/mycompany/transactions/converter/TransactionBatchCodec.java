@@ -0,0 +1,165 @@
+package com.mycompany.transactions.converter;
+
+import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.exception.BatchTooLargeException;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static com.mycompany.transactions.exception.ProcessingError.UNPARSEABLE_TRANSACTION;
+
+/**
+ * Compact binary forms of a batch of transactions, of its results, and of the statistics, big-endian, for internal
+ * producers and consumers that would rather not pay for JSON:
+ * <pre>
+ * batch:      int BATCH_MAGIC | records...
+ * record:     long unscaled amount | byte scale | long epoch millis
+ * results:    one byte per record, in order: 0 when accepted, otherwise 1 + the {@link ProcessingError} ordinal
+ * statistics: int STATISTICS_MAGIC | long count | sum | avg | min | max
+ * </pre>
+ * A record is a fixed 17 bytes. The body is copied once from the request stream into a per-thread buffer, and records
+ * are decoded from it with absolute reads, without any intermediate {@code String}; records have no key. Statistics
+ * amounts are encoded like {@link WindowStateCodec}'s, as their sum may not fit a {@code long}.
+ */
+public final class TransactionBatchCodec {
+
+    public static final String MEDIA_TYPE_VALUE            = "application/x-transaction-batch";
+    public static final String STATISTICS_MEDIA_TYPE_VALUE = "application/x-transaction-statistics";
+
+    public static final MediaType MEDIA_TYPE            = MediaType.valueOf(MEDIA_TYPE_VALUE);
+    public static final MediaType STATISTICS_MEDIA_TYPE = MediaType.valueOf(STATISTICS_MEDIA_TYPE_VALUE);
+
+    public static final int RECORD_SIZE = 17;
+
+    private static final int BATCH_MAGIC      = 0x54584231;
+    private static final int STATISTICS_MAGIC = 0x54585331;
+
+    private static final int MAX_BUFFERED_BATCH = 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[16 * 1024]);
+
+    private TransactionBatchCodec() {
+    }
+
+    /**
+     * Copies a whole request body into a buffer reused by the calling thread, unless larger than a megabyte.
+     * @param maxSize bytes of the largest body read; reading stops as soon as a body goes past it.
+     * @return the body, positioned at its first byte.
+     * @throws BatchTooLargeException if the body is larger than {@code maxSize}.
+     */
+    public static ByteBuffer read(InputStream body, int maxSize) throws IOException {
+        byte[] buffer = buffers.get();
+        int length = 0;
+        for (int read; (read = body.read(buffer, length, buffer.length - length)) != -1; ) {
+            length += read;
+            if (length > maxSize) {
+                throw BatchTooLargeException.instance();
+            }
+            if (length == buffer.length) {
+                //one byte past the maximum is enough to tell an oversized body
+                buffer = Arrays.copyOf(buffer, (int) Math.min(buffer.length * 2L, maxSize + 1L));
+                if (buffer.length <= MAX_BUFFERED_BATCH) {
+                    buffers.set(buffer);
+                }
+            }
+        }
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    /**
+     * @return the number of records of {@code batch}.
+     * @throws IOException if {@code batch} isn't an encoded batch of whole records.
+     */
+    public static int count(ByteBuffer batch) throws IOException {
+        int length = batch.remaining();
+        if (length < 4 || batch.getInt(batch.position()) != BATCH_MAGIC || (length - 4) % RECORD_SIZE != 0) {
+            throw new IOException("Not a transaction batch");
+        }
+        return (length - 4) / RECORD_SIZE;
+    }
+
+    /**
+     * @return the {@code index}-th record of {@code batch}.
+     * @throws TransactionProcessingException with {@code UNPARSEABLE_TRANSACTION} for a negative scale.
+     */
+    public static Transaction decode(ByteBuffer batch, int index) {
+        int offset = batch.position() + 4 + index * RECORD_SIZE;
+        long unscaled = batch.getLong(offset);
+        int scale = batch.get(offset + 8);
+        if (scale < 0) {
+            throw TransactionProcessingException.of(UNPARSEABLE_TRANSACTION);
+        }
+        return new Transaction(BigDecimal.valueOf(unscaled, scale), unscaled, scale,
+                               Instant.ofEpochMilli(batch.getLong(offset + 9)), null, null);
+    }
+
+    /**
+     * @throws IllegalArgumentException if an amount's unscaled value doesn't fit a {@code long}, or its scale a byte.
+     */
+    public static byte[] encode(Iterable<Transaction> transactions, int count) {
+        ByteBuffer batch = ByteBuffer.allocate(4 + count * RECORD_SIZE);
+        batch.putInt(BATCH_MAGIC);
+        for (Transaction transaction : transactions) {
+            BigDecimal amount = transaction.getAmount();
+            if (amount.unscaledValue().bitLength() > 63 || amount.scale() < 0 || amount.scale() > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Amount not encodable: " + amount);
+            }
+            batch.putLong(amount.unscaledValue().longValue())
+                 .put((byte) amount.scale())
+                 .putLong(transaction.getTimestamp().toEpochMilli());
+        }
+        return batch.array();
+    }
+
+    public static byte[] encodeResults(ProcessingError[] processingErrors) {
+        byte[] results = new byte[processingErrors.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = (byte) (processingErrors[i] == null ? 0 : 1 + processingErrors[i].ordinal());
+        }
+        return results;
+    }
+
+    public static byte[] encodeStatistics(SummaryStatistics summaryStatistics) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(STATISTICS_MAGIC);
+            out.writeLong(summaryStatistics.getCount());
+            WindowStateCodec.writeDecimal(out, summaryStatistics.getSum());
+            WindowStateCodec.writeDecimal(out, summaryStatistics.getAvg());
+            WindowStateCodec.writeDecimal(out, summaryStatistics.getMin());
+            WindowStateCodec.writeDecimal(out, summaryStatistics.getMax());
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if {@code bytes} aren't encoded statistics.
+     */
+    public static StatisticsDto decodeStatistics(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != STATISTICS_MAGIC) {
+            throw new IOException("Not transaction statistics");
+        }
+        return new StatisticsDto(in.readLong(), WindowStateCodec.readDecimal(in), WindowStateCodec.readDecimal(in),
+                                 WindowStateCodec.readDecimal(in), WindowStateCodec.readDecimal(in));
+    }
+}
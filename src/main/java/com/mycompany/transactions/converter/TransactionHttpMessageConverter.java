@@ -0,0 +1,116 @@
+package com.mycompany.transactions.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads {@code application/json} request bodies straight into a {@link Transaction} through {@link TransactionParser},
+ * reusing one body buffer per thread.
+ * <ul>
+ * <li> Bodies {@link TransactionParser} doesn't handle are bound as a {@link TransactionDto} by Jackson, then
+ *      transformed, exactly like before.
+ * <li> A body that isn't JSON, or misses the amount or the timestamp, is answered with 400 like a failed
+ *      {@code @Valid TransactionDto} used to be.
+ * <li> Read-only: {@link #canWrite} is always false, so transactions are never written through it; Jackson's
+ *      converter keeps writing every response.
+ */
+@Component
+@Profile("!reactive")
+public class TransactionHttpMessageConverter implements HttpMessageConverter<Transaction> {
+
+    private static final int MAX_BUFFERED_BODY = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[512]);
+
+    private static final List<MediaType> SUPPORTED_MEDIA_TYPES = Arrays.asList(MediaType.APPLICATION_JSON,
+                                                                               new MediaType("application", "*+json"));
+
+    private final ObjectMapper objectMapper;
+
+    public TransactionHttpMessageConverter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        if (Transaction.class != clazz) {
+            return false;
+        }
+        if (mediaType == null) {
+            return true;
+        }
+        for (MediaType supportedMediaType : SUPPORTED_MEDIA_TYPES) {
+            if (supportedMediaType.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return SUPPORTED_MEDIA_TYPES;
+    }
+
+    @Override
+    public Transaction read(Class<? extends Transaction> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] buffer = buffers.get();
+        int length = 0;
+
+        InputStream body = inputMessage.getBody();
+        for (int read; (read = body.read(buffer, length, buffer.length - length)) != -1; ) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                if (buffer.length <= MAX_BUFFERED_BODY) {
+                    buffers.set(buffer);
+                }
+            }
+        }
+
+        Transaction transaction = TransactionParser.parse(buffer, length);
+        return transaction != null ? transaction : bind(buffer, length);
+    }
+
+    private Transaction bind(byte[] body, int length) {
+        TransactionDto transactionDto;
+        try {
+            transactionDto = objectMapper.readValue(body, 0, length, TransactionDto.class);
+        }
+        catch (IOException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getMessage(), ex);
+        }
+        if (transactionDto == null || transactionDto.getAmount() == null || transactionDto.getTimestamp() == null) {
+            throw new HttpMessageNotReadableException("Both amount and timestamp are required");
+        }
+        return TransactionParser.transform(transactionDto);
+    }
+
+    /**
+     * Never called, as {@link #canWrite} is false; the interface has no default to inherit instead.
+     */
+    @Override
+    public void write(Transaction transaction, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Transactions are read-only: " + transaction);
+    }
+}
@@ -0,0 +1,379 @@
+package com.mycompany.transactions.converter;
+
+import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import static com.mycompany.transactions.exception.ProcessingError.UNPARSEABLE_TRANSACTION;
+
+/**
+ * Parses a {@link Transaction} straight out of the bytes of a JSON request body, without binding an intermediate
+ * {@link TransactionDto} nor creating any {@link String} but the optional key and card:
+ * <ul>
+ * <li> The amount is read into an unscaled {@code long} and its scale, eg: "10.50" is read as 1050 with a scale of 2,
+ *      both handed over on the {@link Transaction} so fixed-point statistics don't unscale it again.
+ * <li> The timestamp is read into epoch seconds and nanos, eg: "2018-07-17T09:59:51.312Z".
+ * <li> Only the canonical shape {@code {"amount":"...","timestamp":"...","key":"...","card":"..."}} (in any
+ *      order, with any whitespace, with the amount quoted or not, the key and the card being optional) is handled; any
+ *      other body makes {@link #parse(byte[], int)} return {@code null}, so the caller falls back to binding a
+ *      {@link TransactionDto} and {@link #transform(TransactionDto)}, which keeps the exact semantics of
+ *      {@link BigDecimal#BigDecimal(String)} and {@link Instant#parse(CharSequence)}.
+ * <li> Values not fitting the fast path (more than 18 digits, exponents, offsets, leap seconds...) are decoded through
+ *      those same slow-path parsers, so bad input still raises {@code UNPARSEABLE_TRANSACTION}.
+ */
+public final class TransactionParser {
+
+    private static final byte[] AMOUNT    = "amount".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIMESTAMP = "timestamp".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY       = "key".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CARD      = "card".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int  MAX_DIGITS        = 18;
+    private static final long SECONDS_PER_DAY   = 86_400;
+    private static final int  DAYS_0000_TO_1970 = 719_528;
+
+    private TransactionParser() {
+    }
+
+    /**
+     * @return the parsed transaction, or {@code null} if {@code body} isn't of the canonical shape and must be bound
+     * as a {@link TransactionDto} instead.
+     *
+     * @throws TransactionProcessingException with {@code UNPARSEABLE_TRANSACTION} if the amount or the timestamp
+     * can't be parsed.
+     */
+    public static Transaction parse(byte[] body, int length) {
+        Cursor cursor = new Cursor(body, length);
+        BigDecimal amount = null;
+        Instant timestamp = null;
+        String key = null;
+        String card = null;
+
+        if (!cursor.consume('{')) {
+            return null;
+        }
+        do {
+            int keyStart = cursor.string();
+            int keyEnd = cursor.position - 1;
+            if (keyStart < 0 || !cursor.consume(':')) {
+                return null;
+            }
+            if (cursor.matches(keyStart, keyEnd, AMOUNT) && amount == null) {
+                amount = cursor.amount();
+                if (amount == null) {
+                    return null;
+                }
+            }
+            else if (cursor.matches(keyStart, keyEnd, TIMESTAMP) && timestamp == null) {
+                timestamp = cursor.timestamp();
+                if (timestamp == null) {
+                    return null;
+                }
+            }
+            else if (cursor.matches(keyStart, keyEnd, KEY) && key == null) {
+                int start = cursor.string();
+                if (start < 0) {
+                    return null;
+                }
+                key = new String(body, start, cursor.position - 1 - start, StandardCharsets.UTF_8);
+            }
+            else if (cursor.matches(keyStart, keyEnd, CARD) && card == null) {
+                int start = cursor.string();
+                if (start < 0) {
+                    return null;
+                }
+                card = new String(body, start, cursor.position - 1 - start, StandardCharsets.UTF_8);
+            }
+            else {
+                return null;
+            }
+        }
+        while (cursor.consume(','));
+
+        if (!cursor.consume('}') || !cursor.atEnd() || amount == null || timestamp == null) {
+            return null;
+        }
+        if (cursor.amountCompact) {
+            return new Transaction(amount, cursor.amountUnscaled, cursor.amountScale, timestamp, key, card);
+        }
+        return new Transaction(amount, timestamp, key, card);
+    }
+
+    /**
+     * Slow path, transforming an already bound {@link TransactionDto}.
+     *
+     * @throws TransactionProcessingException with {@code UNPARSEABLE_TRANSACTION} if the amount or the timestamp
+     * can't be parsed.
+     */
+    public static Transaction transform(TransactionDto transactionDto) {
+        if (transactionDto == null || transactionDto.getAmount() == null || transactionDto.getTimestamp() == null) {
+            throw TransactionProcessingException.of(UNPARSEABLE_TRANSACTION);
+        }
+        try {
+            return new Transaction(new BigDecimal(transactionDto.getAmount()),
+                                   Instant.parse(transactionDto.getTimestamp()),
+                                   transactionDto.getKey(),
+                                   transactionDto.getCard());
+        }
+        catch (DateTimeParseException | NumberFormatException ex) {
+            throw TransactionProcessingException.of(UNPARSEABLE_TRANSACTION);
+        }
+    }
+
+    /**
+     * Reading position over the body; every method skips the whitespace preceding the token it reads.
+     */
+    private static final class Cursor {
+        private final byte[]  body;
+        private final int     length;
+        private       int     position;
+        //the amount last read through the fast path, unscaled
+        private       long    amountUnscaled;
+        private       int     amountScale;
+        private       boolean amountCompact;
+
+        private Cursor(byte[] body, int length) {
+            this.body = body;
+            this.length = length;
+        }
+
+        private void skipWhitespace() {
+            while (position < length && (body[position] == ' ' || body[position] == '\t'
+                                         || body[position] == '\n' || body[position] == '\r')) {
+                position++;
+            }
+        }
+
+        private boolean consume(char expected) {
+            skipWhitespace();
+            if (position < length && body[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return position == length;
+        }
+
+        /**
+         * Reads a string without escapes.
+         * @return the index of its first character, or -1 if there's no such string; the cursor is then left right
+         * after the closing quote, so the string ends at {@code position - 1}.
+         */
+        private int string() {
+            if (!consume('"')) {
+                return -1;
+            }
+            int start = position;
+            while (position < length && body[position] != '"') {
+                if (body[position] == '\\') {
+                    return -1;
+                }
+                position++;
+            }
+            if (position == length) {
+                return -1;
+            }
+            position++;
+            return start;
+        }
+
+        private boolean matches(int start, int end, byte[] expected) {
+            if (end - start != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (body[start + i] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the amount, or {@code null} if the value isn't a plain string nor a number.
+         */
+        private BigDecimal amount() {
+            int start;
+            int end;
+            skipWhitespace();
+            if (position < length && body[position] == '"') {
+                start = string();
+                if (start < 0) {
+                    return null;
+                }
+                end = position - 1;
+            }
+            else {
+                start = position;
+                while (position < length && (body[position] == '-' || body[position] == '+' || body[position] == '.'
+                                             || body[position] == 'e' || body[position] == 'E'
+                                             || (body[position] >= '0' && body[position] <= '9'))) {
+                    position++;
+                }
+                end = position;
+                if (start == end) {
+                    return null;
+                }
+            }
+
+            int i = start;
+            boolean negative = i < end && body[i] == '-';
+            if (negative) {
+                i++;
+            }
+            long unscaled = 0;
+            int digits = 0;
+            int scale = -1;
+            for (; i < end; i++) {
+                byte b = body[i];
+                if (b >= '0' && b <= '9') {
+                    if (++digits > MAX_DIGITS) {
+                        return slowAmount(start, end);
+                    }
+                    unscaled = unscaled * 10 + (b - '0');
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                }
+                else if (b == '.' && scale < 0 && digits > 0) {
+                    scale = 0;
+                }
+                else {
+                    return slowAmount(start, end);
+                }
+            }
+            if (digits == 0 || scale == 0) {
+                return slowAmount(start, end);
+            }
+            amountUnscaled = negative ? -unscaled : unscaled;
+            amountScale = Math.max(scale, 0);
+            amountCompact = true;
+            return BigDecimal.valueOf(amountUnscaled, amountScale);
+        }
+
+        private BigDecimal slowAmount(int start, int end) {
+            try {
+                return new BigDecimal(new String(body, start, end - start, StandardCharsets.UTF_8));
+            }
+            catch (NumberFormatException ex) {
+                throw TransactionProcessingException.of(UNPARSEABLE_TRANSACTION);
+            }
+        }
+
+        /**
+         * Reads a {@code YYYY-MM-DDThh:mm:ss[.fraction]Z} timestamp.
+         * @return the timestamp, or {@code null} if the value isn't a plain string.
+         */
+        private Instant timestamp() {
+            int start = string();
+            if (start < 0) {
+                return null;
+            }
+            int end = position - 1;
+
+            int length = end - start;
+            if (length < 20 || body[start + 4] != '-' || body[start + 7] != '-' || body[start + 10] != 'T'
+                || body[start + 13] != ':' || body[start + 16] != ':' || body[end - 1] != 'Z') {
+                return slowTimestamp(start, end);
+            }
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            int hour = digits(start + 11, 2);
+            int minute = digits(start + 14, 2);
+            int second = digits(start + 17, 2);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return slowTimestamp(start, end);
+            }
+
+            int nanos = 0;
+            int fractionStart = start + 19;
+            if (fractionStart < end - 1) {
+                int fractionDigits = end - 1 - fractionStart - 1;
+                if (body[fractionStart] != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return slowTimestamp(start, end);
+                }
+                nanos = digits(fractionStart + 1, fractionDigits);
+                if (nanos < 0) {
+                    return slowTimestamp(start, end);
+                }
+                for (int i = fractionDigits; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+
+            long epochDay = epochDay(year, month, day);
+            return Instant.ofEpochSecond(epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second, nanos);
+        }
+
+        private Instant slowTimestamp(int start, int end) {
+            try {
+                return Instant.parse(new String(body, start, end - start, StandardCharsets.UTF_8));
+            }
+            catch (DateTimeParseException ex) {
+                throw TransactionProcessingException.of(UNPARSEABLE_TRANSACTION);
+            }
+        }
+
+        /**
+         * @return the value of {@code count} ASCII digits, or -1 if any of them isn't a digit.
+         */
+        private int digits(int start, int count) {
+            int value = 0;
+            for (int i = start; i < start + count; i++) {
+                int digit = body[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Same proleptic Gregorian arithmetic as {@link java.time.LocalDate#toEpochDay()}, without creating a LocalDate.
+     */
+    private static long epochDay(long year, int month, int day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        }
+        else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!((year % 4 == 0 && year % 100 != 0) || year % 400 == 0)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.transactions.converter;
+
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.WindowState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link WindowState}, big-endian:
+ * <pre>
+ * int MAGIC | long bucket width | int bucket count | buckets...
+ * </pre>
+ * each bucket being its epoch, last modification and count as {@code long}s, then its unrounded sum, min and max, each
+ * as an {@code int} scale, an unsigned {@code short} length and the unscaled value's two's-complement bytes; about 50
+ * bytes per bucket, so a whole default window is exported in 3 KB.
+ */
+public final class WindowStateCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-window-state";
+
+    private static final int MAGIC = 0x54585731;
+
+    private WindowStateCodec() {
+    }
+
+    public static byte[] encode(WindowState windowState) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 64 * windowState.getBuckets().size());
+        try {
+            write(new DataOutputStream(bytes), windowState);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if {@code bytes} aren't an encoded {@link WindowState}.
+     */
+    public static WindowState decode(byte[] bytes) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    public static void write(DataOutput out, WindowState windowState) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(windowState.getBucketWidthMillis());
+        out.writeInt(windowState.getBuckets().size());
+        for (BucketStatistics bucket : windowState.getBuckets()) {
+            out.writeLong(bucket.getBucketEpoch());
+            out.writeLong(bucket.getLastModified());
+            out.writeLong(bucket.getCount());
+            writeDecimal(out, bucket.getSum());
+            writeDecimal(out, bucket.getMin());
+            writeDecimal(out, bucket.getMax());
+        }
+    }
+
+    public static WindowState read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a window state");
+        }
+        long bucketWidthMillis = in.readLong();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid bucket count " + count);
+        }
+        List<BucketStatistics> buckets = new ArrayList<>(Math.min(count, 1_024));
+        for (int i = 0; i < count; i++) {
+            buckets.add(new BucketStatistics(in.readLong(), in.readLong(), in.readLong(), readDecimal(in),
+                                             readDecimal(in), readDecimal(in)));
+        }
+        return new WindowState(bucketWidthMillis, buckets);
+    }
+
+    static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
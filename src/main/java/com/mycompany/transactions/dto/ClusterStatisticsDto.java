@@ -0,0 +1,34 @@
+package com.mycompany.transactions.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.mycompany.transactions.model.ClusterStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+
+import java.util.List;
+
+import lombok.Getter;
+
+@Getter
+@JsonPropertyOrder({"count", "sum", "avg", "min", "max", "nodes", "partial", "failedPeers"})
+public class ClusterStatisticsDto extends StatisticsDto {
+
+    private int          nodes;
+    private boolean      partial;
+    private List<String> failedPeers;
+
+    public ClusterStatisticsDto(SummaryStatistics summaryStatistics, int nodes, List<String> failedPeers) {
+        super(summaryStatistics.getCount(),
+              summaryStatistics.getSum(),
+              summaryStatistics.getAvg(),
+              summaryStatistics.getMin(),
+              summaryStatistics.getMax());
+        this.nodes = nodes;
+        this.partial = !failedPeers.isEmpty();
+        this.failedPeers = failedPeers;
+    }
+
+    public static ClusterStatisticsDto from(ClusterStatistics clusterStatistics) {
+        return new ClusterStatisticsDto(clusterStatistics.getStatistics(), clusterStatistics.getNodes(),
+                                        clusterStatistics.getFailedPeers());
+    }
+}
@@ -0,0 +1,22 @@
+package com.mycompany.transactions.dto;
+
+import com.mycompany.transactions.model.SummaryStatistics;
+
+import java.util.Map;
+
+import lombok.Getter;
+
+@Getter
+public class DistinctStatisticsDto extends StatisticsDto {
+
+    private Map<String, Long> distinct;
+
+    public DistinctStatisticsDto(SummaryStatistics summaryStatistics, Map<String, Long> distinct) {
+        super(summaryStatistics.getCount(),
+              summaryStatistics.getSum(),
+              summaryStatistics.getAvg(),
+              summaryStatistics.getMin(),
+              summaryStatistics.getMax());
+        this.distinct = distinct;
+    }
+}
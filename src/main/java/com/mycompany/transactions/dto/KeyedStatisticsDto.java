@@ -0,0 +1,27 @@
+package com.mycompany.transactions.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.mycompany.transactions.model.KeyedStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+
+import lombok.Getter;
+
+@Getter
+@JsonPropertyOrder({"key", "count", "sum", "avg", "min", "max"})
+public class KeyedStatisticsDto extends StatisticsDto {
+
+    private String key;
+
+    public KeyedStatisticsDto(String key, SummaryStatistics summaryStatistics) {
+        super(summaryStatistics.getCount(),
+              summaryStatistics.getSum(),
+              summaryStatistics.getAvg(),
+              summaryStatistics.getMin(),
+              summaryStatistics.getMax());
+        this.key = key;
+    }
+
+    public static KeyedStatisticsDto from(KeyedStatistics keyedStatistics) {
+        return new KeyedStatisticsDto(keyedStatistics.getKey(), keyedStatistics.getStatistics());
+    }
+}
@@ -0,0 +1,22 @@
+package com.mycompany.transactions.dto;
+
+import com.mycompany.transactions.model.SummaryStatistics;
+
+import java.util.Map;
+
+import lombok.Getter;
+
+@Getter
+public class PercentilesStatisticsDto extends StatisticsDto {
+
+    private Map<String, String> percentiles;
+
+    public PercentilesStatisticsDto(SummaryStatistics summaryStatistics, Map<String, String> percentiles) {
+        super(summaryStatistics.getCount(),
+              summaryStatistics.getSum(),
+              summaryStatistics.getAvg(),
+              summaryStatistics.getMin(),
+              summaryStatistics.getMax());
+        this.percentiles = percentiles;
+    }
+}
@@ -1,5 +1,7 @@
 package com.mycompany.transactions.dto;
 
+import com.mycompany.transactions.model.SummaryStatistics;
+
 import java.math.BigDecimal;
 
 import lombok.Getter;
@@ -20,4 +22,12 @@ public class StatisticsDto {
         this.min = min.toString();
         this.max = max.toString();
     }
+
+    public static StatisticsDto from(SummaryStatistics summaryStatistics) {
+        return new StatisticsDto(summaryStatistics.getCount(),
+                                 summaryStatistics.getSum(),
+                                 summaryStatistics.getAvg(),
+                                 summaryStatistics.getMin(),
+                                 summaryStatistics.getMax());
+    }
 }
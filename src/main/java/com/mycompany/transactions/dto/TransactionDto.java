@@ -14,4 +14,14 @@ public class TransactionDto {
     private String amount;
     @NotNull
     private String timestamp;
+    private String key;
+    private String card;
+
+    public TransactionDto(String amount, String timestamp) {
+        this(amount, timestamp, null, null);
+    }
+
+    public TransactionDto(String amount, String timestamp, String key) {
+        this(amount, timestamp, key, null);
+    }
 }
@@ -0,0 +1,25 @@
+package com.mycompany.transactions.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mycompany.transactions.exception.ProcessingError;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * Outcome of one transaction of a batch: the HTTP status a single {@code POST /transactions} would have answered with,
+ * and the {@link ProcessingError} of rejected transactions.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionResultDto {
+
+    private int    status;
+    private String error;
+
+    public TransactionResultDto(ProcessingError processingError) {
+        this.status = processingError == null ? HttpStatus.CREATED.value() : processingError.getHttpStatus();
+        this.error = processingError == null ? null : processingError.name();
+    }
+}
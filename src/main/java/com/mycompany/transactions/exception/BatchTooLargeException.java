@@ -0,0 +1,24 @@
+package com.mycompany.transactions.exception;
+
+import com.mycompany.core.AbstractBusinessException;
+
+/**
+ * A batch body larger than {@code transactions.batch.max-size}, answered with 413 before it's buffered any further.
+ */
+public class BatchTooLargeException extends AbstractBusinessException {
+
+    private static final BatchTooLargeException INSTANCE = new BatchTooLargeException();
+
+    private BatchTooLargeException() {
+        super(false);
+    }
+
+    public static BatchTooLargeException instance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public int getHttpStatus() {
+        return 413;
+    }
+}
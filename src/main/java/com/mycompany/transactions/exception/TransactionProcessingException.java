@@ -4,12 +4,39 @@ import com.mycompany.core.AbstractBusinessException;
 
 public class TransactionProcessingException extends AbstractBusinessException {
 
+    private static final TransactionProcessingException[] PREALLOCATED;
+
+    static {
+        ProcessingError[] processingErrors = ProcessingError.values();
+        PREALLOCATED = new TransactionProcessingException[processingErrors.length];
+        for (ProcessingError processingError : processingErrors) {
+            PREALLOCATED[processingError.ordinal()] = new TransactionProcessingException(processingError, false);
+        }
+    }
+
     private ProcessingError processingError;
 
     public TransactionProcessingException(ProcessingError processingError) {
         this.processingError = processingError;
     }
 
+    private TransactionProcessingException(ProcessingError processingError, boolean writableStackTrace) {
+        super(writableStackTrace);
+        this.processingError = processingError;
+    }
+
+    /**
+     * @return the shared, stackless exception of a {@link ProcessingError}: rejections are expected business outcomes,
+     * throwing one costs no allocation nor stack walk.
+     */
+    public static TransactionProcessingException of(ProcessingError processingError) {
+        return PREALLOCATED[processingError.ordinal()];
+    }
+
+    public ProcessingError getProcessingError() {
+        return processingError;
+    }
+
     @Override
     public int getHttpStatus() {
         return processingError.getHttpStatus();
@@ -0,0 +1,168 @@
+package com.mycompany.transactions.journal;
+
+import com.mycompany.transactions.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the write-ahead log, memory-mapped at its full {@code size} when created, holding accepted transactions
+ * as records of:
+ * <pre>
+ * int length | long timestamp (epoch millis) | int amount scale | amount unscaled bytes | int CRC32
+ * </pre>
+ * where {@code length} counts the bytes from the timestamp to the unscaled amount, and the CRC32 covers them. The
+ * length is written last, so a zero length (the untouched rest of the file), or a record failing its checksum, marks
+ * the end of the log.
+ */
+final class JournalSegment implements Closeable {
+
+    static final String PREFIX = "segment-";
+    static final String SUFFIX = ".wal";
+
+    /**
+     * Longest two's-complement unscaled amount a record holds, longer ones can't be journaled.
+     */
+    static final int MAX_UNSCALED_BYTES = Byte.MAX_VALUE;
+
+    private static final int HEADER  = Integer.BYTES;
+    private static final int TRAILER = Integer.BYTES;
+
+    private final long             sequence;
+    private final FileChannel      channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32            crc = new CRC32();
+    private final byte[]           scratch;
+
+    private volatile boolean dirty;
+
+    private JournalSegment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.scratch = new byte[Long.BYTES + Integer.BYTES + MAX_UNSCALED_BYTES];
+    }
+
+    static JournalSegment create(Path directory, long sequence, int size) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(fileName(sequence)), StandardOpenOption.CREATE_NEW,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+
+    /**
+     * Writes a record into the mapped file, that is to the page cache: it survives the process crashing right after,
+     * and reaches the disk on the next {@link #force()}. Not threadsafe, appends must be serialized by the caller.
+     * @param unscaled the two's-complement unscaled amount, of at most {@link #MAX_UNSCALED_BYTES}.
+     * @return {@code false} if the segment is full.
+     */
+    boolean append(long timestamp, int scale, byte[] unscaled) {
+        int length = Long.BYTES + Integer.BYTES + unscaled.length;
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER + length + TRAILER) {
+            return false;
+        }
+
+        int offset = 0;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            scratch[offset++] = (byte) (timestamp >>> shift);
+        }
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            scratch[offset++] = (byte) (scale >>> shift);
+        }
+        System.arraycopy(unscaled, 0, scratch, offset, unscaled.length);
+        crc.reset();
+        crc.update(scratch, 0, length);
+
+        buffer.position(start + HEADER);
+        buffer.put(scratch, 0, length);
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(start, length);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Flushes the records appended since the last call to the disk; many appends are made durable by one call, which
+     * is what group commit amounts to.
+     */
+    void force() {
+        if (dirty) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Reads every valid record of a segment file, from the start to the first empty or torn one.
+     * @return the count of records read.
+     */
+    static long read(Path path, Consumer<Transaction> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            long count = 0;
+
+            while (buffer.remaining() >= HEADER) {
+                int length = buffer.getInt();
+                if (length < Long.BYTES + Integer.BYTES || length > buffer.remaining() - TRAILER) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(record);
+                crc.reset();
+                crc.update(record, 0, length);
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    break;
+                }
+
+                long timestamp = 0;
+                for (int i = 0; i < Long.BYTES; i++) {
+                    timestamp = timestamp << 8 | (record[i] & 0xFF);
+                }
+                int scale = 0;
+                for (int i = Long.BYTES; i < Long.BYTES + Integer.BYTES; i++) {
+                    scale = scale << 8 | (record[i] & 0xFF);
+                }
+                byte[] unscaled = new byte[length - Long.BYTES - Integer.BYTES];
+                System.arraycopy(record, Long.BYTES + Integer.BYTES, unscaled, 0, unscaled.length);
+
+                consumer.accept(new Transaction(new BigDecimal(new BigInteger(unscaled), scale),
+                                                Instant.ofEpochMilli(timestamp)));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return fileName(sequence) + " at " + buffer.position() + " of " + buffer.capacity() + " bytes";
+    }
+}
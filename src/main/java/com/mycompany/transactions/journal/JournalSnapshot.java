@@ -0,0 +1,67 @@
+package com.mycompany.transactions.journal;
+
+import com.mycompany.transactions.converter.WindowStateCodec;
+import com.mycompany.transactions.model.WindowState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Bucket totals of the window folded out of every write-ahead log segment up to, and including, {@code sequence}: a
+ * {@link WindowStateCodec encoded} {@link WindowState}, followed by the {@code long} CRC32 of its bytes. Snapshots are
+ * written to a temporary file first, then atomically moved in place.
+ */
+final class JournalSnapshot {
+
+    static final String PREFIX = "snapshot-";
+    static final String SUFFIX = ".snap";
+
+    private JournalSnapshot() {
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    static void write(Path directory, long sequence, WindowState windowState) throws IOException {
+        Path temporary = directory.resolve(fileName(sequence) + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)), crc))) {
+            WindowStateCodec.write(out, windowState);
+            out.writeLong(crc.getValue());
+        }
+        //the snapshot must be on disk before the segments it replaces get deleted
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(fileName(sequence)), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @throws IOException if the file is truncated or fails its checksum.
+     */
+    static WindowState read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path)), crc))) {
+            WindowState windowState = WindowStateCodec.read(in);
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Corrupted journal snapshot: " + path);
+            }
+            return windowState;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.mycompany.transactions.journal;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.Transaction;
+import com.mycompany.transactions.model.WindowState;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Opt-in durability of the window, enabled by {@code transactions.journal.enabled=true}, so a restart doesn't lose
+ * the last window of statistics:
+ * <ul>
+ * <li> Request threads copy every accepted transaction's timestamp and amount into the preallocated slots of a bounded
+ *      multi-producer ring, as {@link com.mycompany.transactions.audit.TransactionsAuditLog} does: no lock, no I/O.
+ *      The journal can't drop a record, so a full ring makes the request thread wait for the writer.
+ * <li> One background thread drains the ring into a memory-mapped {@link JournalSegment} of the write-ahead log every
+ *      {@code transactions.journal.sync-interval}, then forces the appended records to disk, making all of them
+ *      durable at once (group commit). It owns the segment: only it appends, rolls a full segment and opens a new one.
+ * <li> Every {@code transactions.journal.snapshot-interval}, the writer is asked to close the current segment, and the
+ *      closed segments are folded into per-bucket totals, saved as a {@link JournalSnapshot}. Buckets out of the window
+ *      are dropped from the snapshot, and folded segments are deleted, so the journal never outgrows the window.
+ * <li> On startup, the latest snapshot is imported into the {@link TransactionsManager}, then the segments written
+ *      since are replayed through {@link TransactionsManager#createTransactions(java.util.Collection)}, which drops
+ *      the transactions already out of the window: recovery reads at most one snapshot interval worth of records.
+ * <li> Only the global window is journaled; the keyed statistics, percentiles and distinct counts start empty.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.journal.enabled", havingValue = "true")
+public class TransactionsJournal {
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private static final int  SPINS           = 100;
+    private static final long WAIT_PARK_NANOS = 10_000;
+
+    private final TransactionsManager transactionsManager;
+    private final SlidingWindow       window;
+    private final Path                directory;
+    private final int                 segmentSize;
+    private final long                syncIntervalNanos;
+    private final long                snapshotIntervalMillis;
+    private final Clock               clock;
+
+    private final ScheduledExecutorService scheduler;
+
+    //ring of preallocated slots, a slot being free for the producers of sequence s once sequences[s & mask] == s
+    private final long[]          timestamps;
+    private final BigDecimal[]    amounts;
+    private final AtomicLongArray sequences;
+    private final int             mask;
+    private final AtomicLong      tail = new AtomicLong();
+
+    //owned by the writer thread
+    private       long           head;
+    private       JournalSegment segment;
+
+    private final    Thread  writer;
+    private volatile boolean running = true;
+    //roll or reset asked to the writer, one at a time as its callers hold compactionLock
+    private volatile Request request;
+
+    //bucket totals of the segments folded so far, guarded by compactionLock
+    private final Map<Long, Bucket> folded         = new HashMap<>();
+    private final Object            compactionLock = new Object();
+
+    @Autowired
+    public TransactionsJournal(TransactionsManager transactionsManager, TransactionsProperties properties,
+                               Clock clock) {
+        this(transactionsManager, properties.getWindow().toSlidingWindow(),
+             Paths.get(properties.getJournal().getDirectory()), properties.getJournal().getSegmentSize(),
+             properties.getJournal().getBufferSize(), properties.getJournal().getSyncInterval().toMillis(),
+             properties.getJournal().getSnapshotInterval().toMillis(), clock);
+    }
+
+    public TransactionsJournal(TransactionsManager transactionsManager, SlidingWindow window, Path directory,
+                               int segmentSize, long syncIntervalMillis, long snapshotIntervalMillis) {
+        this(transactionsManager, window, directory, segmentSize, 65_536, syncIntervalMillis, snapshotIntervalMillis,
+             Clock.systemUTC());
+    }
+
+    public TransactionsJournal(TransactionsManager transactionsManager, SlidingWindow window, Path directory,
+                               int segmentSize, int bufferSize, long syncIntervalMillis, long snapshotIntervalMillis,
+                               Clock clock) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Journal buffer size must be a power of two: " + bufferSize);
+        }
+        this.transactionsManager = transactionsManager;
+        this.window = window;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.clock = clock;
+        this.timestamps = new long[bufferSize];
+        this.amounts = new BigDecimal[bufferSize];
+        this.sequences = new AtomicLongArray(bufferSize);
+        this.mask = bufferSize - 1;
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.set(i, i);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transactions-journal-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::drain, "transactions-journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Restores the window from the latest snapshot and the segments written since, then opens a new segment.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long startNanos = System.nanoTime();
+        Files.createDirectories(directory);
+
+        long snapshotSequence = -1;
+        int restored = 0;
+        synchronized (compactionLock) {
+            folded.clear();
+            for (Map.Entry<Long, Path> snapshot : list(JournalSnapshot.PREFIX, JournalSnapshot.SUFFIX)
+                    .descendingMap().entrySet()) {
+                try {
+                    WindowState read = JournalSnapshot.read(snapshot.getValue());
+                    if (read.getBucketWidthMillis() != window.getBucketWidthMillis()) {
+                        logger.warn("Ignoring journal snapshot of another bucket width: " + snapshot.getValue());
+                    }
+                    else {
+                        read.getBuckets().forEach(bucket -> folded.put(bucket.getBucketEpoch(), new Bucket(bucket)));
+                        transactionsManager.importBuckets(read.getBuckets());
+                        restored = read.getBuckets().size();
+                    }
+                    snapshotSequence = snapshot.getKey();
+                    break;
+                }
+                catch (IOException ex) {
+                    logger.warn("Ignoring unreadable journal snapshot " + snapshot.getValue(), ex);
+                }
+            }
+        }
+
+        long replayed = 0;
+        long lastSequence = snapshotSequence;
+        for (Map.Entry<Long, Path> segment : list(JournalSegment.PREFIX, JournalSegment.SUFFIX).entrySet()) {
+            lastSequence = Math.max(lastSequence, segment.getKey());
+            if (segment.getKey() > snapshotSequence) {
+                List<Transaction> transactions = new ArrayList<>();
+                JournalSegment.read(segment.getValue(), transactions::add);
+                replayed += transactionsManager.createTransactions(transactions).stream()
+                                               .filter(processingError -> processingError == null).count();
+            }
+            else {
+                Files.delete(segment.getValue());
+            }
+        }
+
+        segment = JournalSegment.create(directory, lastSequence + 1, segmentSize);
+        writer.start();
+        scheduler.scheduleWithFixedDelay(this::compact, snapshotIntervalMillis, snapshotIntervalMillis,
+                                         TimeUnit.MILLISECONDS);
+
+        logger.info(String.format("Journal %s recovered %d buckets and replayed %d transactions in %d ms", directory,
+                                  restored, replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+    }
+
+    /**
+     * Appends a transaction already accepted by the {@link TransactionsManager}, without blocking unless the ring is
+     * full; it is durable after the next sync.
+     */
+    public void append(Transaction transaction) {
+        for (int spins = 0; !tryAppend(transaction) && running; ) {
+            if (spins++ < SPINS) {
+                Thread.yield();
+            }
+            else {
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Appends a transaction like {@link #append(Transaction)}, unless the ring is full, for callers that must not wait.
+     * @return whether the transaction was appended; if not, the writer is woken up to drain the ring.
+     */
+    public boolean tryAppend(Transaction transaction) {
+        for (; ; ) {
+            long next = tail.get();
+            int index = (int) next & mask;
+            long slotSequence = sequences.get(index);
+            if (slotSequence == next) {
+                if (tail.compareAndSet(next, next + 1)) {
+                    timestamps[index] = transaction.getTimestamp().toEpochMilli();
+                    amounts[index] = transaction.getAmount();
+                    sequences.lazySet(index, next + 1);
+                    return true;
+                }
+            }
+            else if (slotSequence < next) {
+                //full, have the writer drain the ring now rather than on its next sync
+                LockSupport.unpark(writer);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Deletes the whole journal, along with a reset of the {@link TransactionsManager}.
+     */
+    public void reset() {
+        synchronized (compactionLock) {
+            if (running) {
+                submit(true);
+                folded.clear();
+            }
+        }
+    }
+
+    /**
+     * Stops the writer once it journaled and forced every transaction already appended.
+     */
+    @PreDestroy
+    public void close() {
+        synchronized (compactionLock) {
+            scheduler.shutdown();
+            running = false;
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Has the writer close the current segment, folds every closed one into the bucket totals, writes them as a
+     * snapshot, then deletes the folded segments and older snapshots.
+     */
+    void compact() {
+        synchronized (compactionLock) {
+            try {
+                if (!running) {
+                    return;
+                }
+                long upTo = submit(false);
+                if (upTo < 0) {
+                    return;
+                }
+
+                NavigableMap<Long, Path> segments = list(JournalSegment.PREFIX, JournalSegment.SUFFIX)
+                        .headMap(upTo, true);
+                for (Path path : segments.values()) {
+                    JournalSegment.read(path, this::fold);
+                }
+
+                long nowEpoch = clock.millis();
+                folded.values().removeIf(bucket -> window.isExpired(nowEpoch, bucket.lastModified));
+                List<BucketStatistics> buckets = new ArrayList<>(folded.size());
+                folded.forEach((bucketEpoch, bucket) -> buckets.add(bucket.toBucketStatistics(bucketEpoch)));
+                JournalSnapshot.write(directory, upTo, new WindowState(window.getBucketWidthMillis(), buckets));
+
+                for (Path path : segments.values()) {
+                    Files.delete(path);
+                }
+                for (Path path : list(JournalSnapshot.PREFIX, JournalSnapshot.SUFFIX).headMap(upTo).values()) {
+                    Files.delete(path);
+                }
+            }
+            catch (IOException | RuntimeException ex) {
+                logger.error("Journal compaction failed, retrying on the next one", ex);
+            }
+        }
+    }
+
+    /**
+     * Hands a roll or a reset over to the writer, and waits for it, the caller holding compactionLock.
+     * @return the sequence of the segment closed, {@code -1} if there was nothing to close.
+     */
+    private long submit(boolean reset) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        request = new Request(reset, done);
+        LockSupport.unpark(writer);
+        try {
+            return done.join();
+        }
+        catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+        }
+    }
+
+    /**
+     * Writer loop: drains the ring, serves the pending request, and forces the segment every sync interval.
+     */
+    private void drain() {
+        long syncAt = System.nanoTime() + syncIntervalNanos;
+        while (true) {
+            boolean stopping = !running;
+            try {
+                write();
+                Request pending = request;
+                if (pending != null) {
+                    request = null;
+                    serve(pending);
+                }
+                if (stopping || System.nanoTime() - syncAt >= 0) {
+                    segment.force();
+                    syncAt = System.nanoTime() + syncIntervalNanos;
+                }
+            }
+            catch (IOException | RuntimeException ex) {
+                logger.error("Journal write failed, retrying on the next sync", ex);
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(syncAt - System.nanoTime());
+        }
+        try {
+            segment.close();
+        }
+        catch (IOException ex) {
+            logger.warn("Failed closing the journal", ex);
+        }
+    }
+
+    /**
+     * Appends every published transaction to the current segment, rolling it when full.
+     */
+    private void write() throws IOException {
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return;
+            }
+            long timestamp = timestamps[index];
+            BigDecimal amount = amounts[index];
+            amounts[index] = null;
+            sequences.lazySet(index, head + amounts.length);
+            head++;
+
+            byte[] unscaled = amount.unscaledValue().toByteArray();
+            if (unscaled.length > JournalSegment.MAX_UNSCALED_BYTES) {
+                logger.warn("Amount too large for the journal, not journaled: " + amount);
+            }
+            else if (!segment.append(timestamp, amount.scale(), unscaled)) {
+                roll();
+                if (!segment.append(timestamp, amount.scale(), unscaled)) {
+                    logger.warn("Transaction larger than a journal segment, not journaled: " + amount);
+                }
+            }
+        }
+    }
+
+    private void serve(Request pending) {
+        try {
+            long sequence = segment.getSequence();
+            if (pending.reset) {
+                segment.close();
+                for (Path path : list(JournalSegment.PREFIX, JournalSegment.SUFFIX).values()) {
+                    Files.delete(path);
+                }
+                for (Path path : list(JournalSnapshot.PREFIX, JournalSnapshot.SUFFIX).values()) {
+                    Files.delete(path);
+                }
+                segment = JournalSegment.create(directory, sequence + 1, segmentSize);
+            }
+            else if (segment.isEmpty()) {
+                sequence = -1;
+            }
+            else {
+                roll();
+            }
+            pending.done.complete(sequence);
+        }
+        catch (IOException ex) {
+            pending.done.completeExceptionally(new UncheckedIOException(ex));
+        }
+        catch (RuntimeException ex) {
+            pending.done.completeExceptionally(ex);
+        }
+    }
+
+    private void roll() throws IOException {
+        long sequence = segment.getSequence();
+        segment.close();
+        segment = JournalSegment.create(directory, sequence + 1, segmentSize);
+    }
+
+    private void fold(Transaction transaction) {
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+        folded.computeIfAbsent(window.bucketEpoch(timestamp), bucketEpoch -> new Bucket())
+              .add(timestamp, transaction.getAmount());
+    }
+
+    /**
+     * @return the journal files of a kind, by sequence.
+     */
+    private TreeMap<Long, Path> list(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private static final class Request {
+        private final boolean                 reset;
+        private final CompletableFuture<Long> done;
+
+        private Request(boolean reset, CompletableFuture<Long> done) {
+            this.reset = reset;
+            this.done = done;
+        }
+    }
+
+    /**
+     * Mutable totals of one bucket, while folding segments.
+     */
+    private static final class Bucket {
+        private long       lastModified;
+        private long       count;
+        private BigDecimal sum;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        private Bucket() {
+        }
+
+        private Bucket(BucketStatistics statistics) {
+            lastModified = statistics.getLastModified();
+            count = statistics.getCount();
+            sum = statistics.getSum();
+            min = statistics.getMin();
+            max = statistics.getMax();
+        }
+
+        private void add(long timestamp, BigDecimal amount) {
+            if (count++ == 0) {
+                sum = amount;
+                min = amount;
+                max = amount;
+            }
+            else {
+                sum = sum.add(amount);
+                if (min.compareTo(amount) > 0) { min = amount; }
+                if (max.compareTo(amount) < 0) { max = amount; }
+            }
+            lastModified = Math.max(lastModified, timestamp);
+        }
+
+        private BucketStatistics toBucketStatistics(long bucketEpoch) {
+            return new BucketStatistics(bucketEpoch, lastModified, count, sum, min, max);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Opt-in rotation of the buckets of the {@code synchronized} engine, enabled by
+ * {@code transactions.window.rotation=ticker}: once per bucket width, right after the bucket epoch changes, a
+ * background thread {@link TransactionsManagerImpl#rotate() prepares} the bucket of the next epoch, so writers no
+ * longer reset buckets on the request path. The statistics are unchanged: a ticker falling behind, eg: during a GC
+ * pause, only leaves the recycling to the writers until it catches up, and rotation is ignored by the other engines.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.window.rotation", havingValue = "ticker")
+public class BucketRotationTicker {
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    public enum Rotation {
+        /**
+         * Buckets are recycled by the first writer of a newer bucket epoch.
+         */
+        LAZY,
+        /**
+         * Buckets are recycled ahead of time by the {@link BucketRotationTicker}.
+         */
+        TICKER
+    }
+
+    private final TransactionsManager      transactionsManager;
+    private final Clock                    clock;
+    private final long                     bucketWidthMillis;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public BucketRotationTicker(TransactionsManager transactionsManager, Clock clock,
+                                TransactionsProperties properties) {
+        this(transactionsManager, clock, properties.getWindow().getBucketWidth().toMillis());
+    }
+
+    public BucketRotationTicker(TransactionsManager transactionsManager, Clock clock, long bucketWidthMillis) {
+        this.transactionsManager = transactionsManager;
+        this.clock = clock;
+        this.bucketWidthMillis = bucketWidthMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transactions-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!(transactionsManager instanceof TransactionsManagerImpl)) {
+            logger.warn("Bucket rotation ticker ignored, only the synchronized engine supports it");
+            return;
+        }
+        TransactionsManagerImpl engine = (TransactionsManagerImpl) transactionsManager;
+        engine.rotate();
+        long sinceEpoch = Math.floorMod(clock.millis(), bucketWidthMillis);
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                engine.rotate();
+            }
+            catch (RuntimeException ex) {
+                logger.error("Bucket rotation failed, retrying on the next one", ex);
+            }
+        }, bucketWidthMillis - sinceEpoch, bucketWidthMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
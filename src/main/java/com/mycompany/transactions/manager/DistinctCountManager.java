@@ -0,0 +1,53 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.model.HyperLogLog;
+import com.mycompany.transactions.model.Transaction;
+
+import java.util.function.Function;
+
+/**
+ * A <b>Manager</b> Responsible for the approximate count of distinct cards and keys of the sliding window, kept next
+ * to the statistics of {@link TransactionsManager}.
+ */
+public interface DistinctCountManager {
+
+    /**
+     * Identifier of a transaction whose distinct values are counted.
+     */
+    enum Dimension {
+        CARD(Transaction::getCard),
+        KEY(Transaction::getKey);
+
+        private final Function<Transaction, String> identifier;
+
+        Dimension(Function<Transaction, String> identifier) {
+            this.identifier = identifier;
+        }
+
+        /**
+         * @return the identifier of the transaction, {@code null} if it has none.
+         */
+        public String of(Transaction transaction) {
+            return identifier.apply(transaction);
+        }
+    }
+
+    /**
+     * Counts the identifiers of a transaction already accepted by {@link TransactionsManager} to the sketches of its
+     * bucket.
+     * @param transaction
+     */
+    void createTransaction(Transaction transaction);
+
+    /**
+     * Gets the merged sketch of the current window.
+     * @param dimension
+     * @return {@link HyperLogLog}
+     */
+    HyperLogLog getDistinctSketch(Dimension dimension);
+
+    /**
+     * Reset the distinct counts state
+     */
+    void resetAll();
+}
@@ -0,0 +1,138 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.model.HyperLogLog;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+
+/**
+ * In-memory implementation for {@link DistinctCountManager}, enabled by setting
+ * {@code transactions.statistics.distinct.enabled=true}:
+ * <ul>
+ * <li> One {@link HyperLogLog} per {@link Dimension} and bucket of the {@link SlidingWindow}, recycled exactly like
+ *      the buckets of {@link TransactionsManagerImpl} and guarded the same way, by synchronizing on the bucket's
+ *      sketches.
+ * <li> Identifiers are hashed before entering the monitor, which then only updates a register per identifier.
+ * <li> Memory stays O(1): a sketch is a fixed array of {@code 2^precision} one-byte registers.
+ * <li> Reading merges the sketches of the live buckets register-wise, as {@link TransactionsManagerImpl} combines its
+ *      statistics; an identifier seen in several buckets is counted once.
+ * <li> Buckets expire against the same {@link Clock} as the engine's, so both windows agree under a coarse or virtual
+ *      clock.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.statistics.distinct.enabled", havingValue = "true")
+public class DistinctCountManagerImpl implements DistinctCountManager {
+
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+
+    private final SlidingWindow   window;
+    private final int             precision;
+    private final Clock           clock;
+    //sketches of every bucket, by dimension
+    private final HyperLogLog[][] sketches;
+    private final long[]          bucketEpochs;
+    private final long[]          lastModified;
+
+    public DistinctCountManagerImpl() {
+        this(SlidingWindow.DEFAULT, HyperLogLog.DEFAULT_PRECISION, Clock.systemUTC());
+    }
+
+    @Autowired
+    public DistinctCountManagerImpl(TransactionsProperties properties, Clock clock) {
+        this(properties.getWindow().toSlidingWindow(), properties.getStatistics().getDistinct().getPrecision(), clock);
+    }
+
+    public DistinctCountManagerImpl(SlidingWindow window, int precision, Clock clock) {
+        this.window = window;
+        this.precision = precision;
+        this.clock = clock;
+        this.sketches = new HyperLogLog[window.getBucketCount()][DIMENSIONS.length];
+        this.bucketEpochs = new long[window.getBucketCount()];
+        this.lastModified = new long[window.getBucketCount()];
+        for (HyperLogLog[] bucket : sketches) {
+            for (int d = 0; d < bucket.length; d++) {
+                bucket[d] = new HyperLogLog(precision);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        for (int i = 0; i < sketches.length; i++) {
+            synchronized (sketches[i]) {
+                resetEntry(i);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createTransaction(Transaction transaction) {
+        //bit d set when the transaction has an identifier of dimension d
+        int present = 0;
+        long[] hashes = new long[DIMENSIONS.length];
+        for (Dimension dimension : DIMENSIONS) {
+            String identifier = dimension.of(transaction);
+            if (identifier != null) {
+                present |= 1 << dimension.ordinal();
+                hashes[dimension.ordinal()] = HyperLogLog.hash(identifier);
+            }
+        }
+        if (present == 0) {
+            return;
+        }
+
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+        long bucketEpoch = window.bucketEpoch(timestamp);
+        int bucket = window.bucketIndex(bucketEpoch);
+
+        synchronized (sketches[bucket]) {
+            if (lastModified[bucket] > 0 && bucketEpochs[bucket] != bucketEpoch) {
+                resetEntry(bucket);
+            }
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                if ((present & 1 << d) != 0) {
+                    sketches[bucket][d].offer(hashes[d]);
+                }
+            }
+            bucketEpochs[bucket] = bucketEpoch;
+            lastModified[bucket] = Math.max(lastModified[bucket], timestamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HyperLogLog getDistinctSketch(Dimension dimension) {
+        long nowEpoch = clock.millis();
+
+        HyperLogLog result = new HyperLogLog(precision);
+        for (int i = 0; i < sketches.length; i++) {
+            synchronized (sketches[i]) {
+                if (lastModified[i] > 0 && !window.isExpired(nowEpoch, lastModified[i])) {
+                    result.combine(sketches[i][dimension.ordinal()]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void resetEntry(int bucket) {
+        for (HyperLogLog sketch : sketches[bucket]) {
+            sketch.reset();
+        }
+        bucketEpochs[bucket] = 0;
+        lastModified[bucket] = 0;
+    }
+}
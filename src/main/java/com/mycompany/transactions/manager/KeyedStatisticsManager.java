@@ -0,0 +1,38 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.model.KeyedStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import java.util.List;
+
+/**
+ * A <b>Manager</b> Responsible for the statistics of keyed transactions, one sliding window per
+ * {@link Transaction#getKey() key}, next to the global window of {@link TransactionsManager}.
+ */
+public interface KeyedStatisticsManager {
+
+    /**
+     * Accumulates a transaction already accepted by {@link TransactionsManager} to the window of its key; a
+     * transaction without a key is ignored.
+     * @param transaction
+     */
+    void createTransaction(Transaction transaction);
+
+    /**
+     * Gets current statistics of the transactions of one key.
+     * @return {@link SummaryStatistics}, empty for a key that isn't tracked (anymore)
+     */
+    SummaryStatistics getTransactionStatistics(String key);
+
+    /**
+     * Gets the {@code limit} keys of the largest current sums.
+     * @return {@link KeyedStatistics} by descending sum
+     */
+    List<KeyedStatistics> getTopKeysBySum(int limit);
+
+    /**
+     * Reset the statistics of all keys
+     */
+    void resetAll();
+}
@@ -0,0 +1,334 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.KeyedStatistics;
+import com.mycompany.transactions.model.ScaledLongSummaryStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory implementation for {@link KeyedStatisticsManager}, where:
+ * <ul>
+ * <li> The window of a key is a single {@code long[]} holding (epoch, last modification, count, sum, min, max) per
+ *      bucket of the {@link SlidingWindow}, amounts being kept in cents: about 3 KB per key for the default window,
+ *      instead of one {@link SummaryStatistics} object per bucket.
+ * <li> Like {@link ScaledLongSummaryStatistics}, a bucket receiving an amount that isn't a whole number of cents, or
+ *      whose sum overflows a {@code long}, is promoted to a {@link BigDecimalSummaryStatistics} holding its exact
+ *      totals: no amount is rounded or dropped, so a key's statistics are exactly the global ones of its
+ *      transactions.
+ * <li> Keys are spread over segments, each a {@link LinkedHashMap} in access order guarded by its own monitor, so at
+ *      most {@code maxKeys} keys are tracked: a segment going over its share evicts its least recently used key.
+ * <li> Keys whose whole window expired are evicted too: every write drops the idle keys at the LRU end of its
+ *      segment, and reads drop the expired keys they come across.
+ * <li> Windows expire against the same {@link Clock} as the engine's.
+ */
+@Service
+public class KeyedStatisticsManagerImpl implements KeyedStatisticsManager {
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private static final int DEFAULT_MAX_KEYS = 10_000;
+
+    //slots of one bucket in a key's window, the last slot of the window being the key's last modification
+    private static final int EPOCH         = 0;
+    private static final int LAST_MODIFIED = 1;
+    private static final int COUNT         = 2;
+    private static final int SUM           = 3;
+    private static final int MIN           = 4;
+    private static final int MAX           = 5;
+    private static final int SLOTS         = 6;
+
+    private static final Comparator<KeyedStatistics> BY_SUM =
+            Comparator.<KeyedStatistics, BigDecimal>comparing(keyed -> keyed.getStatistics().getSum())
+                    .thenComparing(KeyedStatistics::getKey, Comparator.reverseOrder());
+
+    private final SlidingWindow window;
+    private final Clock         clock;
+    private final int           segmentMask;
+    private final Segment[]     segments;
+
+    public KeyedStatisticsManagerImpl() {
+        this(SlidingWindow.DEFAULT, DEFAULT_MAX_KEYS, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Autowired
+    public KeyedStatisticsManagerImpl(TransactionsProperties properties, Clock clock) {
+        this(properties.getWindow().toSlidingWindow(), properties.getKeys().getMaxKeys(),
+             Runtime.getRuntime().availableProcessors(), clock);
+    }
+
+    public KeyedStatisticsManagerImpl(SlidingWindow window, int maxKeys, int concurrencyLevel) {
+        this(window, maxKeys, concurrencyLevel, Clock.systemUTC());
+    }
+
+    public KeyedStatisticsManagerImpl(SlidingWindow window, int maxKeys, int concurrencyLevel, Clock clock) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Invalid maximum of " + maxKeys + " keys");
+        }
+        int segmentCount = Math.min(concurrencyLevel <= 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1,
+                                    Integer.highestOneBit(maxKeys));
+        this.window = window;
+        this.clock = clock;
+        this.segmentMask = segmentCount - 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxKeys / segmentCount);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createTransaction(Transaction transaction) {
+        String key = transaction.getKey();
+        if (key == null) {
+            return;
+        }
+
+        long nowEpoch = clock.millis();
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+
+        Segment segment = segment(key);
+        synchronized (segment) {
+            KeyWindow keyWindow = segment.get(key);
+            if (keyWindow == null) {
+                keyWindow = new KeyWindow(window.getBucketCount());
+                segment.put(key, keyWindow);
+            }
+            add(keyWindow, window.bucketEpoch(timestamp), timestamp, transaction);
+            evictIdle(segment, nowEpoch);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SummaryStatistics getTransactionStatistics(String key) {
+        long nowEpoch = clock.millis();
+
+        ScaledLongSummaryStatistics statistics = new ScaledLongSummaryStatistics(scale, roundingMode);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            KeyWindow keyWindow = segment.get(key);
+            if (keyWindow != null) {
+                if (isIdle(keyWindow, nowEpoch)) {
+                    segment.remove(key);
+                }
+                else {
+                    collect(keyWindow, nowEpoch, statistics);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<KeyedStatistics> getTopKeysBySum(int limit) {
+        long nowEpoch = clock.millis();
+
+        PriorityQueue<KeyedStatistics> top = new PriorityQueue<>(limit + 1, BY_SUM);
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (Iterator<Map.Entry<String, KeyWindow>> it = segment.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, KeyWindow> entry = it.next();
+                    if (isIdle(entry.getValue(), nowEpoch)) {
+                        it.remove();
+                        continue;
+                    }
+                    ScaledLongSummaryStatistics statistics = new ScaledLongSummaryStatistics(scale, roundingMode);
+                    top.add(new KeyedStatistics(entry.getKey(), collect(entry.getValue(), nowEpoch, statistics)));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        List<KeyedStatistics> result = new ArrayList<>(top);
+        result.sort(Collections.reverseOrder(BY_SUM));
+        return result;
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private void add(KeyWindow keyWindow, long bucketEpoch, long timestamp, Transaction transaction) {
+        int bucket = window.bucketIndex(bucketEpoch);
+        long[] slots = keyWindow.slots;
+        int base = bucket * SLOTS;
+
+        if (slots[base + COUNT] > 0 && slots[base + EPOCH] != bucketEpoch) {
+            slots[base + COUNT] = 0;
+            keyWindow.demote(bucket);
+        }
+
+        BigDecimalSummaryStatistics promoted = keyWindow.promoted(bucket);
+        long cents = 0;
+        boolean exact = promoted == null && transaction.isCompact()
+                        && ScaledLongSummaryStatistics.fits(transaction.getUnscaled(), transaction.getScale(), scale);
+        if (exact) {
+            cents = ScaledLongSummaryStatistics.rescale(transaction.getUnscaled(), transaction.getScale(), scale);
+            long sum = slots[base + SUM] + cents;
+            exact = slots[base + COUNT] == 0 || ((slots[base + SUM] ^ sum) & (cents ^ sum)) >= 0;
+        }
+
+        if (!exact) {
+            if (promoted == null) {
+                promoted = keyWindow.promote(bucket);
+            }
+            promoted.accept(transaction.getAmount());
+        }
+        else if (slots[base + COUNT] == 0) {
+            slots[base + SUM] = cents;
+            slots[base + MIN] = cents;
+            slots[base + MAX] = cents;
+        }
+        else {
+            slots[base + SUM] += cents;
+            if (slots[base + MIN] > cents) { slots[base + MIN] = cents; }
+            if (slots[base + MAX] < cents) { slots[base + MAX] = cents; }
+        }
+
+        if (slots[base + COUNT] == 0) {
+            slots[base + EPOCH] = bucketEpoch;
+            slots[base + LAST_MODIFIED] = timestamp;
+        }
+        else {
+            slots[base + LAST_MODIFIED] = Math.max(slots[base + LAST_MODIFIED], timestamp);
+        }
+        slots[base + COUNT]++;
+
+        int last = slots.length - 1;
+        slots[last] = Math.max(slots[last], timestamp);
+    }
+
+    private ScaledLongSummaryStatistics collect(KeyWindow keyWindow, long nowEpoch,
+                                                ScaledLongSummaryStatistics statistics) {
+        long[] slots = keyWindow.slots;
+        for (int bucket = 0, base = 0; base < slots.length - 1; bucket++, base += SLOTS) {
+            if (slots[base + COUNT] > 0 && !window.isExpired(nowEpoch, slots[base + LAST_MODIFIED])) {
+                BigDecimalSummaryStatistics promoted = keyWindow.promoted(bucket);
+                if (promoted != null) {
+                    //the exact totals, the getters of the statistics rounding them
+                    BucketStatistics exact = promoted.toBucketStatistics(0, 0);
+                    statistics.combine(exact.getCount(), exact.getSum(), exact.getMin(), exact.getMax());
+                }
+                else {
+                    statistics.combineUnscaled(slots[base + COUNT], slots[base + SUM], slots[base + MIN],
+                                               slots[base + MAX]);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    private boolean isIdle(KeyWindow keyWindow, long nowEpoch) {
+        return window.isExpired(nowEpoch, keyWindow.slots[keyWindow.slots.length - 1]);
+    }
+
+    /**
+     * Drops the idle keys from the least recently used end of a segment.
+     */
+    private void evictIdle(Segment segment, long nowEpoch) {
+        for (Iterator<KeyWindow> it = segment.values().iterator(); it.hasNext(); ) {
+            if (!isIdle(it.next(), nowEpoch)) {
+                return;
+            }
+            it.remove();
+        }
+    }
+
+    /**
+     * Window of one key: its slots, and the exact totals of its promoted buckets, allocated on the first promotion.
+     */
+    private static final class KeyWindow {
+        private final long[]                        slots;
+        private       BigDecimalSummaryStatistics[] promoted;
+
+        private KeyWindow(int bucketCount) {
+            this.slots = new long[bucketCount * SLOTS + 1];
+        }
+
+        private BigDecimalSummaryStatistics promoted(int bucket) {
+            return promoted == null ? null : promoted[bucket];
+        }
+
+        /**
+         * Moves the totals of a bucket from its slots to exact statistics, which then accumulate its amounts.
+         */
+        private BigDecimalSummaryStatistics promote(int bucket) {
+            if (promoted == null) {
+                promoted = new BigDecimalSummaryStatistics[(slots.length - 1) / SLOTS];
+            }
+            BigDecimalSummaryStatistics statistics = new BigDecimalSummaryStatistics(scale, roundingMode);
+            int base = bucket * SLOTS;
+            if (slots[base + COUNT] > 0) {
+                statistics.combine(slots[base + COUNT], BigDecimal.valueOf(slots[base + SUM], scale),
+                                   BigDecimal.valueOf(slots[base + MIN], scale),
+                                   BigDecimal.valueOf(slots[base + MAX], scale));
+            }
+            promoted[bucket] = statistics;
+            return statistics;
+        }
+
+        private void demote(int bucket) {
+            if (promoted != null) {
+                promoted[bucket] = null;
+            }
+        }
+    }
+
+    /**
+     * Key windows in access order, evicting the least recently used one past {@code capacity}.
+     */
+    private static final class Segment extends LinkedHashMap<String, KeyWindow> {
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, KeyWindow> eldest) {
+            return size() > capacity;
+        }
+    }
+}
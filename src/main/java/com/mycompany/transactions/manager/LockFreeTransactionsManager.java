@@ -0,0 +1,282 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.validation.Valid;
+
+/**
+ * Lock-free in-memory implementation for {@link TransactionsManager}, selected by setting
+ * {@code transactions.manager.engine=lock-free}. Operations are guaranteed to be:
+ * <ul>
+ * <li> Threadsafe without any monitor. Every bucket of the {@link SlidingWindow} is split into striped cells (in the
+ *      spirit of {@link java.util.concurrent.atomic.LongAdder}), each cell holding an immutable (count, sum, min, max)
+ *      tuple that is replaced by a single CAS. Threads landing in the same bucket are spread over different cells, and a
+ *      thread that loses a CAS race moves on to the next cell instead of spinning on the same one.
+ * <li> Recycling stale buckets without a monitor: each cell is stamped with the bucket epoch it belongs to, and a
+ *      writer finding a cell of an older epoch simply CASes a fresh tuple in its place.
+ * <li> Expiring whole buckets like {@link TransactionsManagerImpl}: the stripes of a bucket are combined first, and
+ *      the bucket is kept or dropped by its latest modification, never a stripe on its own.
+ * <li> Returning exactly the same results as {@link TransactionsManagerImpl}, in the {@link StatisticsType} of
+ *      {@code transactions.statistics.type}.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.manager.engine", havingValue = "lock-free")
+public class LockFreeTransactionsManager implements TransactionsManager {
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private final StatisticsType             statisticsType;
+    private final SlidingWindow              window;
+    private final Clock                      clock;
+    private final int                        stripeMask;
+    private final AtomicReferenceArray<Cell> cells;
+
+    public LockFreeTransactionsManager() {
+        this(SlidingWindow.DEFAULT, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Autowired
+    public LockFreeTransactionsManager(TransactionsProperties properties, Clock clock) {
+        this(properties.getStatistics().getType(), properties.getWindow().toSlidingWindow(),
+             Runtime.getRuntime().availableProcessors(), clock);
+    }
+
+    public LockFreeTransactionsManager(SlidingWindow window, int concurrencyLevel) {
+        this(window, concurrencyLevel, Clock.systemUTC());
+    }
+
+    public LockFreeTransactionsManager(SlidingWindow window, int concurrencyLevel, Clock clock) {
+        this(StatisticsType.BIG_DECIMAL, window, concurrencyLevel, clock);
+    }
+
+    public LockFreeTransactionsManager(StatisticsType statisticsType, SlidingWindow window, int concurrencyLevel,
+                                       Clock clock) {
+        int stripes = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        this.statisticsType = statisticsType;
+        this.window = window;
+        this.clock = clock;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicReferenceArray<>(window.getBucketCount() * stripes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, null);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessingError tryCreateTransaction(@Valid Transaction transaction) {
+
+        long nowEpoch = clock.millis();
+
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+
+        ProcessingError processingError = window.validate(nowEpoch, timestamp);
+        if (processingError != null) {
+            return processingError;
+        }
+
+        Cell updated = merge(new Cell(window.bucketEpoch(timestamp), timestamp, transaction.getAmount()));
+
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("Transaction persisted at %s with details: %s into cell: %s",
+                                       Instant.ofEpochMilli(nowEpoch), transaction, updated));
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ProcessingError> createTransactions(Collection<Transaction> transactions) {
+
+        long nowEpoch = clock.millis();
+
+        List<ProcessingError> results = new ArrayList<>(transactions.size());
+        Map<Long, Cell> partials = new LinkedHashMap<>();
+
+        //accumulate the batch locally, one partial cell per bucket epoch
+        for (Transaction transaction : transactions) {
+            long timestamp = transaction.getTimestamp().toEpochMilli();
+
+            ProcessingError processingError = window.validate(nowEpoch, timestamp);
+            results.add(processingError);
+
+            if (processingError == null) {
+                Cell cell = new Cell(window.bucketEpoch(timestamp), timestamp, transaction.getAmount());
+                partials.merge(cell.bucketEpoch, cell, Cell::add);
+            }
+        }
+
+        //merge every touched bucket once
+        for (Cell partial : partials.values()) {
+            merge(partial);
+        }
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<BucketStatistics> exportBuckets() {
+        long nowEpoch = clock.millis();
+
+        List<BucketStatistics> buckets = new ArrayList<>();
+        long oldestEpoch = window.bucketEpoch(nowEpoch - window.getLengthMillis());
+        for (long bucketEpoch = oldestEpoch; bucketEpoch <= window.bucketEpoch(nowEpoch); bucketEpoch++) {
+            Cell bucket = liveBucket(bucketEpoch, oldestEpoch, nowEpoch);
+            if (bucket != null) {
+                buckets.add(new BucketStatistics(bucket.bucketEpoch, bucket.lastModified, bucket.count, bucket.sum,
+                                                 bucket.min, bucket.max));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void importBuckets(Collection<BucketStatistics> buckets) {
+        long nowEpoch = clock.millis();
+
+        for (BucketStatistics imported : buckets) {
+            if (imported.getCount() > 0 && !window.isExpired(nowEpoch, imported.getLastModified())) {
+                merge(new Cell(imported.getBucketEpoch(), imported.getLastModified(), imported.getCount(),
+                               imported.getSum(), imported.getMin(), imported.getMax()));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SummaryStatistics getTransactionStatistics() {
+        long nowEpoch = clock.millis();
+
+        SummaryStatistics result = statisticsType.create(scale, roundingMode);
+
+        long oldestEpoch = window.bucketEpoch(nowEpoch - window.getLengthMillis());
+        for (long bucketEpoch = oldestEpoch; bucketEpoch <= window.bucketEpoch(nowEpoch); bucketEpoch++) {
+            Cell bucket = liveBucket(bucketEpoch, oldestEpoch, nowEpoch);
+            if (bucket != null) {
+                result.combine(bucket.count, bucket.sum, bucket.min, bucket.max);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Combines the stripes of a bucket epoch of the window, as {@link TransactionsManagerImpl} reads its buckets: every
+     * later epoch as a whole, the oldest one only while its latest transaction is live.
+     * @return the bucket, {@code null} if empty or expired.
+     */
+    private Cell liveBucket(long bucketEpoch, long oldestEpoch, long nowEpoch) {
+        int base = window.bucketIndex(bucketEpoch) * (stripeMask + 1);
+        Cell bucket = null;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            Cell cell = cells.get(base + stripe);
+            if (cell != null && cell.bucketEpoch == bucketEpoch) {
+                bucket = bucket == null ? cell : bucket.add(cell);
+            }
+        }
+        return bucket == null || (bucketEpoch == oldestEpoch && window.isExpired(nowEpoch, bucket.lastModified))
+               ? null
+               : bucket;
+    }
+
+    /**
+     * CASes a partial cell into one stripe of its bucket, recycling the stripe if it still holds an older epoch.
+     * @return the cell now held by the stripe.
+     */
+    private Cell merge(Cell partial) {
+        int base = window.bucketIndex(partial.bucketEpoch) * (stripeMask + 1);
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+
+        for (; ; stripe = (stripe + 1) & stripeMask) {
+            int index = base + stripe;
+            Cell current = cells.get(index);
+            Cell updated = current == null || current.bucketEpoch != partial.bucketEpoch
+                           ? partial
+                           : current.add(partial);
+            if (cells.compareAndSet(index, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Immutable partial statistics of one stripe of one bucket.
+     */
+    private static final class Cell {
+        private final long       bucketEpoch;
+        private final long       lastModified;
+        private final long       count;
+        private final BigDecimal sum;
+        private final BigDecimal min;
+        private final BigDecimal max;
+
+        private Cell(long bucketEpoch, long lastModified, BigDecimal amount) {
+            this(bucketEpoch, lastModified, 1, amount, amount, amount);
+        }
+
+        private Cell(long bucketEpoch, long lastModified, long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+            this.bucketEpoch = bucketEpoch;
+            this.lastModified = lastModified;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        private Cell add(Cell other) {
+            return new Cell(bucketEpoch,
+                            Math.max(lastModified, other.lastModified),
+                            count + other.count,
+                            sum.add(other.sum),
+                            min.compareTo(other.min) > 0 ? other.min : min,
+                            max.compareTo(other.max) < 0 ? other.max : max);
+        }
+
+        @Override
+        public String toString() {
+            return count + " elements between " + min + " and " + max + ", sum=" + sum + " at bucket " + bucketEpoch;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.model.QuantileSketch;
+import com.mycompany.transactions.model.Transaction;
+
+/**
+ * A <b>Manager</b> Responsible for the amount percentiles of the sliding window, kept next to the statistics of
+ * {@link TransactionsManager}.
+ */
+public interface PercentilesManager {
+
+    /**
+     * Accumulates a transaction already accepted by {@link TransactionsManager} to the sketch of its bucket.
+     * @param transaction
+     */
+    void createTransaction(Transaction transaction);
+
+    /**
+     * Gets the merged sketch of the current window.
+     * @return {@link QuantileSketch}
+     */
+    QuantileSketch getTransactionSketch();
+
+    /**
+     * Reset the percentiles state
+     */
+    void resetAll();
+}
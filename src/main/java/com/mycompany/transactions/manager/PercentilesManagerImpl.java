@@ -0,0 +1,122 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.model.QuantileSketch;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.time.Clock;
+
+/**
+ * In-memory implementation for {@link PercentilesManager}, enabled by setting
+ * {@code transactions.statistics.percentiles.enabled=true}:
+ * <ul>
+ * <li> One {@link QuantileSketch} per bucket of the {@link SlidingWindow}, recycled exactly like the buckets of
+ *      {@link TransactionsManagerImpl} and guarded the same way, by synchronizing on the bucket's sketch.
+ * <li> Memory stays O(1): a sketch holds at most a fixed number of bins however many transactions it counts.
+ * <li> Reading merges the sketches of the live buckets, as {@link TransactionsManagerImpl} combines its statistics;
+ *      buckets expire against the same {@link Clock} as the engine's.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.statistics.percentiles.enabled", havingValue = "true")
+public class PercentilesManagerImpl implements PercentilesManager {
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private final SlidingWindow    window;
+    private final double           relativeAccuracy;
+    private final Clock            clock;
+    private final QuantileSketch[] sketches;
+    private final long[]           bucketEpochs;
+    private final long[]           lastModified;
+
+    public PercentilesManagerImpl() {
+        this(SlidingWindow.DEFAULT, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    @Autowired
+    public PercentilesManagerImpl(TransactionsProperties properties, Clock clock) {
+        this(properties.getWindow().toSlidingWindow(),
+             properties.getStatistics().getPercentiles().getRelativeAccuracy(), clock);
+    }
+
+    public PercentilesManagerImpl(SlidingWindow window, double relativeAccuracy) {
+        this(window, relativeAccuracy, Clock.systemUTC());
+    }
+
+    public PercentilesManagerImpl(SlidingWindow window, double relativeAccuracy, Clock clock) {
+        this.window = window;
+        this.relativeAccuracy = relativeAccuracy;
+        this.clock = clock;
+        this.sketches = new QuantileSketch[window.getBucketCount()];
+        this.bucketEpochs = new long[window.getBucketCount()];
+        this.lastModified = new long[window.getBucketCount()];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = createSketch();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        for (int i = 0; i < sketches.length; i++) {
+            synchronized (sketches[i]) {
+                resetEntry(i);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createTransaction(Transaction transaction) {
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+        long bucketEpoch = window.bucketEpoch(timestamp);
+        int bucket = window.bucketIndex(bucketEpoch);
+
+        synchronized (sketches[bucket]) {
+            if (lastModified[bucket] > 0 && bucketEpochs[bucket] != bucketEpoch) {
+                resetEntry(bucket);
+            }
+            sketches[bucket].accept(transaction.getAmount());
+            bucketEpochs[bucket] = bucketEpoch;
+            lastModified[bucket] = Math.max(lastModified[bucket], timestamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuantileSketch getTransactionSketch() {
+        long nowEpoch = clock.millis();
+
+        QuantileSketch result = createSketch();
+        for (int i = 0; i < sketches.length; i++) {
+            synchronized (sketches[i]) {
+                if (lastModified[i] > 0 && !window.isExpired(nowEpoch, lastModified[i])) {
+                    result.combine(sketches[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private QuantileSketch createSketch() {
+        return new QuantileSketch(relativeAccuracy, QuantileSketch.DEFAULT_MAX_BINS, scale, roundingMode);
+    }
+
+    private void resetEntry(int bucket) {
+        sketches[bucket].reset();
+        bucketEpochs[bucket] = 0;
+        lastModified[bucket] = 0;
+    }
+}
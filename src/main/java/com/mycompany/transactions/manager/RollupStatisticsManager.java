@@ -0,0 +1,32 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.model.SummaryStatistics;
+
+/**
+ * A <b>Manager</b> Responsible for the statistics of horizons longer than the sliding window, up to
+ * {@link #MAX_HORIZON_MILLIS}, folded from the buckets {@link TransactionsManager} recycles.
+ */
+public interface RollupStatisticsManager {
+
+    long MAX_HORIZON_MILLIS = 24 * 60 * 60 * 1_000L;
+
+    /**
+     * Folds a bucket of the {@link TransactionsManager}'s sliding window, about to be recycled, into the minute bucket
+     * it starts in; called under that bucket's monitor, once per bucket.
+     * @param bucketEpoch of the sliding window
+     * @param bucket
+     */
+    void fold(long bucketEpoch, SummaryStatistics bucket);
+
+    /**
+     * Gets the statistics of the transactions of the last {@code horizonMillis}, at most {@link #MAX_HORIZON_MILLIS}.
+     * @param horizonMillis
+     * @return {@link SummaryStatistics}
+     */
+    SummaryStatistics getTransactionStatistics(long horizonMillis);
+
+    /**
+     * Reset the rollups state
+     */
+    void resetAll();
+}
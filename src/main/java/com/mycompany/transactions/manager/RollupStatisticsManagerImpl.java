@@ -0,0 +1,196 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * In-memory implementation for {@link RollupStatisticsManager}, enabled by setting
+ * {@code transactions.statistics.rollups.enabled=true}, as cascading rings of buckets below the sliding window of the
+ * synchronized engine, {@link TransactionsManagerImpl}:
+ * <ul>
+ * <li> {@link #LEVELS}: 64 buckets of a minute and 32 of an hour, so memory is fixed at 96 {@link SummaryStatistics},
+ *      however long the horizon and however many transactions.
+ * <li> Transactions only update the engine's bucket of their timestamp: when the engine recycles a bucket, it is
+ *      folded, through {@link SummaryStatistics#combine(SummaryStatistics)}, into the minute bucket it starts in,
+ *      which may in turn fold an older minute into its hour: folding happens once per bucket, not per transaction.
+ *      Buckets folded out of the hours ring are over {@link #MAX_HORIZON_MILLIS} old, and dropped.
+ * <li> As a bucket is only folded once its ring slot is needed by a later one, the engine still holds its last ring of
+ *      buckets, and every level the whole of its last 63 minutes or 31 hours. A read combines the engine's buckets not
+ *      folded yet with the buckets overlapping the horizon from the finest level holding all of it, and the finer one
+ *      holding its latest part; a horizon is thus rounded up to the width of that level, eg: 15 minutes and 1 hour up to
+ *      a minute more, 24 hours up to an hour more.
+ * <li> A horizon within the engine's window reads the engine's buckets only, expiring them the same way, so
+ *      {@code window=1m} agrees with the default window's statistics.
+ * <li> Folds and reads of the levels are serialized by {@code foldLock}, taken under an engine's bucket monitor by a
+ *      fold, and after the engine's buckets are exported by a read, which skips those folded in between.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.statistics.rollups.enabled", havingValue = "true")
+public class RollupStatisticsManagerImpl implements RollupStatisticsManager {
+
+    static final SlidingWindow[] LEVELS = {
+            new SlidingWindow(3_600_000, 60_000),
+            new SlidingWindow(MAX_HORIZON_MILLIS, 3_600_000)
+    };
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private final StatisticsType          statisticsType;
+    private final TransactionsManagerImpl transactionsManager;
+    private final SlidingWindow           window;
+    private final Clock                   clock;
+    private final SummaryStatistics[][]   statistics;
+    private final long[][]                bucketEpochs;
+    //latest bucket epoch folded out of every slot of the engine's ring
+    private final long[]                  foldedEpochs;
+    private final Object                  foldLock = new Object();
+
+    /**
+     * Buckets are of the engine's {@link StatisticsType}, to be combined with its own.
+     */
+    @Autowired
+    public RollupStatisticsManagerImpl(TransactionsManager transactionsManager, Clock clock) {
+        if (!(transactionsManager instanceof TransactionsManagerImpl)) {
+            throw new IllegalStateException("Rollups are folded from the synchronized engine's buckets, not from "
+                                            + transactionsManager.getClass().getSimpleName() + "'s");
+        }
+        this.transactionsManager = (TransactionsManagerImpl) transactionsManager;
+        this.statisticsType = this.transactionsManager.getStatisticsType();
+        this.window = this.transactionsManager.getWindow();
+        this.clock = clock;
+        this.statistics = new SummaryStatistics[LEVELS.length][];
+        this.bucketEpochs = new long[LEVELS.length][];
+        this.foldedEpochs = new long[window.getBucketCount()];
+        for (int level = 0; level < LEVELS.length; level++) {
+            statistics[level] = new SummaryStatistics[LEVELS[level].getBucketCount()];
+            bucketEpochs[level] = new long[LEVELS[level].getBucketCount()];
+            for (int i = 0; i < statistics[level].length; i++) {
+                statistics[level][i] = statisticsType.create(scale, roundingMode);
+            }
+        }
+        this.transactionsManager.setRollups(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        synchronized (foldLock) {
+            for (SummaryStatistics[] level : statistics) {
+                for (SummaryStatistics bucket : level) {
+                    synchronized (bucket) {
+                        bucket.reset();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fold(long bucketEpoch, SummaryStatistics bucket) {
+        if (bucket.getCount() == 0) {
+            return;
+        }
+        int slot = window.bucketIndex(bucketEpoch);
+        synchronized (foldLock) {
+            merge(0, bucketEpoch * window.getBucketWidthMillis(), bucket);
+            foldedEpochs[slot] = Math.max(foldedEpochs[slot], bucketEpoch);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SummaryStatistics getTransactionStatistics(long horizonMillis) {
+        if (horizonMillis <= 0 || horizonMillis > MAX_HORIZON_MILLIS) {
+            throw new IllegalArgumentException("Unsupported horizon of " + horizonMillis + " ms");
+        }
+        long nowEpoch = clock.millis();
+        long from = nowEpoch - horizonMillis;
+        boolean withinWindow = horizonMillis <= window.getLengthMillis();
+
+        //folded buckets are out of the window, so none is read for a horizon within it
+        int coarsest = withinWindow ? -1 : 0;
+        while (coarsest >= 0 && coarsest < LEVELS.length - 1 && from < completeFrom(coarsest, nowEpoch)) {
+            coarsest++;
+        }
+
+        List<BucketStatistics> unfolded = transactionsManager.exportRingBuckets();
+        long width = window.getBucketWidthMillis();
+
+        SummaryStatistics result = statisticsType.create(scale, roundingMode);
+        synchronized (foldLock) {
+            for (BucketStatistics bucket : unfolded) {
+                long start = bucket.getBucketEpoch() * width;
+                boolean live = withinWindow ? nowEpoch - bucket.getLastModified() < horizonMillis
+                                            : start + width > from;
+                if (live && start <= nowEpoch && foldedEpochs[window.bucketIndex(bucket.getBucketEpoch())]
+                                                 < bucket.getBucketEpoch()) {
+                    result.combine(bucket.getCount(), bucket.getSum(), bucket.getMin(), bucket.getMax());
+                }
+            }
+            for (int level = 0; level <= coarsest; level++) {
+                long levelWidth = LEVELS[level].getBucketWidthMillis();
+                for (int i = 0; i < statistics[level].length; i++) {
+                    synchronized (statistics[level][i]) {
+                        long start = bucketEpochs[level][i] * levelWidth;
+                        if (statistics[level][i].getCount() > 0 && start + levelWidth > from && start <= nowEpoch) {
+                            result.combine(statistics[level][i]);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the start of the oldest bucket {@code level} holds whole, none of its later buckets being folded yet.
+     */
+    private static long completeFrom(int level, long nowEpoch) {
+        SlidingWindow geometry = LEVELS[level];
+        return (geometry.bucketEpoch(nowEpoch) - geometry.getBucketCount() + 1) * geometry.getBucketWidthMillis();
+    }
+
+    /**
+     * Merges {@code partial} into the bucket of {@code timestamp} at {@code level}, folding the older bucket held by
+     * its slot one level up first; if the slot holds a later bucket, {@code timestamp} is older than the ring, and
+     * {@code partial} goes one level up instead. Called with {@code foldLock} held.
+     */
+    private void merge(int level, long timestamp, SummaryStatistics partial) {
+        if (level == LEVELS.length) {
+            return;
+        }
+        long bucketEpoch = LEVELS[level].bucketEpoch(timestamp);
+        int bucket = LEVELS[level].bucketIndex(bucketEpoch);
+        SummaryStatistics held = statistics[level][bucket];
+
+        synchronized (held) {
+            if (held.getCount() > 0 && bucketEpochs[level][bucket] != bucketEpoch) {
+                if (bucketEpochs[level][bucket] > bucketEpoch) {
+                    merge(level + 1, timestamp, partial);
+                    return;
+                }
+                merge(level + 1, bucketEpochs[level][bucket] * LEVELS[level].getBucketWidthMillis(), held);
+                held.reset();
+            }
+            held.combine(partial);
+            bucketEpochs[level][bucket] = bucketEpoch;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Valid;
+
+/**
+ * Read-optimized in-memory implementation for {@link TransactionsManager}, selected by setting
+ * {@code transactions.manager.engine=running-aggregate}, where:
+ * <ul>
+ * <li> Count and sum of the whole window are kept as running totals, incremented by every accepted transaction and
+ *      decremented by a bucket's totals once it expires. Buckets expire in epoch order (a bucket's last modification
+ *      always lies within its own epoch), so expiring is a walk from the oldest live bucket.
+ * <li> Min and max of the window come from a segment tree over the ring of buckets, updated in O(log buckets) when a
+ *      transaction lowers (or raises) its bucket's extreme, or when a bucket expires.
+ * <li> Every change publishes an immutable {@link Aggregate} together with the time its oldest bucket expires, so
+ *      {@link #getTransactionStatistics()} is a volatile read and a comparison with the {@link Clock}.
+ * <li> Buckets are expired by writers, before they add to the window, and by a ticker thread parked until the published
+ *      aggregate's expiry, which then expires the oldest bucket and publishes again; a writer publishing an expiry
+ *      earlier than the one the ticker waits for wakes it up. A read finding the published aggregate expired, as the
+ *      ticker is late or the clock virtual, expires it itself, under the lock.
+ * <li> Writers are serialized on one lock, which makes this engine the right choice for read-heavy deployments, while
+ *      {@link TransactionsManagerImpl} and {@link LockFreeTransactionsManager} favour write-heavy ones.
+ * <li> Results are exactly the same as {@link TransactionsManagerImpl}'s.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.manager.engine", havingValue = "running-aggregate")
+public class RunningAggregateTransactionsManager implements TransactionsManager {
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private final SlidingWindow window;
+    private final Clock         clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //per bucket raw values, guarded by lock
+    private final long[]       bucketEpochs;
+    private final long[]       lastModified;
+    private final long[]       counts;
+    private final BigDecimal[] sums;
+
+    //segment trees of the buckets' min and max, leaves at [bucketCount, 2 * bucketCount), null for empty buckets
+    private final BigDecimal[] mins;
+    private final BigDecimal[] maxs;
+
+    //running window totals, guarded by lock
+    private long       runningCount;
+    private BigDecimal runningSum;
+    private long       oldestEpoch;
+    private int        liveBuckets;
+
+    private volatile Aggregate published = Aggregate.EMPTY;
+
+    private final    Thread  ticker;
+    private volatile boolean running = true;
+
+    public RunningAggregateTransactionsManager() {
+        this(SlidingWindow.DEFAULT);
+    }
+
+    @Autowired
+    public RunningAggregateTransactionsManager(TransactionsProperties properties, Clock clock) {
+        this(properties.getWindow().toSlidingWindow(), clock);
+    }
+
+    public RunningAggregateTransactionsManager(SlidingWindow window) {
+        this(window, Clock.systemUTC());
+    }
+
+    public RunningAggregateTransactionsManager(SlidingWindow window, Clock clock) {
+        int bucketCount = window.getBucketCount();
+        this.window = window;
+        this.clock = clock;
+        this.bucketEpochs = new long[bucketCount];
+        this.lastModified = new long[bucketCount];
+        this.counts = new long[bucketCount];
+        this.sums = new BigDecimal[bucketCount];
+        this.mins = new BigDecimal[2 * bucketCount];
+        this.maxs = new BigDecimal[2 * bucketCount];
+        resetAll();
+        this.ticker = new Thread(this::tick, "transactions-expiry");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    /**
+     * Expires the buckets out of the window at the {@link Clock}'s current time and publishes the result, as the
+     * ticker does once the published aggregate expires.
+     */
+    public void expire() {
+        lock.lock();
+        try {
+            evictExpired(clock.millis());
+            publish();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        lock.lock();
+        try {
+            for (int i = 0; i < counts.length; i++) {
+                clearBucket(i);
+            }
+            for (int i = 0; i < mins.length; i++) {
+                mins[i] = null;
+                maxs[i] = null;
+            }
+            runningCount = 0;
+            runningSum = BigDecimal.ZERO;
+            liveBuckets = 0;
+            published = Aggregate.EMPTY;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessingError tryCreateTransaction(@Valid Transaction transaction) {
+
+        long nowEpoch = clock.millis();
+
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+
+        ProcessingError processingError = window.validate(nowEpoch, timestamp);
+        if (processingError != null) {
+            return processingError;
+        }
+
+        lock.lock();
+        try {
+            evictExpired(nowEpoch);
+            add(window.bucketEpoch(timestamp), timestamp, 1, transaction.getAmount(), transaction.getAmount(),
+                transaction.getAmount());
+            publish();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("Transaction persisted at %s with details: %s, window is now: %s",
+                                       Instant.ofEpochMilli(nowEpoch), transaction, published));
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ProcessingError> createTransactions(Collection<Transaction> transactions) {
+
+        long nowEpoch = clock.millis();
+
+        List<ProcessingError> results = new ArrayList<>(transactions.size());
+        List<Transaction> accepted = new ArrayList<>(transactions.size());
+
+        for (Transaction transaction : transactions) {
+            ProcessingError processingError = window.validate(nowEpoch, transaction.getTimestamp().toEpochMilli());
+            results.add(processingError);
+            if (processingError == null) {
+                accepted.add(transaction);
+            }
+        }
+
+        //the whole batch is applied under one lock acquisition, and published once
+        lock.lock();
+        try {
+            evictExpired(nowEpoch);
+            for (Transaction transaction : accepted) {
+                long timestamp = transaction.getTimestamp().toEpochMilli();
+                add(window.bucketEpoch(timestamp), timestamp, 1, transaction.getAmount(), transaction.getAmount(),
+                    transaction.getAmount());
+            }
+            publish();
+        }
+        finally {
+            lock.unlock();
+        }
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<BucketStatistics> exportBuckets() {
+        long nowEpoch = clock.millis();
+
+        List<BucketStatistics> buckets = new ArrayList<>();
+        lock.lock();
+        try {
+            evictExpired(nowEpoch);
+            publish();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 && !window.isExpired(nowEpoch, lastModified[i])) {
+                    buckets.add(new BucketStatistics(bucketEpochs[i], lastModified[i], counts[i], sums[i],
+                                                     mins[counts.length + i], maxs[counts.length + i]));
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return buckets;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void importBuckets(Collection<BucketStatistics> buckets) {
+        long nowEpoch = clock.millis();
+
+        lock.lock();
+        try {
+            evictExpired(nowEpoch);
+            for (BucketStatistics imported : buckets) {
+                if (imported.getCount() > 0 && !window.isExpired(nowEpoch, imported.getLastModified())) {
+                    add(imported.getBucketEpoch(), imported.getLastModified(), imported.getCount(), imported.getSum(),
+                        imported.getMin(), imported.getMax());
+                }
+            }
+            publish();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SummaryStatistics getTransactionStatistics() {
+        Aggregate aggregate = published;
+        //the ticker parks on real time, and may be late or run against another clock
+        if (clock.millis() >= aggregate.nextExpiry) {
+            expire();
+            aggregate = published;
+        }
+        return aggregate.toStatistics();
+    }
+
+    /**
+     * Ticker loop: parks until the published aggregate expires, at most a bucket width at a time so a clock jumping
+     * ahead is caught up with, then expires it.
+     */
+    private void tick() {
+        while (running) {
+            long wait = published.nextExpiry - clock.millis();
+            if (wait > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(wait, window.getBucketWidthMillis())));
+            }
+            else {
+                try {
+                    expire();
+                }
+                catch (RuntimeException ex) {
+                    logger.error("Window expiry failed, retrying on the next tick", ex);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(window.getBucketWidthMillis()));
+                }
+            }
+        }
+    }
+
+    private void add(long bucketEpoch, long timestamp, long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+        int bucket = window.bucketIndex(bucketEpoch);
+
+        if (counts[bucket] > 0 && bucketEpochs[bucket] != bucketEpoch) {
+            evict(bucket);
+        }
+
+        if (counts[bucket] == 0) {
+            bucketEpochs[bucket] = bucketEpoch;
+            sums[bucket] = BigDecimal.ZERO;
+            if (liveBuckets++ == 0 || bucketEpoch < oldestEpoch) {
+                oldestEpoch = bucketEpoch;
+            }
+        }
+
+        counts[bucket] += count;
+        sums[bucket] = sums[bucket].add(sum);
+        lastModified[bucket] = Math.max(lastModified[bucket], timestamp);
+        runningCount += count;
+        runningSum = runningSum.add(sum);
+
+        int leaf = counts.length + bucket;
+        if (mins[leaf] == null || mins[leaf].compareTo(min) > 0 || maxs[leaf].compareTo(max) < 0) {
+            mins[leaf] = mins[leaf] == null || mins[leaf].compareTo(min) > 0 ? min : mins[leaf];
+            maxs[leaf] = maxs[leaf] == null || maxs[leaf].compareTo(max) < 0 ? max : maxs[leaf];
+            updateTree(leaf);
+        }
+    }
+
+    /**
+     * Walks from the oldest live bucket, taking every expired (or empty) one out of the running totals.
+     */
+    private void evictExpired(long nowEpoch) {
+        while (liveBuckets > 0) {
+            int bucket = window.bucketIndex(oldestEpoch);
+            if (counts[bucket] > 0 && bucketEpochs[bucket] == oldestEpoch) {
+                if (!window.isExpired(nowEpoch, lastModified[bucket])) {
+                    return;
+                }
+                evict(bucket);
+            }
+            oldestEpoch++;
+        }
+    }
+
+    private void evict(int bucket) {
+        runningCount -= counts[bucket];
+        runningSum = runningSum.subtract(sums[bucket]);
+        liveBuckets--;
+        clearBucket(bucket);
+        updateTree(counts.length + bucket);
+    }
+
+    private void clearBucket(int bucket) {
+        bucketEpochs[bucket] = 0;
+        lastModified[bucket] = 0;
+        counts[bucket] = 0;
+        sums[bucket] = BigDecimal.ZERO;
+        mins[counts.length + bucket] = null;
+        maxs[counts.length + bucket] = null;
+    }
+
+    private void updateTree(int leaf) {
+        for (int node = leaf >> 1; node > 0; node >>= 1) {
+            BigDecimal leftMin = mins[2 * node], rightMin = mins[2 * node + 1];
+            BigDecimal leftMax = maxs[2 * node], rightMax = maxs[2 * node + 1];
+            mins[node] = leftMin == null || (rightMin != null && leftMin.compareTo(rightMin) > 0) ? rightMin : leftMin;
+            maxs[node] = leftMax == null || (rightMax != null && leftMax.compareTo(rightMax) < 0) ? rightMax : leftMax;
+        }
+    }
+
+    private void publish() {
+        int oldest = window.bucketIndex(oldestEpoch);
+        long nextExpiry = liveBuckets == 0
+                          ? Long.MAX_VALUE
+                          : counts[oldest] > 0 && bucketEpochs[oldest] == oldestEpoch
+                            ? lastModified[oldest] + window.getLengthMillis()
+                            : Long.MIN_VALUE;
+        long previousExpiry = published.nextExpiry;
+        published = runningCount == 0
+                    ? Aggregate.EMPTY
+                    : new Aggregate(runningCount, runningSum, mins[1], maxs[1], nextExpiry);
+        if (nextExpiry < previousExpiry) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    /**
+     * Immutable window totals, valid until {@code nextExpiry}.
+     */
+    private static final class Aggregate {
+        private static final Aggregate EMPTY = new Aggregate(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                                                             Long.MAX_VALUE);
+
+        private final long       count;
+        private final BigDecimal sum;
+        private final BigDecimal min;
+        private final BigDecimal max;
+        private final long       nextExpiry;
+
+        private Aggregate(long count, BigDecimal sum, BigDecimal min, BigDecimal max, long nextExpiry) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.nextExpiry = nextExpiry;
+        }
+
+        private SummaryStatistics toStatistics() {
+            return new BigDecimalSummaryStatistics(scale, roundingMode).combine(count, sum, min, max);
+        }
+
+        @Override
+        public String toString() {
+            return count == 0 ? "empty" : (count + " elements between " + min + " and " + max + ", sum=" + sum);
+        }
+    }
+}
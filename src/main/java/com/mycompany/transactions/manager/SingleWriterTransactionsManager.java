@@ -0,0 +1,488 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Valid;
+
+/**
+ * Single-writer in-memory implementation for {@link TransactionsManager}, selected by setting
+ * {@code transactions.manager.engine=single-writer}, where:
+ * <ul>
+ * <li> Request threads only validate a transaction and publish its (bucket epoch, timestamp, amount) into a bounded
+ *      multi-producer ring buffer of preallocated events; a full ring makes them wait for the writer (backpressure).
+ * <li> One dedicated writer thread drains the ring in batches and applies them to buckets it alone owns, without any
+ *      synchronization, so the hot bucket's cache lines never bounce between cores.
+ * <li> After every batch, the writer publishes an immutable copy of each touched bucket; reads combine the published
+ *      copies of the live buckets, and never contend with writes.
+ * <li> With {@link AckMode#ENQUEUE} (the default), a transaction is acknowledged as soon as it is published, and becomes
+ *      visible within a batch; the request thread never waits for the writer but on a full ring. With
+ *      {@link AckMode#APPLY}, it is acknowledged once the writer applied it, so a read following a write sees it,
+ *      exactly like with {@link TransactionsManagerImpl}, at the cost of blocking the request thread meanwhile, which
+ *      an event loop can't afford.
+ * <li> {@link #resetAll()} goes through the ring as well, and is always acknowledged once applied.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.manager.engine", havingValue = "single-writer")
+public class SingleWriterTransactionsManager implements TransactionsManager {
+
+    /**
+     * When {@link #createTransaction(Transaction)} returns.
+     */
+    public enum AckMode {
+        ENQUEUE, APPLY
+    }
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    private static final int  MAX_BATCH       = 1_024;
+    private static final int  SPINS           = 100;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final long WAIT_PARK_NANOS = 10_000;
+
+    private final SlidingWindow                window;
+    private final Clock                        clock;
+    private final AckMode                      ackMode;
+    private final Ring                         ring;
+    private final AtomicReferenceArray<Bucket> published;
+    private final Thread                       writer;
+
+    private volatile boolean running = true;
+    //whether the writer parked for lack of events, and must be woken up by the next producer
+    private volatile boolean sleeping;
+    //sequence of the last event applied and published by the writer
+    private volatile long    applied = -1;
+
+    //buckets owned by the writer thread
+    private final long[]       bucketEpochs;
+    private final long[]       lastModified;
+    private final long[]       counts;
+    private final BigDecimal[] sums;
+    private final BigDecimal[] mins;
+    private final BigDecimal[] maxs;
+    private final boolean[]    dirty;
+    private final int[]        dirtyBuckets;
+    private       int          dirtyCount;
+
+    public SingleWriterTransactionsManager() {
+        this(SlidingWindow.DEFAULT, AckMode.ENQUEUE, 65_536);
+    }
+
+    @Autowired
+    public SingleWriterTransactionsManager(TransactionsProperties properties, Clock clock) {
+        this(properties.getWindow().toSlidingWindow(), properties.getSingleWriter().getAck(),
+             properties.getSingleWriter().getBufferSize(), clock);
+    }
+
+    public SingleWriterTransactionsManager(SlidingWindow window, AckMode ackMode, int bufferSize) {
+        this(window, ackMode, bufferSize, Clock.systemUTC());
+    }
+
+    public SingleWriterTransactionsManager(SlidingWindow window, AckMode ackMode, int bufferSize, Clock clock) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two: " + bufferSize);
+        }
+        int bucketCount = window.getBucketCount();
+        this.window = window;
+        this.ackMode = ackMode;
+        this.clock = clock;
+        this.ring = new Ring(bufferSize);
+        this.published = new AtomicReferenceArray<>(bucketCount);
+        this.bucketEpochs = new long[bucketCount];
+        this.lastModified = new long[bucketCount];
+        this.counts = new long[bucketCount];
+        this.sums = new BigDecimal[bucketCount];
+        this.mins = new BigDecimal[bucketCount];
+        this.maxs = new BigDecimal[bucketCount];
+        this.dirty = new boolean[bucketCount];
+        this.dirtyBuckets = new int[bucketCount];
+
+        this.writer = new Thread(this::drain, "transactions-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public AckMode getAckMode() {
+        return ackMode;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetAll() {
+        long sequence = ring.publish(Event.RESET, 0, 0, 0, null, null, null);
+        wakeUpWriter();
+        awaitApplied(sequence);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessingError tryCreateTransaction(@Valid Transaction transaction) {
+
+        long nowEpoch = clock.millis();
+
+        long timestamp = transaction.getTimestamp().toEpochMilli();
+
+        ProcessingError processingError = window.validate(nowEpoch, timestamp);
+        if (processingError != null) {
+            return processingError;
+        }
+
+        BigDecimal amount = transaction.getAmount();
+        long sequence = ring.publish(Event.ADD, window.bucketEpoch(timestamp), timestamp, 1, amount, amount, amount);
+        wakeUpWriter();
+        if (ackMode == AckMode.APPLY) {
+            awaitApplied(sequence);
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ProcessingError> createTransactions(Collection<Transaction> transactions) {
+
+        long nowEpoch = clock.millis();
+
+        List<ProcessingError> results = new ArrayList<>(transactions.size());
+        long last = -1;
+
+        for (Transaction transaction : transactions) {
+            long timestamp = transaction.getTimestamp().toEpochMilli();
+
+            ProcessingError processingError = window.validate(nowEpoch, timestamp);
+            results.add(processingError);
+
+            if (processingError == null) {
+                BigDecimal amount = transaction.getAmount();
+                last = ring.publish(Event.ADD, window.bucketEpoch(timestamp), timestamp, 1, amount, amount, amount);
+            }
+        }
+
+        wakeUpWriter();
+
+        //the whole batch is acknowledged at once, events being applied in sequence order
+        if (ackMode == AckMode.APPLY && last >= 0) {
+            awaitApplied(last);
+        }
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<BucketStatistics> exportBuckets() {
+        long nowEpoch = clock.millis();
+
+        List<BucketStatistics> buckets = new ArrayList<>();
+        for (int i = 0; i < published.length(); i++) {
+            Bucket bucket = published.get(i);
+            if (bucket != null && !window.isExpired(nowEpoch, bucket.lastModified)) {
+                buckets.add(new BucketStatistics(bucket.bucketEpoch, bucket.lastModified, bucket.count, bucket.sum,
+                                                 bucket.min, bucket.max));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void importBuckets(Collection<BucketStatistics> buckets) {
+        long nowEpoch = clock.millis();
+
+        long last = -1;
+        for (BucketStatistics imported : buckets) {
+            if (imported.getCount() > 0 && !window.isExpired(nowEpoch, imported.getLastModified())) {
+                last = ring.publish(Event.ADD, imported.getBucketEpoch(), imported.getLastModified(),
+                                    imported.getCount(), imported.getSum(), imported.getMin(), imported.getMax());
+            }
+        }
+        wakeUpWriter();
+        awaitApplied(last);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SummaryStatistics getTransactionStatistics() {
+        long nowEpoch = clock.millis();
+
+        BigDecimalSummaryStatistics result = new BigDecimalSummaryStatistics(scale, roundingMode);
+        for (int i = 0; i < published.length(); i++) {
+            Bucket bucket = published.get(i);
+            if (bucket != null && !window.isExpired(nowEpoch, bucket.lastModified)) {
+                result.combine(bucket.count, bucket.sum, bucket.min, bucket.max);
+            }
+        }
+        return result;
+    }
+
+    private void awaitApplied(long sequence) {
+        for (int spins = 0; applied < sequence; spins++) {
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("Transactions writer isn't running");
+            }
+            if (spins < SPINS) {
+                Thread.yield();
+            }
+            else {
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Writer thread loop: applies up to {@link #MAX_BATCH} events, then publishes the touched buckets; once idle, spins
+     * a while before parking until the next producer wakes it up.
+     */
+    private void drain() {
+        int idle = 0;
+        while (running) {
+            int drained = 0;
+            for (Event event; drained < MAX_BATCH && (event = ring.peek()) != null; drained++) {
+                apply(event);
+                ring.release();
+            }
+
+            if (drained > 0) {
+                publishDirty();
+                applied = ring.head - 1;
+                idle = 0;
+            }
+            else if (idle++ < SPINS) {
+                Thread.yield();
+            }
+            else {
+                sleeping = true;
+                if (ring.peek() == null) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+            }
+        }
+    }
+
+    private void wakeUpWriter() {
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void apply(Event event) {
+        if (event.type == Event.RESET) {
+            for (int i = 0; i < counts.length; i++) {
+                clearBucket(i);
+                markDirty(i);
+            }
+            return;
+        }
+
+        int bucket = window.bucketIndex(event.bucketEpoch);
+        if (counts[bucket] > 0 && bucketEpochs[bucket] != event.bucketEpoch) {
+            if (bucketEpochs[bucket] > event.bucketEpoch) {
+                //the event's bucket was already recycled while it was queued, so it expired
+                return;
+            }
+            clearBucket(bucket);
+        }
+
+        if (counts[bucket] == 0) {
+            bucketEpochs[bucket] = event.bucketEpoch;
+            lastModified[bucket] = event.timestamp;
+            sums[bucket] = event.sum;
+            mins[bucket] = event.min;
+            maxs[bucket] = event.max;
+        }
+        else {
+            lastModified[bucket] = Math.max(lastModified[bucket], event.timestamp);
+            sums[bucket] = sums[bucket].add(event.sum);
+            if (mins[bucket].compareTo(event.min) > 0) { mins[bucket] = event.min; }
+            if (maxs[bucket].compareTo(event.max) < 0) { maxs[bucket] = event.max; }
+        }
+        counts[bucket] += event.count;
+        markDirty(bucket);
+    }
+
+    private void clearBucket(int bucket) {
+        bucketEpochs[bucket] = 0;
+        lastModified[bucket] = 0;
+        counts[bucket] = 0;
+        sums[bucket] = null;
+        mins[bucket] = null;
+        maxs[bucket] = null;
+    }
+
+    private void markDirty(int bucket) {
+        if (!dirty[bucket]) {
+            dirty[bucket] = true;
+            dirtyBuckets[dirtyCount++] = bucket;
+        }
+    }
+
+    private void publishDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int bucket = dirtyBuckets[i];
+            published.set(bucket, counts[bucket] == 0
+                                  ? null
+                                  : new Bucket(bucketEpochs[bucket], lastModified[bucket], counts[bucket],
+                                               sums[bucket], mins[bucket], maxs[bucket]));
+            dirty[bucket] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Immutable copy of a bucket, as published by the writer.
+     */
+    private static final class Bucket {
+        private final long       bucketEpoch;
+        private final long       lastModified;
+        private final long       count;
+        private final BigDecimal sum;
+        private final BigDecimal min;
+        private final BigDecimal max;
+
+        private Bucket(long bucketEpoch, long lastModified, long count, BigDecimal sum, BigDecimal min,
+                       BigDecimal max) {
+            this.bucketEpoch = bucketEpoch;
+            this.lastModified = lastModified;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * Preallocated ring slot, written by the producer that claimed it and read by the writer once published; an
+     * {@code ADD} carries the totals of one transaction, or of a whole imported bucket.
+     */
+    private static final class Event {
+        private static final byte ADD   = 0;
+        private static final byte RESET = 1;
+
+        private byte       type;
+        private long       bucketEpoch;
+        private long       timestamp;
+        private long       count;
+        private BigDecimal sum;
+        private BigDecimal min;
+        private BigDecimal max;
+    }
+
+    /**
+     * Bounded multi-producer single-consumer ring of {@link Event}s: producers claim a sequence by CAS on the tail,
+     * fill the slot, then publish it by advancing the slot's own sequence, which the consumer waits for.
+     */
+    private static final class Ring {
+        private final Event[]         events;
+        private final AtomicLongArray sequences;
+        private final int             mask;
+        private final AtomicLong      tail = new AtomicLong();
+        //consumer only, read by the writer thread when it publishes what it applied
+        private       long            head;
+
+        private Ring(int capacity) {
+            this.events = new Event[capacity];
+            this.sequences = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                events[i] = new Event();
+                sequences.set(i, i);
+            }
+        }
+
+        /**
+         * @return the sequence of the published event.
+         */
+        private long publish(byte type, long bucketEpoch, long timestamp, long count, BigDecimal sum, BigDecimal min,
+                             BigDecimal max) {
+            for (int spins = 0; ; ) {
+                long sequence = tail.get();
+                int index = (int) sequence & mask;
+                long slotSequence = sequences.get(index);
+                if (slotSequence == sequence) {
+                    if (tail.compareAndSet(sequence, sequence + 1)) {
+                        Event event = events[index];
+                        event.type = type;
+                        event.bucketEpoch = bucketEpoch;
+                        event.timestamp = timestamp;
+                        event.count = count;
+                        event.sum = sum;
+                        event.min = min;
+                        event.max = max;
+                        //a full fence, so the writer's sleeping flag is read after the event is visible: with a
+                        //lazy set, both could miss each other, the writer parking on a published event
+                        sequences.set(index, sequence + 1);
+                        return sequence;
+                    }
+                }
+                else if (slotSequence < sequence) {
+                    //full, wait for the writer to free the slot
+                    if (spins++ < SPINS) {
+                        Thread.yield();
+                    }
+                    else {
+                        LockSupport.parkNanos(WAIT_PARK_NANOS);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the next published event, or {@code null} if there's none yet.
+         */
+        private Event peek() {
+            int index = (int) head & mask;
+            return sequences.get(index) == head + 1 ? events[index] : null;
+        }
+
+        /**
+         * Frees the slot of the event returned by {@link #peek()} for the producers of the next lap.
+         */
+        private void release() {
+            int index = (int) head & mask;
+            Event event = events[index];
+            event.sum = null;
+            event.min = null;
+            event.max = null;
+            sequences.lazySet(index, head + events.length);
+            head++;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.exception.ProcessingError;
+
+import static com.mycompany.transactions.exception.ProcessingError.FUTURE_TRANSACTION;
+import static com.mycompany.transactions.exception.ProcessingError.OLD_TRANSACTION;
+
+/**
+ * Geometry of the statistics sliding window: its {@code length}, and the {@code bucketWidth} transactions are grouped
+ * by, both in milliseconds.
+ * <ul>
+ * <li> Buckets are kept in a ring of a power-of-two size, large enough for every bucket of the window plus the one
+ *      currently being filled, so a bucket index is a mask of the bucket epoch instead of a modulo.
+ * <li> A bucket epoch is the number of whole bucket widths since the Unix epoch; a ring slot holding a different
+ *      epoch than the one being written is always an expired one.
+ */
+public final class SlidingWindow {
+
+    public static final SlidingWindow DEFAULT = new SlidingWindow(60_000, 1_000);
+
+    private final long lengthMillis;
+    private final long bucketWidthMillis;
+    private final int  bucketCount;
+    private final int  mask;
+
+    public SlidingWindow(long lengthMillis, long bucketWidthMillis) {
+        if (bucketWidthMillis <= 0 || lengthMillis < bucketWidthMillis) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid window of %d ms with buckets of %d ms", lengthMillis, bucketWidthMillis));
+        }
+        long windowBuckets = (lengthMillis + bucketWidthMillis - 1) / bucketWidthMillis + 1;
+        if (windowBuckets > 1 << 30) {
+            throw new IllegalArgumentException(String.format(
+                    "Window of %d ms needs too many buckets of %d ms", lengthMillis, bucketWidthMillis));
+        }
+        this.lengthMillis = lengthMillis;
+        this.bucketWidthMillis = bucketWidthMillis;
+        this.bucketCount = Integer.highestOneBit((int) windowBuckets - 1) << 1;
+        this.mask = bucketCount - 1;
+    }
+
+    public long getLengthMillis() {
+        return lengthMillis;
+    }
+
+    public long getBucketWidthMillis() {
+        return bucketWidthMillis;
+    }
+
+    /**
+     * @return the ring size, always a power of two.
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public long bucketEpoch(long timestamp) {
+        return Math.floorDiv(timestamp, bucketWidthMillis);
+    }
+
+    public int bucketIndex(long bucketEpoch) {
+        return (int) bucketEpoch & mask;
+    }
+
+    /**
+     * @return whether a {@code timestamp} already fell out of the window at {@code now}.
+     */
+    public boolean isExpired(long now, long timestamp) {
+        return now - timestamp >= lengthMillis;
+    }
+
+    /**
+     * @return {@code null} if a transaction stamped {@code timestamp} belongs to the window at {@code now}, otherwise
+     * the {@link ProcessingError} it must be rejected with.
+     */
+    public ProcessingError validate(long now, long timestamp) {
+        if (now < timestamp) {
+            return FUTURE_TRANSACTION;
+        }
+        if (isExpired(now, timestamp)) {
+            return OLD_TRANSACTION;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return lengthMillis + " ms window of " + bucketCount + " buckets of " + bucketWidthMillis + " ms";
+    }
+}
@@ -1,8 +1,14 @@
 package com.mycompany.transactions.manager;
 
-import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
 import com.mycompany.transactions.model.Transaction;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * A <b>Manager</b> Responsible for basic transactions operations, like creation, statistics retrieval and resetting current statistics
  */
@@ -12,16 +18,54 @@ public interface TransactionsManager {
      * Creates a new Transaction by accumulating its value to statistics repository
      * @param transaction
      *
-     * @throws com.mycompany.transactions.exception.TransactionProcessingException if passed transaction in future or
-     * its {@code timestamp} older than 60 seconds.
+     * @throws TransactionProcessingException if passed transaction in future or its {@code timestamp} older than 60
+     * seconds, the shared stackless one of its {@link ProcessingError}.
+     */
+    default void createTransaction(Transaction transaction) {
+        ProcessingError processingError = tryCreateTransaction(transaction);
+        if (processingError != null) {
+            throw TransactionProcessingException.of(processingError);
+        }
+    }
+
+    /**
+     * Creates a new Transaction like {@link #createTransaction(Transaction)}, returning the outcome instead of throwing
+     * it, as rejecting late retries is as common as accepting transactions.
+     * @param transaction
+     *
+     * @return {@code null} if the transaction was accepted, otherwise the {@link ProcessingError} it was rejected with.
+     */
+    ProcessingError tryCreateTransaction(Transaction transaction);
+
+    /**
+     * Creates a batch of Transactions, accumulating the batch per bucket first, then merging every touched bucket of
+     * the statistics repository once.
+     * @param transactions
+     *
+     * @return one entry per passed transaction, in the same order: {@code null} if the transaction was accepted,
+     * otherwise the {@link ProcessingError} it was rejected with, exactly as {@link #createTransaction(Transaction)}
+     * would have thrown it.
+     */
+    List<ProcessingError> createTransactions(Collection<Transaction> transactions);
+
+    /**
+     * Exports the raw state of every bucket still within the window, eg: for a peer to merge it with its own.
+     * @return {@link BucketStatistics} in no particular order
+     */
+    List<BucketStatistics> exportBuckets();
+
+    /**
+     * Merges already accumulated buckets, eg: restored from a snapshot, into the statistics repository; buckets
+     * already expired are skipped.
+     * @param buckets
      */
-    void createTransaction(Transaction transaction);
+    void importBuckets(Collection<BucketStatistics> buckets);
 
     /**
      * Gets current transactions statistics for the last 60 seconds.
-     * @return {@link BigDecimalSummaryStatistics}
+     * @return {@link SummaryStatistics}
      */
-    BigDecimalSummaryStatistics getTransactionStatistics();
+    SummaryStatistics getTransactionStatistics();
 
     /**
      * Reset the statistics state by deleting all existing transactions from the statistics repository
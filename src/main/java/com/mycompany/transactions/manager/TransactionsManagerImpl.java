@@ -1,47 +1,119 @@
 package com.mycompany.transactions.manager;
 
-import com.mycompany.transactions.exception.TransactionProcessingException;
-import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.audit.TransactionsAuditLog;
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
 import com.mycompany.transactions.model.Transaction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.validation.Valid;
 
-import static com.mycompany.transactions.exception.ProcessingError.FUTURE_TRANSACTION;
-import static com.mycompany.transactions.exception.ProcessingError.OLD_TRANSACTION;
-
 /**
  * In-memory implementation for {@link TransactionsManager}, where all operations guaranteed to be:
  * <ul>
  * <li> Threadsafe, which means parallel calls should have consistent results. This is ensured by synchronizing
- *      on the {@link BigDecimalSummaryStatistics} 60 objects created upon the Manager object creation, one object per each second.
+ *      on the {@link SummaryStatistics} bucket objects created upon the Manager object creation, one object per each
+ *      bucket of the {@link SlidingWindow}.
  * <li> Operating in O(1) as a time & memory complexity, due to the fact that regardless of how many transactions we get,
- *      we accumulate them to 60 different buckets depends on which second of the last minute they belong to.
+ *      we accumulate them to a fixed ring of buckets depends on which bucket of the window they belong to
+ *      (by default 64 buckets of one second for a window of 60 seconds).
  * <li> Statistics' values are {@link java.math.BigDecimal} and always contain exactly two decimal places and use
  *      `HALF_ROUND_UP` rounding. eg: 10.345 is returned as 10.35, 10.8 is returned as 10.80
+ * <li> Buckets are of the {@link StatisticsType} chosen at startup through {@code transactions.statistics.type}.
+ * <li> Time is read from the {@link Clock} of {@code transactions.clock.type}, or a virtual one in tests and replays.
+ * <li> Bucket resets, sampled monitor waits and statistics reads are recorded to {@link TransactionsMetrics}, unless
+ *      metrics are disabled.
+ * <li> Buckets are recycled by the first writer of a newer bucket epoch, unless a {@link BucketRotationTicker} already
+ *      did ahead of time.
+ * <li> The outcome of every transaction is appended to the {@link TransactionsAuditLog}, unless it is disabled, once
+ *      the bucket monitor is released.
+ * <li> A recycled bucket is first folded into the {@link RollupStatisticsManager}, when rollups are enabled.
  */
 @Service
+@ConditionalOnProperty(name = "transactions.manager.engine", havingValue = "synchronized", matchIfMissing = true)
 public class TransactionsManagerImpl implements TransactionsManager {
 
     private final Log logger = LogFactory.getLog(getClass());
 
-    private static final int                           scale        = 2;
-    private static final RoundingMode                  roundingMode = RoundingMode.HALF_UP;
-    private final        BigDecimalSummaryStatistics[] statistics   = new BigDecimalSummaryStatistics[60];
-    private final        long[]                        lastModified = new long[60];
+    private static final int                     scale        = 2;
+    private static final RoundingMode            roundingMode = RoundingMode.HALF_UP;
+    private final        StatisticsType          statisticsType;
+    private final        SlidingWindow           window;
+    private final        SummaryStatistics[]     statistics;
+    private final        long[]                  bucketEpochs;
+    private final        long[]                  lastModified;
+    private final        Clock                   clock;
+    private              TransactionsMetrics     metrics;
+    private              TransactionsAuditLog    auditLog;
+    private volatile     RollupStatisticsManager rollups;
 
     public TransactionsManagerImpl() {
+        this(StatisticsType.BIG_DECIMAL, SlidingWindow.DEFAULT);
+    }
+
+    @Autowired
+    public TransactionsManagerImpl(TransactionsProperties properties, Clock clock) {
+        this(properties.getStatistics().getType(), properties.getWindow().toSlidingWindow(), clock);
+    }
+
+    public TransactionsManagerImpl(StatisticsType statisticsType, SlidingWindow window) {
+        this(statisticsType, window, Clock.systemUTC());
+    }
+
+    public TransactionsManagerImpl(StatisticsType statisticsType, SlidingWindow window, Clock clock) {
+        this.statisticsType = statisticsType;
+        this.window = window;
+        this.clock = clock;
+        this.statistics = new SummaryStatistics[window.getBucketCount()];
+        this.bucketEpochs = new long[window.getBucketCount()];
+        this.lastModified = new long[window.getBucketCount()];
         resetAll();
     }
 
+    @Autowired(required = false)
+    public void setMetrics(TransactionsMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Autowired(required = false)
+    public void setAuditLog(TransactionsAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Registered by the {@link RollupStatisticsManagerImpl} reading this engine, rather than injected, as it depends on
+     * this engine.
+     */
+    public void setRollups(RollupStatisticsManager rollups) {
+        this.rollups = rollups;
+    }
+
+    public StatisticsType getStatisticsType() {
+        return statisticsType;
+    }
+
+    public SlidingWindow getWindow() {
+        return window;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -54,7 +126,7 @@ public class TransactionsManagerImpl implements TransactionsManager {
                 }
             }
             else {
-                statistics[i] = new BigDecimalSummaryStatistics(scale, roundingMode);
+                statistics[i] = statisticsType.create(scale, roundingMode);
             }
         }
     }
@@ -63,9 +135,9 @@ public class TransactionsManagerImpl implements TransactionsManager {
      * {@inheritDoc}
      */
     @Override
-    public void createTransaction(@Valid Transaction transaction) {
+    public ProcessingError tryCreateTransaction(@Valid Transaction transaction) {
 
-        long nowEpoch = System.currentTimeMillis();
+        long nowEpoch = clock.millis();
 
         if (logger.isTraceEnabled()) {
             logger.trace(String.format("Transaction received at %s with details: %s", Instant.ofEpochMilli(nowEpoch)
@@ -74,65 +146,239 @@ public class TransactionsManagerImpl implements TransactionsManager {
 
         long timestamp = transaction.getTimestamp().toEpochMilli();
 
-        if (nowEpoch < timestamp) {
-            throw new TransactionProcessingException(FUTURE_TRANSACTION);
+        ProcessingError processingError = window.validate(nowEpoch, timestamp);
+        TransactionsAuditLog auditLog = this.auditLog;
+        if (processingError != null) {
+            if (auditLog != null) {
+                auditLog.append(nowEpoch, timestamp, transaction.getAmount(), processingError);
+            }
+            return processingError;
+        }
+
+        long bucketEpoch = window.bucketEpoch(timestamp);
+        int bucket = window.bucketIndex(bucketEpoch);
+
+        TransactionsMetrics metrics = this.metrics;
+        long waitStart = metrics != null && metrics.sampleLockWait() ? System.nanoTime() : Long.MIN_VALUE;
+
+        synchronized (statistics[bucket]) {
+
+            if (waitStart != Long.MIN_VALUE) {
+                metrics.lockWait(System.nanoTime() - waitStart);
+            }
+
+            //check if existing entry belongs to an already obsolete bucket epoch, and reset if needed accordingly
+            if (lastModified[bucket] > 0 && bucketEpochs[bucket] != bucketEpoch) {
+                recycleEntry(bucket);
+            }
+
+            //update this bucket statistics, update last modified
+            statistics[bucket].accept(transaction);
+
+            bucketEpochs[bucket] = bucketEpoch;
+            lastModified[bucket] = Math.max(lastModified[bucket], timestamp);
         }
 
-        if ((nowEpoch - timestamp) / 1000 >= 60) {
-            throw new TransactionProcessingException(OLD_TRANSACTION);
+        if (auditLog != null) {
+            auditLog.append(nowEpoch, timestamp, transaction.getAmount(), null);
         }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ProcessingError> createTransactions(Collection<Transaction> transactions) {
 
-        int second = ZonedDateTime.ofInstant(transaction.getTimestamp(), ZoneOffset.UTC).getSecond();
+        long nowEpoch = clock.millis();
 
-        synchronized (statistics[second]) {
+        List<ProcessingError> results = new ArrayList<>(transactions.size());
+        Map<Long, SummaryStatistics> partials = new LinkedHashMap<>();
+        Map<Long, Long> partialsLastModified = new LinkedHashMap<>();
 
-            BigDecimalSummaryStatistics before = statistics[second];
+        //accumulate the batch locally, one partial statistics per bucket epoch
+        for (Transaction transaction : transactions) {
+            long timestamp = transaction.getTimestamp().toEpochMilli();
 
-            //check if existing entry already obsolete, and reset if needed accordingly
-            if (lastModified[second] > 0 && (nowEpoch - lastModified[second]) / 1000 >= 60) {
-                resetEntry(second);
+            ProcessingError processingError = window.validate(nowEpoch, timestamp);
+            results.add(processingError);
+
+            if (processingError == null) {
+                long bucketEpoch = window.bucketEpoch(timestamp);
+                partials.computeIfAbsent(bucketEpoch, epoch -> statisticsType.create(scale, roundingMode))
+                        .accept(transaction);
+                partialsLastModified.merge(bucketEpoch, timestamp, Math::max);
             }
+        }
+
+        //merge every touched bucket once
+        for (Map.Entry<Long, SummaryStatistics> partial : partials.entrySet()) {
+            long bucketEpoch = partial.getKey();
+            int bucket = window.bucketIndex(bucketEpoch);
 
-            //update this second statistics bucket, update last modified
-            statistics[second].accept(transaction.getAmount());
+            synchronized (statistics[bucket]) {
+                if (lastModified[bucket] > 0 && bucketEpochs[bucket] != bucketEpoch) {
+                    recycleEntry(bucket);
+                }
 
-            lastModified[second] = timestamp;
+                statistics[bucket].combine(partial.getValue());
 
-            BigDecimalSummaryStatistics after = statistics[second];
+                bucketEpochs[bucket] = bucketEpoch;
+                lastModified[bucket] = Math.max(lastModified[bucket], partialsLastModified.get(bucketEpoch));
+            }
+        }
 
-            if (logger.isTraceEnabled()) {
-                logger.trace(String.format(
-                        "Transaction persisted at %s with details: %s and statistics before was: %s while statistics after is: %s",
-                        Instant.ofEpochMilli(nowEpoch)
-                        ,
-                        transaction,
-                        before,
-                        after));
+        TransactionsAuditLog auditLog = this.auditLog;
+        if (auditLog != null) {
+            int i = 0;
+            for (Transaction transaction : transactions) {
+                auditLog.append(nowEpoch, transaction.getTimestamp().toEpochMilli(), transaction.getAmount(),
+                                results.get(i++));
             }
         }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("Batch of %d transactions received at %s merged into %d buckets",
+                                       transactions.size(), Instant.ofEpochMilli(nowEpoch), partials.size()));
+        }
+        return results;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public BigDecimalSummaryStatistics getTransactionStatistics() {
-        long nowEpoch = System.currentTimeMillis();
+    public List<BucketStatistics> exportBuckets() {
+        long nowEpoch = clock.millis();
 
-        BigDecimalSummaryStatistics result = new BigDecimalSummaryStatistics(scale, roundingMode);
+        List<BucketStatistics> buckets = new ArrayList<>();
+        for (int i = 0; i < statistics.length; i++) {
+            synchronized (statistics[i]) {
+                if (lastModified[i] > 0 && !window.isExpired(nowEpoch, lastModified[i])) {
+                    buckets.add(statistics[i].toBucketStatistics(bucketEpochs[i], lastModified[i]));
+                }
+            }
+        }
+        return buckets;
+    }
 
+    /**
+     * Exports every bucket still held by the ring, expired or not: those the {@link RollupStatisticsManager} didn't get
+     * folded yet.
+     */
+    public List<BucketStatistics> exportRingBuckets() {
+        List<BucketStatistics> buckets = new ArrayList<>();
         for (int i = 0; i < statistics.length; i++) {
             synchronized (statistics[i]) {
-                if (lastModified[i] > 0 && (nowEpoch - lastModified[i]) / 1000 < 60) {
+                if (lastModified[i] > 0) {
+                    buckets.add(statistics[i].toBucketStatistics(bucketEpochs[i], lastModified[i]));
+                }
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void importBuckets(Collection<BucketStatistics> buckets) {
+        long nowEpoch = clock.millis();
+
+        for (BucketStatistics imported : buckets) {
+            if (imported.getCount() == 0 || window.isExpired(nowEpoch, imported.getLastModified())) {
+                continue;
+            }
+            long bucketEpoch = imported.getBucketEpoch();
+            int bucket = window.bucketIndex(bucketEpoch);
+
+            synchronized (statistics[bucket]) {
+                if (lastModified[bucket] > 0 && bucketEpochs[bucket] != bucketEpoch) {
+                    recycleEntry(bucket);
+                }
+
+                statistics[bucket].combine(imported.getCount(), imported.getSum(), imported.getMin(),
+                                           imported.getMax());
+
+                bucketEpochs[bucket] = bucketEpoch;
+                lastModified[bucket] = Math.max(lastModified[bucket], imported.getLastModified());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SummaryStatistics getTransactionStatistics() {
+        long startNanos = System.nanoTime();
+        long nowEpoch = clock.millis();
+
+        SummaryStatistics result = statisticsType.create(scale, roundingMode);
+
+        //only the buckets of the window's epochs may be live: the oldest one while its last transaction is, every later
+        //one as a whole, so a bucket costs a comparison of its epoch, and a single one a comparison of its timestamp
+        long newestEpoch = window.bucketEpoch(nowEpoch);
+        long oldestEpoch = window.bucketEpoch(nowEpoch - window.getLengthMillis());
+        for (long bucketEpoch = oldestEpoch; bucketEpoch <= newestEpoch; bucketEpoch++) {
+            int i = window.bucketIndex(bucketEpoch);
+            synchronized (statistics[i]) {
+                if (lastModified[i] > 0 && bucketEpochs[i] == bucketEpoch
+                    && (bucketEpoch != oldestEpoch || !window.isExpired(nowEpoch, lastModified[i]))) {
                     result.combine(statistics[i]);
                 }
             }
         }
+
+        TransactionsMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.statisticsRead(System.nanoTime() - startNanos);
+        }
         return result;
     }
 
-    private void resetEntry(int second) {
-        statistics[second].reset();
-        lastModified[second] = 0;
+    /**
+     * Prepares the bucket of the next bucket epoch ahead of time, resetting it and assigning it that epoch, so its
+     * writers find it empty and never recycle it themselves. Called by the {@link BucketRotationTicker} once per
+     * bucket width; a bucket whose transactions may still be live is left alone, as is one already written to for the
+     * next epoch. A late or missed call only leaves the recycling to the writers, exactly as without a ticker.
+     */
+    public void rotate() {
+        long nowEpoch = clock.millis();
+        long nextEpoch = window.bucketEpoch(nowEpoch) + 1;
+        long oldestEpoch = window.bucketEpoch(nowEpoch - window.getLengthMillis());
+        int bucket = window.bucketIndex(nextEpoch);
+
+        synchronized (statistics[bucket]) {
+            if (bucketEpochs[bucket] != nextEpoch
+                && (lastModified[bucket] == 0 || bucketEpochs[bucket] < oldestEpoch)) {
+                if (lastModified[bucket] > 0) {
+                    recycleEntry(bucket);
+                }
+                bucketEpochs[bucket] = nextEpoch;
+            }
+        }
+    }
+
+    /**
+     * Resets a bucket of an obsolete bucket epoch before reusing it for a newer one, folding it into the rollups first.
+     */
+    private void recycleEntry(int bucket) {
+        RollupStatisticsManager rollups = this.rollups;
+        if (rollups != null) {
+            rollups.fold(bucketEpochs[bucket], statistics[bucket]);
+        }
+        resetEntry(bucket);
+        TransactionsMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.bucketReset();
+        }
+    }
+
+    private void resetEntry(int bucket) {
+        statistics[bucket].reset();
+        bucketEpochs[bucket] = 0;
+        lastModified[bucket] = 0;
     }
 }
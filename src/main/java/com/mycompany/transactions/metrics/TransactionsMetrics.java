@@ -0,0 +1,166 @@
+package com.mycompany.transactions.metrics;
+
+import com.mycompany.transactions.admission.AdaptiveConcurrencyLimit;
+import com.mycompany.transactions.exception.ProcessingError;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Hot-path meters of the transactions statistics, enabled unless {@code transactions.metrics.enabled=false}, and
+ * scraped from {@code GET /actuator/prometheus}:
+ * <ul>
+ * <li> {@code transactions.ingested}: transactions by {@code outcome} and rejection {@code error}, so the ingest rate
+ *      and the rejection mix are a {@code rate()} away.
+ * <li> {@code transactions.bucket.resets}: buckets recycled for a newer bucket epoch by ingestion.
+ * <li> {@code transactions.bucket.lock.wait}: time spent entering a bucket monitor, measured on one ingestion out of
+ *      {@link #LOCK_WAIT_SAMPLING}, as timing every one of them would cost more than the wait itself.
+ * <li> {@code transactions.statistics.reads}: latency of {@code TransactionsManager.getTransactionStatistics()}.
+ * <li> {@code transactions.statistics.queries}: latency of the {@code GET /statistics*} queries by {@code query}.
+ * <li> {@code transactions.http.errors}: requests failed by an exception, by {@code status} and {@code exception}.
+ * <li> {@code transactions.admission.shed}, {@code transactions.admission.limit} and
+ *      {@code transactions.admission.in.flight}: ingestion requests shed, and the current limit and load, when
+ *      admission control is enabled.
+ * </ul>
+ * Counters are striped adders and timers keep HDR histograms, so recording doesn't contend between request threads;
+ * every meter is created upfront, leaving no registry lookup on the hot paths. Consumers hold a {@code null} reference
+ * when metrics are disabled, so they cost a null check.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionsMetrics {
+
+    public static final int LOCK_WAIT_SAMPLING = 64;
+
+    private final MeterRegistry registry;
+    private final Counter       accepted;
+    private final Counter[]     rejected;
+    private final Counter       bucketResets;
+    private final Counter       shed;
+    private final Timer         lockWait;
+    private final Timer         statisticsReads;
+
+    @Autowired
+    public TransactionsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.accepted = Counter.builder("transactions.ingested")
+                               .description("Transactions ingested, by outcome")
+                               .tags("outcome", "accepted", "error", "none")
+                               .register(registry);
+        this.rejected = new Counter[ProcessingError.values().length];
+        for (ProcessingError processingError : ProcessingError.values()) {
+            rejected[processingError.ordinal()] = Counter.builder("transactions.ingested")
+                                                         .description("Transactions ingested, by outcome")
+                                                         .tags("outcome", "rejected", "error", tag(processingError))
+                                                         .register(registry);
+        }
+        this.bucketResets = Counter.builder("transactions.bucket.resets")
+                                   .description("Buckets recycled for a newer bucket epoch")
+                                   .register(registry);
+        this.shed = Counter.builder("transactions.admission.shed")
+                           .description("Ingestion requests shed by admission control")
+                           .register(registry);
+        this.lockWait = Timer.builder("transactions.bucket.lock.wait")
+                             .description("Time entering a bucket monitor, sampled")
+                             .publishPercentileHistogram()
+                             .register(registry);
+        this.statisticsReads = Timer.builder("transactions.statistics.reads")
+                                    .description("Latency of merging the window statistics")
+                                    .publishPercentileHistogram()
+                                    .register(registry);
+    }
+
+    /**
+     * @param processingError {@code null} for an accepted transaction, otherwise the error it was rejected with.
+     */
+    public void ingested(ProcessingError processingError) {
+        if (processingError == null) {
+            accepted.increment();
+        }
+        else {
+            rejected[processingError.ordinal()].increment();
+        }
+    }
+
+    public void ingested(List<ProcessingError> processingErrors) {
+        long acceptedCount = 0;
+        for (ProcessingError processingError : processingErrors) {
+            if (processingError == null) {
+                acceptedCount++;
+            }
+            else {
+                rejected[processingError.ordinal()].increment();
+            }
+        }
+        accepted.increment(acceptedCount);
+    }
+
+    public void bucketReset() {
+        bucketResets.increment();
+    }
+
+    public void shed() {
+        shed.increment();
+    }
+
+    /**
+     * Gauges the limit of the admission control, and the requests it currently admitted.
+     */
+    public void admission(AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("transactions.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+             .description("Concurrent ingestion requests admitted at most")
+             .register(registry);
+        Gauge.builder("transactions.admission.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+             .description("Ingestion requests admitted and not completed yet")
+             .register(registry);
+    }
+
+    /**
+     * @return whether the caller should time its next monitor entry, and report it to {@link #lockWait(long)}.
+     */
+    public boolean sampleLockWait() {
+        return ThreadLocalRandom.current().nextInt(LOCK_WAIT_SAMPLING) == 0;
+    }
+
+    public void lockWait(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void statisticsRead(long nanos) {
+        statisticsReads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the timer of a {@code GET /statistics*} query, eg: {@code key} or {@code percentiles}.
+     */
+    public Timer query(String query) {
+        return Timer.builder("transactions.statistics.queries")
+                    .description("Latency of the statistics queries")
+                    .tags("query", query)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+
+    /**
+     * Counts a request failed by an exception; off the hot path, the counter is looked up in the registry.
+     */
+    public void httpError(int status, Exception exception) {
+        registry.counter("transactions.http.errors", "status", String.valueOf(status), "exception",
+                         exception.getClass().getSimpleName()).increment();
+    }
+
+    private static String tag(ProcessingError processingError) {
+        return processingError.name().toLowerCase(Locale.ROOT);
+    }
+}
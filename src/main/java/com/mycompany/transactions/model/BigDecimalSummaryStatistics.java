@@ -3,7 +3,6 @@ package com.mycompany.transactions.model;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
-import java.util.function.Consumer;
 
 /**
  * Like {@code DoubleSummaryStatistics} but for {@link BigDecimal}.
@@ -11,7 +10,7 @@ import java.util.function.Consumer;
  * <ul> Implementation quoted from https://stackoverflow.com/questions/51645432/bigdecimal-summary-statistics,
  * however was adjusted to meet the acceptance criteria.
  */
-public class BigDecimalSummaryStatistics implements Consumer<BigDecimal> {
+public class BigDecimalSummaryStatistics implements SummaryStatistics {
 
     private BigDecimal sum = BigDecimal.ZERO, min = BigDecimal.ZERO, max = BigDecimal.ZERO;
     private long count;
@@ -24,6 +23,7 @@ public class BigDecimalSummaryStatistics implements Consumer<BigDecimal> {
         this.roundingMode = roundingMode;
     }
 
+    @Override
     public void reset() {
         sum = BigDecimal.ZERO;
         min = BigDecimal.ZERO;
@@ -48,42 +48,60 @@ public class BigDecimalSummaryStatistics implements Consumer<BigDecimal> {
         }
     }
 
-    public BigDecimalSummaryStatistics combine(BigDecimalSummaryStatistics otherSummaryStatistics) {
-        if (otherSummaryStatistics.count > 0) {
+    @Override
+    public BigDecimalSummaryStatistics combine(SummaryStatistics otherSummaryStatistics) {
+        BigDecimalSummaryStatistics other = (BigDecimalSummaryStatistics) otherSummaryStatistics;
+        return combine(other.count, other.sum, other.min, other.max);
+    }
+
+    @Override
+    public BigDecimalSummaryStatistics combine(long otherCount, BigDecimal otherSum, BigDecimal otherMin,
+                                               BigDecimal otherMax) {
+        if (otherCount > 0) {
             if (count == 0) {
-                count = otherSummaryStatistics.count;
-                sum = otherSummaryStatistics.sum;
-                min = otherSummaryStatistics.min;
-                max = otherSummaryStatistics.max;
+                count = otherCount;
+                sum = otherSum;
+                min = otherMin;
+                max = otherMax;
             }
             else {
-                sum = sum.add(otherSummaryStatistics.sum);
-                if (min.compareTo(otherSummaryStatistics.min) > 0) { min = otherSummaryStatistics.min; }
-                if (max.compareTo(otherSummaryStatistics.max) < 0) { max = otherSummaryStatistics.max; }
-                count += otherSummaryStatistics.count;
+                sum = sum.add(otherSum);
+                if (min.compareTo(otherMin) > 0) { min = otherMin; }
+                if (max.compareTo(otherMax) < 0) { max = otherMax; }
+                count += otherCount;
             }
         }
         return this;
     }
 
+    @Override
+    public BucketStatistics toBucketStatistics(long bucketEpoch, long lastModified) {
+        return new BucketStatistics(bucketEpoch, lastModified, count, sum, min, max);
+    }
+
+    @Override
     public long getCount() {
         return count;
     }
 
+    @Override
     public BigDecimal getSum() {
         return sum.setScale(scale, roundingMode);
     }
 
+    @Override
     public BigDecimal getAvg() {
         return count < 2 ? sum.setScale(scale, roundingMode) : sum.divide(BigDecimal.valueOf(count),
                                                                           scale,
                                                                           roundingMode);
     }
 
+    @Override
     public BigDecimal getMin() {
         return min.setScale(scale, roundingMode);
     }
 
+    @Override
     public BigDecimal getMax() {
         return max.setScale(scale, roundingMode);
     }
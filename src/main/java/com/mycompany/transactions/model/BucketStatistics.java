@@ -0,0 +1,23 @@
+package com.mycompany.transactions.model;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Raw, unrounded totals of one bucket of the sliding window, as snapshotted or exported, and imported back through
+ * {@link com.mycompany.transactions.manager.TransactionsManager#importBuckets(java.util.Collection)}.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class BucketStatistics {
+    private long       bucketEpoch;
+    private long       lastModified;
+    private long       count;
+    private BigDecimal sum;
+    private BigDecimal min;
+    private BigDecimal max;
+}
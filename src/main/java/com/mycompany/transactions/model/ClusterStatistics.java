@@ -0,0 +1,26 @@
+package com.mycompany.transactions.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Statistics of the windows of all the nodes that answered in time, and the peers that didn't.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class ClusterStatistics {
+    private SummaryStatistics statistics;
+    private int               nodes;
+    private List<String>      failedPeers;
+
+    /**
+     * @return whether some peer's window is missing from the statistics.
+     */
+    public boolean isPartial() {
+        return !failedPeers.isEmpty();
+    }
+}
@@ -0,0 +1,137 @@
+package com.mycompany.transactions.model;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Mergeable distinct-count sketch of identifiers (HyperLogLog): each identifier is hashed to 64 bits, whose first
+ * {@code precision} bits select one of {@code m = 2^precision} registers, which keeps the longest run of leading zeros
+ * seen in the remaining bits.
+ * <ul>
+ * <li> Error bound: the estimate's standard error is about {@code 1.04 / sqrt(m)}, 1.6% for the default precision of
+ *      12; small cardinalities, while some registers are still empty, are counted by linear counting instead, which is
+ *      near exact. With 64-bit hashes, no correction is needed for large cardinalities.
+ * <li> Memory is fixed at one byte per register, 4 KB for the default precision, however many identifiers are counted.
+ * <li> {@link #combine(HyperLogLog)} keeps the maximum of every register, so it is exact: merging sketches is the same
+ *      as having accepted all their identifiers in one, and an identifier seen in several of them is counted once.
+ */
+public class HyperLogLog implements Consumer<String> {
+
+    public static final int MIN_PRECISION     = 4;
+    public static final int MAX_PRECISION     = 16;
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME        = 0x100000001b3L;
+
+    private final int    precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format("Invalid precision %d, not within [%d, %d]", precision,
+                                                             MIN_PRECISION, MAX_PRECISION));
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * 64-bit hash of an identifier: FNV-1a over its chars, then the MurmurHash3 finalizer, so that identifiers
+     * differing only in their last chars still spread over all registers.
+     */
+    public static long hash(CharSequence identifier) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < identifier.length(); i++) {
+            hash = (hash ^ identifier.charAt(i)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public void reset() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    @Override
+    public void accept(String identifier) {
+        offer(hash(identifier));
+    }
+
+    /**
+     * Counts an identifier already {@link #hash(CharSequence) hashed}, so hashing can happen outside of any lock.
+     */
+    public void offer(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        //a sentinel bit bounds the run of zeros to the bits left after the index
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Keeps the maximum of every register of a sketch of the same precision into this one.
+     */
+    public HyperLogLog combine(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Can't combine sketches of different precisions");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return the estimated count of distinct identifiers, zero if empty.
+     */
+    public long getEstimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(precision=" + precision + ", estimate=" + getEstimate() + ")";
+    }
+}
@@ -0,0 +1,16 @@
+package com.mycompany.transactions.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Statistics of the transactions accounted to one key, eg: a merchant.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class KeyedStatistics {
+    private String            key;
+    private SummaryStatistics statistics;
+}
@@ -0,0 +1,272 @@
+package com.mycompany.transactions.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Mergeable quantile sketch of amounts, in the spirit of DDSketch: amounts are counted in logarithmic bins, bin
+ * {@code i} holding the magnitudes in {@code (gamma^(i-1), gamma^i]} with {@code gamma = (1 + a) / (1 - a)}.
+ * <ul>
+ * <li> Error bound: for a relative accuracy {@code a}, {@link #getQuantile(double)} returns a value within
+ *      {@code a * |v|} of {@code v}, the exact amount of rank {@code floor(q * (count - 1))}, before rounding to the
+ *      sketch's {@code scale}; the minimum and maximum (quantiles 0 and 1) are exact, kept as the accepted
+ *      {@link BigDecimal}s. Magnitudes below half a unit of that scale are counted as zero, which they round to.
+ * <li> Memory is bounded: each sign keeps at most {@code maxBins} contiguous bins, the lowest magnitudes being folded
+ *      together past that; with a 1% accuracy, 2048 bins span magnitudes over 17 orders, which amounts never do.
+ * <li> {@link #combine(QuantileSketch)} adds bin counts, so it is exact: merging sketches is the same as having
+ *      accepted all their amounts in one, at a cost proportional to the bins in use.
+ */
+public class QuantileSketch implements Consumer<BigDecimal> {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    public static final int    DEFAULT_MAX_BINS          = 2048;
+
+    private final double       relativeAccuracy;
+    private final double       gamma;
+    private final double       logGamma;
+    private final double       zeroThreshold;
+    private final int          scale;
+    private final RoundingMode roundingMode;
+
+    private final Bins positives;
+    private final Bins negatives;
+    private       long zeroCount;
+    private       long count;
+    //the accepted extremes themselves, null while empty
+    private       BigDecimal min, max;
+
+    public QuantileSketch(int scale,
+                          RoundingMode roundingMode) {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BINS, scale, roundingMode);
+    }
+
+    public QuantileSketch(double relativeAccuracy, int maxBins, int scale, RoundingMode roundingMode) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1 || maxBins < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid sketch of %d bins with a relative accuracy of %f", maxBins, relativeAccuracy));
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.zeroThreshold = 0.5 * Math.pow(10, -scale);
+        this.scale = scale;
+        this.roundingMode = roundingMode;
+        this.positives = new Bins(maxBins);
+        this.negatives = new Bins(maxBins);
+    }
+
+    public void reset() {
+        positives.clear();
+        negatives.clear();
+        zeroCount = 0;
+        count = 0;
+        min = null;
+        max = null;
+    }
+
+    @Override
+    public void accept(BigDecimal t) {
+        Objects.requireNonNull(t);
+        double value = t.doubleValue();
+        if (value >= zeroThreshold) {
+            positives.add(index(value), 1);
+        }
+        else if (value <= -zeroThreshold) {
+            negatives.add(index(-value), 1);
+        }
+        else {
+            zeroCount++;
+        }
+        if (count == 0 || min.compareTo(t) > 0) { min = t; }
+        if (count == 0 || max.compareTo(t) < 0) { max = t; }
+        count++;
+    }
+
+    /**
+     * Adds the bins of a sketch of the same accuracy into this one.
+     */
+    public QuantileSketch combine(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Can't combine sketches of different accuracies");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        positives.addAll(other.positives);
+        negatives.addAll(other.negatives);
+        zeroCount += other.zeroCount;
+        if (count == 0 || min.compareTo(other.min) > 0) { min = other.min; }
+        if (count == 0 || max.compareTo(other.max) < 0) { max = other.max; }
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, eg: 0.95 for the 95th percentile
+     * @return the estimated amount of that quantile, rounded to the sketch's {@code scale}, zero if empty.
+     */
+    public BigDecimal getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Invalid quantile " + quantile);
+        }
+        if (count == 0) {
+            return BigDecimal.ZERO.setScale(scale, roundingMode);
+        }
+
+        long rank = (long) Math.floor(quantile * (count - 1));
+        if (rank == 0 || rank == count - 1) {
+            //the extremes are tracked exactly
+            return (rank == 0 ? min : max).setScale(scale, roundingMode);
+        }
+        double estimate;
+        if (rank < negatives.total) {
+            estimate = -value(negatives.indexOfRank(negatives.total - 1 - rank));
+        }
+        else if (rank < negatives.total + zeroCount) {
+            estimate = 0;
+        }
+        else {
+            estimate = value(positives.indexOfRank(rank - negatives.total - zeroCount));
+        }
+        estimate = Math.min(max.doubleValue(), Math.max(min.doubleValue(), estimate));
+        return BigDecimal.valueOf(estimate).setScale(scale, roundingMode);
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    /**
+     * @return the magnitude the bin {@code index} is represented by, equally distant from both its bounds.
+     */
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    @Override
+    public String toString() {
+        return count == 0 ? "empty" : (count + " elements between " + min + " and " + max + " in "
+                                       + (positives.binsInUse() + negatives.binsInUse()) + " bins");
+    }
+
+    /**
+     * Contiguous counts of the bins {@code [minIndex, maxIndex]}, {@code counts[i]} being the count of bin
+     * {@code offset + i}; {@code minIndex > maxIndex} while empty.
+     */
+    private static final class Bins {
+        private static final long[] EMPTY = new long[0];
+
+        private final int    maxBins;
+        private       long[] counts = EMPTY;
+        private       int    offset;
+        private       int    minIndex, maxIndex;
+        private       long   total;
+
+        private Bins(int maxBins) {
+            this.maxBins = maxBins;
+            clear();
+        }
+
+        private void clear() {
+            Arrays.fill(counts, 0);
+            minIndex = Integer.MAX_VALUE;
+            maxIndex = Integer.MIN_VALUE;
+            total = 0;
+        }
+
+        private int binsInUse() {
+            return total == 0 ? 0 : maxIndex - minIndex + 1;
+        }
+
+        private void add(int index, long n) {
+            index = extend(index);
+            counts[index - offset] += n;
+            total += n;
+        }
+
+        private void addAll(Bins other) {
+            if (other.total == 0) {
+                return;
+            }
+            //widen the range once to both ends of the other bins, then add them up in place
+            extend(other.maxIndex);
+            extend(other.minIndex);
+            for (int i = other.minIndex; i <= other.maxIndex; i++) {
+                counts[Math.max(i, minIndex) - offset] += other.counts[i - other.offset];
+            }
+            total += other.total;
+        }
+
+        /**
+         * Widens {@code [minIndex, maxIndex]} to {@code index}, folding the lowest bins together past
+         * {@code maxBins}.
+         * @return the bin counting {@code index}: itself, or the lowest bin if it was folded.
+         */
+        private int extend(int index) {
+            if (minIndex > maxIndex) {
+                minIndex = index;
+                maxIndex = index;
+                ensureCapacity();
+            }
+            else if (index > maxIndex) {
+                int newMinIndex = Math.max(minIndex, index - maxBins + 1);
+                long folded = 0;
+                for (int i = minIndex; i < newMinIndex && i <= maxIndex; i++) {
+                    folded += counts[i - offset];
+                    counts[i - offset] = 0;
+                }
+                minIndex = newMinIndex;
+                maxIndex = index;
+                ensureCapacity();
+                counts[minIndex - offset] += folded;
+            }
+            else if (index < minIndex) {
+                minIndex = Math.max(index, maxIndex - maxBins + 1);
+                ensureCapacity();
+                return minIndex;
+            }
+            return index;
+        }
+
+        /**
+         * @return the index of the bin holding the {@code rank}-th smallest magnitude.
+         */
+        private int indexOfRank(long rank) {
+            long seen = 0;
+            for (int i = minIndex; i < maxIndex; i++) {
+                seen += counts[i - offset];
+                if (seen > rank) {
+                    return i;
+                }
+            }
+            return maxIndex;
+        }
+
+        /**
+         * Reallocates the counts, keeping the current ones, when they don't cover {@code [minIndex, maxIndex]}.
+         */
+        private void ensureCapacity() {
+            if (minIndex >= offset && maxIndex < offset + counts.length) {
+                return;
+            }
+            int used = maxIndex - minIndex + 1;
+            int length = Math.min(maxBins, Math.max(32, 2 * used));
+            int newOffset = minIndex - (length - used) / 2;
+            long[] newCounts = new long[length];
+            int from = Math.max(offset, newOffset);
+            int to = Math.min(offset + counts.length, newOffset + length);
+            if (from < to) {
+                System.arraycopy(counts, from - offset, newCounts, from - newOffset, to - from);
+            }
+            counts = newCounts;
+            offset = newOffset;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.mycompany.transactions.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Fixed-point alternative to {@link BigDecimalSummaryStatistics}, keeping count, sum, min and max as {@code long}
+ * values unscaled at the statistics' own {@code scale} (eg: cents for a scale of 2).
+ *
+ * <ul>
+ * <li> Accumulating an amount is plain long arithmetic; {@link #acceptUnscaled(long)} allocates nothing at all, nor
+ *      does {@link #accept(Transaction)} for a transaction carrying its amount already unscaled.
+ * <li> Amounts that can't be represented exactly at {@code scale} (eg: 10.345 for a scale of 2), as well as sums
+ *      overflowing a {@code long}, promote this object to a {@link BigDecimalSummaryStatistics} fallback holding the
+ *      already accumulated values, so results are always identical to {@link BigDecimalSummaryStatistics}'s.
+ */
+public class ScaledLongSummaryStatistics implements SummaryStatistics {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final int          scale;
+    private final RoundingMode roundingMode;
+
+    private long count, sum, min, max;
+    private BigDecimalSummaryStatistics promoted;
+
+    public ScaledLongSummaryStatistics(int scale,
+                                       RoundingMode roundingMode) {
+        this.scale = scale;
+        this.roundingMode = roundingMode;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = 0;
+        max = 0;
+        promoted = null;
+    }
+
+    @Override
+    public void accept(BigDecimal t) {
+        Objects.requireNonNull(t);
+        if (promoted == null) {
+            if (fits(t)) {
+                acceptUnscaled(unscaled(t));
+                return;
+            }
+            promote();
+        }
+        promoted.accept(t);
+    }
+
+    /**
+     * Accumulates the amount of a transaction from its unscaled value, when it is {@link Transaction#isCompact()
+     * compact} and exactly representable at this statistics' {@code scale}, without calling
+     * {@link BigDecimal#unscaledValue()}, which allocates.
+     */
+    @Override
+    public void accept(Transaction transaction) {
+        if (promoted == null && transaction.isCompact()
+            && fits(transaction.getUnscaled(), transaction.getScale(), scale)) {
+            acceptUnscaled(rescale(transaction.getUnscaled(), transaction.getScale(), scale));
+        }
+        else {
+            accept(transaction.getAmount());
+        }
+    }
+
+    /**
+     * Accumulates an amount already unscaled at this statistics' {@code scale}, eg: 1050 for 10.50 with a scale of 2.
+     */
+    public void acceptUnscaled(long unscaled) {
+        if (promoted != null) {
+            promoted.accept(BigDecimal.valueOf(unscaled, scale));
+        }
+        else if (count == 0) {
+            count = 1;
+            sum = unscaled;
+            min = unscaled;
+            max = unscaled;
+        }
+        else {
+            long result = sum + unscaled;
+            if (((sum ^ result) & (unscaled ^ result)) < 0) {
+                promote();
+                promoted.accept(BigDecimal.valueOf(unscaled, scale));
+                return;
+            }
+            sum = result;
+            if (min > unscaled) { min = unscaled; }
+            if (max < unscaled) { max = unscaled; }
+            count++;
+        }
+    }
+
+    @Override
+    public ScaledLongSummaryStatistics combine(SummaryStatistics otherSummaryStatistics) {
+        ScaledLongSummaryStatistics other = (ScaledLongSummaryStatistics) otherSummaryStatistics;
+        if (other.count == 0 && other.promoted == null) {
+            return this;
+        }
+        if (other.promoted != null) {
+            promote();
+            promoted.combine(other.promoted);
+        }
+        else if (promoted != null) {
+            other.combineInto(promoted);
+        }
+        else if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            min = other.min;
+            max = other.max;
+        }
+        else {
+            long result = sum + other.sum;
+            if (((sum ^ result) & (other.sum ^ result)) < 0) {
+                promote();
+                other.combineInto(promoted);
+                return this;
+            }
+            sum = result;
+            if (min > other.min) { min = other.min; }
+            if (max < other.max) { max = other.max; }
+            count += other.count;
+        }
+        return this;
+    }
+
+    /**
+     * Merges the totals of {@code count} amounts already unscaled at this statistics' {@code scale}.
+     */
+    public ScaledLongSummaryStatistics combineUnscaled(long count, long sum, long min, long max) {
+        if (count == 0) {
+            return this;
+        }
+        if (promoted != null) {
+            promoted.combine(count, BigDecimal.valueOf(sum, scale), BigDecimal.valueOf(min, scale),
+                             BigDecimal.valueOf(max, scale));
+        }
+        else if (this.count == 0) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+        else {
+            long result = this.sum + sum;
+            if (((this.sum ^ result) & (sum ^ result)) < 0) {
+                promote();
+                promoted.combine(count, BigDecimal.valueOf(sum, scale), BigDecimal.valueOf(min, scale),
+                                 BigDecimal.valueOf(max, scale));
+                return this;
+            }
+            this.sum = result;
+            if (this.min > min) { this.min = min; }
+            if (this.max < max) { this.max = max; }
+            this.count += count;
+        }
+        return this;
+    }
+
+    @Override
+    public ScaledLongSummaryStatistics combine(long otherCount, BigDecimal otherSum, BigDecimal otherMin,
+                                               BigDecimal otherMax) {
+        if (promoted == null && fits(otherSum) && fits(otherMin) && fits(otherMax)) {
+            return combineUnscaled(otherCount, unscaled(otherSum), unscaled(otherMin), unscaled(otherMax));
+        }
+        if (otherCount > 0) {
+            promote();
+            promoted.combine(otherCount, otherSum, otherMin, otherMax);
+        }
+        return this;
+    }
+
+    @Override
+    public BucketStatistics toBucketStatistics(long bucketEpoch, long lastModified) {
+        if (promoted != null) {
+            return promoted.toBucketStatistics(bucketEpoch, lastModified);
+        }
+        return new BucketStatistics(bucketEpoch, lastModified, count, BigDecimal.valueOf(sum, scale),
+                                    BigDecimal.valueOf(min, scale), BigDecimal.valueOf(max, scale));
+    }
+
+    @Override
+    public long getCount() {
+        return promoted != null ? promoted.getCount() : count;
+    }
+
+    @Override
+    public BigDecimal getSum() {
+        return promoted != null ? promoted.getSum() : BigDecimal.valueOf(sum, scale);
+    }
+
+    @Override
+    public BigDecimal getAvg() {
+        if (promoted != null) {
+            return promoted.getAvg();
+        }
+        return count < 2 ? BigDecimal.valueOf(sum, scale) : BigDecimal.valueOf(sum, scale)
+                                                                      .divide(BigDecimal.valueOf(count),
+                                                                              scale,
+                                                                              roundingMode);
+    }
+
+    @Override
+    public BigDecimal getMin() {
+        return promoted != null ? promoted.getMin() : BigDecimal.valueOf(min, scale);
+    }
+
+    @Override
+    public BigDecimal getMax() {
+        return promoted != null ? promoted.getMax() : BigDecimal.valueOf(max, scale);
+    }
+
+    /**
+     * @return whether {@code t} is exactly representable as a {@code long} unscaled at this statistics' {@code scale}.
+     */
+    private boolean fits(BigDecimal t) {
+        int shift = scale - t.scale();
+        return shift >= 0 && shift < POWERS_OF_TEN.length && t.precision() + shift < POWERS_OF_TEN.length;
+    }
+
+    private long unscaled(BigDecimal t) {
+        return t.unscaledValue().longValue() * POWERS_OF_TEN[scale - t.scale()];
+    }
+
+    /**
+     * @return whether the amount {@code unscaled} at {@code fromScale} is exactly representable as a {@code long}
+     * unscaled at {@code toScale}, with at most 18 digits.
+     */
+    public static boolean fits(long unscaled, int fromScale, int toScale) {
+        int shift = toScale - fromScale;
+        if (shift < 0 || shift >= POWERS_OF_TEN.length) {
+            return false;
+        }
+        long bound = POWERS_OF_TEN[POWERS_OF_TEN.length - 1 - shift];
+        return unscaled > -bound && unscaled < bound;
+    }
+
+    /**
+     * @return the amount {@code unscaled} at {@code fromScale}, unscaled at {@code toScale}, eg: 1050 for 105 at a
+     * scale of 1 to a scale of 2, provided it {@link #fits(long, int, int) fits}.
+     */
+    public static long rescale(long unscaled, int fromScale, int toScale) {
+        return unscaled * POWERS_OF_TEN[toScale - fromScale];
+    }
+
+    private void promote() {
+        if (promoted == null) {
+            promoted = new BigDecimalSummaryStatistics(scale, roundingMode);
+            combineInto(promoted);
+        }
+    }
+
+    private void combineInto(BigDecimalSummaryStatistics target) {
+        target.combine(count, BigDecimal.valueOf(sum, scale), BigDecimal.valueOf(min, scale), BigDecimal.valueOf(max, scale));
+    }
+
+    @Override
+    public String toString() {
+        if (promoted != null) {
+            return promoted.toString();
+        }
+        return count == 0 ? "empty" : (count + " elements between " + BigDecimal.valueOf(min, scale) + " and "
+                                       + BigDecimal.valueOf(max, scale) + ", sum=" + BigDecimal.valueOf(sum, scale));
+    }
+}
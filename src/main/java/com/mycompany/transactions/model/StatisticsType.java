@@ -0,0 +1,23 @@
+package com.mycompany.transactions.model;
+
+import java.math.RoundingMode;
+
+/**
+ * Available {@link SummaryStatistics} implementations, chosen at startup through {@code transactions.statistics.type}.
+ */
+public enum StatisticsType {
+    BIG_DECIMAL {
+        @Override
+        public SummaryStatistics create(int scale, RoundingMode roundingMode) {
+            return new BigDecimalSummaryStatistics(scale, roundingMode);
+        }
+    },
+    SCALED_LONG {
+        @Override
+        public SummaryStatistics create(int scale, RoundingMode roundingMode) {
+            return new ScaledLongSummaryStatistics(scale, roundingMode);
+        }
+    };
+
+    public abstract SummaryStatistics create(int scale, RoundingMode roundingMode);
+}
@@ -0,0 +1,56 @@
+package com.mycompany.transactions.model;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * Count, sum, average, min and max of a stream of {@link BigDecimal} amounts. Returned values are always rounded to the
+ * scale and {@link java.math.RoundingMode} the statistics object was created with.
+ *
+ * @see StatisticsType for the available implementations.
+ */
+public interface SummaryStatistics extends Consumer<BigDecimal> {
+
+    /**
+     * Clears all accumulated values, bringing the statistics back to its entry state.
+     */
+    void reset();
+
+    /**
+     * Accumulates the amount of a transaction; implementations may read it from its unscaled value rather than
+     * {@link Transaction#getAmount()}.
+     */
+    default void accept(Transaction transaction) {
+        accept(transaction.getAmount());
+    }
+
+    /**
+     * Accumulates another statistics object into this one.
+     * @param otherSummaryStatistics must be of the same implementation as this object.
+     * @return this statistics object.
+     */
+    SummaryStatistics combine(SummaryStatistics otherSummaryStatistics);
+
+    /**
+     * Combines an already accumulated partial result, given as its raw {@code count}, {@code sum}, {@code min} and
+     * {@code max}, into this statistics object.
+     * @return this statistics object.
+     */
+    SummaryStatistics combine(long otherCount, BigDecimal otherSum, BigDecimal otherMin, BigDecimal otherMax);
+
+    /**
+     * Exports the accumulated values unrounded, as the bucket {@code bucketEpoch} last modified at
+     * {@code lastModified}; combining them into an empty statistics object restores this one exactly.
+     */
+    BucketStatistics toBucketStatistics(long bucketEpoch, long lastModified);
+
+    long getCount();
+
+    BigDecimal getSum();
+
+    BigDecimal getAvg();
+
+    BigDecimal getMin();
+
+    BigDecimal getMax();
+}
@@ -5,7 +5,6 @@ import java.time.Instant;
 
 import javax.validation.constraints.NotNull;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.ToString;
 
@@ -14,13 +13,54 @@ import lombok.ToString;
  * <ul>
  * <li>amount – transaction amount; a string of arbitrary length that is parsable as a BigDecimal
  <li>timestamp – transaction time in the ISO 8601 format YYYY-MM-DDThh:mm:ss.sssZ in the UTC timezone (this is not the current timestamp)
+ <li>key – optional tenant/merchant key the transaction is also accounted to, see
+ {@link com.mycompany.transactions.manager.KeyedStatisticsManager}
+ <li>card – optional card identifier, only counted by {@link com.mycompany.transactions.manager.DistinctCountManager}
+ <li>unscaled and scale – the amount as a {@code long} and its scale when it fits one ({@link #isCompact()}), eg:
+ 1050 and 2 for 10.50, as already read by {@link com.mycompany.transactions.converter.TransactionParser}, so
+ fixed-point statistics accumulate it without allocating
  */
-@AllArgsConstructor
 @Getter
-@ToString
+@ToString(exclude = {"unscaled", "scale", "compact"})
 public class Transaction {
     @NotNull
-    private BigDecimal amount;
+    private final BigDecimal amount;
     @NotNull
-    private Instant    timestamp;
+    private final Instant    timestamp;
+    private final String     key;
+    private final String     card;
+    private final long       unscaled;
+    private final int        scale;
+    private final boolean    compact;
+
+    public Transaction(BigDecimal amount, Instant timestamp) {
+        this(amount, timestamp, null, null);
+    }
+
+    public Transaction(BigDecimal amount, Instant timestamp, String key) {
+        this(amount, timestamp, key, null);
+    }
+
+    public Transaction(BigDecimal amount, Instant timestamp, String key, String card) {
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.key = key;
+        this.card = card;
+        this.compact = amount != null && amount.precision() < 19;
+        this.unscaled = compact ? amount.unscaledValue().longValue() : 0;
+        this.scale = amount != null ? amount.scale() : 0;
+    }
+
+    /**
+     * @param amount must equal {@code unscaled} at {@code scale}.
+     */
+    public Transaction(BigDecimal amount, long unscaled, int scale, Instant timestamp, String key, String card) {
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.key = key;
+        this.card = card;
+        this.compact = true;
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
 }
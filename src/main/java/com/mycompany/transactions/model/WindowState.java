@@ -0,0 +1,19 @@
+package com.mycompany.transactions.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The live buckets of a node's window, along with the bucket width their epochs are counted in, so that windows of
+ * several nodes (or of several runs of one node) can be aligned bucket by bucket.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class WindowState {
+    private long                   bucketWidthMillis;
+    private List<BucketStatistics> buckets;
+}
@@ -0,0 +1,360 @@
+package com.mycompany.transactions.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.manager.LockFreeTransactionsManager;
+import com.mycompany.transactions.manager.RunningAggregateTransactionsManager;
+import com.mycompany.transactions.manager.SingleWriterTransactionsManager;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Replays a recorded transactions file through a {@link TransactionsManager} engine on virtual time, as fast as the
+ * engine goes, to validate a change of the engine against real traffic:
+ * <ul>
+ * <li> Records are CSV lines of {@code timestamp,amount[,receivedAt]}, or NDJSON lines of
+ *      {@code {"amount":"...","timestamp":"...","receivedAt":"..."}}, timestamps being ISO-8601 instants or epoch
+ *      millis. {@code receivedAt} is when the record reached the service, defaulting to its {@code timestamp}; virtual
+ *      time is moved to it before the record is ingested, and never goes backwards.
+ * <li> Every {@code check-every} of virtual time, the engine's statistics are compared to a brute-force reference,
+ *      recomputed out of every accepted transaction of every live bucket; so are the outcomes of every record.
+ * <li> With {@code rotate-every}, the {@code synchronized} engine's buckets are also
+ *      {@link TransactionsManagerImpl#rotate() rotated} every so often of virtual time: the bucket width for an
+ *      on-time ticker, longer for one lagging behind.
+ * <li> Throughput only counts time spent in the engine, the reference and parsing being left out.
+ * </ul>
+ * Usage: {@code TransactionsReplay <file> [--engine=synchronized] [--statistics-type=big-decimal] [--window=60s]
+ * [--bucket-width=1s] [--check-every=1s] [--rotate-every=1s]}, exiting with 1 if the engine ever disagreed with the
+ * reference.
+ */
+public final class TransactionsReplay {
+
+    private static final int          scale        = 2;
+    private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
+    private static final int          MAX_REPORTED = 10;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Getter
+    @Setter
+    public static class Options {
+        private String         engine            = "synchronized";
+        private StatisticsType statisticsType    = StatisticsType.BIG_DECIMAL;
+        private long           windowMillis      = 60_000;
+        private long           bucketWidthMillis = 1_000;
+        private long           checkEveryMillis  = 1_000;
+        //0 for no rotation
+        private long           rotateEveryMillis;
+    }
+
+    @Getter
+    public static class Report {
+        private       long                       records;
+        private       long                       unparseable;
+        private       long                       accepted;
+        private final Map<ProcessingError, Long> rejected        = new EnumMap<>(ProcessingError.class);
+        private       long                       checks;
+        private       long                       mismatches;
+        private final List<String>               firstMismatches = new ArrayList<>();
+        private       long                       engineNanos;
+        private       long                       virtualMillis;
+        private       long                       wallNanos;
+
+        /**
+         * @return transactions ingested per second of engine time.
+         */
+        public double getThroughput() {
+            return engineNanos == 0 ? 0 : (records - unparseable) * 1e9 / engineNanos;
+        }
+
+        private void mismatch(String mismatch) {
+            if (mismatches++ < MAX_REPORTED) {
+                firstMismatches.add(mismatch);
+            }
+        }
+
+        public void print(PrintStream out) {
+            out.printf("records:      %d (%d unparseable)%n", records, unparseable);
+            out.printf("accepted:     %d, rejected: %s%n", accepted, rejected);
+            out.printf("checks:       %d, mismatches: %d%n", checks, mismatches);
+            firstMismatches.forEach(mismatch -> out.println("  " + mismatch));
+            out.printf("engine:       %.0f transactions/s, %d ms in the engine%n", getThroughput(),
+                       TimeUnit.NANOSECONDS.toMillis(engineNanos));
+            out.printf("virtual time: %d s replayed in %d ms%n", TimeUnit.MILLISECONDS.toSeconds(virtualMillis),
+                       TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        }
+    }
+
+    private TransactionsReplay() {
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TransactionsReplay <file.csv|file.ndjson> [--engine=synchronized] "
+                               + "[--statistics-type=big-decimal] [--window=60s] [--bucket-width=1s] "
+                               + "[--check-every=1s] [--rotate-every=1s]");
+            System.exit(2);
+        }
+        Options options = new Options();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "engine":
+                    options.setEngine(value);
+                    break;
+                case "statistics-type":
+                    options.setStatisticsType(StatisticsType.valueOf(value.toUpperCase().replace('-', '_')));
+                    break;
+                case "window":
+                    options.setWindowMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                case "bucket-width":
+                    options.setBucketWidthMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                case "check-every":
+                    options.setCheckEveryMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                case "rotate-every":
+                    options.setRotateEveryMillis(DurationStyle.detectAndParse(value).toMillis());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Report report = replay(Paths.get(args[0]), options);
+        report.print(System.out);
+        System.exit(report.getMismatches() == 0 ? 0 : 1);
+    }
+
+    public static Report replay(Path file, Options options) throws IOException {
+        SlidingWindow window = new SlidingWindow(options.getWindowMillis(), options.getBucketWidthMillis());
+        Report report = new Report();
+        VirtualClock clock = null;
+        TransactionsManager manager = null;
+        Reference reference = new Reference(window, options.getStatisticsType());
+        long nextCheck = 0;
+        long nextRotation = Long.MAX_VALUE;
+        long startNanos = System.nanoTime();
+        long firstArrival = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                report.records++;
+                long[] arrival = new long[1];
+                Transaction transaction = parse(line, arrival);
+                if (transaction == null) {
+                    report.unparseable++;
+                    continue;
+                }
+
+                if (clock == null) {
+                    firstArrival = arrival[0];
+                    clock = new VirtualClock(arrival[0]);
+                    manager = create(options, window, clock);
+                    nextCheck = Math.floorDiv(arrival[0], options.getCheckEveryMillis()) * options.getCheckEveryMillis()
+                                + options.getCheckEveryMillis();
+                    if (options.getRotateEveryMillis() > 0 && manager instanceof TransactionsManagerImpl) {
+                        nextRotation = arrival[0];
+                    }
+                }
+                //virtual time never goes backwards, and every check or rotation due before this arrival happens first
+                long now = Math.max(clock.millis(), arrival[0]);
+                while (nextCheck <= now || nextRotation <= now) {
+                    if (nextRotation < nextCheck) {
+                        clock.setMillis(nextRotation);
+                        ((TransactionsManagerImpl) manager).rotate();
+                        nextRotation += options.getRotateEveryMillis();
+                    }
+                    else {
+                        clock.setMillis(nextCheck);
+                        check(manager, reference, nextCheck, report);
+                        nextCheck += options.getCheckEveryMillis();
+                    }
+                }
+                clock.setMillis(now);
+
+                long ingestStart = System.nanoTime();
+                ProcessingError processingError = manager.tryCreateTransaction(transaction);
+                report.engineNanos += System.nanoTime() - ingestStart;
+
+                ProcessingError expected = reference.add(now, transaction);
+                if (processingError != expected) {
+                    report.mismatch(String.format("at %s, %s was %s instead of %s", Instant.ofEpochMilli(now),
+                                                  transaction, outcome(processingError), outcome(expected)));
+                }
+                if (processingError == null) {
+                    report.accepted++;
+                }
+                else {
+                    report.rejected.merge(processingError, 1L, Long::sum);
+                }
+            }
+
+            if (clock != null) {
+                check(manager, reference, clock.millis(), report);
+                report.virtualMillis = clock.millis() - firstArrival;
+            }
+        }
+        finally {
+            if (manager instanceof SingleWriterTransactionsManager) {
+                ((SingleWriterTransactionsManager) manager).shutdown();
+            }
+            if (manager instanceof RunningAggregateTransactionsManager) {
+                ((RunningAggregateTransactionsManager) manager).shutdown();
+            }
+        }
+        report.wallNanos = System.nanoTime() - startNanos;
+        return report;
+    }
+
+    private static TransactionsManager create(Options options, SlidingWindow window, VirtualClock clock) {
+        switch (options.getEngine()) {
+            case "synchronized":
+                return new TransactionsManagerImpl(options.getStatisticsType(), window, clock);
+            case "lock-free":
+                return new LockFreeTransactionsManager(options.getStatisticsType(), window,
+                                                       Runtime.getRuntime().availableProcessors(), clock);
+            case "running-aggregate":
+                return new RunningAggregateTransactionsManager(window, clock);
+            case "single-writer":
+                return new SingleWriterTransactionsManager(window, SingleWriterTransactionsManager.AckMode.APPLY,
+                                                           65_536, clock);
+            default:
+                throw new IllegalArgumentException("Unknown engine " + options.getEngine());
+        }
+    }
+
+    private static void check(TransactionsManager manager, Reference reference, long now, Report report) {
+        report.checks++;
+
+        long engineStart = System.nanoTime();
+        SummaryStatistics actual = manager.getTransactionStatistics();
+        report.engineNanos += System.nanoTime() - engineStart;
+
+        SummaryStatistics expected = reference.getStatistics(now);
+        if (actual.getCount() != expected.getCount()
+            || actual.getSum().compareTo(expected.getSum()) != 0
+            || actual.getMin().compareTo(expected.getMin()) != 0
+            || actual.getMax().compareTo(expected.getMax()) != 0) {
+            report.mismatch(String.format("at %s, statistics were %s instead of %s", Instant.ofEpochMilli(now),
+                                          actual, expected));
+        }
+    }
+
+    /**
+     * @param arrival set to when the record reached the service.
+     * @return the transaction of a record, or {@code null} if it can't be parsed.
+     */
+    static Transaction parse(String line, long[] arrival) {
+        try {
+            String amount;
+            String timestamp;
+            String receivedAt;
+            if (line.startsWith("{")) {
+                JsonNode node = objectMapper.readTree(line);
+                amount = node.path("amount").asText(null);
+                timestamp = node.path("timestamp").asText(null);
+                receivedAt = node.path("receivedAt").asText(null);
+            }
+            else {
+                String[] fields = line.split(",");
+                timestamp = fields[0].trim();
+                amount = fields.length > 1 ? fields[1].trim() : null;
+                receivedAt = fields.length > 2 ? fields[2].trim() : null;
+            }
+            if (amount == null || timestamp == null) {
+                return null;
+            }
+            long stamp = epochMillis(timestamp);
+            arrival[0] = receivedAt != null && !receivedAt.isEmpty() ? epochMillis(receivedAt) : stamp;
+            return new Transaction(new BigDecimal(amount), Instant.ofEpochMilli(stamp));
+        }
+        catch (IOException | NumberFormatException | DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static long epochMillis(String timestamp) {
+        return timestamp.indexOf('T') < 0 ? Long.parseLong(timestamp) : Instant.parse(timestamp).toEpochMilli();
+    }
+
+    private static String outcome(ProcessingError processingError) {
+        return processingError == null ? "accepted" : processingError.name();
+    }
+
+    /**
+     * Every accepted amount of every live bucket, kept as is, and summed from scratch on every check.
+     */
+    private static final class Reference {
+        private final SlidingWindow               window;
+        private final StatisticsType              statisticsType;
+        private final Map<Long, List<BigDecimal>> amounts      = new HashMap<>();
+        private final Map<Long, Long>             lastModified = new HashMap<>();
+
+        private Reference(SlidingWindow window, StatisticsType statisticsType) {
+            this.window = window;
+            this.statisticsType = statisticsType;
+        }
+
+        private ProcessingError add(long now, Transaction transaction) {
+            long timestamp = transaction.getTimestamp().toEpochMilli();
+            if (now < timestamp) {
+                return ProcessingError.FUTURE_TRANSACTION;
+            }
+            if (now - timestamp >= window.getLengthMillis()) {
+                return ProcessingError.OLD_TRANSACTION;
+            }
+            long bucketEpoch = Math.floorDiv(timestamp, window.getBucketWidthMillis());
+            amounts.computeIfAbsent(bucketEpoch, epoch -> new ArrayList<>()).add(transaction.getAmount());
+            lastModified.merge(bucketEpoch, timestamp, Math::max);
+            return null;
+        }
+
+        private SummaryStatistics getStatistics(long now) {
+            lastModified.entrySet().removeIf(bucket -> {
+                boolean expired = now - bucket.getValue() >= window.getLengthMillis();
+                if (expired) {
+                    amounts.remove(bucket.getKey());
+                }
+                return expired;
+            });
+            SummaryStatistics statistics = statisticsType.create(scale, roundingMode);
+            amounts.values().forEach(bucket -> bucket.forEach(statistics::accept));
+            return statistics;
+        }
+    }
+}
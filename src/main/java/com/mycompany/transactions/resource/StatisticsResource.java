@@ -1,30 +1,290 @@
 package com.mycompany.transactions.resource;
 
+import com.mycompany.transactions.cluster.ClusterStatisticsAggregator;
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.converter.TransactionBatchCodec;
+import com.mycompany.transactions.converter.WindowStateCodec;
+import com.mycompany.transactions.dto.ClusterStatisticsDto;
+import com.mycompany.transactions.dto.DistinctStatisticsDto;
+import com.mycompany.transactions.dto.KeyedStatisticsDto;
+import com.mycompany.transactions.dto.PercentilesStatisticsDto;
 import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.manager.DistinctCountManager;
+import com.mycompany.transactions.manager.KeyedStatisticsManager;
+import com.mycompany.transactions.manager.PercentilesManager;
+import com.mycompany.transactions.manager.RollupStatisticsManager;
 import com.mycompany.transactions.manager.TransactionsManager;
-import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+import com.mycompany.transactions.model.QuantileSketch;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.WindowState;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
-@RestController("/statistics")
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import io.micrometer.core.instrument.Timer;
+
+@RestController
+@RequestMapping("/statistics")
+@Profile("!reactive")
 public class StatisticsResource {
 
+    private static final int MAX_TOP_KEYS = 1_000;
+
     @Autowired
     private TransactionsManager transactionsManager;
 
+    @Autowired
+    private KeyedStatisticsManager keyedStatisticsManager;
+
+    @Autowired(required = false)
+    private StatisticsSnapshotCache statisticsSnapshotCache;
+
+    @Autowired(required = false)
+    private PercentilesManager percentilesManager;
+
+    @Autowired(required = false)
+    private DistinctCountManager distinctCountManager;
+
+    @Autowired(required = false)
+    private RollupStatisticsManager rollupStatisticsManager;
+
+    @Autowired(required = false)
+    private StatisticsStream statisticsStream;
+
+    @Autowired(required = false)
+    private ClusterStatisticsAggregator clusterStatisticsAggregator;
+
+    @Autowired(required = false)
+    private TransactionsMetrics transactionsMetrics;
+
+    @Autowired
+    private TransactionsProperties transactionsProperties;
+
+    //timers of every query, null when metrics are disabled
+    private Timer windowQueries;
+    private Timer keyQueries;
+    private Timer percentilesQueries;
+    private Timer distinctQueries;
+    private Timer horizonQueries;
+    private Timer topQueries;
+    private Timer clusterQueries;
+
+    @PostConstruct
+    public void init() {
+        if (transactionsMetrics != null) {
+            windowQueries = transactionsMetrics.query("window");
+            keyQueries = transactionsMetrics.query("key");
+            percentilesQueries = transactionsMetrics.query("percentiles");
+            distinctQueries = transactionsMetrics.query("distinct");
+            horizonQueries = transactionsMetrics.query("horizon");
+            topQueries = transactionsMetrics.query("top");
+            clusterQueries = transactionsMetrics.query("cluster");
+        }
+    }
+
     @GetMapping
     public ResponseEntity getStatistics() {
-        return ResponseEntity.ok(transform(transactionsManager.getTransactionStatistics()));
+        return timed(windowQueries, () -> {
+            if (statisticsSnapshotCache != null) {
+                return ResponseEntity.ok()
+                                     .contentType(MediaType.APPLICATION_JSON_UTF8)
+                                     .body(statisticsSnapshotCache.getStatistics());
+            }
+            return ResponseEntity.ok(transform(transactionsManager.getTransactionStatistics()));
+        });
+    }
+
+    /**
+     * Statistics in their {@link TransactionBatchCodec binary} form, for clients {@code Accept}ing it.
+     */
+    @GetMapping(produces = TransactionBatchCodec.STATISTICS_MEDIA_TYPE_VALUE)
+    public ResponseEntity getBinaryStatistics() {
+        return timed(windowQueries, () -> ResponseEntity.ok()
+                                                         .contentType(TransactionBatchCodec.STATISTICS_MEDIA_TYPE)
+                                                         .body(TransactionBatchCodec.encodeStatistics(
+                                                                 transactionsManager.getTransactionStatistics())));
+    }
+
+    @GetMapping(params = "key")
+    public ResponseEntity getStatistics(@RequestParam String key) {
+        return timed(keyQueries,
+                     () -> ResponseEntity.ok(transform(keyedStatisticsManager.getTransactionStatistics(key))));
+    }
+
+    /**
+     * Statistics along with the estimated amount of every requested percentile, eg: {@code percentiles=50,95,99.9};
+     * answered with 400 for a percentile outside [0, 100], or when {@code transactions.statistics.percentiles} aren't
+     * enabled.
+     */
+    @GetMapping(params = {"percentiles", "!key"})
+    public ResponseEntity getStatistics(@RequestParam List<String> percentiles) {
+        return timed(percentilesQueries, () -> {
+            if (percentilesManager == null || percentiles.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            double[] quantiles = new double[percentiles.size()];
+            for (int i = 0; i < quantiles.length; i++) {
+                try {
+                    quantiles[i] = Double.parseDouble(percentiles.get(i)) / 100;
+                }
+                catch (NumberFormatException ex) {
+                    return ResponseEntity.badRequest().build();
+                }
+                if (!(quantiles[i] >= 0 && quantiles[i] <= 1)) {
+                    return ResponseEntity.badRequest().build();
+                }
+            }
+
+            QuantileSketch sketch = percentilesManager.getTransactionSketch();
+            Map<String, String> estimates = new LinkedHashMap<>();
+            for (int i = 0; i < quantiles.length; i++) {
+                estimates.put(percentiles.get(i).trim(), sketch.getQuantile(quantiles[i]).toString());
+            }
+            return ResponseEntity.ok(new PercentilesStatisticsDto(transactionsManager.getTransactionStatistics(),
+                                                                  estimates));
+        });
+    }
+
+    /**
+     * Statistics along with the estimated count of distinct values of every requested identifier, eg:
+     * {@code distinct=card,key}; answered with 400 for an unknown identifier, or when
+     * {@code transactions.statistics.distinct} counts aren't enabled.
+     */
+    @GetMapping(params = {"distinct", "!key", "!percentiles", "!window"})
+    public ResponseEntity getDistinctStatistics(@RequestParam List<String> distinct) {
+        return timed(distinctQueries, () -> {
+            if (distinctCountManager == null || distinct.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            DistinctCountManager.Dimension[] dimensions = new DistinctCountManager.Dimension[distinct.size()];
+            for (int i = 0; i < dimensions.length; i++) {
+                try {
+                    dimensions[i] = DistinctCountManager.Dimension.valueOf(distinct.get(i).trim()
+                                                                                   .toUpperCase(Locale.ROOT));
+                }
+                catch (IllegalArgumentException ex) {
+                    return ResponseEntity.badRequest().build();
+                }
+            }
+
+            Map<String, Long> estimates = new LinkedHashMap<>();
+            for (int i = 0; i < dimensions.length; i++) {
+                estimates.put(distinct.get(i).trim(),
+                              distinctCountManager.getDistinctSketch(dimensions[i]).getEstimate());
+            }
+            return ResponseEntity.ok(new DistinctStatisticsDto(transactionsManager.getTransactionStatistics(),
+                                                               estimates));
+        });
+    }
+
+    /**
+     * Statistics of the last {@code window}, eg: {@code window=15m} or {@code window=24h}, rounded up to the width of
+     * the coarsest rolled up bucket it overlaps, unless within the sliding window; answered with 400 for a window not within (0, 24h], or when
+     * {@code transactions.statistics.rollups} aren't enabled.
+     */
+    @GetMapping(params = {"window", "!key", "!percentiles"})
+    public ResponseEntity getStatisticsOver(@RequestParam String window) {
+        return timed(horizonQueries, () -> {
+            if (rollupStatisticsManager == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            long horizonMillis;
+            try {
+                horizonMillis = DurationStyle.detectAndParse(window.trim()).toMillis();
+            }
+            catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (horizonMillis <= 0 || horizonMillis > RollupStatisticsManager.MAX_HORIZON_MILLIS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(transform(rollupStatisticsManager.getTransactionStatistics(horizonMillis)));
+        });
+    }
+
+    /**
+     * Stream of {@code statistics} Server-Sent Events, pushed whenever the statistics change; answered with 400 when
+     * the {@code transactions.statistics.stream} isn't enabled.
+     */
+    @GetMapping(path = "/stream")
+    public ResponseEntity<ResponseBodyEmitter> getStatisticsStream() {
+        if (statisticsStream == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        //no timeout, the stream lasts until the client goes away
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        StatisticsStream.Subscription subscription = statisticsStream.subscribe(
+                event -> emitter.send(event, MediaType.TEXT_EVENT_STREAM));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(ex -> subscription.cancel());
+        return ResponseEntity.ok()
+                             .contentType(MediaType.TEXT_EVENT_STREAM)
+                             .header("Cache-Control", "no-cache")
+                             .body(emitter);
+    }
+
+    @GetMapping(path = "/top")
+    public ResponseEntity getTopStatistics(@RequestParam(defaultValue = "10") int limit) {
+        return timed(topQueries, () -> {
+            if (limit < 1 || limit > MAX_TOP_KEYS) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<KeyedStatisticsDto> top = keyedStatisticsManager.getTopKeysBySum(limit)
+                                                                 .stream()
+                                                                 .map(KeyedStatisticsDto::from)
+                                                                 .collect(Collectors.toList());
+            return ResponseEntity.ok(top);
+        });
+    }
+
+    /**
+     * Raw state of every live bucket of this node, {@link WindowStateCodec encoded}, for a peer to merge.
+     */
+    @GetMapping(path = "/buckets", produces = WindowStateCodec.MEDIA_TYPE_VALUE)
+    public ResponseEntity getBuckets() {
+        long bucketWidthMillis = transactionsProperties.getWindow().getBucketWidth().toMillis();
+        return ResponseEntity.ok(WindowStateCodec.encode(new WindowState(bucketWidthMillis,
+                                                                         transactionsManager.exportBuckets())));
+    }
+
+    /**
+     * Statistics of the windows of this node and of all {@code transactions.cluster.peers} merged, flagged
+     * {@code partial} if some peer didn't answer in time; answered with 400 when no peers are configured.
+     */
+    @GetMapping(path = "/cluster")
+    public ResponseEntity getClusterStatistics() {
+        return timed(clusterQueries, () -> {
+            if (clusterStatisticsAggregator == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(ClusterStatisticsDto.from(clusterStatisticsAggregator.getClusterStatistics()));
+        });
+    }
+
+    private ResponseEntity timed(Timer timer, Supplier<ResponseEntity> query) {
+        return timer != null ? timer.record(query) : query.get();
     }
 
-    private StatisticsDto transform(BigDecimalSummaryStatistics summaryStatistics) {
-        return new StatisticsDto(summaryStatistics.getCount(),
-                                 summaryStatistics.getSum(),
-                                 summaryStatistics.getAvg(),
-                                 summaryStatistics.getMin(),
-                                 summaryStatistics.getMax());
+    private StatisticsDto transform(SummaryStatistics summaryStatistics) {
+        return StatisticsDto.from(summaryStatistics);
     }
 }
@@ -0,0 +1,97 @@
+package com.mycompany.transactions.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.manager.TransactionsManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+
+/**
+ * Opt-in cache of the {@code GET /statistics} response, enabled by {@code transactions.statistics.cache.enabled=true}:
+ * <ul>
+ * <li> The statistics are aggregated, transformed and serialized to JSON once per snapshot, and readers get the
+ *      immutable snapshot bytes with a single volatile read.
+ * <li> A snapshot is served for at most {@code transactions.statistics.cache.max-staleness} (eg: 0–50 ms) after it was
+ *      taken. The first read past that refreshes it while concurrent readers wait for the fresh one, so the window
+ *      is aggregated at most once per staleness period however many reads come in, and writes are never involved.
+ * <li> Staleness is measured on the same {@link Clock} as the engine's, so a replay ages snapshots in virtual time.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.statistics.cache.enabled", havingValue = "true")
+public class StatisticsSnapshotCache {
+
+    private final TransactionsManager transactionsManager;
+    private final ObjectMapper        objectMapper;
+    private final long                maxStalenessMillis;
+    private final Clock               clock;
+
+    private volatile Snapshot snapshot = new Snapshot(Long.MIN_VALUE, null);
+
+    @Autowired
+    public StatisticsSnapshotCache(TransactionsManager transactionsManager, ObjectMapper objectMapper,
+                                   TransactionsProperties properties, Clock clock) {
+        this(transactionsManager, objectMapper, properties.getStatistics().getCache().getMaxStaleness().toMillis(),
+             clock);
+    }
+
+    public StatisticsSnapshotCache(TransactionsManager transactionsManager, ObjectMapper objectMapper,
+                                   long maxStalenessMillis) {
+        this(transactionsManager, objectMapper, maxStalenessMillis, Clock.systemUTC());
+    }
+
+    public StatisticsSnapshotCache(TransactionsManager transactionsManager, ObjectMapper objectMapper,
+                                   long maxStalenessMillis, Clock clock) {
+        this.transactionsManager = transactionsManager;
+        this.objectMapper = objectMapper;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the JSON serialized {@link StatisticsDto}, at most {@code max-staleness} old.
+     */
+    public byte[] getStatistics() {
+        Snapshot current = snapshot;
+        if (current.isStale(clock.millis())) {
+            synchronized (this) {
+                long now = clock.millis();
+                current = snapshot;
+                if (current.isStale(now)) {
+                    current = new Snapshot(now, serialize(StatisticsDto.from(
+                            transactionsManager.getTransactionStatistics())));
+                    snapshot = current;
+                }
+            }
+        }
+        return current.json;
+    }
+
+    private byte[] serialize(StatisticsDto statisticsDto) {
+        try {
+            return objectMapper.writeValueAsBytes(statisticsDto);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Statistics can't be serialized", ex);
+        }
+    }
+
+    private final class Snapshot {
+        private final long   takenAt;
+        private final byte[] json;
+
+        private Snapshot(long takenAt, byte[] json) {
+            this.takenAt = takenAt;
+            this.json = json;
+        }
+
+        private boolean isStale(long now) {
+            return json == null || now - takenAt > maxStalenessMillis;
+        }
+    }
+}
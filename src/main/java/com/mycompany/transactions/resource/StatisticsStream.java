@@ -0,0 +1,227 @@
+package com.mycompany.transactions.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.manager.TransactionsManager;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Opt-in push of the statistics as Server-Sent Events, enabled by {@code transactions.statistics.stream.enabled=true},
+ * for dashboards subscribing to {@code GET /statistics/stream} instead of polling {@code GET /statistics}:
+ * <ul>
+ * <li> Every {@code transactions.statistics.stream.interval}, a single thread aggregates the window once, serializes it
+ *      to a {@code statistics} event once, and hands the same bytes to every subscriber; an event equal to the last
+ *      one isn't sent again, so an idle window costs a comment line every {@link #HEARTBEAT_MILLIS}. Without
+ *      subscribers, nothing is aggregated at all.
+ * <li> Each subscriber holds at most one pending event, sent by a thread of its own while it's behind: a slow consumer
+ *      skips the events overwritten meanwhile and gets the latest one, never stalling the ticks nor the other
+ *      subscribers.
+ * <li> A subscriber is dropped once a send fails, ie: the client went away, which heartbeats also detect.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.statistics.stream.enabled", havingValue = "true")
+public class StatisticsStream {
+
+    public static final long HEARTBEAT_MILLIS = 15_000;
+
+    private static final byte[] EVENT_PREFIX    = "event: statistics\ndata: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_SUFFIX    = "\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT_EVENT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private final TransactionsManager transactionsManager;
+    private final ObjectMapper        objectMapper;
+    private final Clock               clock;
+    private final long                intervalMillis;
+
+    private final Set<Subscription>        subscriptions = new CopyOnWriteArraySet<>();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService          senders;
+
+    //guarded by this, along with the subscriptions changes, so a new subscriber never gets an older event last
+    private byte[] lastJson;
+    private byte[] lastEvent;
+    private long   lastSent;
+
+    /**
+     * A subscriber's end of the stream, eg: a {@code ResponseBodyEmitter}; {@code send} may block on a slow client.
+     */
+    public interface Sink {
+        void send(byte[] event) throws IOException;
+    }
+
+    @Autowired
+    public StatisticsStream(TransactionsManager transactionsManager, ObjectMapper objectMapper, Clock clock,
+                            TransactionsProperties properties) {
+        this(transactionsManager, objectMapper, clock, properties.getStatistics().getStream().getInterval().toMillis());
+    }
+
+    public StatisticsStream(TransactionsManager transactionsManager, ObjectMapper objectMapper, Clock clock,
+                            long intervalMillis) {
+        this.transactionsManager = transactionsManager;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.intervalMillis = intervalMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "transactions-stream"));
+        this.senders = Executors.newCachedThreadPool(runnable -> daemon(runnable, "transactions-stream-sender"));
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Subscribes a sink, which gets the latest event right away, if any.
+     * @return the subscription, to {@link Subscription#cancel()} once the client is gone.
+     */
+    public Subscription subscribe(Sink sink) {
+        Subscription subscription = new Subscription(sink);
+        synchronized (this) {
+            subscriptions.add(subscription);
+            if (lastEvent != null) {
+                subscription.offer(lastEvent);
+            }
+        }
+        return subscription;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Aggregates and fans out the statistics, unless unchanged or nobody listens.
+     */
+    void tick() {
+        try {
+            synchronized (this) {
+                if (subscriptions.isEmpty()) {
+                    lastJson = null;
+                    lastEvent = null;
+                    return;
+                }
+                byte[] json = objectMapper.writeValueAsBytes(StatisticsDto.from(
+                        transactionsManager.getTransactionStatistics()));
+                long now = clock.millis();
+                if (Arrays.equals(json, lastJson)) {
+                    if (now - lastSent >= HEARTBEAT_MILLIS) {
+                        subscriptions.forEach(subscription -> subscription.offerIfIdle(HEARTBEAT_EVENT));
+                        lastSent = now;
+                    }
+                    return;
+                }
+                lastJson = json;
+                lastEvent = event(json);
+                lastSent = now;
+                for (Subscription subscription : subscriptions) {
+                    subscription.offer(lastEvent);
+                }
+            }
+        }
+        catch (JsonProcessingException | RuntimeException ex) {
+            logger.error("Failed streaming the statistics, retrying on the next tick", ex);
+        }
+    }
+
+    private static byte[] event(byte[] json) {
+        byte[] event = new byte[EVENT_PREFIX.length + json.length + EVENT_SUFFIX.length];
+        System.arraycopy(EVENT_PREFIX, 0, event, 0, EVENT_PREFIX.length);
+        System.arraycopy(json, 0, event, EVENT_PREFIX.length, json.length);
+        System.arraycopy(EVENT_SUFFIX, 0, event, EVENT_PREFIX.length + json.length, EVENT_SUFFIX.length);
+        return event;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public final class Subscription {
+        private final Sink                    sink;
+        //the latest event not sent yet, overwritten while the sink is behind
+        private final AtomicReference<byte[]> pending = new AtomicReference<>();
+        private final AtomicBoolean           sending = new AtomicBoolean();
+
+        private Subscription(Sink sink) {
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+
+        private void offer(byte[] event) {
+            pending.set(event);
+            drain();
+        }
+
+        /**
+         * Offers a heartbeat only when no event is pending, so it never replaces one.
+         */
+        private void offerIfIdle(byte[] event) {
+            if (pending.compareAndSet(null, event)) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            while (true) {
+                byte[] event = pending.getAndSet(null);
+                if (event == null) {
+                    sending.set(false);
+                    //an offer may have come in between the empty read and the release
+                    if (pending.get() == null || !sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    sink.send(event);
+                }
+                catch (IOException | RuntimeException ex) {
+                    cancel();
+                    sending.set(false);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,52 +1,296 @@
 package com.mycompany.transactions.resource;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.config.TransactionsProperties;
+import com.mycompany.transactions.converter.TransactionBatchCodec;
+import com.mycompany.transactions.converter.TransactionParser;
 import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.dto.TransactionResultDto;
+import com.mycompany.transactions.exception.ProcessingError;
 import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.journal.TransactionsJournal;
+import com.mycompany.transactions.manager.DistinctCountManager;
+import com.mycompany.transactions.manager.KeyedStatisticsManager;
+import com.mycompany.transactions.manager.PercentilesManager;
+import com.mycompany.transactions.manager.RollupStatisticsManager;
 import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
 import com.mycompany.transactions.model.Transaction;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.format.DateTimeParseException;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 import javax.validation.Valid;
 
 import static com.mycompany.transactions.exception.ProcessingError.UNPARSEABLE_TRANSACTION;
 
-@RestController("/transactions")
+@RestController
+@RequestMapping("/transactions")
+@Profile("!reactive")
 public class TransactionsResource {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final TypeReference<List<TransactionDto>> TRANSACTION_DTOS
+            = new TypeReference<List<TransactionDto>>() {
+    };
+
     @Autowired
     private TransactionsManager transactionsManager;
 
+    @Autowired
+    private KeyedStatisticsManager keyedStatisticsManager;
+
+    @Autowired(required = false)
+    private PercentilesManager percentilesManager;
+
+    @Autowired(required = false)
+    private DistinctCountManager distinctCountManager;
+
+    @Autowired(required = false)
+    private RollupStatisticsManager rollupStatisticsManager;
+
+    @Autowired(required = false)
+    private TransactionsJournal transactionsJournal;
+
+    @Autowired(required = false)
+    private TransactionsMetrics transactionsMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionsProperties transactionsProperties;
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity createTransaction(@Valid @RequestBody TransactionDto transactionDto) {
-        transactionsManager.createTransaction(validateAndTransform(transactionDto));
+    public ResponseEntity createTransaction(@Valid @RequestBody Transaction transaction) {
+        ProcessingError processingError = transactionsManager.tryCreateTransaction(transaction);
+        if (transactionsMetrics != null) {
+            transactionsMetrics.ingested(processingError);
+        }
+        if (processingError != null) {
+            return ResponseEntity.status(processingError.getHttpStatus()).build();
+        }
+        accepted(transaction);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    /**
+     * JSON array of transactions, answered with one result per transaction; answered with 400 if the body isn't an
+     * array of objects, with 413 past {@code transactions.batch.max-size}.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity createTransactions(InputStream body) throws IOException {
+        ByteBuffer batch = TransactionBatchCodec.read(body, transactionsProperties.getBatch().getMaxSize());
+        List<TransactionDto> transactionDtos;
+        try {
+            transactionDtos = objectMapper.readValue(batch.array(), batch.position(), batch.remaining(),
+                                                     TRANSACTION_DTOS);
+        }
+        catch (IOException ex) {
+            if (transactionsMetrics != null) {
+                transactionsMetrics.httpError(HttpStatus.BAD_REQUEST.value(), ex);
+            }
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(createAll(transactionDtos));
+    }
+
+    /**
+     * One transaction per line, answered with one result per non-blank line; answered with 413 past
+     * {@code transactions.batch.max-size}.
+     */
+    @PostMapping(path = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity createTransactionLines(InputStream body) throws IOException {
+        ByteBuffer batch = TransactionBatchCodec.read(body, transactionsProperties.getBatch().getMaxSize());
+        List<TransactionDto> transactionDtos = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(batch.array(), batch.position(), batch.remaining()), StandardCharsets.UTF_8));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (!line.trim().isEmpty()) {
+                transactionDtos.add(readLine(line));
+            }
+        }
+        return ResponseEntity.ok(createAll(transactionDtos));
+    }
+
+    /**
+     * Batch of fixed-width {@link TransactionBatchCodec binary} records, answered with one JSON result per record, or
+     * one result byte per record when {@code Accept}ed; answered with 400 if the body isn't a batch of whole records,
+     * with 413 past {@code transactions.batch.max-size}.
+     */
+    @PostMapping(path = "/batch", consumes = TransactionBatchCodec.MEDIA_TYPE_VALUE)
+    public ResponseEntity createTransactionBatch(InputStream body) throws IOException {
+        ProcessingError[] processingErrors = createAll(body);
+        if (processingErrors == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<TransactionResultDto> results = new ArrayList<>(processingErrors.length);
+        for (ProcessingError processingError : processingErrors) {
+            results.add(new TransactionResultDto(processingError));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping(path = "/batch", consumes = TransactionBatchCodec.MEDIA_TYPE_VALUE,
+                 produces = TransactionBatchCodec.MEDIA_TYPE_VALUE)
+    public ResponseEntity createTransactionBatchBinary(InputStream body) throws IOException {
+        ProcessingError[] processingErrors = createAll(body);
+        if (processingErrors == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                             .contentType(TransactionBatchCodec.MEDIA_TYPE)
+                             .body(TransactionBatchCodec.encodeResults(processingErrors));
+    }
+
     @DeleteMapping
     public ResponseEntity deleteAllTransactions() {
         transactionsManager.resetAll();
+        keyedStatisticsManager.resetAll();
+        if (percentilesManager != null) {
+            percentilesManager.resetAll();
+        }
+        if (distinctCountManager != null) {
+            distinctCountManager.resetAll();
+        }
+        if (rollupStatisticsManager != null) {
+            rollupStatisticsManager.resetAll();
+        }
+        if (transactionsJournal != null) {
+            transactionsJournal.reset();
+        }
         return ResponseEntity.noContent().build();
     }
 
-    private Transaction validateAndTransform(TransactionDto transactionDto) {
+    /**
+     * Transforms the whole batch, then creates it.
+     */
+    private List<TransactionResultDto> createAll(List<TransactionDto> transactionDtos) {
+        ProcessingError[] processingErrors = new ProcessingError[transactionDtos.size()];
+        List<Transaction> transactions = new ArrayList<>(transactionDtos.size());
+
+        for (int i = 0; i < processingErrors.length; i++) {
+            try {
+                transactions.add(validateAndTransform(transactionDtos.get(i)));
+            }
+            catch (TransactionProcessingException ex) {
+                processingErrors[i] = UNPARSEABLE_TRANSACTION;
+            }
+        }
+
+        createAll(transactions, processingErrors);
+        List<TransactionResultDto> results = new ArrayList<>(processingErrors.length);
+        for (ProcessingError processingError : processingErrors) {
+            results.add(new TransactionResultDto(processingError));
+        }
+        return results;
+    }
+
+    /**
+     * Hands all parseable transactions to the manager at once, and the accepted ones to the keyed statistics,
+     * percentiles and distinct counts.
+     * @param processingErrors the outcome of every transaction of the batch, in order, {@code null} for the parseable
+     * ones, filled in with the manager's outcome for those.
+     */
+    private void createAll(List<Transaction> transactions, ProcessingError[] processingErrors) {
+        List<ProcessingError> accepted = transactionsManager.createTransactions(transactions);
+        if (transactionsMetrics != null) {
+            transactionsMetrics.ingested(accepted);
+            for (ProcessingError processingError : processingErrors) {
+                if (processingError != null) {
+                    transactionsMetrics.ingested(processingError);
+                }
+            }
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            if (accepted.get(i) == null) {
+                accepted(transactions.get(i));
+            }
+        }
+
+        Iterator<ProcessingError> managerResults = accepted.iterator();
+        for (int i = 0; i < processingErrors.length; i++) {
+            if (processingErrors[i] == null) {
+                processingErrors[i] = managerResults.next();
+            }
+        }
+    }
+
+    /**
+     * Decodes the whole binary batch, then creates it.
+     * @return the outcome of every record, or {@code null} if {@code body} isn't a batch.
+     */
+    private ProcessingError[] createAll(InputStream body) throws IOException {
+        ByteBuffer batch = TransactionBatchCodec.read(body, transactionsProperties.getBatch().getMaxSize());
+        int count;
         try {
-            return new Transaction(new BigDecimal(transactionDto.getAmount()),
-                                   Instant.parse(transactionDto.getTimestamp()));
+            count = TransactionBatchCodec.count(batch);
         }
-        catch (DateTimeParseException | NumberFormatException ex) {
-            throw new TransactionProcessingException(UNPARSEABLE_TRANSACTION);
+        catch (IOException ex) {
+            return null;
         }
+
+        ProcessingError[] processingErrors = new ProcessingError[count];
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                transactions.add(TransactionBatchCodec.decode(batch, i));
+            }
+            catch (TransactionProcessingException ex) {
+                processingErrors[i] = UNPARSEABLE_TRANSACTION;
+            }
+        }
+        createAll(transactions, processingErrors);
+        return processingErrors;
+    }
+
+    private void accepted(Transaction transaction) {
+        keyedStatisticsManager.createTransaction(transaction);
+        if (percentilesManager != null) {
+            percentilesManager.createTransaction(transaction);
+        }
+        if (distinctCountManager != null) {
+            distinctCountManager.createTransaction(transaction);
+        }
+        if (transactionsJournal != null) {
+            transactionsJournal.append(transaction);
+        }
+    }
+
+    /**
+     * @return the parsed line, or {@code null} for a line that isn't a transaction object at all.
+     */
+    private TransactionDto readLine(String line) {
+        try {
+            return objectMapper.readValue(line, TransactionDto.class);
+        }
+        catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private Transaction validateAndTransform(TransactionDto transactionDto) {
+        return TransactionParser.transform(transactionDto);
     }
 }
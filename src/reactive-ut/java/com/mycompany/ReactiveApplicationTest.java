@@ -0,0 +1,20 @@
+package com.mycompany;
+
+import org.junit.Test;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.Assert.assertTrue;
+
+public class ReactiveApplicationTest {
+
+    @Test
+    public void shouldStartReactiveFrontEndWithActuator() {
+        try (ConfigurableApplicationContext context = Application.run("--server.port=0",
+                                                                      "--transactions.audit.enabled=false",
+                                                                      "--spring.profiles.active=reactive")) {
+            assertTrue(context instanceof ReactiveWebApplicationContext);
+            ApplicationTest.verifyEndpoints(context);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.mycompany.transactions.resource;
+
+import com.mycompany.Application;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Same requests sent to both front ends, booted on random ports, which must answer them with the same statuses.
+ */
+@RunWith(Parameterized.class)
+public class FrontEndStatusTest {
+
+    private static final Map<String, ConfigurableApplicationContext> contexts = new HashMap<>();
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final String       url;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> frontEnds() {
+        return Arrays.asList("servlet", "reactive");
+    }
+
+    @BeforeClass
+    public static void startApplications() {
+        contexts.put("servlet", Application.run("--server.port=0", "--transactions.audit.enabled=false"));
+        contexts.put("reactive", Application.run("--server.port=0", "--transactions.audit.enabled=false",
+                                                 "--spring.profiles.active=reactive"));
+    }
+
+    @AfterClass
+    public static void stopApplications() {
+        contexts.values().forEach(ConfigurableApplicationContext::close);
+        contexts.clear();
+    }
+
+    public FrontEndStatusTest(String frontEnd) {
+        this.url = "http://localhost:" + contexts.get(frontEnd).getEnvironment().getProperty("local.server.port");
+        restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void shouldAnswerSameStatuses() {
+        verifyStatus(HttpMethod.DELETE, "/transactions", 204);
+
+        verifyPost("{\"amount\":\"12.3343\",\"timestamp\":\"" + Instant.now() + "\"}", 201);
+        verifyPost("{\"amount\":1e1,\"timestamp\":\"" + Instant.now() + "\",\"other\":true}", 201);
+        verifyPost("{\"amount\":\"1\",\"timestamp\":\"2001-01-01T00:00:00Z\"}", 204);
+        verifyPost("{\"amount\":\"1\",\"timestamp\":\"" + Instant.now().plusSeconds(10) + "\"}", 422);
+        verifyPost("{\"amount\":\"ten\",\"timestamp\":\"2001-01-01T00:00:00Z\"}", 422);
+        verifyPost("{\"amount\":\"1\"}", 400);
+        verifyPost("not json", 400);
+        verifyStatus(HttpMethod.POST, "/transactions", MediaType.TEXT_PLAIN, "1", 415);
+
+        verifyStatus(HttpMethod.GET, "/statistics", 200);
+        assertEquals(2, restTemplate.getForObject(url + "/statistics", Map.class).get("count"));
+    }
+
+    @Test
+    public void shouldOnlyServeTheirPaths() {
+        String body = "{\"amount\":\"1\",\"timestamp\":\"" + Instant.now() + "\"}";
+        verifyStatus(HttpMethod.POST, "/", MediaType.APPLICATION_JSON, body, 404);
+        verifyStatus(HttpMethod.POST, "/other", MediaType.APPLICATION_JSON, body, 404);
+        verifyStatus(HttpMethod.DELETE, "/", 404);
+        verifyStatus(HttpMethod.GET, "/other", 404);
+    }
+
+    private void verifyPost(String body, int status) {
+        verifyStatus(HttpMethod.POST, "/transactions", MediaType.APPLICATION_JSON, body, status);
+    }
+
+    private void verifyStatus(HttpMethod method, String path, int status) {
+        verifyStatus(method, path, MediaType.APPLICATION_JSON, null, status);
+    }
+
+    private void verifyStatus(HttpMethod method, String path, MediaType contentType, String body, int status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        assertEquals(method + " " + path, status, restTemplate.exchange(url + path, method,
+                                                                        new HttpEntity<>(body, headers), Void.class)
+                                                              .getStatusCodeValue());
+    }
+}
@@ -0,0 +1,86 @@
+package com.mycompany.transactions.resource;
+
+import com.mycompany.transactions.manager.KeyedStatisticsManagerImpl;
+import com.mycompany.transactions.manager.SingleWriterTransactionsManager;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReactiveTransactionsHandlerTest {
+
+    private final WebTestClient client = WebTestClient.bindToRouterFunction(
+            new ReactiveTransactionsRoutes().transactionsRoutes(new ReactiveTransactionsHandler(
+                    new TransactionsManagerImpl(), new KeyedStatisticsManagerImpl(),
+                    Jackson2ObjectMapperBuilder.json().build())))
+                                                      .build();
+
+    @Test
+    public void shouldServeAndResetStatistics() {
+        verifyStatus("{\"amount\":\"10.345\",\"timestamp\":\"" + Instant.now() + "\"}", 201);
+
+        client.get().uri("/statistics").exchange()
+              .expectStatus().isOk()
+              .expectBody().json("{\"count\":1,\"sum\":\"10.35\",\"avg\":\"10.35\",\"min\":\"10.35\",\"max\":\"10.35\"}");
+
+        client.delete().uri("/transactions").exchange().expectStatus().isNoContent();
+        client.get().uri("/statistics").exchange()
+              .expectBody().jsonPath("$.count").isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRecordIngestionErrorsAndQueries() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ReactiveTransactionsHandler handler = new ReactiveTransactionsHandler(
+                new TransactionsManagerImpl(), new KeyedStatisticsManagerImpl(),
+                Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(handler, "transactionsMetrics", new TransactionsMetrics(registry));
+        handler.init();
+        WebTestClient metered = WebTestClient.bindToRouterFunction(
+                new ReactiveTransactionsRoutes().transactionsRoutes(handler)).build();
+
+        metered.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON)
+               .syncBody("{\"amount\":\"10.345\",\"timestamp\":\"" + Instant.now() + "\"}")
+               .exchange().expectStatus().isCreated();
+        metered.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON)
+               .syncBody("{\"amount\":\"10.345\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}")
+               .exchange().expectStatus().isNoContent();
+        metered.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON).syncBody("{")
+               .exchange().expectStatus().isBadRequest();
+        metered.get().uri("/statistics").exchange().expectStatus().isOk();
+
+        assertEquals(1, registry.get("transactions.ingested").tags("outcome", "accepted").counter().count(), 0);
+        assertEquals(1, registry.get("transactions.ingested").tags("error", "old_transaction").counter().count(), 0);
+        assertEquals(1, registry.get("transactions.http.errors").tags("status", "400").counter().count(), 0);
+        assertEquals(1, registry.get("transactions.statistics.queries").tags("query", "window").timer().count());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRefuseSingleWriterAcknowledgingOnApply() {
+        SingleWriterTransactionsManager manager = new SingleWriterTransactionsManager(
+                SlidingWindow.DEFAULT, SingleWriterTransactionsManager.AckMode.APPLY, 1_024);
+        try {
+            new ReactiveTransactionsHandler(manager, new KeyedStatisticsManagerImpl(),
+                                            Jackson2ObjectMapperBuilder.json().build());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    private void verifyStatus(String body, int status) {
+        client.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON).syncBody(body)
+              .exchange().expectStatus().isEqualTo(status);
+    }
+}
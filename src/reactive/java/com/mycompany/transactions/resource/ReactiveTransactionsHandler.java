@@ -0,0 +1,251 @@
+package com.mycompany.transactions.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.converter.TransactionParser;
+import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.journal.TransactionsJournal;
+import com.mycompany.transactions.manager.DistinctCountManager;
+import com.mycompany.transactions.manager.KeyedStatisticsManager;
+import com.mycompany.transactions.manager.PercentilesManager;
+import com.mycompany.transactions.manager.RollupStatisticsManager;
+import com.mycompany.transactions.manager.SingleWriterTransactionsManager;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.metrics.TransactionsMetrics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.io.IOException;
+
+import javax.annotation.PostConstruct;
+
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link TransactionsResource} and {@link StatisticsResource}, routed by
+ * {@link ReactiveTransactionsRoutes} when running with the {@code reactive} profile:
+ * <ul>
+ * <li> A request holds no thread while its body arrives; the body is then parsed by {@link TransactionParser} (falling
+ *      back to Jackson), and handed to the managers right on the event loop, as they never block: a
+ *      {@link SingleWriterTransactionsManager} acknowledging on {@code apply} would wait for its writer there, so it is
+ *      refused at startup. A transaction the journal's full ring can't take right away, and resetting, which waits for
+ *      the writer and truncates the journal, are handed off the event loop.
+ * <li> Status codes are the same as the servlet front end's: 201, 204 for an old transaction, 422 for a future or
+ *      unparseable one, 400 for a body that isn't JSON or misses a field, 415 for a body that isn't
+ *      {@code application/json}.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTransactionsHandler {
+
+    private final TransactionsManager    transactionsManager;
+    private final KeyedStatisticsManager keyedStatisticsManager;
+    private final ObjectMapper           objectMapper;
+
+    @Autowired(required = false)
+    private PercentilesManager percentilesManager;
+
+    @Autowired(required = false)
+    private DistinctCountManager distinctCountManager;
+
+    @Autowired(required = false)
+    private RollupStatisticsManager rollupStatisticsManager;
+
+    @Autowired(required = false)
+    private TransactionsJournal transactionsJournal;
+
+    @Autowired(required = false)
+    private StatisticsSnapshotCache statisticsSnapshotCache;
+
+    @Autowired(required = false)
+    private StatisticsStream statisticsStream;
+
+    @Autowired(required = false)
+    private TransactionsMetrics transactionsMetrics;
+
+    //timer of GET /statistics, null when metrics are disabled
+    private Timer windowQueries;
+
+    public ReactiveTransactionsHandler(TransactionsManager transactionsManager,
+                                       KeyedStatisticsManager keyedStatisticsManager,
+                                       ObjectMapper objectMapper) {
+        if (transactionsManager instanceof SingleWriterTransactionsManager
+            && ((SingleWriterTransactionsManager) transactionsManager).getAckMode()
+               == SingleWriterTransactionsManager.AckMode.APPLY) {
+            throw new IllegalStateException("transactions.single-writer.ack=apply would block the event loop, "
+                                            + "use enqueue with the reactive profile");
+        }
+        this.transactionsManager = transactionsManager;
+        this.keyedStatisticsManager = keyedStatisticsManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (transactionsMetrics != null) {
+            windowQueries = transactionsMetrics.query("window");
+        }
+    }
+
+    public Mono<ServerResponse> createTransaction(ServerRequest request) {
+        if (!request.headers().contentType().filter(MediaType.APPLICATION_JSON::isCompatibleWith).isPresent()) {
+            return ServerResponse.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        return DataBufferUtils.join(request.body(BodyExtractors.toDataBuffers()))
+                              .flatMap(this::read)
+                              .defaultIfEmpty(Outcome.BAD_REQUEST)
+                              .flatMap(outcome -> ServerResponse.status(outcome.status).build());
+    }
+
+    public Mono<ServerResponse> getStatistics(ServerRequest request) {
+        return windowQueries != null ? windowQueries.record(this::statistics) : statistics();
+    }
+
+    private Mono<ServerResponse> statistics() {
+        if (statisticsSnapshotCache != null) {
+            return ServerResponse.ok()
+                                 .contentType(MediaType.APPLICATION_JSON_UTF8)
+                                 .syncBody(statisticsSnapshotCache.getStatistics());
+        }
+        return ServerResponse.ok()
+                             .contentType(MediaType.APPLICATION_JSON_UTF8)
+                             .syncBody(StatisticsDto.from(transactionsManager.getTransactionStatistics()));
+    }
+
+    /**
+     * Stream of {@code statistics} Server-Sent Events, buffering only the latest one while the client doesn't read, and
+     * flushing each one as it's written.
+     */
+    public Mono<ServerResponse> getStatisticsStream(ServerRequest request) {
+        if (statisticsStream == null) {
+            return ServerResponse.badRequest().build();
+        }
+        DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+        Flux<DataBuffer> events = Flux.create(sink -> {
+            StatisticsStream.Subscription subscription = statisticsStream.subscribe(
+                    event -> sink.next(bufferFactory.wrap(event)));
+            sink.onDispose(subscription::cancel);
+        }, FluxSink.OverflowStrategy.LATEST);
+        return ServerResponse.ok()
+                             .contentType(MediaType.TEXT_EVENT_STREAM)
+                             .header("Cache-Control", "no-cache")
+                             .body((response, context) -> response.writeAndFlushWith(events.map(Mono::just)));
+    }
+
+    public Mono<ServerResponse> deleteAllTransactions(ServerRequest request) {
+        return Mono.fromRunnable(this::resetAll)
+                   .subscribeOn(Schedulers.elastic())
+                   .then(ServerResponse.noContent().build());
+    }
+
+    private void resetAll() {
+        transactionsManager.resetAll();
+        keyedStatisticsManager.resetAll();
+        if (percentilesManager != null) {
+            percentilesManager.resetAll();
+        }
+        if (distinctCountManager != null) {
+            distinctCountManager.resetAll();
+        }
+        if (rollupStatisticsManager != null) {
+            rollupStatisticsManager.resetAll();
+        }
+        if (transactionsJournal != null) {
+            transactionsJournal.reset();
+        }
+    }
+
+    /**
+     * Parses a body and hands the transaction to the managers, completing right away unless the journal's ring is full.
+     */
+    private Mono<Outcome> read(DataBuffer body) {
+        byte[] bytes = new byte[body.readableByteCount()];
+        body.read(bytes);
+        DataBufferUtils.release(body);
+
+        Transaction transaction;
+        try {
+            transaction = TransactionParser.parse(bytes, bytes.length);
+            if (transaction == null) {
+                TransactionDto transactionDto = objectMapper.readValue(bytes, TransactionDto.class);
+                if (transactionDto == null || transactionDto.getAmount() == null
+                    || transactionDto.getTimestamp() == null) {
+                    return Mono.just(Outcome.BAD_REQUEST);
+                }
+                transaction = TransactionParser.transform(transactionDto);
+            }
+        }
+        catch (IOException ex) {
+            if (transactionsMetrics != null) {
+                transactionsMetrics.httpError(HttpStatus.BAD_REQUEST.value(), ex);
+            }
+            return Mono.just(Outcome.BAD_REQUEST);
+        }
+        catch (TransactionProcessingException ex) {
+            if (transactionsMetrics != null) {
+                transactionsMetrics.httpError(ex.getHttpStatus(), ex);
+            }
+            return Mono.just(Outcome.of(ex.getProcessingError()));
+        }
+
+        ProcessingError processingError = transactionsManager.tryCreateTransaction(transaction);
+        if (transactionsMetrics != null) {
+            transactionsMetrics.ingested(processingError);
+        }
+        if (processingError != null) {
+            return Mono.just(Outcome.of(processingError));
+        }
+        keyedStatisticsManager.createTransaction(transaction);
+        if (percentilesManager != null) {
+            percentilesManager.createTransaction(transaction);
+        }
+        if (distinctCountManager != null) {
+            distinctCountManager.createTransaction(transaction);
+        }
+        if (transactionsJournal != null && !transactionsJournal.tryAppend(transaction)) {
+            //the journal's writer is behind, wait for it off the event loop
+            Transaction journaled = transaction;
+            return Mono.fromRunnable(() -> transactionsJournal.append(journaled))
+                       .subscribeOn(Schedulers.elastic())
+                       .then(Mono.just(Outcome.CREATED));
+        }
+        return Mono.just(Outcome.CREATED);
+    }
+
+    /**
+     * Status of a {@code POST /transactions}.
+     */
+    private enum Outcome {
+        CREATED(HttpStatus.CREATED),
+        BAD_REQUEST(HttpStatus.BAD_REQUEST),
+        OLD_TRANSACTION(HttpStatus.NO_CONTENT),
+        UNPROCESSABLE(HttpStatus.UNPROCESSABLE_ENTITY);
+
+        private final HttpStatus status;
+
+        Outcome(HttpStatus status) {
+            this.status = status;
+        }
+
+        private static Outcome of(ProcessingError processingError) {
+            return processingError == ProcessingError.OLD_TRANSACTION ? OLD_TRANSACTION : UNPROCESSABLE;
+        }
+    }
+}
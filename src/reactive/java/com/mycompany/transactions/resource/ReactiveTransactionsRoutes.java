@@ -0,0 +1,30 @@
+package com.mycompany.transactions.resource;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes of the non-blocking front end, active with the {@code reactive} profile, whose
+ * {@code application-reactive.properties} switch {@code spring.main.web-application-type} to {@code reactive}; the
+ * servlet {@link TransactionsResource} and {@link StatisticsResource} are then left out.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveTransactionsRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> transactionsRoutes(ReactiveTransactionsHandler handler) {
+        return route(POST("/transactions"), handler::createTransaction)
+                .andRoute(DELETE("/transactions"), handler::deleteAllTransactions)
+                .andRoute(GET("/statistics"), handler::getStatistics)
+                .andRoute(GET("/statistics/stream"), handler::getStatisticsStream);
+    }
+}
@@ -0,0 +1,45 @@
+package com.mycompany;
+
+import org.junit.Test;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ApplicationTest {
+
+    @Test
+    public void shouldStartServletFrontEndByDefault() {
+        try (ConfigurableApplicationContext context = Application.run("--server.port=0",
+                                                                      "--transactions.audit.enabled=false")) {
+            assertTrue(context instanceof ServletWebServerApplicationContext);
+            verifyEndpoints(context);
+        }
+    }
+
+    /**
+     * Posts a transaction, then reads it back from the statistics, and reads the health and Prometheus endpoints.
+     */
+    static void verifyEndpoints(ConfigurableApplicationContext context) {
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        RestTemplate restTemplate = new RestTemplate();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        restTemplate.postForEntity(url + "/transactions",
+                                   new HttpEntity<>("{\"amount\":\"10\",\"timestamp\":\"" + Instant.now() + "\"}",
+                                                    headers), Void.class);
+
+        assertEquals(1, restTemplate.getForObject(url + "/statistics", Map.class).get("count"));
+        restTemplate.getForObject(url + "/actuator/health", String.class);
+        restTemplate.getForObject(url + "/actuator/prometheus", String.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.transactions.admission;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private long                     now    = 0;
+    private AdaptiveConcurrencyLimit testee = new AdaptiveConcurrencyLimit(20, 4, 100, 2.0, WINDOW, now);
+
+    @Test
+    public void shouldShedPastLimit() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(testee.tryAcquire());
+        }
+        assertFalse(testee.tryAcquire());
+        assertEquals(20, testee.getInFlight());
+
+        testee.release(1_000, now);
+        assertTrue(testee.tryAcquire());
+    }
+
+    @Test
+    public void shouldGrowWhileLatencyHoldsAndLimitIsUsed() {
+        for (int window = 0; window < 100; window++) {
+            runWindow(testee.getLimit(), 1_000_000);
+        }
+        assertEquals(100, testee.getLimit());
+    }
+
+    @Test
+    public void shouldNotGrowWhileLimitIsUnused() {
+        for (int window = 0; window < 100; window++) {
+            runWindow(5, 1_000_000);
+        }
+        assertEquals(20, testee.getLimit());
+    }
+
+    @Test
+    public void shouldShrinkWhenLatencyClimbs() {
+        for (int window = 0; window < 20; window++) {
+            runWindow(testee.getLimit(), 1_000_000);
+        }
+        int limit = testee.getLimit();
+
+        //an overloaded engine answers ten times slower, noticed once a window of slow requests closed, down to the floor
+        runWindow(testee.getLimit(), 10_000_000);
+        runWindow(testee.getLimit(), 10_000_000);
+        assertTrue(testee.getLimit() < limit);
+        for (int window = 0; window < 100; window++) {
+            runWindow(testee.getLimit(), 10_000_000);
+        }
+        assertEquals(4, testee.getLimit());
+
+        //then recovers once it does again
+        for (int window = 0; window < 100; window++) {
+            runWindow(testee.getLimit(), 1_000_000);
+        }
+        assertTrue(testee.getLimit() > limit);
+    }
+
+    /**
+     * Admits {@code concurrency} requests taking {@code latencyNanos}, then releases them past the end of the window.
+     */
+    private void runWindow(int concurrency, long latencyNanos) {
+        for (int i = 0; i < concurrency; i++) {
+            assertTrue(testee.tryAcquire());
+        }
+        now += WINDOW;
+        for (int i = 0; i < concurrency; i++) {
+            testee.release(latencyNanos, now);
+        }
+    }
+}
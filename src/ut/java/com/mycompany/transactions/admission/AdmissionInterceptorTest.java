@@ -0,0 +1,120 @@
+package com.mycompany.transactions.admission;
+
+import com.mycompany.transactions.manager.TransactionsManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"transactions.audit.enabled=false", "transactions.admission.enabled=true",
+                              "transactions.admission.initial-limit=1", "transactions.admission.min-limit=1",
+                              "transactions.admission.max-limit=1", "transactions.admission.retry-after=3s"})
+@AutoConfigureMockMvc
+public class AdmissionInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdaptiveConcurrencyLimit admissionLimit;
+
+    @Autowired
+    private TransactionsManager transactionsManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    @After
+    public void reset() {
+        transactionsManager.resetAll();
+    }
+
+    @Test
+    public void shouldShedPastLimitWithRetryAfter() throws Exception {
+        admissionLimit.tryAcquire();
+        try {
+            mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(transaction(0)))
+                   .andExpect(status().isServiceUnavailable())
+                   .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+            mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON)
+                                                       .content("[" + transaction(0) + "]"))
+                   .andExpect(status().isServiceUnavailable());
+        }
+        finally {
+            admissionLimit.cancel();
+        }
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(transaction(0)))
+               .andExpect(status().isCreated());
+        assertEquals(0, admissionLimit.getInFlight());
+    }
+
+    @Test
+    public void shouldLeaveOtherHandlersAlone() throws Exception {
+        admissionLimit.tryAcquire();
+        try {
+            mockMvc.perform(get("/statistics")).andExpect(status().isOk());
+            mockMvc.perform(post("/").contentType(MediaType.APPLICATION_JSON).content(transaction(0)))
+                   .andExpect(status().isNotFound());
+            mockMvc.perform(post("/statistics").contentType(MediaType.APPLICATION_JSON).content(transaction(0)))
+                   .andExpect(status().isMethodNotAllowed());
+        }
+        finally {
+            admissionLimit.cancel();
+        }
+    }
+
+    @Test
+    public void shouldReleaseOnErrors() throws Exception {
+        verifyReleased("not json", MediaType.APPLICATION_JSON, 400);
+        verifyReleased("{\"amount\":\"1\"}", MediaType.APPLICATION_JSON, 400);
+        verifyReleased("{\"amount\":\"ten\",\"timestamp\":\"" + Instant.now() + "\"}", MediaType.APPLICATION_JSON, 422);
+        verifyReleased(transaction(-10_000), MediaType.APPLICATION_JSON, 422);
+        verifyReleased(transaction(0), MediaType.TEXT_PLAIN, 415);
+    }
+
+    @Test
+    public void shouldDropStaleTransactionsBeforeIngestion() throws Exception {
+        verifyReleased(transaction(61_000), MediaType.APPLICATION_JSON, 204);
+
+        //answered by the advice, the resource never called
+        assertEquals(1, meterRegistry.get("transactions.http.errors").tag("status", "204").counter().count(), 0);
+
+        mockMvc.perform(get("/statistics"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.count").value(0));
+    }
+
+    private void verifyReleased(String body, MediaType contentType, int status) throws Exception {
+        mockMvc.perform(post("/transactions").contentType(contentType).content(body))
+               .andExpect(status().is(status));
+        assertEquals(0, admissionLimit.getInFlight());
+    }
+
+    /**
+     * @param ageMillis how long ago the transaction happened, negative in the future.
+     */
+    private static String transaction(long ageMillis) {
+        return "{\"amount\":\"10\",\"timestamp\":\"" + Instant.now().minusMillis(ageMillis) + "\"}";
+    }
+}
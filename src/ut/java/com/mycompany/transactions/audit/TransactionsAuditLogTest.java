@@ -0,0 +1,149 @@
+package com.mycompany.transactions.audit;
+
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionsAuditLogTest {
+
+    private static final Instant now = Instant.parse("2018-07-17T09:00:00.015Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRecordEveryOutcomeOfTheEngine() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        TransactionsAuditLog auditLog = new TransactionsAuditLog(directory, TransactionsAuditLog.Policy.LOSSLESS,
+                                                                 1_024, 1 << 20, 4, 1);
+        TransactionsManagerImpl engine = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, SlidingWindow.DEFAULT,
+                                                                     new VirtualClock(now));
+        engine.setAuditLog(auditLog);
+
+        engine.tryCreateTransaction(new Transaction(new BigDecimal("12.34"), now.minusMillis(5)));
+        engine.tryCreateTransaction(new Transaction(new BigDecimal("-1.5"), now.minusSeconds(60)));
+        engine.createTransactions(Arrays.asList(new Transaction(new BigDecimal("100"), now),
+                                                new Transaction(new BigDecimal("7"), now.plusMillis(1))));
+        engine.tryCreateTransaction(new Transaction(new BigDecimal("123456789012345678901234.5"), now));
+        auditLog.close();
+
+        List<AuditRecord> records = read(directory);
+        assertEquals(5, records.size());
+        assertEquals(now.toEpochMilli(), records.get(0).getReceivedAt());
+        assertEquals(now.toEpochMilli() - 5, records.get(0).getTimestamp());
+        assertEquals(new BigDecimal("12.34"), records.get(0).getAmount());
+        assertNull(records.get(0).getProcessingError());
+        assertEquals(ProcessingError.OLD_TRANSACTION, records.get(1).getProcessingError());
+        assertEquals(new BigDecimal("-1.5"), records.get(1).getAmount());
+        assertNull(records.get(2).getProcessingError());
+        assertEquals(ProcessingError.FUTURE_TRANSACTION, records.get(3).getProcessingError());
+        assertNull(records.get(4).getAmount());
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        AuditLogReader.read(directory, Long.MIN_VALUE, Long.MAX_VALUE, new PrintStream(text, true, "UTF-8"));
+        assertEquals("2018-07-17T09:00:00.015Z 2018-07-17T09:00:00.010Z 12.34 ACCEPTED",
+                     text.toString("UTF-8").split("\n")[0]);
+    }
+
+    @Test
+    public void shouldRollFilesAndKeepTheLastOnes() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        int perFile = 100;
+        TransactionsAuditLog auditLog = new TransactionsAuditLog(directory, TransactionsAuditLog.Policy.LOSSLESS,
+                                                                 64, AuditFile.HEADER + perFile * AuditFile.RECORD,
+                                                                 3, 1);
+        for (int i = 0; i < 1_000; i++) {
+            auditLog.append(i, i, BigDecimal.valueOf(i, 2), null);
+        }
+        auditLog.close();
+
+        //batches never straddle files, every file holding at most perFile records
+        assertEquals(3, AuditFile.list(directory).size());
+        for (Path file : AuditFile.list(directory).values()) {
+            List<AuditRecord> records = new ArrayList<>();
+            AuditFile.read(file, records::add);
+            assertTrue(records.size() > 0 && records.size() <= perFile);
+        }
+        List<AuditRecord> records = read(directory);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(1_000 - records.size() + i, records.get(i).getReceivedAt());
+        }
+    }
+
+    @Test
+    public void shouldCountRecordsDroppedByFullBuffer() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        //a writer flushing once a minute leaves the buffer full
+        TransactionsAuditLog auditLog = new TransactionsAuditLog(directory, TransactionsAuditLog.Policy.LOSSY, 16,
+                                                                 1 << 20, 4, 60_000);
+        awaitWriterParked();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    auditLog.append(i, i, BigDecimal.ONE, null);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        auditLog.close();
+
+        long written = 0;
+        long dropped = 0;
+        for (AuditRecord record : read(directory)) {
+            written += record.getDropped() == 0 ? 1 : 0;
+            dropped += record.getDropped();
+        }
+        assertEquals(16, written);
+        assertEquals(4_000, written + dropped);
+    }
+
+    /**
+     * Waits for the writer's first flush, of an empty ring, so it doesn't race the appends.
+     */
+    private static void awaitWriterParked() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().equals("transactions-audit") && thread.getState() == Thread.State.TIMED_WAITING) {
+                    return;
+                }
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("The audit writer never parked");
+    }
+
+    private static List<AuditRecord> read(Path directory) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path file : AuditFile.list(directory).values()) {
+            AuditFile.read(file, records::add);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.transactions.clock;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoarseClockTest {
+
+    @Test
+    public void shouldFollowSystemClockByResolution() throws InterruptedException {
+        try (CoarseClock clock = new CoarseClock(5)) {
+            long ahead = 0;
+            for (int i = 0; i < 200; i++) {
+                long millis = clock.millis();
+                long now = System.currentTimeMillis();
+                assertEquals(0, millis % 5);
+                assertTrue(millis + " ahead of " + now, millis <= now + 5);
+                ahead += millis >= now ? 1 : 0;
+                Thread.sleep(1);
+            }
+            //behind only while the refresher isn't scheduled
+            assertTrue(ahead + " of 200 reads not behind", ahead > 100);
+        }
+    }
+
+    @Test
+    public void shouldReadTheSameMillisInAnotherZone() {
+        try (CoarseClock clock = new CoarseClock(60_000)) {
+            assertSame(clock, clock.withZone(ZoneOffset.UTC));
+
+            Clock tokyo = clock.withZone(ZoneId.of("Asia/Tokyo"));
+            assertEquals(ZoneId.of("Asia/Tokyo"), tokyo.getZone());
+            assertEquals(clock.millis(), tokyo.millis());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.transactions.clock;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class VirtualClockTest {
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2018-07-17T09:59:51.312Z"));
+
+    @Test
+    public void shouldStayItselfInUtc() {
+        assertSame(clock, clock.withZone(ZoneOffset.UTC));
+        assertSame(clock, clock.withZone(ZoneId.of("UTC")));
+    }
+
+    @Test
+    public void shouldMoveZonedViewsWithTheClock() {
+        Clock paris = clock.withZone(ZoneId.of("Europe/Paris"));
+        assertEquals(ZoneId.of("Europe/Paris"), paris.getZone());
+        assertEquals(LocalDateTime.parse("2018-07-17T11:59:51.312"), LocalDateTime.now(paris));
+
+        clock.advance(1_000);
+        assertEquals(clock.millis(), paris.millis());
+        assertEquals(LocalDateTime.parse("2018-07-17T11:59:52.312"), LocalDateTime.now(paris));
+        assertSame(clock, paris.withZone(ZoneOffset.UTC));
+    }
+}
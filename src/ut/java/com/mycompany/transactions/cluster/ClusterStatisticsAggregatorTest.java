@@ -0,0 +1,125 @@
+package com.mycompany.transactions.cluster;
+
+import com.mycompany.transactions.converter.WindowStateCodec;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.ClusterStatistics;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.Transaction;
+import com.mycompany.transactions.model.WindowState;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterStatisticsAggregatorTest {
+
+    private static final SlidingWindow window = new SlidingWindow(60_000, 1_000);
+
+    private final List<HttpServer> peers = new ArrayList<>();
+
+    @After
+    public void after() {
+        peers.forEach(peer -> peer.stop(0));
+    }
+
+    @Test
+    public void shouldMergePeerWindowsBucketByBucket() throws IOException {
+        Instant now = Instant.now();
+        TransactionsManager local = manager(transaction("10.50", now), transaction("1", now.minusSeconds(30)));
+        TransactionsManager first = manager(transaction("20.25", now), transaction("-5", now.minusSeconds(30)));
+        TransactionsManager second = manager(transaction("100", now.minusSeconds(59)));
+
+        ClusterStatistics statistics = aggregator(local, peer(first), peer(second)).getClusterStatistics();
+
+        assertFalse(statistics.isPartial());
+        assertEquals(3, statistics.getNodes());
+        assertEquals(5, statistics.getStatistics().getCount());
+        assertEquals("126.75", statistics.getStatistics().getSum().toString());
+        assertEquals("-5.00", statistics.getStatistics().getMin().toString());
+        assertEquals("100.00", statistics.getStatistics().getMax().toString());
+    }
+
+    @Test
+    public void shouldReturnPartialResultWithoutSlowOrFailedPeers() throws IOException {
+        Instant now = Instant.now();
+        TransactionsManager local = manager(transaction("1", now));
+        TransactionsManager fast = manager(transaction("2", now));
+        TransactionsManager slow = manager(transaction("4", now));
+        String slowPeer = peer(() -> {
+            try {
+                Thread.sleep(1_000);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return WindowStateCodec.encode(new WindowState(1_000, slow.exportBuckets()));
+        });
+        String otherWidthPeer = peer(() -> WindowStateCodec.encode(new WindowState(100, fast.exportBuckets())));
+        String downPeer = "http://localhost:1";
+
+        long start = System.currentTimeMillis();
+        ClusterStatistics statistics = aggregator(local, peer(fast), slowPeer, otherWidthPeer, downPeer)
+                .getClusterStatistics();
+
+        assertTrue(System.currentTimeMillis() - start < 1_000);
+        assertTrue(statistics.isPartial());
+        assertEquals(Arrays.asList(slowPeer, otherWidthPeer, downPeer), statistics.getFailedPeers());
+        assertEquals(2, statistics.getNodes());
+        assertEquals("3.00", statistics.getStatistics().getSum().toString());
+    }
+
+    private static TransactionsManager manager(Transaction... transactions) {
+        TransactionsManager manager = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        manager.createTransactions(Arrays.asList(transactions));
+        return manager;
+    }
+
+    private ClusterStatisticsAggregator aggregator(TransactionsManager local, String... peerUrls) {
+        return new ClusterStatisticsAggregator(local, window, Arrays.asList(peerUrls), 300);
+    }
+
+    private String peer(TransactionsManager manager) throws IOException {
+        return peer(() -> WindowStateCodec.encode(new WindowState(1_000, manager.exportBuckets())));
+    }
+
+    /**
+     * Starts a node on localhost serving {@code GET /statistics/buckets}.
+     */
+    private String peer(Supplier<byte[]> buckets) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/statistics/buckets", exchange -> {
+            byte[] body = buckets.get();
+            exchange.getResponseHeaders().put("Content-Type",
+                                              Collections.singletonList(WindowStateCodec.MEDIA_TYPE_VALUE));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(null);
+        server.start();
+        peers.add(server);
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static Transaction transaction(String amount, Instant timestamp) {
+        return new Transaction(new BigDecimal(amount), timestamp);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mycompany.transactions.converter;
+
+import com.mycompany.transactions.dto.StatisticsDto;
+import com.mycompany.transactions.exception.BatchTooLargeException;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TransactionBatchCodecTest {
+
+    @Test
+    public void shouldRoundTripBatch() throws IOException {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(new BigDecimal("12.3343"), Instant.parse("2018-07-17T09:59:51.312Z")),
+                new Transaction(new BigDecimal("-9223372036854775808"), Instant.EPOCH),
+                new Transaction(BigDecimal.ZERO, Instant.parse("2018-07-17T09:59:52Z")));
+
+        byte[] encoded = TransactionBatchCodec.encode(transactions, transactions.size());
+        assertEquals(4 + 3 * TransactionBatchCodec.RECORD_SIZE, encoded.length);
+
+        ByteBuffer batch = TransactionBatchCodec.read(new ByteArrayInputStream(encoded), encoded.length);
+        assertEquals(3, TransactionBatchCodec.count(batch));
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(transactions.get(i).toString(), TransactionBatchCodec.decode(batch, i).toString());
+        }
+    }
+
+    @Test
+    public void shouldReadBodiesUpToMaxSize() throws IOException {
+        byte[] encoded = new byte[100_000];
+
+        assertEquals(encoded.length, TransactionBatchCodec.read(new ByteArrayInputStream(encoded), encoded.length)
+                                                          .remaining());
+        try {
+            TransactionBatchCodec.read(new ByteArrayInputStream(encoded), encoded.length - 1);
+            fail();
+        }
+        catch (BatchTooLargeException ex) {
+            assertEquals(413, ex.getHttpStatus());
+        }
+    }
+
+    @Test
+    public void shouldRejectNegativeScaleRecord() throws IOException {
+        ByteBuffer batch = ByteBuffer.wrap(TransactionBatchCodec.encode(
+                Arrays.asList(new Transaction(BigDecimal.ONE, Instant.EPOCH)), 1));
+        batch.put(4 + 8, (byte) -1);
+
+        try {
+            TransactionBatchCodec.decode(batch, 0);
+            fail();
+        }
+        catch (TransactionProcessingException ex) {
+            assertEquals(ProcessingError.UNPARSEABLE_TRANSACTION, ex.getProcessingError());
+        }
+    }
+
+    @Test
+    public void shouldRejectPartialRecordsAndOtherPayloads() {
+        byte[] encoded = TransactionBatchCodec.encode(Arrays.asList(new Transaction(BigDecimal.ONE, Instant.EPOCH)), 1);
+        for (byte[] payload : Arrays.asList(Arrays.copyOf(encoded, encoded.length - 1), new byte[2],
+                                            "[{\"amount\":\"1\"}]".getBytes())) {
+            try {
+                TransactionBatchCodec.count(ByteBuffer.wrap(payload));
+                fail();
+            }
+            catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void shouldEncodeResultsAndStatistics() throws IOException {
+        assertArrayEquals(new byte[]{0, 1, 3},
+                          TransactionBatchCodec.encodeResults(new ProcessingError[]{
+                                  null, ProcessingError.OLD_TRANSACTION, ProcessingError.UNPARSEABLE_TRANSACTION}));
+
+        BigDecimalSummaryStatistics statistics = new BigDecimalSummaryStatistics(2, RoundingMode.HALF_UP);
+        statistics.accept(new BigDecimal("12.345"));
+        statistics.accept(new BigDecimal("1E+30"));
+        StatisticsDto decoded = TransactionBatchCodec.decodeStatistics(TransactionBatchCodec.encodeStatistics(
+                statistics));
+
+        StatisticsDto expected = StatisticsDto.from(statistics);
+        assertEquals(2, decoded.getCount());
+        assertEquals(expected.getSum(), decoded.getSum());
+        assertEquals(expected.getAvg(), decoded.getAvg());
+        assertEquals(expected.getMin(), decoded.getMin());
+        assertEquals(expected.getMax(), decoded.getMax());
+    }
+}
@@ -0,0 +1,55 @@
+package com.mycompany.transactions.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionHttpMessageConverterTest {
+
+    private TransactionHttpMessageConverter testee = new TransactionHttpMessageConverter(new ObjectMapper());
+
+    @Test
+    public void shouldOnlyReadTransactionsFromJson() {
+        assertTrue(testee.canRead(Transaction.class, MediaType.APPLICATION_JSON));
+        assertTrue(testee.canRead(Transaction.class, MediaType.APPLICATION_JSON_UTF8));
+        assertTrue(testee.canRead(Transaction.class, MediaType.valueOf("application/vnd.transactions+json")));
+        assertTrue(testee.canRead(Transaction.class, null));
+        assertFalse(testee.canRead(Transaction.class, MediaType.TEXT_PLAIN));
+        assertFalse(testee.canRead(String.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldNeverWrite() {
+        assertFalse(testee.canWrite(Transaction.class, MediaType.APPLICATION_JSON));
+        assertFalse(testee.canWrite(Transaction.class, null));
+    }
+
+    @Test
+    public void shouldReadCanonicalAndBoundBodies() throws IOException {
+        assertEquals("10.50", read("{\"amount\":\"10.50\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}")
+                .getAmount().toString());
+        //escaped key, bound as a DTO
+        assertEquals("a\"b", read("{\"amount\":\"10.50\",\"timestamp\":\"2018-07-17T09:59:51.312Z\","
+                                  + "\"key\":\"a\\\"b\"}").getKey());
+    }
+
+    @Test(expected = HttpMessageNotReadableException.class)
+    public void shouldRejectBodyMissingTimestamp() throws IOException {
+        read("{\"amount\":\"10.50\"}");
+    }
+
+    private Transaction read(String body) throws IOException {
+        return testee.read(Transaction.class, new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
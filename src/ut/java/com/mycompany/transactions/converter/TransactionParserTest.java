@@ -0,0 +1,119 @@
+package com.mycompany.transactions.converter;
+
+import com.mycompany.common.BusinessExceptionMatcher;
+import com.mycompany.transactions.dto.TransactionDto;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TransactionParserTest {
+
+    @Rule
+    public ExpectedException exceptionRule = ExpectedException.none();
+
+    @Test
+    public void shouldParseCanonicalBodies() {
+        verifySameAsSlowPath("12.3343", "2018-07-17T09:59:51.312Z");
+        verifySameAsSlowPath("-0.50", "1970-01-01T00:00:00Z");
+        verifySameAsSlowPath("007", "2016-02-29T23:59:59.1Z");
+        verifySameAsSlowPath("999999999999999999", "2000-12-31T12:00:00.123456789Z");
+    }
+
+    @Test
+    public void shouldParseRandomBodiesLikeSlowPath() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String amount = random.nextInt(100_000_000) + (random.nextBoolean() ? "." + random.nextInt(1000) : "");
+            Instant timestamp = Instant.ofEpochMilli(random.nextLong() % 100_000_000_000_000L);
+            if (timestamp.toString().length() >= 20 && timestamp.toString().charAt(4) == '-') {
+                verifySameAsSlowPath(random.nextBoolean() ? amount : "-" + amount, timestamp.toString());
+            }
+        }
+    }
+
+    @Test
+    public void shouldParseValuesBeyondFastPathThroughSlowPath() {
+        verifySameAsSlowPath("1234567890123456789012.5", "2018-07-17T09:59:51.312Z");
+        verifySameAsSlowPath("1E+3", "2018-07-17T09:59:51.312Z");
+        verifySameAsSlowPath("+.5", "2018-07-17T09:59:51.312Z");
+    }
+
+    @Test
+    public void shouldAcceptUnquotedAmountsAnyOrderAndWhitespace() {
+        Transaction transaction = parse(" {\n \"timestamp\" : \"2018-07-17T09:59:51.312Z\" ,\t\"amount\": 10.5 } ");
+        assertEquals("10.5", transaction.getAmount().toString());
+        assertEquals(Instant.parse("2018-07-17T09:59:51.312Z"), transaction.getTimestamp());
+    }
+
+    @Test
+    public void shouldParseOptionalKey() {
+        Transaction transaction = parse("{\"key\":\"merchant-42\",\"amount\":\"10\","
+                                        + "\"timestamp\":\"2018-07-17T09:59:51.312Z\"}");
+        assertEquals("merchant-42", transaction.getKey());
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}").getKey());
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\",\"key\":\"a\\\"b\"}"));
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\",\"key\":null}"));
+    }
+
+    @Test
+    public void shouldParseOptionalCard() {
+        Transaction transaction = parse("{\"amount\":\"10\",\"card\":\"4111-0042\",\"key\":\"merchant-42\","
+                                        + "\"timestamp\":\"2018-07-17T09:59:51.312Z\"}");
+        assertEquals("4111-0042", transaction.getCard());
+        assertEquals("merchant-42", transaction.getKey());
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}").getCard());
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\",\"card\":1}"));
+    }
+
+    @Test
+    public void shouldFallBackOnNonCanonicalBodies() {
+        assertNull(parse("{\"amount\":\"10\"}"));
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\",\"other\":1}"));
+        assertNull(parse("{\"amount\":\"1\\u0030\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}"));
+        assertNull(parse("{\"amount\":null,\"timestamp\":\"2018-07-17T09:59:51.312Z\"}"));
+        assertNull(parse("[]"));
+        assertNull(parse("{\"amount\":\"10\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"} trailing"));
+    }
+
+    @Test
+    public void shouldRejectUnparseableAmount() {
+        exceptionRule.expect(TransactionProcessingException.class);
+        exceptionRule.expect(BusinessExceptionMatcher.hasCode(422));
+
+        parse("{\"amount\":\"ten\",\"timestamp\":\"2018-07-17T09:59:51.312Z\"}");
+    }
+
+    @Test
+    public void shouldRejectUnparseableTimestamp() {
+        exceptionRule.expect(TransactionProcessingException.class);
+        exceptionRule.expect(BusinessExceptionMatcher.hasCode(422));
+
+        parse("{\"amount\":\"10\",\"timestamp\":\"2018-02-30T09:59:51.312Z\"}");
+    }
+
+    private void verifySameAsSlowPath(String amount, String timestamp) {
+        Transaction expected = TransactionParser.transform(new TransactionDto(amount, timestamp));
+        Transaction actual = parse("{\"amount\":\"" + amount + "\",\"timestamp\":\"" + timestamp + "\"}");
+
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.isCompact(), actual.isCompact());
+        assertEquals(expected.getUnscaled(), actual.getUnscaled());
+        assertEquals(expected.getScale(), actual.getScale());
+    }
+
+    private Transaction parse(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return TransactionParser.parse(bytes, bytes.length);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mycompany.transactions.converter;
+
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.WindowState;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class WindowStateCodecTest {
+
+    @Test
+    public void shouldRoundTripUnroundedBuckets() throws IOException {
+        WindowState windowState = new WindowState(1_000, Arrays.asList(
+                new BucketStatistics(1_531_821_591L, 1_531_821_591_312L, 3, new BigDecimal("10.345"),
+                                     new BigDecimal("-1E+3"), new BigDecimal("123456789012345678901234567890.5")),
+                new BucketStatistics(1_531_821_592L, 1_531_821_592_001L, 1, BigDecimal.ZERO, BigDecimal.ZERO,
+                                     BigDecimal.ZERO)));
+
+        WindowState decoded = WindowStateCodec.decode(WindowStateCodec.encode(windowState));
+
+        assertEquals(windowState.toString(), decoded.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherPayloads() throws IOException {
+        WindowStateCodec.decode("{\"count\":0}".getBytes("UTF-8"));
+    }
+}
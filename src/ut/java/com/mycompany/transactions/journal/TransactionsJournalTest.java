@@ -0,0 +1,199 @@
+package com.mycompany.transactions.journal;
+
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionsJournalTest {
+
+    private static final SlidingWindow window = new SlidingWindow(1_000, 100);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreWindowFromSnapshotAndLogTail() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        TransactionsManager before = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        TransactionsJournal journal = open(before, directory);
+        Random random = new Random(42);
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 150; i++) {
+            Transaction transaction = new Transaction(BigDecimal.valueOf(random.nextInt(100_000) - 50_000, 3),
+                                                      now.minusMillis(random.nextInt(500)));
+            before.createTransaction(transaction);
+            journal.append(transaction);
+            if (i == 100) {
+                journal.compact();
+            }
+        }
+        journal.close();
+
+        assertEquals(1, files(directory, JournalSnapshot.SUFFIX).size());
+
+        TransactionsManager after = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        open(after, directory).close();
+
+        SummaryStatistics expected = before.getTransactionStatistics();
+        SummaryStatistics actual = after.getTransactionStatistics();
+        assertEquals(150, actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+
+    @Test
+    public void shouldStopReplayAtTornRecord() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        TransactionsJournal journal = open(new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window), directory);
+        for (int i = 0; i < 3; i++) {
+            journal.append(new Transaction(BigDecimal.ONE, Instant.now()));
+        }
+        journal.close();
+
+        //a record of 1 is 21 bytes: length, timestamp, scale, one unscaled byte and CRC, flip the CRC of the third one
+        Path segment = files(directory, JournalSegment.SUFFIX).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer crc = ByteBuffer.allocate(1);
+            channel.read(crc, 2 * 21 + 17);
+            crc.put(0, (byte) ~crc.get(0)).rewind();
+            channel.write(crc, 2 * 21 + 17);
+        }
+
+        TransactionsManager after = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        open(after, directory).close();
+        assertEquals(2, after.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldTruncateTransactionsOutOfTheWindow() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        TransactionsJournal journal = open(new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window), directory);
+
+        journal.append(new Transaction(BigDecimal.ONE, Instant.now().minusMillis(900)));
+        journal.compact();
+        Thread.sleep(200);
+        journal.append(new Transaction(BigDecimal.TEN, Instant.now()));
+        journal.compact();
+        journal.close();
+
+        //the folded segments are gone, only the current one and the latest snapshot are left
+        assertEquals(1, files(directory, JournalSegment.SUFFIX).size());
+        List<Path> snapshots = files(directory, JournalSnapshot.SUFFIX);
+        assertEquals(1, snapshots.size());
+        assertEquals(1, JournalSnapshot.read(snapshots.get(0)).getBuckets().size());
+    }
+
+    @Test
+    public void shouldDeleteJournalOnReset() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        TransactionsJournal journal = open(new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window), directory);
+        journal.append(new Transaction(BigDecimal.ONE, Instant.now()));
+        journal.compact();
+        journal.append(new Transaction(BigDecimal.ONE, Instant.now()));
+        journal.reset();
+        journal.close();
+
+        TransactionsManager after = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        open(after, directory).close();
+        assertEquals(0, after.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldSkipAmountsTooLargeToJournal() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        TransactionsJournal journal = open(new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window), directory);
+        journal.append(new Transaction(BigDecimal.TEN.pow(400), Instant.now()));
+        journal.append(new Transaction(BigDecimal.ONE, Instant.now()));
+        journal.close();
+
+        TransactionsManager after = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        open(after, directory).close();
+        assertEquals(1, after.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldWaitForWriterOnFullRing() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        TransactionsManager before = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        TransactionsJournal journal = new TransactionsJournal(before, window, directory, 64 * 1024, 16, 60_000,
+                                                              60_000, Clock.systemUTC());
+        journal.recover();
+        for (int i = 0; i < 5_000; i++) {
+            journal.append(new Transaction(BigDecimal.ONE, Instant.now()));
+        }
+        journal.close();
+
+        TransactionsManager after = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        open(after, directory).close();
+        assertEquals(5_000, after.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldRefuseToWaitOnFullRing() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        TransactionsManager before = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        TransactionsJournal journal = new TransactionsJournal(before, window, directory, 64 * 1024, 16, 60_000,
+                                                              60_000, Clock.systemUTC());
+        journal.recover();
+        //the writer sleeps until its next sync, a minute away, unless woken up by a full ring
+        for (int i = 0; i < 16; i++) {
+            assertTrue(journal.tryAppend(new Transaction(BigDecimal.ONE, Instant.now())));
+        }
+        assertFalse(journal.tryAppend(new Transaction(BigDecimal.ONE, Instant.now())));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!journal.tryAppend(new Transaction(BigDecimal.ONE, Instant.now()))) {
+            assertTrue("writer never drained the ring", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        journal.close();
+
+        TransactionsManager after = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        open(after, directory).close();
+        assertEquals(17, after.getTransactionStatistics().getCount());
+    }
+
+    /**
+     * Opens a journal whose background tasks don't run during a test.
+     */
+    private static TransactionsJournal open(TransactionsManager transactionsManager, Path directory)
+            throws IOException {
+        TransactionsJournal journal = new TransactionsJournal(transactionsManager, window, directory, 64 * 1024,
+                                                              60_000, 60_000);
+        journal.recover();
+        return journal;
+    }
+
+    private static List<Path> files(Path directory, String suffix) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.toString().endsWith(suffix)).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mycompany.transactions.loadtest;
+
+import com.mycompany.Application;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LoadTestTest {
+
+    private static ConfigurableApplicationContext context;
+    private static String                         url;
+
+    @BeforeClass
+    public static void startApplication() {
+        context = Application.run("--server.port=0", "--transactions.audit.enabled=false");
+        url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterClass
+    public static void stopApplication() {
+        context.close();
+    }
+
+    @Test
+    public void shouldMatchStatisticsToAcceptedTransactionsInClosedModel() throws Exception {
+        LoadTest.Report report = LoadTest.run(options(LoadTest.Model.CLOSED));
+
+        assertTrue(report.getFailedChecks().toString(), report.isPassed());
+        assertTrue(report.getWrites().getTotalCount() > 0);
+        assertTrue(report.getReads().getTotalCount() > 0);
+        assertEquals(report.getMinCount(), report.getCount());
+        //corrected latencies are never better than the measured ones
+        assertTrue(report.getWrites().getValueAtPercentile(99) >= report.getUncorrected().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void shouldSendAtConstantRateInOpenModel() throws Exception {
+        LoadTest.Options options = options(LoadTest.Model.OPEN);
+        options.setRate(200);
+
+        LoadTest.Report report = LoadTest.run(options);
+
+        assertTrue(report.getFailedChecks().toString(), report.isPassed());
+        //every request due during the second measured is sent, however late
+        long sent = report.getSent().values().stream().mapToLong(Long::longValue).sum();
+        assertTrue(String.valueOf(sent), sent >= 199 && sent <= 201);
+    }
+
+    @Test
+    public void shouldFailGateOnLatency() throws Exception {
+        LoadTest.Options options = options(LoadTest.Model.CLOSED);
+        options.setMaxP99Micros(1);
+
+        assertTrue(!LoadTest.run(options).isPassed());
+    }
+
+    @Test
+    public void shouldNotCheckStatisticsOfTargetNotReset() throws Exception {
+        LoadTest.Options options = options(LoadTest.Model.CLOSED);
+        options.setReset(false);
+
+        LoadTest.Report report = LoadTest.run(options);
+
+        assertTrue(report.getFailedChecks().toString(), report.isPassed());
+        assertFalse(report.isVerified());
+        assertNull(report.getSum());
+    }
+
+    private static LoadTest.Options options(LoadTest.Model model) {
+        LoadTest.Options options = new LoadTest.Options();
+        options.setUrl(url);
+        options.setReset(true);
+        options.setModel(model);
+        options.setConnections(4);
+        options.setReaders(1);
+        options.setWarmupMillis(500);
+        options.setDurationMillis(1_000);
+        return options;
+    }
+}
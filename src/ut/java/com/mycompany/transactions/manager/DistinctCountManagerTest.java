@@ -0,0 +1,84 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.model.HyperLogLog;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static com.mycompany.transactions.manager.DistinctCountManager.Dimension.CARD;
+import static com.mycompany.transactions.manager.DistinctCountManager.Dimension.KEY;
+import static org.junit.Assert.assertEquals;
+
+public class DistinctCountManagerTest {
+
+    private DistinctCountManager testee = new DistinctCountManagerImpl();
+
+    @Test
+    public void shouldMergeBucketsOfWindow() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 100; i++) {
+            //10 merchants, and 50 cards each seen in two buckets
+            testee.createTransaction(new Transaction(BigDecimal.ONE, now.minusMillis(i * 500L), "m" + i % 10,
+                                                     "c" + i % 50));
+        }
+
+        assertEquals(50, testee.getDistinctSketch(CARD).getEstimate(), 1);
+        assertEquals(10, testee.getDistinctSketch(KEY).getEstimate(), 1);
+    }
+
+    @Test
+    public void shouldIgnoreTransactionsWithoutIdentifiers() {
+        Instant now = Instant.now();
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now));
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now, "m1"));
+
+        assertEquals(0, testee.getDistinctSketch(CARD).getEstimate());
+        assertEquals(1, testee.getDistinctSketch(KEY).getEstimate());
+    }
+
+    @Test
+    public void shouldIgnoreExpiredBuckets() {
+        Instant now = Instant.now();
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now.minusMillis(59_990), null, "c1"));
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now, null, "c2"));
+
+        sleep(20);
+        assertEquals(1, testee.getDistinctSketch(CARD).getEstimate());
+    }
+
+    @Test
+    public void shouldExpireBucketsOnTheInjectedClock() {
+        Instant now = Instant.parse("2018-07-17T09:59:51.312Z");
+        VirtualClock clock = new VirtualClock(now);
+        DistinctCountManager virtual = new DistinctCountManagerImpl(SlidingWindow.DEFAULT,
+                                                                    HyperLogLog.DEFAULT_PRECISION, clock);
+        virtual.createTransaction(new Transaction(BigDecimal.ONE, now.minusMillis(30_000), null, "c1"));
+        virtual.createTransaction(new Transaction(BigDecimal.ONE, now, null, "c2"));
+        assertEquals(2, virtual.getDistinctSketch(CARD).getEstimate());
+
+        clock.advance(30_001);
+        assertEquals(1, virtual.getDistinctSketch(CARD).getEstimate());
+    }
+
+    @Test
+    public void shouldReset() {
+        testee.createTransaction(new Transaction(BigDecimal.ONE, Instant.now(), "m1", "c1"));
+        testee.resetAll();
+
+        assertEquals(0, testee.getDistinctSketch(CARD).getEstimate());
+        assertEquals(0, testee.getDistinctSketch(KEY).getEstimate());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
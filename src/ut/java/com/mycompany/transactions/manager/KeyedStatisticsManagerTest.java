@@ -0,0 +1,151 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.model.KeyedStatistics;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeyedStatisticsManagerTest {
+
+    private KeyedStatisticsManager testee = new KeyedStatisticsManagerImpl(SlidingWindow.DEFAULT, 3, 1);
+
+    @Test
+    public void shouldKeepStatisticsPerKey() {
+        Instant now = Instant.now();
+        testee.createTransaction(new Transaction(new BigDecimal("10.50"), now, "a"));
+        testee.createTransaction(new Transaction(new BigDecimal("2"), now.minusSeconds(30), "a"));
+        testee.createTransaction(new Transaction(new BigDecimal("7.25"), now, "b"));
+        testee.createTransaction(new Transaction(new BigDecimal("100"), now, null));
+
+        SummaryStatistics a = testee.getTransactionStatistics("a");
+        assertEquals(2, a.getCount());
+        assertEquals("12.50", a.getSum().toString());
+        assertEquals("6.25", a.getAvg().toString());
+        assertEquals("2.00", a.getMin().toString());
+        assertEquals("10.50", a.getMax().toString());
+
+        assertEquals("7.25", testee.getTransactionStatistics("b").getSum().toString());
+        assertEquals(0, testee.getTransactionStatistics("unknown").getCount());
+    }
+
+    @Test
+    public void shouldExpireWindowsOnTheInjectedClock() {
+        Instant now = Instant.parse("2018-07-17T09:59:51.312Z");
+        VirtualClock clock = new VirtualClock(now);
+        KeyedStatisticsManager virtual = new KeyedStatisticsManagerImpl(SlidingWindow.DEFAULT, 3, 1, clock);
+        virtual.createTransaction(new Transaction(BigDecimal.ONE, now.minusSeconds(30), "a"));
+        virtual.createTransaction(new Transaction(BigDecimal.TEN, now, "a"));
+        assertEquals(2, virtual.getTransactionStatistics("a").getCount());
+
+        clock.advance(30_001);
+        assertEquals("10.00", virtual.getTransactionStatistics("a").getSum().toString());
+        clock.advance(30_000);
+        assertEquals(0, virtual.getTopKeysBySum(10).size());
+    }
+
+    @Test
+    public void shouldSumSubCentAmountsLikeGlobalStatistics() {
+        Instant now = Instant.now();
+        TransactionsManager global = new TransactionsManagerImpl();
+        for (String amount : new String[]{"10.345", "10.345", "1.50", "0.001"}) {
+            Transaction transaction = new Transaction(new BigDecimal(amount), now, "a");
+            global.createTransaction(transaction);
+            testee.createTransaction(transaction);
+        }
+
+        SummaryStatistics expected = global.getTransactionStatistics();
+        SummaryStatistics actual = testee.getTransactionStatistics("a");
+        assertEquals("22.19", actual.getSum().toString());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getAvg(), actual.getAvg());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+
+    @Test
+    public void shouldKeepAmountsBeyondLongCents() {
+        Instant now = Instant.now();
+        testee.createTransaction(new Transaction(new BigDecimal("90000000000000000"), now, "a"));
+        testee.createTransaction(new Transaction(new BigDecimal("90000000000000000"), now, "a"));
+        testee.createTransaction(new Transaction(new BigDecimal("1E+30"), now, "b"));
+
+        assertEquals(2, testee.getTransactionStatistics("a").getCount());
+        assertEquals("180000000000000000.00", testee.getTransactionStatistics("a").getSum().toString());
+        assertEquals(1, testee.getTransactionStatistics("b").getCount());
+        assertEquals(0, new BigDecimal("1E+30").compareTo(testee.getTransactionStatistics("b").getMax()));
+        assertEquals("b", testee.getTopKeysBySum(1).get(0).getKey());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedKeysPastCap() {
+        Instant now = Instant.now();
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now, "a"));
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now, "b"));
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now, "c"));
+        testee.getTransactionStatistics("a");
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now, "d"));
+
+        assertEquals(1, testee.getTransactionStatistics("a").getCount());
+        assertEquals(0, testee.getTransactionStatistics("b").getCount());
+        assertEquals(1, testee.getTransactionStatistics("c").getCount());
+        assertEquals(1, testee.getTransactionStatistics("d").getCount());
+    }
+
+    @Test
+    public void shouldEvictIdleKeys() {
+        KeyedStatisticsManager uncapped = new KeyedStatisticsManagerImpl(SlidingWindow.DEFAULT, 100, 1);
+        Instant now = Instant.now();
+        uncapped.createTransaction(new Transaction(BigDecimal.ONE, now.minusMillis(59_990), "idle"));
+        uncapped.createTransaction(new Transaction(BigDecimal.ONE, now, "b"));
+        uncapped.createTransaction(new Transaction(BigDecimal.ONE, now, "c"));
+
+        sleep(20);
+        uncapped.createTransaction(new Transaction(BigDecimal.ONE, now, "d"));
+
+        assertEquals(0, uncapped.getTransactionStatistics("idle").getCount());
+        assertEquals(3, uncapped.getTopKeysBySum(10).size());
+    }
+
+    @Test
+    public void shouldReturnTopKeysBySum() {
+        KeyedStatisticsManager large = new KeyedStatisticsManagerImpl(SlidingWindow.DEFAULT, 1_000, 4);
+        Instant now = Instant.now();
+        for (int i = 0; i < 100; i++) {
+            large.createTransaction(new Transaction(BigDecimal.valueOf(i), now, "key-" + i));
+        }
+        large.createTransaction(new Transaction(BigDecimal.valueOf(50), now, "key-50"));
+
+        List<KeyedStatistics> top = large.getTopKeysBySum(3);
+        assertEquals(3, top.size());
+        assertEquals("key-50", top.get(0).getKey());
+        assertEquals("100.00", top.get(0).getStatistics().getSum().toString());
+        assertEquals("key-99", top.get(1).getKey());
+        assertEquals("key-98", top.get(2).getKey());
+    }
+
+    @Test
+    public void shouldResetAllKeys() {
+        testee.createTransaction(new Transaction(BigDecimal.ONE, Instant.now(), "a"));
+        testee.resetAll();
+
+        assertEquals(0, testee.getTransactionStatistics("a").getCount());
+        assertEquals(0, testee.getTopKeysBySum(10).size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.common.BusinessExceptionMatcher;
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class LockFreeTransactionsManagerTest {
+
+    private static final int THREADS                 = 32;
+    private static final int TRANSACTIONS_PER_THREAD = 5_000;
+
+    @Rule
+    public  ExpectedException   exceptionRule = ExpectedException.none();
+    private TransactionsManager testee        = new LockFreeTransactionsManager();
+    private TransactionsManager reference     = new TransactionsManagerImpl();
+
+    @Before
+    public void before() {
+        testee.resetAll();
+        reference.resetAll();
+    }
+
+    @Test
+    public void shouldHaveValidEntryState() {
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldRejectOldTransactions() {
+        exceptionRule.expect(TransactionProcessingException.class);
+        exceptionRule.expect(BusinessExceptionMatcher.hasCode(204));
+
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now().minusSeconds(60)));
+    }
+
+    @Test
+    public void shouldRejectTransactionsInFuture() {
+        exceptionRule.expect(TransactionProcessingException.class);
+        exceptionRule.expect(BusinessExceptionMatcher.hasCode(422));
+
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    public void shouldResetAllTransactions() {
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now()));
+        testee.resetAll();
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldMatchSynchronizedManagerUnderSameSecondContention() throws InterruptedException {
+        stress(0);
+    }
+
+    @Test
+    public void shouldMatchSynchronizedManagerUnderSpreadOutTimestamps() throws InterruptedException {
+        stress(5_000);
+    }
+
+    @Test
+    public void shouldExpireWholeBucketsAcrossStripes() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(Instant.parse("2018-07-17T09:59:51Z"));
+        testee = new LockFreeTransactionsManager(StatisticsType.SCALED_LONG, SlidingWindow.DEFAULT, 2, clock);
+        reference = new TransactionsManagerImpl(StatisticsType.SCALED_LONG, SlidingWindow.DEFAULT, clock);
+        Instant bucketStart = clock.instant();
+        clock.advance(1_000);
+
+        //consecutive threads have ids of different parities, so land in different stripes of the bucket
+        Thread early = new Thread(() -> testee.createTransaction(new Transaction(BigDecimal.ONE,
+                                                                                 bucketStart.plusMillis(100))));
+        Thread late = new Thread(() -> testee.createTransaction(new Transaction(BigDecimal.TEN,
+                                                                                bucketStart.plusMillis(900))));
+        early.start();
+        early.join();
+        late.start();
+        late.join();
+        reference.createTransaction(new Transaction(BigDecimal.ONE, bucketStart.plusMillis(100)));
+        reference.createTransaction(new Transaction(BigDecimal.TEN, bucketStart.plusMillis(900)));
+
+        //the early stripe is out of the window on its own, the bucket isn't
+        clock.setMillis(bucketStart.toEpochMilli() + 60_500);
+        assertEquals(2, testee.getTransactionStatistics().getCount());
+        assertEquals(1, testee.exportBuckets().size());
+        assertEquals(2, testee.exportBuckets().get(0).getCount());
+        verifySameStatistics();
+
+        clock.setMillis(bucketStart.toEpochMilli() + 60_900);
+        assertEquals(0, testee.getTransactionStatistics().getCount());
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldMatchSynchronizedManagerForBatches() throws InterruptedException, ExecutionException {
+        Instant now = Instant.now();
+        List<Callable<Void>> callables = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            callables.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Transaction> batch = new ArrayList<>();
+                for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                    batch.add(new Transaction(BigDecimal.valueOf(random.nextLong(-1_000_000, 1_000_000), 2),
+                                              now.minusMillis(random.nextInt(5_000))));
+                }
+                assertEquals(testee.createTransactions(batch), reference.createTransactions(batch));
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(callables)) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertEquals(THREADS * TRANSACTIONS_PER_THREAD, testee.getTransactionStatistics().getCount());
+        verifySameStatistics();
+    }
+
+    private void stress(int maxAgeMillis) throws InterruptedException {
+        Instant now = Instant.now();
+        List<Callable<Void>> callables = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            callables.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                    Transaction transaction = new Transaction(
+                            BigDecimal.valueOf(random.nextLong(-1_000_000, 1_000_000), random.nextInt(0, 4)),
+                            now.minusMillis(maxAgeMillis == 0 ? 0 : random.nextInt(maxAgeMillis)));
+                    testee.createTransaction(transaction);
+                    reference.createTransaction(transaction);
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            executor.invokeAll(callables);
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertEquals(THREADS * TRANSACTIONS_PER_THREAD, testee.getTransactionStatistics().getCount());
+        verifySameStatistics();
+    }
+
+    private void verifySameStatistics() {
+        SummaryStatistics expected = reference.getTransactionStatistics();
+        SummaryStatistics actual = testee.getTransactionStatistics();
+
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getAvg(), actual.getAvg());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+}
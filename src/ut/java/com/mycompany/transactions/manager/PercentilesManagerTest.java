@@ -0,0 +1,72 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.model.QuantileSketch;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class PercentilesManagerTest {
+
+    private PercentilesManager testee = new PercentilesManagerImpl();
+
+    @Test
+    public void shouldMergeBucketsOfWindow() {
+        Instant now = Instant.now();
+        for (int i = 1; i <= 100; i++) {
+            testee.createTransaction(new Transaction(BigDecimal.valueOf(i), now.minusMillis(i * 500L)));
+        }
+
+        QuantileSketch sketch = testee.getTransactionSketch();
+        assertEquals(100, sketch.getCount());
+        assertEquals("1.00", sketch.getQuantile(0).toString());
+        assertEquals("100.00", sketch.getQuantile(1).toString());
+    }
+
+    @Test
+    public void shouldIgnoreExpiredBuckets() {
+        Instant now = Instant.now();
+        testee.createTransaction(new Transaction(BigDecimal.ONE, now.minusMillis(59_990)));
+        testee.createTransaction(new Transaction(BigDecimal.TEN, now));
+
+        sleep(20);
+        assertEquals(1, testee.getTransactionSketch().getCount());
+        assertEquals("10.00", testee.getTransactionSketch().getQuantile(0.5).toString());
+    }
+
+    @Test
+    public void shouldExpireBucketsOnTheInjectedClock() {
+        Instant now = Instant.parse("2018-07-17T09:59:51.312Z");
+        VirtualClock clock = new VirtualClock(now);
+        PercentilesManager virtual = new PercentilesManagerImpl(SlidingWindow.DEFAULT,
+                                                                QuantileSketch.DEFAULT_RELATIVE_ACCURACY, clock);
+        virtual.createTransaction(new Transaction(BigDecimal.ONE, now.minusSeconds(30)));
+        virtual.createTransaction(new Transaction(BigDecimal.TEN, now));
+        assertEquals(2, virtual.getTransactionSketch().getCount());
+
+        clock.advance(30_001);
+        assertEquals(1, virtual.getTransactionSketch().getCount());
+    }
+
+    @Test
+    public void shouldReset() {
+        testee.createTransaction(new Transaction(BigDecimal.ONE, Instant.now()));
+        testee.resetAll();
+
+        assertEquals(0, testee.getTransactionSketch().getCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
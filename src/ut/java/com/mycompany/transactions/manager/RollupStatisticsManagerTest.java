@@ -0,0 +1,133 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RollupStatisticsManagerTest {
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2018-07-17T09:59:51.312Z"));
+
+    private TransactionsManager     engine = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL,
+                                                                         SlidingWindow.DEFAULT, clock);
+    private RollupStatisticsManager testee = new RollupStatisticsManagerImpl(engine, clock);
+
+    @Test
+    public void shouldRollUpWithinTheCoarsestBucketWidth() {
+        //a transaction every 7 seconds for 26 hours
+        List<Long> timestamps = new ArrayList<>();
+        for (int i = 0; i < 26 * 3600 / 7; i++) {
+            clock.advance(7_000);
+            timestamps.add(clock.millis());
+            engine.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        }
+
+        assertWithin(timestamps, TimeUnit.MINUTES.toMillis(1), 0);
+        assertWithin(timestamps, TimeUnit.MINUTES.toMillis(15), 60_000);
+        assertWithin(timestamps, TimeUnit.HOURS.toMillis(1), 60_000);
+        assertWithin(timestamps, TimeUnit.HOURS.toMillis(24), 3_600_000);
+    }
+
+    @Test
+    public void shouldAgreeWithTheEngineWithinItsWindow() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            clock.advance(random.nextInt(100));
+            engine.createTransaction(new Transaction(BigDecimal.valueOf(random.nextInt(10_000), 2),
+                                                     clock.instant().minusMillis(random.nextInt(60_000))));
+            if (i % 100 == 0) {
+                SummaryStatistics expected = engine.getTransactionStatistics();
+                SummaryStatistics actual = testee.getTransactionStatistics(TimeUnit.MINUTES.toMillis(1));
+                assertEquals(expected.getCount(), actual.getCount());
+                assertEquals(expected.getSum(), actual.getSum());
+                assertEquals(expected.getMin(), actual.getMin());
+                assertEquals(expected.getMax(), actual.getMax());
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadBucketsTheEngineDidNotRecycleYet() {
+        engine.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        clock.advance(TimeUnit.HOURS.toMillis(2));
+        engine.createTransaction(new Transaction(BigDecimal.TEN, clock.instant()));
+
+        assertEquals(1, testee.getTransactionStatistics(TimeUnit.MINUTES.toMillis(1)).getCount());
+        assertEquals(2, testee.getTransactionStatistics(TimeUnit.HOURS.toMillis(3)).getCount());
+
+        //a transaction in every slot of the engine's ring folds the first one, late, into its hour
+        for (int i = 0; i < SlidingWindow.DEFAULT.getBucketCount(); i++) {
+            clock.advance(1_000);
+            engine.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        }
+        assertEquals(60, testee.getTransactionStatistics(TimeUnit.MINUTES.toMillis(1)).getCount());
+        SummaryStatistics statistics = testee.getTransactionStatistics(TimeUnit.HOURS.toMillis(3));
+        assertEquals(2 + SlidingWindow.DEFAULT.getBucketCount(), statistics.getCount());
+        assertEquals("75.00", statistics.getSum().toString());
+    }
+
+    @Test
+    public void shouldDropBucketsOlderThanTheMaxHorizon() {
+        engine.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        clock.advance(TimeUnit.HOURS.toMillis(26));
+        for (int i = 0; i < SlidingWindow.DEFAULT.getBucketCount(); i++) {
+            clock.advance(1_000);
+            engine.createTransaction(new Transaction(BigDecimal.TEN, clock.instant()));
+        }
+
+        SummaryStatistics statistics = testee.getTransactionStatistics(RollupStatisticsManager.MAX_HORIZON_MILLIS);
+        assertEquals(SlidingWindow.DEFAULT.getBucketCount(), statistics.getCount());
+        assertEquals("10.00", statistics.getMin().toString());
+    }
+
+    @Test
+    public void shouldReset() {
+        engine.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        clock.advance(TimeUnit.MINUTES.toMillis(5));
+        for (int i = 0; i < SlidingWindow.DEFAULT.getBucketCount(); i++) {
+            clock.advance(1_000);
+            engine.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        }
+        engine.resetAll();
+        testee.resetAll();
+
+        assertEquals(0, testee.getTransactionStatistics(TimeUnit.HOURS.toMillis(1)).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectHorizonOverMax() {
+        testee.getTransactionStatistics(RollupStatisticsManager.MAX_HORIZON_MILLIS + 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRefuseEnginesNotRecyclingBuckets() {
+        new RollupStatisticsManagerImpl(new LockFreeTransactionsManager(SlidingWindow.DEFAULT, 4, clock), clock);
+    }
+
+    /**
+     * The rolled up count lies between the transactions of the horizon and those of the horizon plus a bucket width,
+     * which is none within the engine's window.
+     */
+    private void assertWithin(List<Long> timestamps, long horizonMillis, long bucketWidthMillis) {
+        long now = clock.millis();
+        long exact = timestamps.stream().filter(timestamp -> timestamp > now - horizonMillis).count();
+        long widened = timestamps.stream().filter(timestamp -> timestamp > now - horizonMillis - bucketWidthMillis)
+                                 .count();
+        long count = testee.getTransactionStatistics(horizonMillis).getCount();
+        assertTrue(horizonMillis + " ms: " + count + " not within [" + exact + ", " + widened + "]",
+                   count >= exact && count <= widened);
+    }
+}
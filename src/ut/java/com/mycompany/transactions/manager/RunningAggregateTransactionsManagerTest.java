@@ -0,0 +1,150 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class RunningAggregateTransactionsManagerTest {
+
+    private static final SlidingWindow window = new SlidingWindow(1_000, 100);
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2018-07-17T09:59:51.312Z"));
+
+    private RunningAggregateTransactionsManager testee    = new RunningAggregateTransactionsManager(window, clock);
+    private TransactionsManager                 reference = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL,
+                                                                                        window, clock);
+
+    @Before
+    public void before() {
+        testee.resetAll();
+        reference.resetAll();
+    }
+
+    @After
+    public void after() {
+        testee.shutdown();
+    }
+
+    @Test
+    public void shouldHaveValidEntryState() {
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldMatchScanWhileBucketsExpire() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 30; round++) {
+            Instant now = clock.instant();
+            for (int i = 0; i < 20; i++) {
+                Transaction transaction = new Transaction(BigDecimal.valueOf(random.nextInt(100_000) - 50_000, 2),
+                                                          now.minusMillis(random.nextInt(900)));
+                testee.createTransaction(transaction);
+                reference.createTransaction(transaction);
+            }
+            verifySameStatistics();
+            //reads alone, on the very millisecond buckets expire
+            for (int i = random.nextInt(150); i > 0; i--) {
+                clock.advance(1);
+                verifySameStatistics();
+            }
+        }
+
+        clock.advance(1_000);
+        verifySameStatistics();
+        assertEquals(0, testee.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldRecomputeExtremesWhenExtremeBucketExpires() {
+        Instant now = clock.instant();
+
+        testee.createTransactions(Arrays.asList(new Transaction(BigDecimal.valueOf(1), now.minusMillis(850)),
+                                                new Transaction(BigDecimal.valueOf(1000), now.minusMillis(850)),
+                                                new Transaction(BigDecimal.valueOf(50), now),
+                                                new Transaction(BigDecimal.valueOf(60), now)));
+
+        assertEquals("1.00", testee.getTransactionStatistics().getMin().toString());
+        assertEquals("1000.00", testee.getTransactionStatistics().getMax().toString());
+
+        clock.advance(300);
+
+        SummaryStatistics statistics = testee.getTransactionStatistics();
+        assertEquals(2, statistics.getCount());
+        assertEquals("50.00", statistics.getMin().toString());
+        assertEquals("60.00", statistics.getMax().toString());
+        assertEquals("55.00", statistics.getAvg().toString());
+    }
+
+    @Test
+    public void shouldExpireWithoutWrites() {
+        testee.createTransaction(new Transaction(BigDecimal.ONE, clock.instant().minusMillis(900)));
+        clock.advance(99);
+        assertEquals(1, testee.getTransactionStatistics().getCount());
+
+        clock.advance(1);
+        assertEquals(0, testee.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldMatchScanUnderConcurrentReadsAndWrites() throws Exception {
+        Instant now = clock.instant();
+        List<Callable<Void>> callables = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            callables.add(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 2_000; i++) {
+                    Transaction transaction = new Transaction(BigDecimal.valueOf(random.nextInt(10_000), 2),
+                                                              now.minusMillis(random.nextInt(300)));
+                    testee.createTransaction(transaction);
+                    reference.createTransaction(transaction);
+                    testee.getTransactionStatistics();
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> future : executor.invokeAll(callables)) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        verifySameStatistics();
+    }
+
+    private void verifySameStatistics() {
+        SummaryStatistics expected = reference.getTransactionStatistics();
+        SummaryStatistics actual = testee.getTransactionStatistics();
+
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getAvg(), actual.getAvg());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+}
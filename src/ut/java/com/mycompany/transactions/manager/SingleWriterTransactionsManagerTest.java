@@ -0,0 +1,130 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.transactions.manager.SingleWriterTransactionsManager.AckMode;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SingleWriterTransactionsManagerTest {
+
+    private static final int THREADS                 = 32;
+    private static final int TRANSACTIONS_PER_THREAD = 5_000;
+
+    private SingleWriterTransactionsManager testee;
+
+    @After
+    public void after() {
+        testee.shutdown();
+    }
+
+    @Test
+    public void shouldSeeOwnWriteWhenAcknowledgedOnApply() {
+        testee = new SingleWriterTransactionsManager(SlidingWindow.DEFAULT, AckMode.APPLY, 65_536);
+
+        assertNull(testee.tryCreateTransaction(new Transaction(new BigDecimal("12.30"), Instant.now())));
+
+        SummaryStatistics statistics = testee.getTransactionStatistics();
+        assertEquals(1, statistics.getCount());
+        assertEquals("12.30", statistics.getSum().toString());
+    }
+
+    @Test
+    public void shouldEventuallySeeWritesAcknowledgedOnEnqueue() throws InterruptedException {
+        testee = new SingleWriterTransactionsManager(SlidingWindow.DEFAULT, AckMode.ENQUEUE, 1_024);
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 100; i++) {
+            testee.createTransaction(new Transaction(BigDecimal.ONE, now));
+        }
+
+        for (int i = 0; i < 100 && testee.getTransactionStatistics().getCount() < 100; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(100, testee.getTransactionStatistics().getCount());
+        assertEquals("100.00", testee.getTransactionStatistics().getSum().toString());
+    }
+
+    @Test
+    public void shouldResetAfterPendingWrites() {
+        testee = new SingleWriterTransactionsManager(SlidingWindow.DEFAULT, AckMode.ENQUEUE, 1_024);
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 100; i++) {
+            testee.createTransaction(new Transaction(BigDecimal.ONE, now));
+        }
+        testee.resetAll();
+
+        assertEquals(0, testee.getTransactionStatistics().getCount());
+
+        testee.createTransactions(Arrays.asList(new Transaction(BigDecimal.ONE, now),
+                                                new Transaction(BigDecimal.TEN, now)));
+        testee.resetAll();
+        assertEquals(0, testee.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldMatchSynchronizedEngineUnderBackpressure() throws Exception {
+        //a ring much smaller than the writes keeps producers waiting for the writer
+        testee = new SingleWriterTransactionsManager(SlidingWindow.DEFAULT, AckMode.ENQUEUE, 64);
+        TransactionsManager reference = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, SlidingWindow.DEFAULT);
+        Instant now = Instant.now();
+        List<Callable<Void>> callables = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            callables.add(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                    Transaction transaction = new Transaction(BigDecimal.valueOf(random.nextInt(100_000) - 50_000, 2),
+                                                              now.minusMillis(random.nextInt(20_000)));
+                    testee.createTransaction(transaction);
+                    reference.createTransaction(transaction);
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(callables)) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        waitForWriter();
+
+        SummaryStatistics expected = reference.getTransactionStatistics();
+        SummaryStatistics actual = testee.getTransactionStatistics();
+        assertEquals(THREADS * TRANSACTIONS_PER_THREAD, actual.getCount());
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getAvg(), actual.getAvg());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+
+    private void waitForWriter() throws InterruptedException {
+        for (int i = 0; i < 500 && testee.getTransactionStatistics().getCount() < THREADS * TRANSACTIONS_PER_THREAD; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
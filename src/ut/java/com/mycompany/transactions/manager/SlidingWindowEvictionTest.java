@@ -0,0 +1,160 @@
+package com.mycompany.transactions.manager;
+
+import com.mycompany.common.BusinessExceptionMatcher;
+import com.mycompany.transactions.exception.TransactionProcessingException;
+import com.mycompany.transactions.manager.SingleWriterTransactionsManager.AckMode;
+import com.mycompany.transactions.model.BucketStatistics;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class SlidingWindowEvictionTest {
+
+    @Rule
+    public  ExpectedException   exceptionRule = ExpectedException.none();
+    private SlidingWindow       window;
+    private TransactionsManager testee;
+
+    public SlidingWindowEvictionTest(String engine, long lengthMillis, long bucketWidthMillis) {
+        window = new SlidingWindow(lengthMillis, bucketWidthMillis);
+        switch (engine) {
+            case "lock-free":
+                testee = new LockFreeTransactionsManager(window, 4);
+                break;
+            case "running-aggregate":
+                testee = new RunningAggregateTransactionsManager(window);
+                break;
+            case "single-writer":
+                testee = new SingleWriterTransactionsManager(window, AckMode.APPLY, 1_024);
+                break;
+            default:
+                testee = new TransactionsManagerImpl(StatisticsType.SCALED_LONG, window);
+        }
+    }
+
+    @Parameters(name = "{0} {1}ms/{2}ms")
+    public static Collection<Object[]> windows() {
+        return Arrays.asList(new Object[][]{
+                {"synchronized", 60_000, 1_000},
+                {"synchronized", 300_000, 100},
+                {"synchronized", 10_000, 1_000},
+                {"lock-free", 60_000, 1_000},
+                {"lock-free", 300_000, 100},
+                {"lock-free", 10_000, 1_000},
+                {"running-aggregate", 60_000, 1_000},
+                {"running-aggregate", 300_000, 100},
+                {"running-aggregate", 10_000, 1_000},
+                {"single-writer", 60_000, 1_000},
+                {"single-writer", 300_000, 100},
+                {"single-writer", 10_000, 1_000}
+        });
+    }
+
+    @After
+    public void after() {
+        if (testee instanceof SingleWriterTransactionsManager) {
+            ((SingleWriterTransactionsManager) testee).shutdown();
+        }
+        if (testee instanceof RunningAggregateTransactionsManager) {
+            ((RunningAggregateTransactionsManager) testee).shutdown();
+        }
+    }
+
+    @Test
+    public void shouldUsePowerOfTwoRingCoveringTheWindow() {
+        int bucketCount = window.getBucketCount();
+        assertEquals(0, bucketCount & (bucketCount - 1));
+        assertTrue(bucketCount > window.getLengthMillis() / window.getBucketWidthMillis());
+    }
+
+    @Test
+    public void shouldRejectTransactionsAtWindowEdge() {
+        exceptionRule.expect(TransactionProcessingException.class);
+        exceptionRule.expect(BusinessExceptionMatcher.hasCode(204));
+
+        testee.createTransaction(new Transaction(BigDecimal.ONE, Instant.now().minusMillis(window.getLengthMillis())));
+    }
+
+    @Test
+    public void shouldEvictTransactionsCrossingWindowEdge() throws InterruptedException {
+        Instant now = Instant.now();
+
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(100.5),
+                                                 now.minusMillis(window.getLengthMillis() - 150)));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), now));
+
+        assertEquals(2, testee.getTransactionStatistics().getCount());
+
+        Thread.sleep(300);
+
+        assertEquals(1, testee.getTransactionStatistics().getCount());
+        assertEquals("200.50", testee.getTransactionStatistics().getSum().toString());
+    }
+
+    @Test
+    public void shouldAccumulateEveryBucketOfTheWindow() {
+        Instant now = Instant.now();
+        long count = 0;
+
+        for (long age = 0; age < window.getLengthMillis() - 100; age += window.getBucketWidthMillis()) {
+            testee.createTransaction(new Transaction(BigDecimal.ONE, now.minusMillis(age)));
+            count++;
+        }
+
+        assertEquals(count, testee.getTransactionStatistics().getCount());
+    }
+
+    @Test
+    public void shouldImportLiveBucketsOnly() {
+        long now = System.currentTimeMillis();
+        long live = now - window.getBucketWidthMillis();
+        long expired = now - window.getLengthMillis() - window.getBucketWidthMillis();
+
+        testee.createTransaction(new Transaction(new BigDecimal("1.50"), Instant.ofEpochMilli(live)));
+        testee.importBuckets(Arrays.asList(
+                new BucketStatistics(window.bucketEpoch(live), live, 2, new BigDecimal("20.5"), BigDecimal.TEN,
+                                     new BigDecimal("10.5")),
+                new BucketStatistics(window.bucketEpoch(expired), expired, 5, new BigDecimal("500"),
+                                     new BigDecimal("100"), new BigDecimal("100"))));
+
+        assertEquals(3, testee.getTransactionStatistics().getCount());
+        assertEquals("22.00", testee.getTransactionStatistics().getSum().toString());
+        assertEquals("1.50", testee.getTransactionStatistics().getMin().toString());
+        assertEquals("10.50", testee.getTransactionStatistics().getMax().toString());
+    }
+
+    @Test
+    public void shouldExportBucketsImportingBackToSameStatistics() {
+        Instant now = Instant.now();
+        for (long age = 0; age < window.getLengthMillis() - 100; age += window.getBucketWidthMillis() / 2) {
+            testee.createTransaction(new Transaction(BigDecimal.valueOf(age % 1_000 + 0.125), now.minusMillis(age)));
+        }
+
+        TransactionsManager copy = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL, window);
+        copy.importBuckets(testee.exportBuckets());
+
+        SummaryStatistics expected = testee.getTransactionStatistics();
+        SummaryStatistics actual = copy.getTransactionStatistics();
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+}
@@ -1,8 +1,11 @@
 package com.mycompany.transactions.manager;
 
 import com.mycompany.common.BusinessExceptionMatcher;
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.exception.ProcessingError;
 import com.mycompany.transactions.exception.TransactionProcessingException;
-import com.mycompany.transactions.model.BigDecimalSummaryStatistics;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.SummaryStatistics;
 import com.mycompany.transactions.model.Transaction;
 
 import org.junit.Before;
@@ -13,6 +16,7 @@ import org.junit.rules.ExpectedException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -20,12 +24,17 @@ import java.util.concurrent.Executors;
 import static java.math.RoundingMode.HALF_UP;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class TransactionsManagerTest {
 
     @Rule
     public  ExpectedException   exceptionRule = ExpectedException.none();
-    private TransactionsManager testee        = new TransactionsManagerImpl();
+    //time only moves when a test moves it
+    private VirtualClock        clock         = new VirtualClock(Instant.parse("2018-07-17T09:59:51.312Z"));
+    private TransactionsManager testee        = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL,
+                                                                            SlidingWindow.DEFAULT, clock);
 
     @Before
     public void before() {
@@ -39,7 +48,7 @@ public class TransactionsManagerTest {
 
     @Test
     public void shouldAddValidTransactions() {
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now()));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant()));
         verifyTransaction(200, 200, 200, 200, 1);
     }
 
@@ -48,10 +57,10 @@ public class TransactionsManagerTest {
         exceptionRule.expect(TransactionProcessingException.class);
         exceptionRule.expect(BusinessExceptionMatcher.hasCode(204));
 
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now().minusSeconds(61)));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant().minusSeconds(61)));
         verifyTransaction(0, 0, 0, 0, 0);
 
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now().minusSeconds(60)));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant().minusSeconds(60)));
         verifyTransaction(0, 0, 0, 0, 0);
     }
 
@@ -60,16 +69,75 @@ public class TransactionsManagerTest {
         exceptionRule.expect(TransactionProcessingException.class);
         exceptionRule.expect(BusinessExceptionMatcher.hasCode(422));
 
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now().plusSeconds(1)));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant().plusSeconds(1)));
         verifyTransaction(0, 0, 0, 0, 0);
     }
 
+    @Test
+    public void shouldReturnRejectionsWithoutThrowing() {
+        assertEquals(ProcessingError.OLD_TRANSACTION,
+                     testee.tryCreateTransaction(new Transaction(BigDecimal.ONE, clock.instant().minusSeconds(60))));
+        assertEquals(ProcessingError.FUTURE_TRANSACTION,
+                     testee.tryCreateTransaction(new Transaction(BigDecimal.ONE, clock.instant().plusSeconds(1))));
+        assertNull(testee.tryCreateTransaction(new Transaction(BigDecimal.ONE, clock.instant())));
+        verifyTransaction(1, 1, 1, 1, 1);
+    }
+
+    @Test
+    public void shouldThrowSharedStacklessRejections() {
+        try {
+            testee.createTransaction(new Transaction(BigDecimal.ONE, clock.instant().minusSeconds(60)));
+        }
+        catch (TransactionProcessingException ex) {
+            assertSame(TransactionProcessingException.of(ProcessingError.OLD_TRANSACTION), ex);
+            assertEquals(0, ex.getStackTrace().length);
+            return;
+        }
+        throw new AssertionError("Old transaction accepted");
+    }
+
+    @Test
+    public void shouldKeepWindowBoundaryWhenRotatedAheadOfTime() {
+        TransactionsManagerImpl engine = (TransactionsManagerImpl) testee;
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant()));
+
+        //a ticker rotating every bucket width never clears a live bucket
+        for (int second = 0; second < 59; second++) {
+            clock.advance(1_000);
+            engine.rotate();
+            testee.createTransaction(new Transaction(BigDecimal.ONE, clock.instant()));
+        }
+        clock.advance(999);
+        verifyTransaction(259 / 60.0, 200, 1, 259, 60);
+
+        clock.advance(1);
+        verifyTransaction(1, 1, 1, 59, 59);
+    }
+
+    @Test
+    public void shouldLetWritersRecycleWhenRotationLags() {
+        TransactionsManagerImpl engine = (TransactionsManagerImpl) testee;
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant()));
+        engine.rotate();
+
+        //the ticker stalls for two windows, then rotates twice in a row
+        clock.advance(120_000);
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(3), clock.instant()));
+        engine.rotate();
+        engine.rotate();
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(5), clock.instant()));
+        clock.advance(1_000);
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(7), clock.instant()));
+
+        verifyTransaction(5, 7, 3, 15, 3);
+    }
+
     @Test
     public void shouldAccumulateMultipleTransactions() {
 
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), Instant.now()));
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(100.25), Instant.now()));
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(50.25), Instant.now()));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), clock.instant()));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(100.25), clock.instant()));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(50.25), clock.instant()));
 
         verifyTransaction(117, 200.5, 50.25, 351, 3);
     }
@@ -79,15 +147,15 @@ public class TransactionsManagerTest {
 
         parallelProcess(
                 () -> {
-                    testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), Instant.now()));
+                    testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), clock.instant()));
                     return null;
                 },
                 () -> {
-                    testee.createTransaction(new Transaction(BigDecimal.valueOf(100.25), Instant.now()));
+                    testee.createTransaction(new Transaction(BigDecimal.valueOf(100.25), clock.instant()));
                     return null;
                 },
                 () -> {
-                    testee.createTransaction(new Transaction(BigDecimal.valueOf(50.25), Instant.now()));
+                    testee.createTransaction(new Transaction(BigDecimal.valueOf(50.25), clock.instant()));
                     return null;
                 }
         );
@@ -97,7 +165,7 @@ public class TransactionsManagerTest {
 
     @Test
     public void getTransactionStatisticsShouldBeIdempotent() {
-        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), Instant.now()));
+        testee.createTransaction(new Transaction(BigDecimal.valueOf(200), clock.instant()));
         verifyTransaction(200, 200, 200, 200, 1);
         verifyTransaction(200, 200, 200, 200, 1);
     }
@@ -105,7 +173,7 @@ public class TransactionsManagerTest {
     @Test
     public void shouldHandleUnorderedTimesWithDifferentSeconds() {
 
-        Instant now = Instant.now();
+        Instant now = clock.instant();
 
         testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), now.minusSeconds(1)));
 
@@ -115,15 +183,15 @@ public class TransactionsManagerTest {
     }
 
     @Test
-    public void shouldEliminateStatisticsOlderThanLast60Seconds() throws InterruptedException {
+    public void shouldEliminateStatisticsOlderThanLast60Seconds() {
 
-        Instant now = Instant.now();
+        Instant now = clock.instant();
 
         testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), now));
 
         testee.createTransaction(new Transaction(BigDecimal.valueOf(100.5), now.minusSeconds(59)));
 
-        Thread.sleep(1000);
+        clock.advance(1000);
 
         verifyTransaction(200.5, 200.5, 200.5, 200.5, 1);
     }
@@ -131,7 +199,7 @@ public class TransactionsManagerTest {
     @Test
     public void shouldHandleUnorderedTimesWithinSameSecond() {
 
-        Instant now = Instant.now();
+        Instant now = clock.instant();
 
         testee.createTransaction(new Transaction(BigDecimal.valueOf(200.5), now));
 
@@ -142,11 +210,11 @@ public class TransactionsManagerTest {
 
     @Test
     public void shouldOverwriteOldTransactionsIfParallelTransactionsWithinSameSecond() throws InterruptedException {
-        Instant now = Instant.now();
+        Instant now = clock.instant();
 
         testee.createTransaction(new Transaction(BigDecimal.valueOf(100.5), now.minusSeconds(59)));
 
-        Thread.sleep(1000);
+        clock.advance(1000);
 
         parallelProcess(
                 () -> {
@@ -165,6 +233,32 @@ public class TransactionsManagerTest {
         verifyTransaction(117, 200.5, 50.25, 351, 3);
     }
 
+    @Test
+    public void shouldAccumulateBatchOfTransactions() {
+        Instant now = clock.instant();
+
+        List<ProcessingError> results = testee.createTransactions(Arrays.asList(
+                new Transaction(BigDecimal.valueOf(200.5), now),
+                new Transaction(BigDecimal.valueOf(100.25), now.minusSeconds(1)),
+                new Transaction(BigDecimal.valueOf(50.25), now)));
+
+        assertEquals(Arrays.asList(null, null, null), results);
+        verifyTransaction(117, 200.5, 50.25, 351, 3);
+    }
+
+    @Test
+    public void shouldRejectOldAndFutureTransactionsOfBatch() {
+        Instant now = clock.instant();
+
+        List<ProcessingError> results = testee.createTransactions(Arrays.asList(
+                new Transaction(BigDecimal.valueOf(200), now.minusSeconds(60)),
+                new Transaction(BigDecimal.valueOf(100.5), now),
+                new Transaction(BigDecimal.valueOf(200), now.plusSeconds(1))));
+
+        assertEquals(Arrays.asList(ProcessingError.OLD_TRANSACTION, null, ProcessingError.FUTURE_TRANSACTION), results);
+        verifyTransaction(100.5, 100.5, 100.5, 100.5, 1);
+    }
+
     @SafeVarargs
     private final void parallelProcess(Callable<Void>... callables) throws InterruptedException {
         ExecutorService executor = Executors.newFixedThreadPool(callables.length);
@@ -173,7 +267,7 @@ public class TransactionsManagerTest {
 
     private void verifyTransaction(double avg, double max, double min, double sum, long count) {
 
-        BigDecimalSummaryStatistics summaryStatistics = testee.getTransactionStatistics();
+        SummaryStatistics summaryStatistics = testee.getTransactionStatistics();
 
         assertNotNull(summaryStatistics);
 
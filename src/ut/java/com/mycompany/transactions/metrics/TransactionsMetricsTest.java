@@ -0,0 +1,70 @@
+package com.mycompany.transactions.metrics;
+
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static com.mycompany.transactions.exception.ProcessingError.FUTURE_TRANSACTION;
+import static com.mycompany.transactions.exception.ProcessingError.OLD_TRANSACTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionsMetricsTest {
+
+    private final MeterRegistry       registry = new SimpleMeterRegistry();
+    private final TransactionsMetrics testee   = new TransactionsMetrics(registry);
+
+    @Test
+    public void shouldCountIngestionOutcomes() {
+        testee.ingested((ProcessingError) null);
+        testee.ingested(OLD_TRANSACTION);
+        testee.ingested(Arrays.asList(null, null, OLD_TRANSACTION, FUTURE_TRANSACTION));
+
+        assertEquals(3, ingested("accepted", "none"), 0);
+        assertEquals(2, ingested("rejected", "old_transaction"), 0);
+        assertEquals(1, ingested("rejected", "future_transaction"), 0);
+        assertEquals(0, ingested("rejected", "unparseable_transaction"), 0);
+    }
+
+    @Test
+    public void shouldRecordBucketResetsAndStatisticsReadsOfTheEngine() throws InterruptedException {
+        TransactionsManagerImpl manager = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL,
+                                                                      new SlidingWindow(100, 50));
+        manager.setMetrics(testee);
+
+        //a handful of buckets, each recycled every few hundred millis
+        for (int i = 0; i < 40; i++) {
+            manager.createTransaction(new Transaction(BigDecimal.ONE, Instant.now()));
+            Thread.sleep(10);
+        }
+        manager.getTransactionStatistics();
+
+        assertTrue(registry.get("transactions.bucket.resets").counter().count() > 0);
+        assertEquals(1, registry.get("transactions.statistics.reads").timer().count());
+    }
+
+    @Test
+    public void shouldCountHttpErrorsByStatusAndException() {
+        testee.httpError(422, new IllegalArgumentException());
+        testee.httpError(422, new IllegalArgumentException());
+
+        assertEquals(2, registry.get("transactions.http.errors")
+                                .tags("status", "422", "exception", "IllegalArgumentException")
+                                .counter().count(), 0);
+    }
+
+    private double ingested(String outcome, String error) {
+        return registry.get("transactions.ingested").tags("outcome", outcome, "error", error).counter().count();
+    }
+}
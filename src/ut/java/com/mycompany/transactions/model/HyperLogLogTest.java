@@ -0,0 +1,78 @@
+package com.mycompany.transactions.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void shouldBeEmpty() {
+        assertEquals(0, new HyperLogLog().getEstimate());
+    }
+
+    @Test
+    public void shouldCountSmallCardinalitiesNearExactly() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            //every card seen several times
+            for (int j = 0; j < 5; j++) {
+                sketch.accept("card-" + i);
+            }
+        }
+
+        assertEquals(100, sketch.getEstimate(), 2);
+    }
+
+    @Test
+    public void shouldEstimateWithinStandardError() {
+        for (int precision : new int[]{10, 12, 14}) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            int cardinality = 1_000_000;
+            for (int i = 0; i < cardinality; i++) {
+                sketch.accept("4111" + i);
+            }
+
+            double standardError = 1.04 / Math.sqrt(1 << precision);
+            double error = Math.abs(sketch.getEstimate() - cardinality) / (double) cardinality;
+            assertTrue("error " + error + " at precision " + precision, error < 3 * standardError);
+        }
+    }
+
+    @Test
+    public void shouldCombineRegisterWise() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            //overlapping halves
+            (i < 12_000 ? first : second).accept("merchant-" + i);
+            if (i >= 8_000 && i < 12_000) {
+                second.accept("merchant-" + i);
+            }
+            all.accept("merchant-" + i);
+        }
+
+        assertEquals(all.getEstimate(), first.combine(second).getEstimate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCombineDifferentPrecisions() {
+        new HyperLogLog(10).combine(new HyperLogLog(12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidPrecision() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+
+    @Test
+    public void shouldReset() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.accept("card");
+        sketch.reset();
+
+        assertEquals(0, sketch.getEstimate());
+    }
+}
@@ -0,0 +1,114 @@
+package com.mycompany.transactions.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1};
+
+    @Test
+    public void shouldBeEmpty() {
+        QuantileSketch sketch = new QuantileSketch(2, RoundingMode.HALF_UP);
+
+        assertEquals(0, sketch.getCount());
+        assertEquals("0.00", sketch.getQuantile(0.5).toString());
+    }
+
+    @Test
+    public void shouldEstimateWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] amounts = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch(2, RoundingMode.HALF_UP);
+        for (int i = 0; i < amounts.length; i++) {
+            //log-normal amounts, from cents to hundreds of thousands, a few of them negative (refunds)
+            BigDecimal amount = BigDecimal.valueOf(Math.exp(3 + 2 * random.nextGaussian()))
+                                          .setScale(2, RoundingMode.HALF_UP);
+            if (random.nextInt(20) == 0) {
+                amount = amount.negate();
+            }
+            amounts[i] = amount.doubleValue();
+            sketch.accept(amount);
+        }
+        Arrays.sort(amounts);
+
+        for (double quantile : QUANTILES) {
+            verifyWithinBounds(sketch, amounts, quantile, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+        }
+    }
+
+    @Test
+    public void shouldCombineExactly() {
+        Random random = new Random(7);
+        QuantileSketch whole = new QuantileSketch(2, RoundingMode.HALF_UP);
+        QuantileSketch merged = new QuantileSketch(2, RoundingMode.HALF_UP);
+        QuantileSketch[] buckets = new QuantileSketch[60];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new QuantileSketch(2, RoundingMode.HALF_UP);
+            for (int j = 0; j < 100; j++) {
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000_000) - 1_000, 2);
+                whole.accept(amount);
+                buckets[i].accept(amount);
+            }
+            merged.combine(buckets[i]);
+        }
+
+        assertEquals(whole.getCount(), merged.getCount());
+        for (double quantile : QUANTILES) {
+            assertEquals(whole.getQuantile(quantile), merged.getQuantile(quantile));
+        }
+    }
+
+    @Test
+    public void shouldCountZerosAndClampToExtremes() {
+        QuantileSketch sketch = new QuantileSketch(2, RoundingMode.HALF_UP);
+        sketch.accept(new BigDecimal("-5"));
+        sketch.accept(new BigDecimal("0.004"));
+        sketch.accept(BigDecimal.ZERO);
+        sketch.accept(new BigDecimal("10.50"));
+
+        assertEquals("-5.00", sketch.getQuantile(0).toString());
+        assertEquals("0.00", sketch.getQuantile(0.5).toString());
+        assertEquals("10.50", sketch.getQuantile(1).toString());
+    }
+
+    @Test
+    public void shouldKeepExtremesBeyondDoublePrecision() {
+        QuantileSketch sketch = new QuantileSketch(2, RoundingMode.HALF_UP);
+        QuantileSketch other = new QuantileSketch(2, RoundingMode.HALF_UP);
+        sketch.accept(new BigDecimal("-90071992547409.93"));
+        sketch.accept(BigDecimal.ONE);
+        other.accept(new BigDecimal("90071992547409.93"));
+
+        assertEquals("-90071992547409.93", sketch.combine(other).getQuantile(0).toString());
+        assertEquals("90071992547409.93", sketch.getQuantile(1).toString());
+    }
+
+    @Test
+    public void shouldFoldLowestMagnitudesPastMaxBins() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 16, 2, RoundingMode.HALF_UP);
+        for (int i = 1; i <= 1_000; i++) {
+            sketch.accept(BigDecimal.valueOf(i));
+        }
+
+        assertEquals(1_000, sketch.getCount());
+        //the highest magnitudes keep their accuracy
+        double actual = sketch.getQuantile(0.999).doubleValue();
+        assertTrue(String.valueOf(actual), Math.abs(actual - 999) <= 0.01 * 999 + 0.005);
+    }
+
+    private void verifyWithinBounds(QuantileSketch sketch, double[] sorted, double quantile, double accuracy) {
+        double expected = sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+        double actual = sketch.getQuantile(quantile).doubleValue();
+        //relative error bound, plus the rounding to cents
+        assertTrue(String.format("p%s: %f vs %f", quantile * 100, actual, expected),
+                   Math.abs(actual - expected) <= accuracy * Math.abs(expected) + 0.005);
+    }
+}
@@ -0,0 +1,114 @@
+package com.mycompany.transactions.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+
+import static java.math.RoundingMode.HALF_UP;
+import static org.junit.Assert.assertEquals;
+
+public class ScaledLongSummaryStatisticsTest {
+
+    private ScaledLongSummaryStatistics testee    = new ScaledLongSummaryStatistics(2, HALF_UP);
+    private BigDecimalSummaryStatistics reference = new BigDecimalSummaryStatistics(2, HALF_UP);
+
+    @Test
+    public void shouldHaveValidEntryState() {
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldAccumulateAmountsRepresentableAtScale() {
+        accept("200.5", "100.25", "50.25", "-3", "1E+3");
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldRoundAverageHalfUp() {
+        accept("0.01", "0.02");
+        verifySameStatistics();
+        assertEquals("0.02", testee.getAvg().toString());
+    }
+
+    @Test
+    public void shouldPromoteAmountsNotRepresentableAtScale() {
+        accept("10.345", "10.8");
+        verifySameStatistics();
+        assertEquals("21.15", testee.getSum().toString());
+        assertEquals("10.35", testee.getMin().toString());
+    }
+
+    @Test
+    public void shouldPromoteOnSumOverflow() {
+        accept("90000000000000000", "90000000000000000", "1");
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldCombineRawTotalsPromotingWhenNotRepresentableAtScale() {
+        accept("1.50");
+        testee.combine(2, new BigDecimal("20.5"), new BigDecimal("10"), new BigDecimal("10.5"));
+        reference.combine(2, new BigDecimal("20.5"), new BigDecimal("10"), new BigDecimal("10.5"));
+        verifySameStatistics();
+
+        testee.combine(1, new BigDecimal("0.125"), new BigDecimal("0.125"), new BigDecimal("0.125"));
+        reference.combine(1, new BigDecimal("0.125"), new BigDecimal("0.125"), new BigDecimal("0.125"));
+        verifySameStatistics();
+        assertEquals("0.13", testee.getMin().toString());
+    }
+
+    @Test
+    public void shouldResetToEntryState() {
+        accept("10.345", "10.8");
+        testee.reset();
+        reference.reset();
+        verifySameStatistics();
+    }
+
+    @Test
+    public void shouldCombineLikeBigDecimalSummaryStatistics() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            ScaledLongSummaryStatistics scaledLong = new ScaledLongSummaryStatistics(2, HALF_UP);
+            BigDecimalSummaryStatistics bigDecimal = new BigDecimalSummaryStatistics(2, HALF_UP);
+            for (int j = random.nextInt(5); j > 0; j--) {
+                BigDecimal amount = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(4));
+                scaledLong.accept(amount);
+                bigDecimal.accept(amount);
+            }
+            testee.combine(scaledLong);
+            reference.combine(bigDecimal);
+            verifySameStatistics();
+        }
+    }
+
+    @Test
+    public void shouldAcceptTransactionsFromTheirUnscaledAmount() {
+        for (String amount : new String[]{"200.5", "-3", "1E+3", "10.345", "999999999999999999", "-0.01"}) {
+            testee.accept(new Transaction(new BigDecimal(amount), Instant.now()));
+            reference.accept(new BigDecimal(amount));
+            verifySameStatistics();
+        }
+        testee.accept(new Transaction(BigDecimal.valueOf(Long.MIN_VALUE, 2), Long.MIN_VALUE, 2, Instant.now(),
+                                      null, null));
+        reference.accept(BigDecimal.valueOf(Long.MIN_VALUE, 2));
+        verifySameStatistics();
+    }
+
+    private void accept(String... amounts) {
+        for (String amount : amounts) {
+            testee.accept(new BigDecimal(amount));
+            reference.accept(new BigDecimal(amount));
+        }
+    }
+
+    private void verifySameStatistics() {
+        assertEquals(reference.getCount(), testee.getCount());
+        assertEquals(reference.getSum().toString(), testee.getSum().toString());
+        assertEquals(reference.getAvg().toString(), testee.getAvg().toString());
+        assertEquals(reference.getMin().toString(), testee.getMin().toString());
+        assertEquals(reference.getMax().toString(), testee.getMax().toString());
+    }
+}
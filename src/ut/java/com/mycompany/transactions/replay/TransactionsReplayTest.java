@@ -0,0 +1,122 @@
+package com.mycompany.transactions.replay;
+
+import com.mycompany.transactions.exception.ProcessingError;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionsReplayTest {
+
+    private static final long start = Instant.parse("2018-07-17T09:00:00Z").toEpochMilli();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldAgreeWithReferenceForEveryEngine() throws IOException {
+        Path file = record(folder.newFile("traffic.csv").toPath(), false);
+
+        for (String engine : new String[]{"synchronized", "lock-free", "running-aggregate", "single-writer"}) {
+            TransactionsReplay.Options options = new TransactionsReplay.Options();
+            options.setEngine(engine);
+            options.setWindowMillis(10_000);
+            options.setBucketWidthMillis(100);
+            options.setCheckEveryMillis(50);
+
+            TransactionsReplay.Report report = TransactionsReplay.replay(file, options);
+
+            assertEquals(engine + ": " + report.getFirstMismatches(), 0, report.getMismatches());
+            assertEquals(20_001, report.getRecords());
+            assertEquals(1, report.getUnparseable());
+            assertTrue(report.getRejected().get(ProcessingError.OLD_TRANSACTION) > 0);
+            assertTrue(report.getRejected().get(ProcessingError.FUTURE_TRANSACTION) > 0);
+            assertEquals(299_985, report.getVirtualMillis());
+        }
+    }
+
+    @Test
+    public void shouldAgreeWithReferenceWhenRotatedAheadOfTimeOrLate() throws IOException {
+        Path file = record(folder.newFile("traffic.csv").toPath(), false);
+
+        //an on-time ticker, one lagging by less than a bucket, and one missing most buckets
+        for (long rotateEvery : new long[]{100, 130, 1_700}) {
+            TransactionsReplay.Options options = new TransactionsReplay.Options();
+            options.setWindowMillis(10_000);
+            options.setBucketWidthMillis(100);
+            options.setCheckEveryMillis(50);
+            options.setRotateEveryMillis(rotateEvery);
+
+            TransactionsReplay.Report report = TransactionsReplay.replay(file, options);
+
+            assertEquals(rotateEvery + ": " + report.getFirstMismatches(), 0, report.getMismatches());
+        }
+    }
+
+    @Test
+    public void shouldReplayNdjson() throws IOException {
+        Path file = record(folder.newFile("traffic.ndjson").toPath(), true);
+
+        TransactionsReplay.Report report = TransactionsReplay.replay(file, new TransactionsReplay.Options());
+
+        assertEquals(0, report.getMismatches());
+        assertEquals(20_000, report.getAccepted() + report.getRejected().values().stream().mapToLong(l -> l).sum());
+        //one check per virtual second, and a last one at the end
+        assertEquals(299 + 1, report.getChecks());
+    }
+
+    @Test
+    public void shouldValidateOnArrivalTime() throws IOException {
+        Path file = folder.newFile("traffic.csv").toPath();
+        Files.write(file, (start + ",10.00\n" + start + ",10.00," + (start + 60_000)).getBytes("UTF-8"));
+
+        //the retry reaches the service a window after it was stamped
+        TransactionsReplay.Report report = TransactionsReplay.replay(file, new TransactionsReplay.Options());
+        assertEquals(0, report.getMismatches());
+        assertEquals(1, report.getAccepted());
+        assertEquals(1, report.getRejected().get(ProcessingError.OLD_TRANSACTION).longValue());
+    }
+
+    /**
+     * Five minutes of traffic, mostly on time, with late retries, clients ahead of the service, and a torn line.
+     */
+    private static Path record(Path file, boolean ndjson) throws IOException {
+        Random random = new Random(42);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("# timestamp,amount,receivedAt");
+            for (int i = 0; i < 20_000; i++) {
+                long receivedAt = start + i * 15L;
+                long timestamp = receivedAt - random.nextInt(50);
+                int kind = random.nextInt(100);
+                if (kind < 5) {
+                    timestamp -= 55_000 + random.nextInt(10_000);
+                }
+                else if (kind < 7) {
+                    timestamp += 1 + random.nextInt(1_000);
+                }
+                String amount = String.format("%d.%03d", random.nextInt(2_000) - 1_000, random.nextInt(1_000));
+                if (ndjson) {
+                    out.printf("{\"amount\":\"%s\",\"timestamp\":\"%s\",\"receivedAt\":%d}%n", amount,
+                               Instant.ofEpochMilli(timestamp), receivedAt);
+                }
+                else {
+                    out.printf("%s,%s,%d%n", Instant.ofEpochMilli(timestamp), amount, receivedAt);
+                }
+            }
+            if (!ndjson) {
+                out.println("2018-07-17T09:05:00");
+            }
+        }
+        return file;
+    }
+}
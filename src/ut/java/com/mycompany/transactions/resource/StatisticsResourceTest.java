@@ -0,0 +1,111 @@
+package com.mycompany.transactions.resource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"transactions.audit.enabled=false", "transactions.statistics.percentiles.enabled=true",
+                              "transactions.statistics.distinct.enabled=true",
+                              "transactions.statistics.rollups.enabled=true"})
+@AutoConfigureMockMvc
+public class StatisticsResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Before
+    public void createTransactions() throws Exception {
+        mockMvc.perform(delete("/transactions")).andExpect(status().isNoContent());
+        createTransaction("10", "merchant-1", "card-1");
+        createTransaction("20", "merchant-1", "card-2");
+        createTransaction("35", "merchant-2", "card-1");
+        createTransaction("40", null, null);
+    }
+
+    @Test
+    public void shouldServeStatistics() throws Exception {
+        mockMvc.perform(get("/statistics"))
+               .andExpect(status().isOk())
+               .andExpect(content().json("{\"count\":4,\"sum\":\"105.00\",\"avg\":\"26.25\",\"min\":\"10.00\","
+                                         + "\"max\":\"40.00\"}", true));
+    }
+
+    @Test
+    public void shouldServeStatisticsOfKey() throws Exception {
+        mockMvc.perform(get("/statistics").param("key", "merchant-1"))
+               .andExpect(status().isOk())
+               .andExpect(content().json("{\"count\":2,\"sum\":\"30.00\",\"avg\":\"15.00\",\"min\":\"10.00\","
+                                         + "\"max\":\"20.00\"}", true));
+        mockMvc.perform(get("/statistics").param("key", "unknown"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    public void shouldServeTopKeysBySum() throws Exception {
+        mockMvc.perform(get("/statistics/top").param("limit", "1"))
+               .andExpect(status().isOk())
+               .andExpect(content().json("[{\"key\":\"merchant-2\",\"count\":1,\"sum\":\"35.00\"}]"));
+        mockMvc.perform(get("/statistics/top"))
+               .andExpect(jsonPath("$.length()").value(2))
+               .andExpect(jsonPath("$[1].key").value("merchant-1"));
+        mockMvc.perform(get("/statistics/top").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldServePercentiles() throws Exception {
+        mockMvc.perform(get("/statistics").param("percentiles", "0,100"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.count").value(4))
+               .andExpect(jsonPath("$.percentiles['0']").value("10.00"))
+               .andExpect(jsonPath("$.percentiles['100']").value("40.00"));
+        mockMvc.perform(get("/statistics").param("percentiles", "101")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/statistics").param("percentiles", "p50")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldServeStatisticsOverWindow() throws Exception {
+        mockMvc.perform(get("/statistics").param("window", "1m"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.count").value(4))
+               .andExpect(jsonPath("$.sum").value("105.00"));
+        mockMvc.perform(get("/statistics").param("window", "24h"))
+               .andExpect(jsonPath("$.count").value(4));
+        mockMvc.perform(get("/statistics").param("window", "25h")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/statistics").param("window", "soon")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldServeDistinctCounts() throws Exception {
+        mockMvc.perform(get("/statistics").param("distinct", "card,key"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.count").value(4))
+               .andExpect(jsonPath("$.distinct.card").value(2))
+               .andExpect(jsonPath("$.distinct.key").value(2));
+        mockMvc.perform(get("/statistics").param("distinct", "merchant")).andExpect(status().isBadRequest());
+    }
+
+    private void createTransaction(String amount, String key, String card) throws Exception {
+        String body = "{\"amount\":\"" + amount + "\",\"timestamp\":\"" + Instant.now() + "\""
+                      + (key != null ? ",\"key\":\"" + key + "\"" : "")
+                      + (card != null ? ",\"card\":\"" + card + "\"" : "") + "}";
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(body))
+               .andExpect(status().isCreated());
+    }
+}
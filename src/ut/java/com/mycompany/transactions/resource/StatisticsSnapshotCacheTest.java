@@ -0,0 +1,58 @@
+package com.mycompany.transactions.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.manager.TransactionsManager;
+import com.mycompany.transactions.manager.SlidingWindow;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.StatisticsType;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class StatisticsSnapshotCacheTest {
+
+    private TransactionsManager transactionsManager = new TransactionsManagerImpl();
+
+    @Test
+    public void shouldServeSameSnapshotWithinMaxStaleness() {
+        StatisticsSnapshotCache testee = new StatisticsSnapshotCache(transactionsManager, new ObjectMapper(), 60_000);
+
+        byte[] first = testee.getStatistics();
+        transactionsManager.createTransaction(new Transaction(BigDecimal.TEN, Instant.now()));
+
+        assertSame(first, testee.getStatistics());
+        assertEquals("{\"count\":0,\"sum\":\"0.00\",\"avg\":\"0.00\",\"min\":\"0.00\",\"max\":\"0.00\"}",
+                     new String(first, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldRefreshSnapshotPastMaxStaleness() {
+        VirtualClock clock = new VirtualClock(Instant.parse("2018-07-17T09:59:51.312Z"));
+        TransactionsManager transactionsManager = new TransactionsManagerImpl(StatisticsType.BIG_DECIMAL,
+                                                                              SlidingWindow.DEFAULT, clock);
+        StatisticsSnapshotCache testee = new StatisticsSnapshotCache(transactionsManager, new ObjectMapper(), 20,
+                                                                     clock);
+
+        testee.getStatistics();
+        transactionsManager.createTransaction(new Transaction(BigDecimal.TEN, clock.instant()));
+        clock.advance(20);
+        assertEquals(0, countOf(testee.getStatistics()));
+        clock.advance(1);
+
+        assertEquals("{\"count\":1,\"sum\":\"10.00\",\"avg\":\"10.00\",\"min\":\"10.00\",\"max\":\"10.00\"}",
+                     new String(testee.getStatistics(), StandardCharsets.UTF_8));
+    }
+
+    private static int countOf(byte[] json) {
+        String statistics = new String(json, StandardCharsets.UTF_8);
+        return Integer.parseInt(statistics.substring("{\"count\":".length(), statistics.indexOf(',')));
+    }
+}
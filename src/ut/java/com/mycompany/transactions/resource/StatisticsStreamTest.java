@@ -0,0 +1,149 @@
+package com.mycompany.transactions.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.transactions.clock.VirtualClock;
+import com.mycompany.transactions.manager.TransactionsManagerImpl;
+import com.mycompany.transactions.model.SummaryStatistics;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StatisticsStreamTest {
+
+    private final VirtualClock            clock               = new VirtualClock(Instant.now());
+    private final AtomicInteger           aggregations        = new AtomicInteger();
+    private final TransactionsManagerImpl transactionsManager = new TransactionsManagerImpl() {
+        @Override
+        public SummaryStatistics getTransactionStatistics() {
+            aggregations.incrementAndGet();
+            return super.getTransactionStatistics();
+        }
+    };
+
+    //ticked by hand, never started
+    private final StatisticsStream testee = new StatisticsStream(transactionsManager, new ObjectMapper(), clock, 100);
+
+    @After
+    public void shutdown() {
+        testee.shutdown();
+    }
+
+    @Test
+    public void shouldAggregateOncePerTickWhateverTheSubscribers() throws InterruptedException {
+        testee.tick();
+        assertEquals(0, aggregations.get());
+
+        List<List<String>> received = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<String> events = new CopyOnWriteArrayList<>();
+            received.add(events);
+            testee.subscribe(event -> events.add(new String(event, StandardCharsets.UTF_8)));
+        }
+        testee.tick();
+        transactionsManager.createTransaction(new Transaction(BigDecimal.TEN, Instant.now()));
+        testee.tick();
+
+        assertEquals(2, aggregations.get());
+        String latest = "event: statistics\ndata: {\"count\":1,\"sum\":\"10.00\",\"avg\":\"10.00\",\"min\":\"10.00\","
+                        + "\"max\":\"10.00\"}\n\n";
+        for (List<String> events : received) {
+            //a subscriber still sending the first event skips to the latest one
+            awaitLatest(events, latest);
+        }
+    }
+
+    @Test
+    public void shouldOnlySendChangesAndHeartbeats() throws InterruptedException {
+        List<String> events = new CopyOnWriteArrayList<>();
+        testee.subscribe(event -> events.add(new String(event, StandardCharsets.UTF_8)));
+
+        testee.tick();
+        testee.tick();
+        //a heartbeat never replaces a pending event
+        awaitSize(events, 1);
+        clock.advance(StatisticsStream.HEARTBEAT_MILLIS);
+        testee.tick();
+        testee.tick();
+
+        awaitSize(events, 2);
+        Thread.sleep(50);
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).startsWith("event: statistics\n"));
+        assertEquals(":\n\n", events.get(1));
+    }
+
+    @Test
+    public void shouldDropIntermediateEventsOfSlowSubscriber() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> slow = new CopyOnWriteArrayList<>();
+        List<String> fast = new CopyOnWriteArrayList<>();
+        testee.subscribe(event -> {
+            slow.add(new String(event, StandardCharsets.UTF_8));
+            blocked.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        testee.subscribe(event -> fast.add(new String(event, StandardCharsets.UTF_8)));
+
+        testee.tick();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 3; i++) {
+            transactionsManager.createTransaction(new Transaction(BigDecimal.valueOf(i), Instant.now()));
+            testee.tick();
+        }
+        //the blocked subscriber doesn't hold the others back
+        awaitLatest(fast, "\"count\":3");
+        assertEquals(1, slow.size());
+        release.countDown();
+
+        awaitSize(slow, 2);
+        assertTrue(slow.get(0).contains("\"count\":0"));
+        assertTrue(slow.get(1).contains("\"count\":3"));
+    }
+
+    @Test
+    public void shouldDropFailedSubscriber() throws InterruptedException {
+        testee.subscribe(event -> {
+            throw new IOException("Broken pipe");
+        });
+        testee.tick();
+
+        for (int i = 0; i < 100 && testee.getSubscriberCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, testee.getSubscriberCount());
+    }
+
+    private static void awaitLatest(List<String> events, String fragment) throws InterruptedException {
+        for (int i = 0; i < 500 && (events.isEmpty() || !events.get(events.size() - 1).contains(fragment)); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(events.get(events.size() - 1).contains(fragment));
+    }
+
+    private static void awaitSize(List<String> events, int size) throws InterruptedException {
+        for (int i = 0; i < 500 && events.size() < size; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, events.size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.mycompany.transactions.resource;
+
+import com.mycompany.transactions.converter.TransactionBatchCodec;
+import com.mycompany.transactions.exception.ProcessingError;
+import com.mycompany.transactions.model.Transaction;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"transactions.audit.enabled=false", "transactions.batch.max-size=1024"})
+@AutoConfigureMockMvc
+public class TransactionsResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Before
+    public void reset() throws Exception {
+        mockMvc.perform(delete("/transactions")).andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void shouldAnswerPerRecordStatusesOfJsonBatch() throws Exception {
+        String batch = "[" + transaction("10", Instant.now()) + ","
+                       + transaction("10", Instant.now().minusSeconds(61)) + ","
+                       + transaction("10", Instant.now().plusSeconds(10)) + ","
+                       + "{\"amount\":\"10\"},"
+                       + transaction("ten", Instant.now()) + "]";
+
+        mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+               .andExpect(status().isOk())
+               .andExpect(content().json("[{\"status\":201},"
+                                         + "{\"status\":204,\"error\":\"OLD_TRANSACTION\"},"
+                                         + "{\"status\":422,\"error\":\"FUTURE_TRANSACTION\"},"
+                                         + "{\"status\":422,\"error\":\"UNPARSEABLE_TRANSACTION\"},"
+                                         + "{\"status\":422,\"error\":\"UNPARSEABLE_TRANSACTION\"}]", true));
+        verifyCount(1);
+    }
+
+    @Test
+    public void shouldAnswerPerRecordStatusesOfNdjsonBatch() throws Exception {
+        String batch = transaction("10", Instant.now()) + "\n"
+                       + "not json\n"
+                       + "{\"amount\":\"10\"}\n"
+                       + "\n"
+                       + transaction("10", Instant.now().minusSeconds(61)) + "\n"
+                       + transaction("12.5", Instant.now());
+
+        mockMvc.perform(post("/transactions/batch").contentType(TransactionsResource.APPLICATION_NDJSON_VALUE)
+                                                   .content(batch))
+               .andExpect(status().isOk())
+               .andExpect(content().json("[{\"status\":201},"
+                                         + "{\"status\":422,\"error\":\"UNPARSEABLE_TRANSACTION\"},"
+                                         + "{\"status\":422,\"error\":\"UNPARSEABLE_TRANSACTION\"},"
+                                         + "{\"status\":204,\"error\":\"OLD_TRANSACTION\"},"
+                                         + "{\"status\":201}]", true));
+        verifyCount(2);
+    }
+
+    @Test
+    public void shouldAnswerPerRecordStatusesOfBinaryBatch() throws Exception {
+        byte[] batch = TransactionBatchCodec.encode(Arrays.asList(
+                new Transaction(new BigDecimal("10.5"), Instant.now()),
+                new Transaction(BigDecimal.TEN, Instant.now().minusSeconds(61)),
+                new Transaction(BigDecimal.TEN, Instant.now().plusSeconds(10))), 3);
+
+        mockMvc.perform(post("/transactions/batch").contentType(TransactionBatchCodec.MEDIA_TYPE).content(batch))
+               .andExpect(status().isOk())
+               .andExpect(content().json("[{\"status\":201},"
+                                         + "{\"status\":204,\"error\":\"OLD_TRANSACTION\"},"
+                                         + "{\"status\":422,\"error\":\"FUTURE_TRANSACTION\"}]", true));
+        mockMvc.perform(post("/transactions/batch").contentType(TransactionBatchCodec.MEDIA_TYPE)
+                                                   .accept(TransactionBatchCodec.MEDIA_TYPE).content(batch))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(TransactionBatchCodec.MEDIA_TYPE))
+               .andExpect(content().bytes(new byte[]{0, (byte) (1 + ProcessingError.OLD_TRANSACTION.ordinal()),
+                                                     (byte) (1 + ProcessingError.FUTURE_TRANSACTION.ordinal())}));
+        verifyCount(2);
+
+        mockMvc.perform(post("/transactions/batch").contentType(TransactionBatchCodec.MEDIA_TYPE)
+                                                   .content(Arrays.copyOf(batch, batch.length - 1)))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldRefuseJsonAndNdjsonBatchesPastMaxSize() throws Exception {
+        StringBuilder array = new StringBuilder("[");
+        StringBuilder lines = new StringBuilder();
+        while (lines.length() <= 1024) {
+            array.append(array.length() > 1 ? "," : "").append(transaction("10", Instant.now()));
+            lines.append(transaction("10", Instant.now())).append('\n');
+        }
+        array.append(']');
+
+        mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON).content(array.toString()))
+               .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(post("/transactions/batch").contentType(TransactionsResource.APPLICATION_NDJSON_VALUE)
+                                                   .content(lines.toString()))
+               .andExpect(status().isPayloadTooLarge());
+        verifyCount(0);
+
+        mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON).content("[{"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldDeleteAllTransactions() throws Exception {
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON)
+                                             .content(transaction("10", Instant.now())))
+               .andExpect(status().isCreated());
+        verifyCount(1);
+
+        mockMvc.perform(delete("/transactions")).andExpect(status().isNoContent());
+        verifyCount(0);
+    }
+
+    private void verifyCount(long count) throws Exception {
+        mockMvc.perform(get("/statistics")).andExpect(jsonPath("$.count").value(count));
+    }
+
+    private static String transaction(String amount, Instant timestamp) {
+        return "{\"amount\":\"" + amount + "\",\"timestamp\":\"" + timestamp + "\"}";
+    }
+}